@@ -759,10 +759,18 @@ public class AST {
 		return new Expression.LeftExtent(label);
 	}
 	
+	static public Expression lExt(String label, int i) {
+		return new Expression.LeftExtent(label, i);
+	}
+	
 	static public Expression rExt(String label) {
 		return new Expression.RightExtent(label);
 	}
 	
+	static public Expression rExt(String label, int i) {
+		return new Expression.RightExtent(label, i);
+	}
+	
 	static public Expression yield(String label) {
 		return new Expression.Yield(label);
 	}
@@ -775,6 +783,10 @@ public class AST {
 		return new Expression.Val(label);
 	}
 	
+	static public Expression val(String label, int i) {
+		return new Expression.Val(label, i);
+	}
+	
 	static public Expression endOfFile(Expression index) {
 		return new Expression.EndOfFile(index);
 	}
@@ -34,9 +34,24 @@ import org.iguana.datadependent.traversal.IAbstractASTVisitor;
 public abstract class AbstractAST extends AbstractAttrs {
 	
 	private static final long serialVersionUID = 1L;
+	
+	private transient CompiledExpression compiled;
 
 	public abstract Object interpret(IEvaluatorContext ctx);
 	
+	/**
+	 * Compiles this node with the {@link ExpressionCompiler}. The compiled form is cached,
+	 * so a node is only compiled once.
+	 */
+	public CompiledExpression compile() {
+		CompiledExpression compiled = this.compiled;
+		if (compiled == null) {
+			compiled = accept(ExpressionCompiler.INSTANCE);
+			this.compiled = compiled;
+		}
+		return compiled;
+	}
+	
 	public abstract <T> T accept(IAbstractASTVisitor<T> visitor);
 
 }
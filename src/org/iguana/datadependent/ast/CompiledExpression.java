@@ -0,0 +1,47 @@
+package org.iguana.datadependent.ast;
+
+import org.iguana.datadependent.env.IEvaluatorContext;
+
+/**
+ *
+ * An expression or statement compiled by the {@link ExpressionCompiler} into closures.
+ * Evaluating it has the same result as interpreting its AST. Compiled statements evaluate
+ * to null.
+ *
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    Object evaluate(IEvaluatorContext ctx);
+
+    /**
+     * A compiled expression that always evaluates to a boolean, which its parent can test
+     * without boxing.
+     */
+    @FunctionalInterface
+    interface BooleanExpression extends CompiledExpression {
+
+        boolean test(IEvaluatorContext ctx);
+
+        @Override
+        default Object evaluate(IEvaluatorContext ctx) {
+            return test(ctx);
+        }
+    }
+
+    /**
+     * A compiled expression that always evaluates to an integer, which its parent can use
+     * without boxing.
+     */
+    @FunctionalInterface
+    interface IntExpression extends CompiledExpression {
+
+        int applyAsInt(IEvaluatorContext ctx);
+
+        @Override
+        default Object evaluate(IEvaluatorContext ctx) {
+            return applyAsInt(ctx);
+        }
+    }
+
+}
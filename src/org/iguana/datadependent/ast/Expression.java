@@ -114,6 +114,10 @@ public abstract class Expression extends AbstractAST {
 			this.value = value;
 		}
 		
+		public java.lang.Integer getValue() {
+			return value;
+		}
+		
 		public boolean isInteger() {
 			return true;
 		}
@@ -149,6 +153,10 @@ public abstract class Expression extends AbstractAST {
 			this.value = value;
 		}
 		
+		public java.lang.Float getValue() {
+			return value;
+		}
+		
 		public boolean isReal() {
 			return true;
 		}
@@ -184,6 +192,10 @@ public abstract class Expression extends AbstractAST {
 			this.value = value;
 		}
 		
+		public java.lang.String getValue() {
+			return value;
+		}
+		
 		public boolean isString() {
 			return true;
 		}
@@ -265,6 +277,10 @@ public abstract class Expression extends AbstractAST {
 		public java.lang.String getName() {
 			return name;
 		}
+		
+		public int getIndex() {
+			return i;
+		}
 
 		@Override
 		public Object interpret(IEvaluatorContext ctx) {
@@ -348,6 +364,10 @@ public abstract class Expression extends AbstractAST {
 			return id;
 		}
 		
+		public int getIndex() {
+			return i;
+		}
+		
 		public Expression getExpression() {
 			return exp;
 		}
@@ -526,6 +546,10 @@ public abstract class Expression extends AbstractAST {
 		public Expression getLExt() {
 			return lExt;
 		}
+		
+		public boolean isReturnIndex() {
+			return returnIndex;
+		}
 
 		@Override
 		public Object interpret(IEvaluatorContext ctx) {
@@ -915,11 +939,11 @@ public abstract class Expression extends AbstractAST {
 			Object rhs = this.rhs.interpret(ctx);
 			
 			if (lhs instanceof java.lang.Integer && rhs instanceof java.lang.Integer) {
-				return ((java.lang.Integer) lhs) != ((java.lang.Integer) rhs);
+				return ((java.lang.Integer) lhs).intValue() != ((java.lang.Integer) rhs).intValue();
 			}
 			
 			if (lhs instanceof java.lang.Float && rhs instanceof java.lang.Float) {
-				return ((java.lang.Float) lhs) != ((java.lang.Float) rhs);
+				return ((java.lang.Float) lhs).floatValue() != ((java.lang.Float) rhs).floatValue();
 			}
 						
 			throw new UnexpectedTypeOfArgumentException(this);
@@ -945,17 +969,42 @@ public abstract class Expression extends AbstractAST {
 		
 		private final java.lang.String label;
 		
+		private final java.lang.String key;
+		private final int i;
+		
 		LeftExtent(java.lang.String label) {
+			this(label, -1);
+		}
+		
+		LeftExtent(java.lang.String label, int i) {
 			this.label = label;
+			this.key = key(label);
+			this.i = i;
+		}
+		
+		/**
+		 * @return the interned name of the variable that holds the left extent of the
+		 *         symbol with the given label. Compute it once, not per evaluation.
+		 */
+		public static java.lang.String key(java.lang.String label) {
+			return java.lang.String.format(format, label).intern();
 		}
 		
 		public java.lang.String getLabel() {
 			return label;
 		}
+		
+		public java.lang.String getKey() {
+			return key;
+		}
+		
+		public int getIndex() {
+			return i;
+		}
 
 		@Override
 		public Object interpret(IEvaluatorContext ctx) {
-			Object value = ctx.lookupVariable(java.lang.String.format(format, label));
+			Object value = i == -1? ctx.lookupVariable(key) : ctx.lookupVariable(i);
 			if (value == null) {
 				throw new UndeclaredVariableException(label + "." + "lExt");
 			}
@@ -964,7 +1013,7 @@ public abstract class Expression extends AbstractAST {
 		
 		@Override
 		public java.lang.String toString() {
-			return java.lang.String.format("%s.lExt", label);
+			return i == -1? java.lang.String.format("%s.lExt", label) : java.lang.String.format("%s:%d.lExt", label, i);
 		}
 
 		@Override
@@ -981,18 +1030,28 @@ public abstract class Expression extends AbstractAST {
 		static public java.lang.String format = "%s.rExt";
 		
 		private final java.lang.String label;
+		private final int i;
 		
 		RightExtent(java.lang.String label) {
+			this(label, -1);
+		}
+		
+		RightExtent(java.lang.String label, int i) {
 			this.label = label;
+			this.i = i;
 		}
 		
 		public java.lang.String getLabel() {
 			return label;
 		}
+		
+		public int getIndex() {
+			return i;
+		}
 
 		@Override
 		public Object interpret(IEvaluatorContext ctx) {
-			Object value = ctx.lookupVariable(label);
+			Object value = i == -1? ctx.lookupVariable(label) : ctx.lookupVariable(i);
 			if (value == null) {
 				throw new UndeclaredVariableException(label);
 			}
@@ -1006,7 +1065,7 @@ public abstract class Expression extends AbstractAST {
 		
 		@Override
 		public java.lang.String toString() {
-			return java.lang.String.format("%s.rExt", label);
+			return i == -1? java.lang.String.format("%s.rExt", label) : java.lang.String.format("%s:%d.rExt", label, i);
 		}
 
 		@Override
@@ -1036,6 +1095,10 @@ public abstract class Expression extends AbstractAST {
 			return label;
 		}
 		
+		public int getIndex() {
+			return i;
+		}
+		
 		@Override
 		public Object interpret(IEvaluatorContext ctx) {
 			Object value = i == -1? ctx.lookupVariable(label) : ctx.lookupVariable(i);
@@ -1068,18 +1131,28 @@ public abstract class Expression extends AbstractAST {
 		static public java.lang.String format = "%s.val";
 		
 		private final java.lang.String label;
+		private final int i;
 		
 		Val(java.lang.String label) {
+			this(label, -1);
+		}
+		
+		Val(java.lang.String label, int i) {
 			this.label = label;
+			this.i = i;
 		}
 		
 		public java.lang.String getLabel() {
 			return label;
 		}
 		
+		public int getIndex() {
+			return i;
+		}
+		
 		@Override
 		public Object interpret(IEvaluatorContext ctx) {
-			Object value = ctx.lookupVariable(label);
+			Object value = i == -1? ctx.lookupVariable(label) : ctx.lookupVariable(i);
 			if (value == null) {
 				throw new UndeclaredVariableException(label);
 			}
@@ -1095,7 +1168,7 @@ public abstract class Expression extends AbstractAST {
 		
 		@Override
 		public java.lang.String toString() {
-			return java.lang.String.format("%s.val", label);
+			return i == -1? java.lang.String.format("%s.val", label) : java.lang.String.format("%s:%d.val", label, i);
 		}
 
 		@Override
@@ -0,0 +1,469 @@
+package org.iguana.datadependent.ast;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import org.iguana.datadependent.ast.CompiledExpression.BooleanExpression;
+import org.iguana.datadependent.ast.CompiledExpression.IntExpression;
+import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.datadependent.traversal.IAbstractASTVisitor;
+import org.iguana.grammar.exception.UndeclaredVariableException;
+import org.iguana.grammar.exception.UnexpectedTypeOfArgumentException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * Compiles the expressions and statements of data-dependent grammars into closures, so
+ * that evaluating them does not dispatch on the node types of the AST. Nodes that always
+ * produce a boolean or an integer are compiled into a BooleanExpression or an IntExpression,
+ * and comparisons of two such integer operands, for example of right extents, do not box
+ * them. Other operands are checked at evaluation time, with the same errors as the
+ * interpreter.
+ *
+ * Use {@link AbstractAST#compile()}, which caches the compiled form in the node. Function
+ * calls are not compiled, and are evaluated by interpreting them.
+ *
+ */
+public class ExpressionCompiler implements IAbstractASTVisitor<CompiledExpression> {
+
+    static final ExpressionCompiler INSTANCE = new ExpressionCompiler();
+
+    private static final BooleanExpression TRUE = ctx -> true;
+
+    private static final BooleanExpression FALSE = ctx -> false;
+
+    private ExpressionCompiler() {}
+
+    private static BooleanExpression asBoolean(CompiledExpression e) {
+        if (e instanceof BooleanExpression)
+            return (BooleanExpression) e;
+        return ctx -> (java.lang.Boolean) e.evaluate(ctx);
+    }
+
+    private static IntExpression asInt(CompiledExpression e) {
+        if (e instanceof IntExpression)
+            return (IntExpression) e;
+        return ctx -> (java.lang.Integer) e.evaluate(ctx);
+    }
+
+    private static boolean isInt(CompiledExpression lhs, CompiledExpression rhs) {
+        return lhs instanceof IntExpression && rhs instanceof IntExpression;
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Boolean expression) {
+        return expression == Expression.Boolean.TRUE ? TRUE : FALSE;
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Integer expression) {
+        java.lang.Integer value = expression.getValue();
+        int i = value;
+        return new IntExpression() {
+            @Override
+            public int applyAsInt(IEvaluatorContext ctx) {
+                return i;
+            }
+
+            @Override
+            public Object evaluate(IEvaluatorContext ctx) {
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Real expression) {
+        Float value = expression.getValue();
+        return ctx -> value;
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.String expression) {
+        String value = expression.getValue();
+        return ctx -> value;
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Tuple expression) {
+        Expression[] elements = expression.getElements();
+        if (elements.length == 1)
+            return elements[0].compile();
+
+        CompiledExpression[] compiled = new CompiledExpression[elements.length];
+        for (int i = 0; i < elements.length; i++)
+            compiled[i] = elements[i].compile();
+
+        return ctx -> {
+            List<Object> values = new ArrayList<>(compiled.length);
+            for (CompiledExpression element : compiled)
+                values.add(element.evaluate(ctx));
+            return values;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Name expression) {
+        String name = expression.getName();
+        int i = expression.getIndex();
+
+        if (i != -1) {
+            return ctx -> {
+                Object value = ctx.lookupVariable(i);
+                if (value == null)
+                    throw new UndeclaredVariableException(name);
+                return value;
+            };
+        }
+
+        return ctx -> {
+            Object value = ctx.lookupVariable(name);
+            if (value == null)
+                throw new UndeclaredVariableException(name);
+            return value;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Call expression) {
+        return expression::interpret;
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Assignment expression) {
+        String id = expression.getId();
+        int i = expression.getIndex();
+        CompiledExpression exp = expression.getExpression().compile();
+
+        if (i != -1) {
+            return ctx -> {
+                ctx.storeVariable(i, exp.evaluate(ctx));
+                return null;
+            };
+        }
+
+        return ctx -> {
+            ctx.storeVariable(id, exp.evaluate(ctx));
+            return null;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.LShiftANDEqZero expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> (l.applyAsInt(ctx) & (1 << r.applyAsInt(ctx))) == 0;
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer)
+                return ((java.lang.Integer) l & (1 << (java.lang.Integer) r)) == 0;
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.OrIndent expression) {
+        IntExpression index = asInt(expression.getIndex().compile());
+        IntExpression ind = asInt(expression.getIndent().compile());
+        IntExpression first = asInt(expression.getFirst().compile());
+        IntExpression lExt = asInt(expression.getLExt().compile());
+
+        return (BooleanExpression) ctx -> {
+            int indent = ind.applyAsInt(ctx);
+            if (indent == 0)
+                return true;
+
+            if (first.applyAsInt(ctx) == 1) {
+                int i = index.applyAsInt(ctx);
+                int l = lExt.applyAsInt(ctx);
+                if (l - i == 0)
+                    return true;
+                return ctx.getInput().getColumnNumber(l) > indent;
+            }
+
+            return ctx.getInput().getColumnNumber(lExt.applyAsInt(ctx)) > indent;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.AndIndent expression) {
+        IntExpression index = asInt(expression.getIndex().compile());
+        IntExpression first = asInt(expression.getFirst().compile());
+        IntExpression lExt = asInt(expression.getLExt().compile());
+        boolean returnIndex = expression.isReturnIndex();
+
+        return (IntExpression) ctx -> {
+            if (first.applyAsInt(ctx) == 1) {
+                int i = index.applyAsInt(ctx);
+                int l = lExt.applyAsInt(ctx);
+                if (l - i == 0)
+                    return returnIndex ? i : 1;
+            }
+            return 0;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Or expression) {
+        BooleanExpression lhs = asBoolean(expression.getLhs().compile());
+        BooleanExpression rhs = asBoolean(expression.getRhs().compile());
+        return (BooleanExpression) ctx -> lhs.test(ctx) || rhs.test(ctx);
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.And expression) {
+        BooleanExpression lhs = asBoolean(expression.getLhs().compile());
+        BooleanExpression rhs = asBoolean(expression.getRhs().compile());
+        return (BooleanExpression) ctx -> lhs.test(ctx) && rhs.test(ctx);
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Less expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> l.applyAsInt(ctx) < r.applyAsInt(ctx);
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer)
+                return (java.lang.Integer) l < (java.lang.Integer) r;
+            if (l instanceof Float && r instanceof Float)
+                return (Float) l < (Float) r;
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.LessThanEqual expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> l.applyAsInt(ctx) <= r.applyAsInt(ctx);
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer)
+                return (java.lang.Integer) l <= (java.lang.Integer) r;
+            if (l instanceof Float && r instanceof Float)
+                return (Float) l <= (Float) r;
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Greater expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> l.applyAsInt(ctx) > r.applyAsInt(ctx);
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer)
+                return (java.lang.Integer) l > (java.lang.Integer) r;
+            if (l instanceof Float && r instanceof Float)
+                return (Float) l > (Float) r;
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.GreaterThanEqual expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> l.applyAsInt(ctx) >= r.applyAsInt(ctx);
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer)
+                return (java.lang.Integer) l >= (java.lang.Integer) r;
+            if (l instanceof Float && r instanceof Float)
+                return (Float) l >= (Float) r;
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Equal expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> l.applyAsInt(ctx) == r.applyAsInt(ctx);
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l == AST.UNDEF || r == AST.UNDEF)
+                return l == r;
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer
+                || l instanceof Float && r instanceof Float
+                || l instanceof String && r instanceof String)
+                return l.equals(r);
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.NotEqual expression) {
+        CompiledExpression lhs = expression.getLhs().compile();
+        CompiledExpression rhs = expression.getRhs().compile();
+
+        if (isInt(lhs, rhs)) {
+            IntExpression l = (IntExpression) lhs;
+            IntExpression r = (IntExpression) rhs;
+            return (BooleanExpression) ctx -> l.applyAsInt(ctx) != r.applyAsInt(ctx);
+        }
+
+        return (BooleanExpression) ctx -> {
+            Object l = lhs.evaluate(ctx);
+            Object r = rhs.evaluate(ctx);
+            if (l instanceof java.lang.Integer && r instanceof java.lang.Integer)
+                return (int) (java.lang.Integer) l != (java.lang.Integer) r;
+            if (l instanceof Float && r instanceof Float)
+                return (float) (Float) l != (Float) r;
+            throw new UnexpectedTypeOfArgumentException(expression);
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.LeftExtent expression) {
+        String label = expression.getLabel();
+        String key = expression.getKey();
+        int i = expression.getIndex();
+        return ctx -> {
+            Object value = i == -1 ? ctx.lookupVariable(key) : ctx.lookupVariable(i);
+            if (value == null)
+                throw new UndeclaredVariableException(label + "." + "lExt");
+            return value;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.RightExtent expression) {
+        String label = expression.getLabel();
+        int i = expression.getIndex();
+        return (IntExpression) ctx -> {
+            Object value = i == -1 ? ctx.lookupVariable(label) : ctx.lookupVariable(i);
+            if (value == null)
+                throw new UndeclaredVariableException(label);
+            if (!(value instanceof NonPackedNode))
+                throw new UnexpectedTypeOfArgumentException(expression);
+            return ((NonPackedNode) value).getRightExtent();
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Yield expression) {
+        String label = expression.getLabel();
+        int i = expression.getIndex();
+        return ctx -> {
+            Object value = i == -1 ? ctx.lookupVariable(label) : ctx.lookupVariable(i);
+            if (value == null)
+                throw new UndeclaredVariableException(label);
+            if (!(value instanceof NonPackedNode))
+                throw new UnexpectedTypeOfArgumentException(expression);
+            NonPackedNode node = (NonPackedNode) value;
+            return ctx.getInput().subString(node.getLeftExtent(), node.getRightExtent());
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.Val expression) {
+        String label = expression.getLabel();
+        int i = expression.getIndex();
+        return ctx -> {
+            Object value = i == -1 ? ctx.lookupVariable(label) : ctx.lookupVariable(i);
+            if (value == null)
+                throw new UndeclaredVariableException(label);
+            if (!(value instanceof NonterminalNode))
+                throw new UnexpectedTypeOfArgumentException(expression);
+            return ((NonterminalNode) value).getValue();
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.EndOfFile expression) {
+        IntExpression index = asInt(expression.getIndex().compile());
+        return (BooleanExpression) ctx -> ctx.getInput().length() == index.applyAsInt(ctx) + 1;
+    }
+
+    @Override
+    public CompiledExpression visit(Expression.IfThenElse expression) {
+        BooleanExpression condition = asBoolean(expression.getCondition().compile());
+        CompiledExpression thenPart = expression.getThenPart().compile();
+        CompiledExpression elsePart = expression.getElsePart().compile();
+
+        if (isInt(thenPart, elsePart)) {
+            IntExpression t = (IntExpression) thenPart;
+            IntExpression e = (IntExpression) elsePart;
+            return (IntExpression) ctx -> condition.test(ctx) ? t.applyAsInt(ctx) : e.applyAsInt(ctx);
+        }
+
+        return ctx -> condition.test(ctx) ? thenPart.evaluate(ctx) : elsePart.evaluate(ctx);
+    }
+
+    @Override
+    public CompiledExpression visit(VariableDeclaration declaration) {
+        String name = declaration.getName();
+        int i = declaration.getIndex();
+        CompiledExpression exp = declaration.getExpression() == null ? null : declaration.getExpression().compile();
+
+        return ctx -> {
+            Object value = exp == null ? VariableDeclaration.defaultValue : exp.evaluate(ctx);
+            if (i != -1)
+                ctx.declareVariable(i, value);
+            else
+                ctx.declareVariable(name, value);
+            return null;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Statement.Expression statement) {
+        CompiledExpression exp = statement.getExpression().compile();
+        return ctx -> {
+            exp.evaluate(ctx);
+            return null;
+        };
+    }
+
+    @Override
+    public CompiledExpression visit(Statement.VariableDeclaration statement) {
+        return statement.getDeclaration().compile();
+    }
+
+}
@@ -62,6 +62,10 @@ public class VariableDeclaration extends AbstractAST {
 		return name;
 	}
 	
+	public int getIndex() {
+		return i;
+	}
+	
 	public Expression getExpression() {
 		return expression;
 	}
@@ -74,7 +78,7 @@ public class VariableDeclaration extends AbstractAST {
 			value = expression.interpret(ctx);
 		
 		if (i != -1)
-			ctx.declareVariable(value);
+			ctx.declareVariable(i, value);
 		else
 			ctx.declareVariable(name, value);
 		
@@ -31,6 +31,7 @@ import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.Environment;
 import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
 
 public class Descriptor extends org.iguana.parser.descriptor.Descriptor {
@@ -44,8 +45,12 @@ public class Descriptor extends org.iguana.parser.descriptor.Descriptor {
 		this.env = env;
 	}
 
+	public Environment getEnv() {
+		return env;
+	}
+
 	@Override
-	public void execute() {
-		getGrammarSlot().execute(input, getGSSNode(), getSPPFNode(), env);
+	public void execute(ParserRuntime runtime) {
+		getGrammarSlot().execute(input, getGSSNode(), getSPPFNode(), env, runtime);
 	}
 }
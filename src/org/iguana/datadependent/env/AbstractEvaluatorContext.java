@@ -128,6 +128,11 @@ public abstract class AbstractEvaluatorContext implements IEvaluatorContext {
 		env = env._declare(value);
 	}
 
+	@Override
+	public void declareVariable(int i, Object value) {
+		env = env._declare(i, value);
+	}
+
 	@Override
 	public void declareVariables(Object[] values) {
 		env = env.declare(values);
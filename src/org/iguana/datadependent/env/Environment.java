@@ -48,6 +48,8 @@ public interface Environment {
 	
 	public Environment _declare(Object value);
 	
+	public Environment _declare(int i, Object value);
+	
 	public Environment declare(Object[] values);
 	
 	public Environment store(int i, Object value);
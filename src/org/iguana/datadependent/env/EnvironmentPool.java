@@ -0,0 +1,131 @@
+package org.iguana.datadependent.env;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Interns the environments of a parse, so that equal environments are the same object and
+ * get the same id. The ids are given in the order the environments are first interned,
+ * starting from 0, so keys that contain an environment can use its id, which is compared
+ * and hashed as an int. Interning an environment that is already canonical only compares
+ * references. The table uses open addressing with linear probing. Not thread-safe.
+ *
+ */
+public class EnvironmentPool {
+
+    private static final int INITIAL_CAPACITY = 1 << 6;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private Environment[] table;
+
+    private int[] ids;
+
+    private int mask;
+
+    private int threshold;
+
+    /*
+     * The canonical environments, indexed by id.
+     */
+    private Environment[] environments;
+
+    private int size;
+
+    private int internCount;
+
+    public EnvironmentPool() {
+        init(INITIAL_CAPACITY);
+        environments = new Environment[INITIAL_CAPACITY];
+    }
+
+    private void init(int capacity) {
+        table = new Environment[capacity];
+        ids = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * @return the id of the environment equal to env, which is interned if there is none
+     */
+    public int intern(Environment env) {
+        internCount++;
+        int j = hash(env) & mask;
+        Environment e;
+        while ((e = table[j]) != null) {
+            if (e == env || e.equals(env))
+                return ids[j];
+            j = (j + 1) & mask;
+        }
+
+        int id = size++;
+        table[j] = env;
+        ids[j] = id;
+        if (id == environments.length)
+            environments = Arrays.copyOf(environments, id << 1);
+        environments[id] = env;
+
+        if (size > threshold)
+            rehash();
+        return id;
+    }
+
+    /**
+     * @return the canonical environment with the given id
+     */
+    public Environment get(int id) {
+        return environments[id];
+    }
+
+    /**
+     * @return the number of distinct environments
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of times an environment has been interned
+     */
+    public int getInternCount() {
+        return internCount;
+    }
+
+    /**
+     * Removes all the environments. The ids given before are no longer valid.
+     */
+    public void clear() {
+        if (table.length > INITIAL_CAPACITY) {
+            init(INITIAL_CAPACITY);
+            environments = new Environment[INITIAL_CAPACITY];
+        } else if (size > 0) {
+            Arrays.fill(table, null);
+            Arrays.fill(environments, 0, size, null);
+        }
+        size = 0;
+        internCount = 0;
+    }
+
+    private void rehash() {
+        Environment[] oldTable = table;
+        int[] oldIds = ids;
+
+        init(oldTable.length << 1);
+
+        for (int k = 0; k < oldTable.length; k++) {
+            if (oldTable[k] == null) continue;
+            int j = hash(oldTable[k]) & mask;
+            while (table[j] != null)
+                j = (j + 1) & mask;
+            table[j] = oldTable[k];
+            ids[j] = oldIds[k];
+        }
+    }
+
+    private static int hash(Environment env) {
+        int h = env.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -31,6 +31,7 @@ import iguana.utils.input.Input;
 import org.iguana.datadependent.env.array.ArrayEvaluatorContext;
 import org.iguana.datadependent.env.persistent.PersistentEvaluatorContext;
 import org.iguana.datadependent.env.simple.SimpleEvaluatorContext;
+import org.iguana.datadependent.env.vector.VectorEvaluatorContext;
 import org.iguana.util.Configuration;
 
 public class GLLEvaluator {
@@ -49,6 +50,8 @@ public class GLLEvaluator {
 				return new SimpleEvaluatorContext(input);
 			case TRIE: 
 				return new PersistentEvaluatorContext(input);
+			case VECTOR: 
+				return new VectorEvaluatorContext(input);
 			default:
 				throw new RuntimeException("Should not have happened!");
 		}
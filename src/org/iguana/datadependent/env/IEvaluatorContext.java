@@ -59,6 +59,8 @@ public interface IEvaluatorContext {
 	
 	void declareVariable(Object value);
 	
+	void declareVariable(int i, Object value);
+	
 	void declareVariables(Object[] values);
 	
 	void storeVariable(int i, Object value);
@@ -1,9 +1,22 @@
 package org.iguana.datadependent.env.array;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 import org.iguana.datadependent.env.Environment;
 
+/**
+ * 
+ * An environment of values indexed by the integers given to the variables of a rule by
+ * VarToInt. Variables are only accessed by index. Each index is hashed with its value,
+ * so that environments with the same values at different indices have different hash codes.
+ * An index past the end of the array holds null, so trailing nulls do not change the hash
+ * code, and environments that differ only in trailing nulls, such as [a] and [a, null], are equal.
+ * 
+ * VarToInt resolves scopes statically, giving each declaration in a nested scope a fresh
+ * index, so push and pop do not change an array environment.
+ *
+ */
 public class ArrayEnvironment implements Environment {
 	
 	private final Object[] values;
@@ -23,12 +36,12 @@ public class ArrayEnvironment implements Environment {
 
 	@Override
 	public Environment pop() {
-		throw new RuntimeException("Unsupported with this type of environment!");
+		return this;
 	}
 
 	@Override
 	public Environment push() {
-		throw new RuntimeException("Unsupported with this type of environment!");
+		return this;
 	}
 
 	@Override
@@ -70,11 +83,14 @@ public class ArrayEnvironment implements Environment {
 		
 		ArrayEnvironment that = (ArrayEnvironment) other;
 		
-		if (values.length != that.values.length)
-			return false;
+		int length = Math.min(values.length, that.values.length);
+		for (int i = 0; i < length; i++)
+			if (!Objects.equals(values[i], that.values[i]))
+				return false;
 		
-		for (int i = 0; i < values.length; i++)
-			if (!values[i].equals(that.values[i]))
+		Object[] longer = values.length > length ? values : that.values;
+		for (int i = length; i < longer.length; i++)
+			if (longer[i] != null)
 				return false;
 		
 		return true;
@@ -88,31 +104,30 @@ public class ArrayEnvironment implements Environment {
 	@Override
 	public Environment _declare(Object value) {
 		int length = this.values.length;
-		Object[] values = new Object[length + 1];
-		
-		if (length != 0)
-			System.arraycopy(this.values, 0, values, 0, length);
-		
+		Object[] values = Arrays.copyOf(this.values, length + 1);
 		values[length] = value;
+		return new ArrayEnvironment(values, hashCode + hash(length, value));
+	}
+	
+	@Override
+	public Environment _declare(int i, Object value) {
+		if (i < values.length)
+			return store(i, value);
 		
-		return new ArrayEnvironment(values, hashCode + 31 * value.hashCode());
+		Object[] values = Arrays.copyOf(this.values, i + 1);
+		values[i] = value;
+		return new ArrayEnvironment(values, hashCode + hash(i, value));
 	}
 
 	@Override
-	public Environment declare(Object[] values) { // Assuming values.length != 0
+	public Environment declare(Object[] values) {
 		int length = this.values.length;
-		Object[] vals = new Object[length + values.length];
-		
-		if (length != 0)
-			System.arraycopy(this.values, 0, vals, 0, length);
+		Object[] vals = Arrays.copyOf(this.values, length + values.length);
 		
 		int hashCode = this.hashCode;
-		
-		int j = 0;
-		for (int i = length; i < length + values.length; i++) {
-			vals[i] = values[j];
-			hashCode = hashCode + 31 * values[j].hashCode();
-			j++;
+		for (int j = 0; j < values.length; j++) {
+			vals[length + j] = values[j];
+			hashCode += hash(length + j, values[j]);
 		}
 		
 		return new ArrayEnvironment(vals, hashCode);
@@ -120,26 +135,18 @@ public class ArrayEnvironment implements Environment {
 
 	@Override
 	public Environment store(int i, Object value) {
-		Object[] values = new Object[this.values.length];
-		
-		int hashCode = 0;
-		for (int j = 0; j < values.length; j++) {
-			
-			if (i != j)
-				values[i] = this.values[i];
-			else
-				values[i] = value;
-			
-			if (values[i] != null)
-				hashCode = hashCode + values[i].hashCode();
-		}
-		
-		return new ArrayEnvironment(values, hashCode);
+		Object[] values = this.values.clone();
+		values[i] = value;
+		return new ArrayEnvironment(values, hashCode - hash(i, this.values[i]) + hash(i, value));
 	}
 
 	@Override
 	public Object lookup(int i) {
-		return values[i];
+		return i < values.length? values[i] : null;
+	}
+	
+	private static int hash(int i, Object value) {
+		return value == null? 0 : (31 * i + 17) * value.hashCode();
 	}
 
 }
@@ -167,6 +167,11 @@ public class PersistentEnvironment implements Environment {
 		throw new RuntimeException("Unsupported with this type of environment!");
 	}
 
+	@Override
+	public Environment _declare(int i, Object value) {
+		throw new RuntimeException("Unsupported with this type of environment!");
+	}
+
 	@Override
 	public Environment declare(Object[] values) {
 		throw new RuntimeException("Unsupported with this type of environment!");
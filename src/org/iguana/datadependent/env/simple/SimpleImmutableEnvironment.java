@@ -179,6 +179,11 @@ public class SimpleImmutableEnvironment implements Environment {
 		throw new RuntimeException("Unsupported with this type of environment!");
 	}
 
+	@Override
+	public Environment _declare(int i, Object value) {
+		throw new RuntimeException("Unsupported with this type of environment!");
+	}
+
 	@Override
 	public Environment declare(Object[] values) {
 		throw new RuntimeException("Unsupported with this type of environment!");
@@ -0,0 +1,325 @@
+package org.iguana.datadependent.env.vector;
+
+import org.iguana.datadependent.env.Environment;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ *
+ * An environment of values indexed by the integers given to the variables of a rule by
+ * VarToInt, stored in a persistent vector: a tree of 32-wide nodes and a tail chunk, as in
+ * Clojure's vectors. Versions share the tree and the tail. The first version to append to a
+ * tail chunk writes into its free space, so appending is O(1) amortized and does not copy.
+ * A version that appends to a chunk another version has already appended to copies the
+ * chunk. Storing copies the tail, or the path to the value in the tree.
+ *
+ * The hash code is maintained incrementally, hashing each index with its value. Two versions
+ * with the same size, root and tail chunk are equal without comparing their values, and
+ * shared leaves are skipped when comparing the values. Versions of different sizes are not
+ * equal, even if the longer one only adds nulls.
+ *
+ * As with the array environment, scopes are resolved statically by VarToInt, so push and
+ * pop do not change a vector environment.
+ *
+ */
+public class VectorEnvironment implements Environment {
+
+    private static final int BITS = 5;
+
+    private static final int WIDTH = 1 << BITS;
+
+    private static final int MASK = WIDTH - 1;
+
+    private static final int INITIAL_TAIL_CAPACITY = 4;
+
+    public static final VectorEnvironment EMPTY = new VectorEnvironment(0, BITS, new Object[WIDTH], new Tail(new Object[0], 0), 0);
+
+    private final int size;
+
+    private final int shift;
+
+    private final Object[] root;
+
+    private final Tail tail;
+
+    private final int hashCode;
+
+    private VectorEnvironment(int size, int shift, Object[] root, Tail tail, int hashCode) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+        this.hashCode = hashCode;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Environment pop() {
+        return this;
+    }
+
+    @Override
+    public Environment push() {
+        return this;
+    }
+
+    @Override
+    public Environment _declare(String name, Object value) {
+        throw new RuntimeException("Unsupported with this type of environment!");
+    }
+
+    @Override
+    public Environment declare(String[] names, Object[] values) {
+        throw new RuntimeException("Unsupported with this type of environment!");
+    }
+
+    @Override
+    public Environment store(String name, Object value) {
+        throw new RuntimeException("Unsupported with this type of environment!");
+    }
+
+    @Override
+    public Object lookup(String name) {
+        throw new RuntimeException("Unsupported with this type of environment!");
+    }
+
+    @Override
+    public Environment _declare(Object value) {
+        return append(value);
+    }
+
+    @Override
+    public Environment _declare(int i, Object value) {
+        if (i < size)
+            return store(i, value);
+
+        VectorEnvironment env = this;
+        while (env.size < i)
+            env = env.append(null);
+        return env.append(value);
+    }
+
+    @Override
+    public Environment declare(Object[] values) {
+        VectorEnvironment env = this;
+        for (Object value : values)
+            env = env.append(value);
+        return env;
+    }
+
+    @Override
+    public Environment store(int i, Object value) {
+        Object old = lookup(i);
+        if (old == value)
+            return this;
+
+        int hashCode = this.hashCode - hash(i, old) + hash(i, value);
+
+        int tailOffset = tailOffset();
+        if (i >= tailOffset) {
+            int tailLength = size - tailOffset;
+            Object[] values = new Object[capacity(tailLength)];
+            System.arraycopy(tail.values, 0, values, 0, tailLength);
+            values[i - tailOffset] = value;
+            return new VectorEnvironment(size, shift, root, new Tail(values, tailLength), hashCode);
+        }
+
+        return new VectorEnvironment(size, shift, store(shift, root, i, value), tail, hashCode);
+    }
+
+    @Override
+    public Object lookup(int i) {
+        if (i >= size)
+            return null;
+
+        int tailOffset = tailOffset();
+        if (i >= tailOffset)
+            return tail.values[i - tailOffset];
+
+        return leafFor(i)[i & MASK];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private VectorEnvironment append(Object value) {
+        int hashCode = this.hashCode + hash(size, value);
+
+        int tailOffset = tailOffset();
+        int tailLength = size - tailOffset;
+
+        if (tailLength < tail.values.length && tail.claim(tailLength)) {
+            tail.values[tailLength] = value;
+            return new VectorEnvironment(size + 1, shift, root, tail, hashCode);
+        }
+
+        if (tailLength < WIDTH) {
+            Object[] values = new Object[capacity(tailLength + 1)];
+            System.arraycopy(tail.values, 0, values, 0, tailLength);
+            values[tailLength] = value;
+            return new VectorEnvironment(size + 1, shift, root, new Tail(values, tailLength + 1), hashCode);
+        }
+
+        // The tail is full, and becomes a leaf of the tree
+        Object[] leaf = tail.values;
+        Object[] newRoot;
+        int newShift = shift;
+
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, leaf);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, leaf);
+        }
+
+        Object[] values = new Object[INITIAL_TAIL_CAPACITY];
+        values[0] = value;
+        return new VectorEnvironment(size + 1, newShift, newRoot, new Tail(values, 1), hashCode);
+    }
+
+    /**
+     * The index of the first value in the tail.
+     */
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int i) {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS)
+            node = (Object[]) node[(i >>> level) & MASK];
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] leaf) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] node = parent.clone();
+
+        if (level == BITS) {
+            node[subIndex] = leaf;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            node[subIndex] = child != null ? pushTail(level - BITS, child, leaf) : newPath(level - BITS, leaf);
+        }
+
+        return node;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0)
+            return leaf;
+
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    private static Object[] store(int level, Object[] node, int i, Object value) {
+        Object[] copy = node.clone();
+
+        if (level == 0) {
+            copy[i & MASK] = value;
+        } else {
+            int subIndex = (i >>> level) & MASK;
+            copy[subIndex] = store(level - BITS, (Object[]) node[subIndex], i, value);
+        }
+
+        return copy;
+    }
+
+    private static int capacity(int length) {
+        int capacity = INITIAL_TAIL_CAPACITY;
+        while (capacity < length)
+            capacity <<= 1;
+        return Math.min(capacity, WIDTH);
+    }
+
+    private static int hash(int i, Object value) {
+        return value == null ? 0 : (31 * i + 17) * value.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+
+        if (!(other instanceof VectorEnvironment))
+            return false;
+
+        VectorEnvironment that = (VectorEnvironment) other;
+
+        if (hashCode != that.hashCode || size != that.size)
+            return false;
+
+        int tailOffset = tailOffset();
+
+        if (root != that.root) {
+            for (int i = 0; i < tailOffset; i += WIDTH) {
+                Object[] leaf = leafFor(i);
+                Object[] thatLeaf = that.leafFor(i);
+                if (leaf == thatLeaf)
+                    continue;
+                for (int j = 0; j < WIDTH; j++)
+                    if (!Objects.equals(leaf[j], thatLeaf[j]))
+                        return false;
+            }
+        }
+
+        // The values of a tail chunk up to its filled length never change
+        if (tail == that.tail)
+            return true;
+
+        for (int j = 0; j < size - tailOffset; j++)
+            if (!Objects.equals(tail.values[j], that.tail.values[j]))
+                return false;
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(lookup(i));
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * A tail chunk shared by the versions that have appended to it. The values before
+     * filled are fixed; the version whose tail ends at filled may claim the next slot.
+     */
+    private static final class Tail {
+
+        private static final AtomicIntegerFieldUpdater<Tail> FILLED = AtomicIntegerFieldUpdater.newUpdater(Tail.class, "filled");
+
+        private final Object[] values;
+
+        private volatile int filled;
+
+        Tail(Object[] values, int filled) {
+            this.values = values;
+            this.filled = filled;
+        }
+
+        boolean claim(int length) {
+            return filled == length && FILLED.compareAndSet(this, length, length + 1);
+        }
+    }
+
+}
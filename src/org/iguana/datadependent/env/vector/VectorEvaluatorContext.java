@@ -0,0 +1,19 @@
+package org.iguana.datadependent.env.vector;
+
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.AbstractEvaluatorContext;
+import org.iguana.datadependent.env.Environment;
+
+public class VectorEvaluatorContext extends AbstractEvaluatorContext {
+
+    public VectorEvaluatorContext(Input input) {
+        super(input);
+        setEnvironment(VectorEnvironment.EMPTY);
+    }
+
+    @Override
+    public Environment getEmptyEnvironment() {
+        return VectorEnvironment.EMPTY;
+    }
+
+}
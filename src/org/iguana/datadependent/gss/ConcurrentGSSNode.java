@@ -0,0 +1,66 @@
+package org.iguana.datadependent.gss;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.gss.GSSEdge;
+import org.iguana.parser.gss.GSSNodeData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * The data-dependent counterpart of {@link org.iguana.parser.gss.ConcurrentGSSNode}.
+ *
+ */
+public class ConcurrentGSSNode<T> extends GSSNode<T> {
+
+	public ConcurrentGSSNode(NonterminalGrammarSlot slot, int inputIndex, GSSNodeData<T> data) {
+		super(slot, inputIndex, data);
+	}
+
+	@Override
+	protected void addGSSEdge(Input input, GSSEdge edge, ParserRuntime runtime) {
+		List<NonterminalNode> popped = new ArrayList<>();
+		synchronized (this) {
+			storeGSSEdge(edge);
+			forEachPoppedElement(popped::add);
+		}
+
+		for (NonterminalNode z : popped) {
+			if (edge.getReturnSlot().testFollow(input.charAt(z.getRightExtent()))) {
+				edge.addDescriptor(input, this, z, runtime);
+			}
+		}
+	}
+
+	@Override
+	public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, ParserRuntime runtime) {
+		runtime.log("Pop %s, %d, %s", this, getInputIndex(), child);
+		NonterminalNode node;
+		List<GSSEdge> edges;
+		synchronized (this) {
+			node = getPoppedElements().add(input, slot, child, runtime);
+			if (node == null) return;
+			edges = copyGSSEdges();
+		}
+		iterateOverEdges(input, node, edges, runtime);
+	}
+
+	@Override
+	public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, Object value, ParserRuntime runtime) {
+		NonterminalNode node;
+		List<GSSEdge> edges;
+		synchronized (this) {
+			node = getPoppedElements().add(input, slot, child, value, runtime);
+			if (node == null) return;
+			edges = copyGSSEdges();
+		}
+		iterateOverEdges(input, node, edges, runtime);
+	}
+
+}
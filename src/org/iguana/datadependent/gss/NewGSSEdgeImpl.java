@@ -31,7 +31,7 @@ import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.Environment;
 import org.iguana.grammar.slot.BodyGrammarSlot;
-import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
 
 public class NewGSSEdgeImpl extends org.iguana.parser.gss.NewGSSEdgeImpl {
@@ -46,7 +46,7 @@ public class NewGSSEdgeImpl extends org.iguana.parser.gss.NewGSSEdgeImpl {
 	}
 	
 	@Override
-	public Descriptor addDescriptor(Input input, GSSNode source, NonPackedNode sppfNode) {
+	public boolean addDescriptor(Input input, GSSNode source, NonPackedNode sppfNode, ParserRuntime runtime) {
 
         int inputIndex = sppfNode.getRightExtent();
 
@@ -58,20 +58,24 @@ public class NewGSSEdgeImpl extends org.iguana.parser.gss.NewGSSEdgeImpl {
 		if (returnSlot.requiresBinding())
 			env = returnSlot.doBinding(sppfNode, env);
 		
-		returnSlot.getRuntime().setEnvironment(env);
+		runtime.setEnvironment(env);
 		
-		if (returnSlot.getConditions().execute(input, source, inputIndex, returnSlot.getRuntime().getEvaluatorContext()))
-			return null;
+		if (returnSlot.getConditions().execute(input, source, inputIndex, runtime.getEvaluatorContext(), runtime))
+			return false;
 		
-		env = returnSlot.getRuntime().getEnvironment();
+		env = runtime.getEnvironment();
 		
-		NonPackedNode y = returnSlot.getIntermediateNode2(input, getNode(), sppfNode, env);
+		NonPackedNode y = returnSlot.getIntermediateNode2(input, destination, getNode(), sppfNode, env, runtime);
 		
 //		NonPackedNode y = parser.getNode(returnSlot, getNode(), sppfNode, env);
 //		if (!parser.hasDescriptor(returnSlot, destination, inputIndex, y, env))
 //			return new org.iguana.datadependent.descriptor.Descriptor(returnSlot, destination, inputIndex, y, env);
 		
-		return y != null ? new org.iguana.datadependent.descriptor.Descriptor(returnSlot, destination, y, input, env) : null;
+		if (y == null)
+			return false;
+
+		runtime.scheduleDescriptor(returnSlot, destination, y, env);
+		return true;
 	}
 
 }
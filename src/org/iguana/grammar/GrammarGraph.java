@@ -36,15 +36,16 @@ import java.util.stream.Collectors;
 
 import iguana.utils.input.Input;
 
+import org.iguana.datadependent.ast.AbstractAST;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.ast.Statement;
-import org.iguana.datadependent.env.GLLEvaluator;
-import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.grammar.condition.Condition;
 import org.iguana.grammar.condition.Conditions;
 import org.iguana.grammar.condition.ConditionsFactory;
 import org.iguana.grammar.exception.IncorrectNumberOfArgumentsException;
 import org.iguana.grammar.operations.FirstFollowSets;
+import org.iguana.grammar.operations.ReachabilityGraph;
+import org.iguana.grammar.slot.AbstractGrammarSlot;
 import org.iguana.grammar.slot.BodyGrammarSlot;
 import org.iguana.grammar.slot.CodeTransition;
 import org.iguana.grammar.slot.ConditionalTransition;
@@ -59,28 +60,28 @@ import org.iguana.grammar.slot.ReturnTransition;
 import org.iguana.grammar.slot.TerminalGrammarSlot;
 import org.iguana.grammar.slot.TerminalTransition;
 import org.iguana.grammar.slot.lookahead.FollowTest;
+import org.iguana.grammar.slot.lookahead.LLkLookaheadTest;
 import org.iguana.grammar.slot.lookahead.LookAheadTest;
 import org.iguana.grammar.slot.lookahead.RangeTreeFollowTest;
 import org.iguana.grammar.slot.lookahead.RangeTreeLookaheadTest;
 import org.iguana.grammar.symbol.*;
 import org.iguana.grammar.symbol.Terminal.Category;
 import org.iguana.grammar.transformation.VarToInt;
-import org.iguana.parser.ParserRuntime;
-import org.iguana.parser.ParserRuntimeImpl;
-import org.iguana.parser.gss.lookup.ArrayNodeLookup;
-import org.iguana.parser.gss.lookup.GSSNodeLookup;
-import org.iguana.parser.gss.lookup.IntOpenAddressingMap;
-import org.iguana.parser.gss.lookup.JavaHashMapNodeLookup;
 import iguana.regex.CharacterRange;
 import iguana.regex.Epsilon;
 import iguana.regex.RegularExpression;
 import iguana.regex.matcher.DFAMatcherFactory;
 import iguana.regex.matcher.MatcherFactory;
 import org.iguana.util.Configuration;
-import org.iguana.util.Configuration.EnvironmentImpl;
-import org.iguana.util.Configuration.HashMapImpl;
-import org.iguana.util.Configuration.LookupImpl;
 
+/**
+ * 
+ * A grammar graph is the compiled, read-only form of a grammar. All the
+ * per-parse state (GSS nodes, SPPF nodes and descriptors) is kept in a
+ * {@link org.iguana.parser.ParserRuntime}, so one grammar graph can be
+ * shared by several parses running at the same time.
+ *
+ */
 public class GrammarGraph implements Serializable {
 
 	private static final long serialVersionUID = 1L;
@@ -89,7 +90,7 @@ public class GrammarGraph implements Serializable {
 	
 	Map<Terminal, TerminalGrammarSlot> terminalsMap;
 	
-	private final Map<String, GrammarSlot> names;
+	private Map<String, GrammarSlot> names;
 	
 	private List<GrammarSlot> slots;
 	
@@ -98,8 +99,6 @@ public class GrammarGraph implements Serializable {
 	Grammar grammar;
 
 	private Configuration config;
-
-	private Input input;
 	
 	private final Map<Integer, Map<String, Integer>> mapping;
 
@@ -109,27 +108,30 @@ public class GrammarGraph implements Serializable {
 	
 	private TerminalGrammarSlot epsilonSlot;
 
-    private ParserRuntime runtime;
-
     public static GrammarGraph from(Grammar grammar, Input input) {
         return from(grammar, input, Configuration.load());
     }
 
+    /**
+     * The input is not needed for building a grammar graph anymore, and is only kept for
+     * compatibility. Use {@link #from(Grammar, Configuration)} instead.
+     */
     public static GrammarGraph from(Grammar grammar, Input input, Configuration config) {
-        IEvaluatorContext ctx = GLLEvaluator.getEvaluatorContext(config, input);
-        GrammarGraph grammarGraph = new GrammarGraph(grammar, input, config);
-        ParserRuntime runtime = new ParserRuntimeImpl(grammarGraph, config, ctx);
-        grammarGraph.convert(runtime);
+        return from(grammar, config);
+    }
+
+    public static GrammarGraph from(Grammar grammar, Configuration config) {
+        GrammarGraph grammarGraph = new GrammarGraph(grammar, config);
+        grammarGraph.convert();
         return grammarGraph;
     }
 
-    private void convert(ParserRuntime runtime) {
+    private void convert() {
         matcherFactory = new DFAMatcherFactory();
 
-        this.runtime = runtime;
         this.firstFollow = new FirstFollowSets(this.grammar);
 
-        epsilonSlot = new TerminalGrammarSlot(Terminal.from(Epsilon.getInstance()), matcherFactory, runtime);
+        epsilonSlot = new TerminalGrammarSlot(Terminal.from(Epsilon.getInstance()), matcherFactory);
 
         terminalsMap.put(Terminal.from(Epsilon.getInstance()), epsilonSlot);
 
@@ -146,10 +148,25 @@ public class GrammarGraph implements Serializable {
         }
 
         nonterminals.forEach(n -> setFirstFollowTests(n));
+
+        if (config.isDeterministicDescent() && config.getLookAheadCount() > 0)
+            firstFollow.calculateLL1Nonterminals(new ReachabilityGraph(this.grammar))
+                       .forEach(n -> getNonterminalGrammarSlot(n).setLL1SubGrammar(true));
+
+        // Labels refer to the extents of SPPF nodes, which the recognizer does not keep
+        if (config.isRecognizer()) {
+            for (GrammarSlot slot : slots) {
+                if (slot instanceof BodyGrammarSlot && ((BodyGrammarSlot) slot).getLabel() != null)
+                    throw new IllegalArgumentException("Recognizer mode does not support grammars with labels, "
+                                                       + "such as the data-dependent offside and precedence grammars, "
+                                                       + "as it does not keep the extents of the labelled nodes. "
+                                                       + "Parse these grammars without recognizer mode. Label at " + slot);
+            }
+        }
     }
 	
-	private GrammarGraph(Grammar grammar, Input input, Configuration config) {
-		if (config.getEnvImpl() == EnvironmentImpl.ARRAY) {
+	private GrammarGraph(Grammar grammar, Configuration config) {
+		if (config.getEnvImpl().isIndexed()) {
 			VarToInt transformer = new VarToInt();
 			this.grammar = transformer.transform(grammar);
 			// System.out.println(this.grammar);
@@ -158,11 +175,9 @@ public class GrammarGraph implements Serializable {
 			this.grammar = grammar;
 			this.mapping = new HashMap<>();
 		}
-		this.input = input;
 		this.config = config;
 		this.nonterminalsMap = new LinkedHashMap<>();
 		this.terminalsMap = new LinkedHashMap<>();
-		this.names = new HashMap<>();
 		this.slots = new ArrayList<>();
 	}
 	
@@ -174,14 +189,37 @@ public class GrammarGraph implements Serializable {
 		return terminalsMap.get(regex);
 	}
 
-	public GrammarSlot getSlot(String s) {
+	/**
+	 * Looks up a slot by its string representation. The name table is only
+	 * built on the first call, as it is not needed for parsing.
+	 */
+	public synchronized GrammarSlot getSlot(String s) {
+		if (names == null) {
+			names = new HashMap<>();
+			slots.forEach(slot -> names.put(slot.toString(), slot));
+		}
 		return names.get(s);
 	}
+
+	public GrammarSlot getSlot(int id) {
+		return slots.get(id);
+	}
+
+	/**
+	 * @return the number of slots in this grammar graph. Slot ids are in [0, getSlotCount()).
+	 */
+	public int getSlotCount() {
+		return slots.size();
+	}
 	
 	public Collection<NonterminalGrammarSlot> getNonterminals() {
 		return nonterminalsMap.values();
 	}
 	
+	public Configuration getConfiguration() {
+		return config;
+	}
+	
 	private void convert(Rule rule) {
 		Nonterminal nonterminal = rule.getHead();
 		NonterminalGrammarSlot nonterminalSlot = getNonterminalGrammarSlot(nonterminal);
@@ -220,7 +258,27 @@ public class GrammarGraph implements Serializable {
 		
 		rangeMap.keySet().forEach(r -> nonOverlappingMap.computeIfAbsent(r, range -> new ArrayList<>()).addAll(f.apply(r))); 
 		
-		return new RangeTreeLookaheadTest(nonOverlappingMap);
+		LookAheadTest lookAheadTest = new RangeTreeLookaheadTest(nonOverlappingMap);
+		
+		if (config.getLookAheadCount() == 1)
+			return lookAheadTest;
+		
+		// Tests of the characters after the first one, for each alternative
+		Map<BodyGrammarSlot, FollowTest[]> tests = new HashMap<>();
+		
+		for (int i = 0; i < alternatives.size(); i++) {
+			List<Set<CharacterRange>> sets = firstFollow.getPredictionSets(alternatives.get(i), config.getLookAheadCount());
+			if (sets == null) continue;
+			
+			FollowTest[] followTests = new FollowTest[sets.size() - 1];
+			for (int j = 1; j < sets.size(); j++) {
+				if (sets.get(j) != null)
+					followTests[j - 1] = new RangeTreeFollowTest(toNonOverlappingSet(sets.get(j)));
+			}
+			tests.put(nonterminalSlot.getFirstSlots().get(i), followTests);
+		}
+		
+		return new LLkLookaheadTest(lookAheadTest, tests);
 	}
 	
 	private FollowTest getFollowTest(Nonterminal nonterminal) {
@@ -255,10 +313,6 @@ public class GrammarGraph implements Serializable {
 			rule2graph.nextSymbol();
 	}
 
-    public ParserRuntime getRuntime() {
-        return runtime;
-    }
-
     private class GrammarGraphSymbolVisitor extends  AbstractGrammarGraphSymbolVisitor<Void> {
 		
 		private final NonterminalGrammarSlot head;
@@ -298,9 +352,10 @@ public class GrammarGraph implements Serializable {
 			Expression[] arguments = symbol.getArguments();
 			
 			validateNumberOfArguments(nonterminalSlot.getNonterminal(), arguments);
+			compile(arguments);
 			
 			Set<Condition> preConditions = (i == 0 && j == -1)? new HashSet<>() : symbol.getPreConditions();
-			currentSlot.addTransition(new NonterminalTransition(nonterminalSlot, currentSlot, slot, arguments, getConditions(preConditions), runtime));
+			currentSlot.addTransition(new NonterminalTransition(nonterminalSlot, currentSlot, slot, arguments, getConditions(preConditions)));
 			currentSlot = slot;
 			
 			return null;
@@ -315,7 +370,8 @@ public class GrammarGraph implements Serializable {
 			visitSymbol(sym);
 			
 			BodyGrammarSlot thenSlot = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
-			currentSlot.addTransition(new ConditionalTransition(expression, currentSlot, thenSlot, runtime));
+			compile(expression);
+			currentSlot.addTransition(new ConditionalTransition(expression, currentSlot, thenSlot));
 			currentSlot = thenSlot;
 			
 			return null;
@@ -330,7 +386,8 @@ public class GrammarGraph implements Serializable {
 			visitSymbol(sym);
 			
 			BodyGrammarSlot done = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
-			currentSlot.addTransition(new CodeTransition(statements, currentSlot, done, runtime));
+			compile(statements);
+			currentSlot.addTransition(new CodeTransition(statements, currentSlot, done));
 			currentSlot = done;
 			
 			return null;
@@ -342,12 +399,13 @@ public class GrammarGraph implements Serializable {
 				throw new RuntimeException("Return symbol can only be used at the end of a grammar rule!");
 			else {
 				if (rule.size() == 1)
-					done = new EpsilonGrammarSlot(rule.getPosition(i + 1), head, epsilonSlot, ConditionsFactory.DEFAULT, rule.getAction(), rule.getRuleType(), runtime);
+					done = new EpsilonGrammarSlot(rule.getPosition(i + 1), head, epsilonSlot, ConditionsFactory.DEFAULT, rule.getAction(), rule.getRuleType());
 				else
 					done = getEndGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
 			}
 			
-			currentSlot.addTransition(new ReturnTransition(symbol.getExpression(), currentSlot, done, runtime));
+			compile(symbol.getExpression());
+			currentSlot.addTransition(new ReturnTransition(symbol.getExpression(), currentSlot, done));
 			currentSlot = done;
 			
 			return null;
@@ -391,11 +449,12 @@ public class GrammarGraph implements Serializable {
 			
 			if (symbol.getLabel() != null) {
 				BodyGrammarSlot declared = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
-				currentSlot.addTransition(new EpsilonTransition(Type.DECLARE_LABEL, symbol.getLabel(), preconditions, currentSlot, declared, runtime));
+				currentSlot.addTransition(new EpsilonTransition(Type.DECLARE_LABEL, symbol.getLabel(), indexOf(symbol.getLabel()), 
+																indexOf(Expression.LeftExtent.key(symbol.getLabel())), preconditions, currentSlot, declared));
 				currentSlot = declared;
 			} else {
 				BodyGrammarSlot checked = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
-				currentSlot.addTransition(new EpsilonTransition(preconditions, currentSlot, checked, runtime));
+				currentSlot.addTransition(new EpsilonTransition(preconditions, currentSlot, checked));
 				currentSlot = checked;
 			}
 			
@@ -413,7 +472,8 @@ public class GrammarGraph implements Serializable {
 				else
 					stored = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
 				
-				currentSlot.addTransition(new EpsilonTransition(Type.STORE_LABEL, symbol.getLabel(), getConditions(symbol.getPostConditions()), currentSlot, stored, runtime));
+				currentSlot.addTransition(new EpsilonTransition(Type.STORE_LABEL, symbol.getLabel(), indexOf(symbol.getLabel()), 
+																indexOf(Expression.LeftExtent.key(symbol.getLabel())), getConditions(symbol.getPostConditions()), currentSlot, stored));
 				currentSlot = stored;
 			} else {
 				
@@ -423,7 +483,7 @@ public class GrammarGraph implements Serializable {
 				else
 					checked = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), head, null, null, null);
 				
-				currentSlot.addTransition(new EpsilonTransition(getConditions(symbol.getPostConditions()), currentSlot, checked, runtime));
+				currentSlot.addTransition(new EpsilonTransition(getConditions(symbol.getPostConditions()), currentSlot, checked));
 				currentSlot = checked;
 			}
 		}
@@ -434,12 +494,12 @@ public class GrammarGraph implements Serializable {
 															 BodyGrammarSlot origin, BodyGrammarSlot dest,
 															 Set<Condition> preConditions, Set<Condition> postConditions) {
 		
-		return new TerminalTransition(slot, origin, dest, getConditions(preConditions), getConditions(postConditions), runtime);
+		return new TerminalTransition(slot, origin, dest, getConditions(preConditions), getConditions(postConditions));
 	}
 	
 	private TerminalGrammarSlot getTerminalGrammarSlot(Terminal t, String name) {
         return terminalsMap.computeIfAbsent(t, k -> {
-            TerminalGrammarSlot terminalSlot = new TerminalGrammarSlot(t, matcherFactory, name, runtime);
+            TerminalGrammarSlot terminalSlot = new TerminalGrammarSlot(t, matcherFactory, name);
             add(terminalSlot);
             return terminalSlot;
         });
@@ -448,7 +508,7 @@ public class GrammarGraph implements Serializable {
 	private NonterminalGrammarSlot getNonterminalGrammarSlot(Nonterminal nonterminal) {
 		return nonterminalsMap.computeIfAbsent(nonterminal, k -> {
 			NonterminalGrammarSlot ntSlot;
-			ntSlot = new NonterminalGrammarSlot(nonterminal, getNodeLookup(), nonterminal.getNodeType(), runtime);
+			ntSlot = new NonterminalGrammarSlot(nonterminal, nonterminal.getNodeType());
 			add(ntSlot);
 			return ntSlot;
 		});
@@ -458,14 +518,16 @@ public class GrammarGraph implements Serializable {
 		BodyGrammarSlot slot;
 		
 		if (rule.size() == 0) {
-			slot = new EpsilonGrammarSlot(rule.getPosition(0,0), nonterminal, epsilonSlot, ConditionsFactory.DEFAULT, rule.getAction(), rule.getRuleType(), runtime);
+			slot = new EpsilonGrammarSlot(rule.getPosition(0,0), nonterminal, epsilonSlot, ConditionsFactory.DEFAULT, rule.getAction(), rule.getRuleType());
 		} else {
 			// TODO: This is not a final solution; in particular, 
 			//       not any precondition of the first symbol (due to labels) can currently be moved to the first slot.  
 			Set<Condition> preConditions = new HashSet<>();
 			preConditions.addAll(rule.symbolAt(0).getPreConditions());
 			 
-			slot = new BodyGrammarSlot(rule.getPosition(0,0), rule.symbolAt(0).getLabel(), null, null, getConditions(preConditions), runtime);
+			String label = rule.symbolAt(0).getLabel();
+			slot = new BodyGrammarSlot(rule.getPosition(0,0), label, -1, label != null? indexOf(Expression.LeftExtent.key(label)) : -1, 
+									   null, -1, null, null, getConditions(preConditions));
 		}
 		add(slot);
 		return slot;
@@ -476,10 +538,10 @@ public class GrammarGraph implements Serializable {
 		
 		BodyGrammarSlot slot;
 		if (current != null)
-			slot = new BodyGrammarSlot(position, label, (label != null && !label.isEmpty())? current.get(label) : -1,
-									   variable, (variable != null && !variable.isEmpty())? current.get(variable) : -1, state, getConditions(rule.symbolAt(i - 1).getPostConditions()), runtime);
+			slot = new BodyGrammarSlot(position, label, indexOf(label), label != null? indexOf(Expression.LeftExtent.key(label)) : -1,
+									   variable, indexOf(variable), state, indicesOf(state), getConditions(rule.symbolAt(i - 1).getPostConditions()));
 		else
-			slot = new BodyGrammarSlot(position, label, variable, state, getConditions(rule.symbolAt(i - 1).getPostConditions()), runtime);
+			slot = new BodyGrammarSlot(position, label, variable, state, getConditions(rule.symbolAt(i - 1).getPostConditions()));
 		
 		add(slot);
 		slot.setFollowTest(getFollowTest(rule, i));
@@ -491,32 +553,42 @@ public class GrammarGraph implements Serializable {
 		
 		BodyGrammarSlot slot;
 		if (current != null)
-			slot = new EndGrammarSlot(position, nonterminal, label, (label != null && !label.isEmpty())? current.get(label) : -1,
-									  variable, (variable != null && !variable.isEmpty())? current.get(variable) : -1, state, getConditions(rule.symbolAt(i - 1).getPostConditions()), rule.getAction(), rule.getRuleType(), runtime);
+			slot = new EndGrammarSlot(position, nonterminal, label, indexOf(label), label != null? indexOf(Expression.LeftExtent.key(label)) : -1,
+									  variable, indexOf(variable), state, indicesOf(state), getConditions(rule.symbolAt(i - 1).getPostConditions()), rule.getAction(), rule.getRuleType());
 		else
-			slot = new EndGrammarSlot(position, nonterminal, label, variable, state, getConditions(rule.symbolAt(i - 1).getPostConditions()), rule.getAction(), rule.getRuleType(), runtime);
+			slot = new EndGrammarSlot(position, nonterminal, label, variable, state, getConditions(rule.symbolAt(i - 1).getPostConditions()), rule.getAction(), rule.getRuleType());
 		
 		add(slot);
 		slot.setFollowTest(getFollowTest(rule, i));
 		return slot;
 	}
 
-	private void add(GrammarSlot slot) {
-        names.put(slot.toString(), slot);
-		slots.add(slot);
+	/**
+	 * @return the index given by VarToInt to the name in the current rule, or -1 if the
+	 *         environment is not indexed.
+	 */
+	private int indexOf(String name) {
+		if (current == null || name == null || name.isEmpty())
+			return -1;
+		
+		Integer i = current.get(name);
+		return i == null? -1 : i;
 	}
 	
-	private GSSNodeLookup getNodeLookup() {
-		if (config.getGSSLookupImpl() == LookupImpl.HASH_MAP) {
-			if (config.getHashmapImpl() == HashMapImpl.JAVA)
-				return new JavaHashMapNodeLookup();
-			else if (config.getHashmapImpl() == HashMapImpl.INT_OPEN_ADDRESSING)
-				return new IntOpenAddressingMap(); 
-			else
-				throw new RuntimeException();
-		} else {
-			return new ArrayNodeLookup(input);
-		}
+	private int[] indicesOf(Set<String> state) {
+		if (current == null || state == null)
+			return null;
+		
+		int[] indices = new int[state.size()];
+		int k = 0;
+		for (String v : state)
+			indices[k++] = v.equals("_")? -1 : indexOf(v);
+		return indices;
+	}
+
+	private void add(AbstractGrammarSlot slot) {
+		slot.setId(slots.size());
+		slots.add(slot);
 	}
 	
 	static private void validateNumberOfArguments(Nonterminal nonterminal, Expression[] arguments) {
@@ -527,14 +599,21 @@ public class GrammarGraph implements Serializable {
 		throw new IncorrectNumberOfArgumentsException(nonterminal, arguments);
 	}
 
-	public void reset(Input input) {
-		slots.forEach(s -> s.reset(input));
-	}
-
 	private Conditions getConditions(Set<Condition> conditions) {
 		if (conditions.isEmpty())
 			return ConditionsFactory.DEFAULT;
-		return ConditionsFactory.getConditions(conditions, matcherFactory);
+		return ConditionsFactory.getConditions(conditions, matcherFactory, config.isCompileExpressions());
+	}
+	
+	/**
+	 * Compiles the expressions and statements of a rule when the grammar graph is built,
+	 * rather than on their first evaluation during parsing.
+	 */
+	private void compile(AbstractAST... nodes) {
+		if (!config.isCompileExpressions() || nodes == null)
+			return;
+		for (AbstractAST node : nodes)
+			node.compile();
 	}
 	
 }
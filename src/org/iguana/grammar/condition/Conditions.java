@@ -29,6 +29,7 @@ package org.iguana.grammar.condition;
 
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
 
 
@@ -40,10 +41,10 @@ import org.iguana.parser.gss.GSSNode;
 @FunctionalInterface
 public interface Conditions {
 	
-	public boolean execute(Input input, GSSNode u, int i);
+	public boolean execute(Input input, GSSNode u, int i, ParserRuntime runtime);
 	
-	default boolean execute(Input input, GSSNode u, int i, IEvaluatorContext ctx) {
-		return execute(input, u, i);
+	default boolean execute(Input input, GSSNode u, int i, IEvaluatorContext ctx, ParserRuntime runtime) {
+		return execute(input, u, i, runtime);
 	}
 	
 }
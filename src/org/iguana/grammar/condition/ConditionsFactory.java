@@ -35,6 +35,7 @@ import java.util.stream.Collectors;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.GLLEvaluator;
 import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
 import iguana.regex.matcher.MatcherFactory;
 import org.iguana.traversal.ToSlotActionConditionVisitor;
@@ -47,7 +48,7 @@ public class ConditionsFactory {
 	public static Conditions DEFAULT = new Conditions() {
 		
 		@Override
-		public boolean execute(Input input, GSSNode u, int i) {
+		public boolean execute(Input input, GSSNode u, int i, ParserRuntime runtime) {
 			return false;
 		}
 		
@@ -58,6 +59,13 @@ public class ConditionsFactory {
 	};
 	
 	public static Conditions getConditions(Set<Condition> conditions, MatcherFactory factory) {
+		return getConditions(conditions, factory, false);
+	}
+	
+	/**
+	 * @param compileExpressions whether the expressions of data-dependent conditions are compiled
+	 */
+	public static Conditions getConditions(Set<Condition> conditions, MatcherFactory factory, boolean compileExpressions) {
 		
 		List<Condition> list = new ArrayList<>(conditions);
 		
@@ -69,23 +77,23 @@ public class ConditionsFactory {
 			}
 		}
 
-		ToSlotActionConditionVisitor visitor = new ToSlotActionConditionVisitor(factory);
+		ToSlotActionConditionVisitor visitor = new ToSlotActionConditionVisitor(factory, compileExpressions);
 		List<SlotAction> actions = list.stream().map(c -> c.accept(visitor)).collect(Collectors.toList());
 		
 		if (requiresEnvironment) {
 			return new Conditions() {
 				
 				@Override
-				public boolean execute(Input input, GSSNode u, int i) {
-					return execute(input, u, i, GLLEvaluator.getDefaultEvaluatorContext(input));
+				public boolean execute(Input input, GSSNode u, int i, ParserRuntime runtime) {
+					return execute(input, u, i, GLLEvaluator.getDefaultEvaluatorContext(input), runtime);
 				}
 				
 				@Override
-				public boolean execute(Input input, GSSNode u, int i, IEvaluatorContext ctx) {
+				public boolean execute(Input input, GSSNode u, int i, IEvaluatorContext ctx, ParserRuntime runtime) {
 					for (SlotAction c : actions) {
 					    if (c.execute(input, u, i, ctx)) {
 //			                log.trace("Condition %s executed with %s", c, ctx.getEnvironment());
-                            u.getGrammarSlot().getRuntime().recordParseError(input, i, u.getGrammarSlot(), u);
+                            runtime.recordParseError(input, i, u.getGrammarSlot(), u);
 			                return true;
 			            }
 			        }
@@ -103,11 +111,11 @@ public class ConditionsFactory {
 		return new Conditions() {
 			
 			@Override
-			public boolean execute(Input input, GSSNode u, int i) {
+			public boolean execute(Input input, GSSNode u, int i, ParserRuntime runtime) {
 		        for (SlotAction c : actions) {
 		            if (c.execute(input, u, i)) {
 //		                log.trace("Condition %s executed", c);
-                        u.getGrammarSlot().getRuntime().recordParseError(input, i, u.getGrammarSlot(), u);
+                        runtime.recordParseError(input, i, u.getGrammarSlot(), u);
 		                return true;
 		            }
 		        }
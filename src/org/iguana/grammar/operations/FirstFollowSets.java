@@ -59,6 +59,10 @@ public class FirstFollowSets {
 
 	private final Set<Nonterminal> nullableNonterminals;
 	
+	private Map<Rule, List<Set<CharacterRange>>> kPredictionSets;
+	
+	private int k;
+	
 	private final ISymbolVisitor<Set<CharacterRange>> firstSetVisitor;
 	
 	private final ISymbolVisitor<Boolean> nullableVisitor;
@@ -115,6 +119,17 @@ public class FirstFollowSets {
 		return predictionSets.get(Tuple.of(rule, index));
 	}
 	
+	/**
+	 * Returns the k-character prediction sets of the given rule: the i-th set contains the
+	 * characters that can appear at index i from the start of the rule, or is null if any
+	 * character can appear there.
+	 */
+	public List<Set<CharacterRange>> getPredictionSets(Rule rule, int k) {
+		if (kPredictionSets == null || this.k != k)
+			calculatePredictionSets(k);
+		return kPredictionSets.get(rule);
+	}
+	
 	private void calculateFirstSets() {
 		
 		Set<Nonterminal> nonterminals = definitions.keySet();
@@ -278,90 +293,132 @@ public class FirstFollowSets {
 			predictionSets.computeIfAbsent(position, k -> new HashSet<>()).addAll(followSets.get(rule.getHead()));
 	}
 	
-//	public Set<Nonterminal> calculateLLNonterminals() {
-//
-//		Set<Nonterminal> nonterminals = definitions.keySet();
-//		
-//		Set<Nonterminal> ll1Nonterminals = new HashSet<>();
-//		
-//		Set<Nonterminal> ll1SubGrammarNonterminals = new HashSet<>();
-//		
-//		// Calculating character level predictions
-//		Map<Tuple<Nonterminal, Integer>, Set<Integer>> predictions = new HashMap<>();
-//		
-//		for (Nonterminal head : nonterminals) {
-//
-//			int alternateIndex = 0;
-//			for(Rule rule : definitions.get(head)) {
-//				
-//				List<Symbol> alt = rule.getBody();
-//			
-//				// Calculate the prediction set for the alternate
-//				Set<RegularExpression> s = new HashSet<>();
-//				addFirstSet(head, s, alt, 0);
-//				if(s.contains(Epsilon.getInstance())) {
-//					s.addAll(followSets.get(head));
-//				}
-//
-//				// Expand ranges into integers
-//				Set<Integer> set = new HashSet<>();
-//				for(RegularExpression r : s) {
-//					set.addAll(convert(r.getFirstSet()));
-//				}
-//				
-//				predictions.put(Tuple.of(head, alternateIndex), set);
-//				
-//				alternateIndex++;
-//			}			
-//		}
-//		
-//		for (Nonterminal head : nonterminals) {
-//			if(isLL1(head, predictions)) {
-//				ll1Nonterminals.add(head);
-//			}
-//		}
-//		
-//		for (Nonterminal head : nonterminals) {
-//			if(ll1Nonterminals.contains(head)) {
-//				boolean ll1SubGrammar = true;
-//				for(Nonterminal reachableHead : reachabilityGraph.get(head)) {
-//					if(!ll1Nonterminals.contains(reachableHead)) {
-//						ll1SubGrammar = false;
-//					}
-//				}
-//				if(ll1SubGrammar) {
-//					ll1SubGrammarNonterminals.add(head);
-//				}
-//			}
-//		}
-//		
-//		return ll1SubGrammarNonterminals;
-//	}
+	/**
+	 * 
+	 * Calculates the k-character prediction sets of the rules, as a fixed point over the
+	 * lookahead sets of the nonterminals. See {@link LookaheadSets} for the approximation used.
+	 * 
+	 */
+	private void calculatePredictionSets(int k) {
+		
+		Map<Nonterminal, LookaheadSets> lookaheadSets = new HashMap<>();
+		
+		ISymbolVisitor<LookaheadSets> visitor = new LookaheadSetsVisitor(lookaheadSets, k);
+		
+		boolean changed = true;
+		
+		while (changed) {
+			changed = false;
+			for (Nonterminal head : definitions.keySet()) {
+				LookaheadSets sets = null;
+				for (Rule rule : definitions.get(head)) {
+					sets = LookaheadSets.union(sets, getLookaheadSets(rule, visitor, k));
+				}
+				if (sets != null && !sets.equals(lookaheadSets.get(head))) {
+					lookaheadSets.put(head, sets);
+					changed = true;
+				}
+			}
+		}
+		
+		kPredictionSets = new HashMap<>();
+		
+		for (Nonterminal head : definitions.keySet()) {
+			for (Rule rule : definitions.get(head)) {
+				LookaheadSets sets = getLookaheadSets(rule, visitor, k);
+				if (sets != null)
+					kPredictionSets.put(rule, sets.followedBy(followSets.get(head)).getSets());
+			}
+		}
+		
+		this.k = k;
+	}
 	
-    @SuppressWarnings("unused")
-	private boolean isLL1(Nonterminal nonterminal, Map<Tuple<Nonterminal, Integer>, Set<Integer>> predictions) {
-    	
-    	int size = definitions.get(nonterminal).size();
-    	
-    	// If there is only one alternate
-		if(size == 1) {
-        	return true;
-        }
-        
-        for(int i = 0; i < size; i++) {
-            for(int j = 0; j < size; j++) {
-            	if(i != j) {
-            		HashSet<Integer> intersection = new HashSet<>(predictions.get(Tuple.of(nonterminal, i)));
-            		intersection.retainAll(predictions.get(Tuple.of(nonterminal, j)));
-        			if(!intersection.isEmpty()) {
-        				return false;
-                    }
-            	}
-            }
-        }
-
-        return true;
-    }
+	/**
+	 * @return the lookahead sets of the body of the rule, or null if a nonterminal in the body
+	 *         has no derivation (yet).
+	 */
+	private static LookaheadSets getLookaheadSets(Rule rule, ISymbolVisitor<LookaheadSets> visitor, int k) {
+		LookaheadSets result = LookaheadSets.epsilon(k);
+		
+		if (rule.getBody() == null)
+			return result;
+		
+		for (Symbol symbol : rule.getBody()) {
+			LookaheadSets sets = symbol.accept(visitor);
+			if (sets == null)
+				return null;
+			result = result.concat(sets);
+		}
+		return result;
+	}
+	
+	/**
+	 * 
+	 * Calculates the nonterminals that can be parsed deterministically with one character of
+	 * lookahead: the LL(1) nonterminals from which only LL(1) nonterminals are reachable.
+	 * 
+	 */
+	public Set<Nonterminal> calculateLL1Nonterminals(ReachabilityGraph reachabilityGraph) {
+		
+		Set<Nonterminal> ll1Nonterminals = new HashSet<>();
+		
+		for (Nonterminal head : definitions.keySet()) {
+			if (isLL1(head)) {
+				ll1Nonterminals.add(head);
+			}
+		}
+		
+		Set<Nonterminal> ll1SubGrammarNonterminals = new HashSet<>();
+		
+		for (Nonterminal head : ll1Nonterminals) {
+			Set<Nonterminal> reachableNonterminals = reachabilityGraph.getReachableNonterminals(head);
+			if (reachableNonterminals == null || ll1Nonterminals.containsAll(reachableNonterminals)) {
+				ll1SubGrammarNonterminals.add(head);
+			}
+		}
+		
+		return ll1SubGrammarNonterminals;
+	}
+	
+	/**
+	 * A nonterminal is LL(1) if the prediction sets of its alternatives are pairwise disjoint.
+	 */
+	private boolean isLL1(Nonterminal nonterminal) {
+		
+		List<Rule> rules = definitions.get(nonterminal);
+		
+		// If there is only one alternate
+		if (rules.size() == 1) {
+			return true;
+		}
+		
+		for (int i = 0; i < rules.size(); i++) {
+			for (int j = i + 1; j < rules.size(); j++) {
+				if (overlaps(getPredictionSet(rules.get(i), 0), getPredictionSet(rules.get(j), 0))) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * A null set is unknown, so it may overlap with any set.
+	 */
+	private static boolean overlaps(Set<CharacterRange> s1, Set<CharacterRange> s2) {
+		if (s1 == null || s2 == null) return true;
+		
+		for (CharacterRange r1 : s1) {
+			for (CharacterRange r2 : s2) {
+				if (r1.getStart() <= r2.getEnd() && r2.getStart() <= r1.getEnd()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
     
     private static class FirstSymbolVisitor extends AbstractGrammarGraphSymbolVisitor<Set<CharacterRange>> {
 
@@ -390,6 +447,36 @@ public class FirstFollowSets {
 
     }
 
+    private static class LookaheadSetsVisitor extends AbstractGrammarGraphSymbolVisitor<LookaheadSets> {
+    	
+    	private final Map<Nonterminal, LookaheadSets> lookaheadSets;
+    	
+    	private final int k;
+    	
+    	public LookaheadSetsVisitor(Map<Nonterminal, LookaheadSets> lookaheadSets, int k) {
+    		this.lookaheadSets = lookaheadSets;
+    		this.k = k;
+		}
+    	
+		@Override
+		public LookaheadSets visit(Code symbol) { return symbol.getSymbol().accept(this); }
+
+		@Override
+		public LookaheadSets visit(Conditional symbol) { return symbol.getSymbol().accept(this); }
+
+		@Override
+		public LookaheadSets visit(Nonterminal symbol) { return lookaheadSets.get(symbol); }
+
+        @Override
+        public LookaheadSets visit(Terminal symbol) {
+            return LookaheadSets.from(symbol.getRegularExpression(), k);
+        }
+
+        @Override
+		public LookaheadSets visit(Return symbol) { return LookaheadSets.epsilon(k); }
+
+    }
+
     private static class NonterminalVisitor extends AbstractGrammarGraphSymbolVisitor<Nonterminal> {
 		@Override
 		public Nonterminal visit(Code symbol) { return symbol.getSymbol().accept(this); }
@@ -0,0 +1,186 @@
+package org.iguana.grammar.operations;
+
+import iguana.regex.Alt;
+import iguana.regex.Character;
+import iguana.regex.CharacterRange;
+import iguana.regex.Epsilon;
+import iguana.regex.Opt;
+import iguana.regex.Plus;
+import iguana.regex.RegularExpression;
+import iguana.regex.Sequence;
+import iguana.regex.Star;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ *
+ * An approximation of the first k characters of the strings derived from a symbol or a
+ * sequence of symbols: for each index below k, the set of characters that can appear at
+ * that index, or null if any character can appear there.
+ *
+ * The sets are exact up to the minimum length of the derived strings. If all the derived
+ * strings have the same length (up to k), the sets of a following symbol are shifted
+ * after them; otherwise nothing is known about the characters that follow.
+ *
+ */
+class LookaheadSets {
+
+	private final List<Set<CharacterRange>> sets;
+
+	/**
+	 * The minimum length of the derived strings, at most k.
+	 */
+	private final int minLength;
+
+	/**
+	 * Whether all derived strings have the length minLength, or are longer than k.
+	 */
+	private final boolean fixedLength;
+
+	private LookaheadSets(List<Set<CharacterRange>> sets, int minLength, boolean fixedLength) {
+		this.sets = sets;
+		this.minLength = minLength;
+		this.fixedLength = fixedLength;
+	}
+
+	static LookaheadSets epsilon(int k) {
+		return new LookaheadSets(anySets(k), 0, true);
+	}
+
+	/**
+	 * Nothing is known about the derived strings, including their length.
+	 */
+	static LookaheadSets any(int k) {
+		return new LookaheadSets(anySets(k), 0, false);
+	}
+
+	static LookaheadSets from(RegularExpression regex, int k) {
+		if (regex instanceof Epsilon)
+			return epsilon(k);
+
+		if (regex instanceof Character)
+			return single(CharacterRange.from(((Character) regex).getValue()), k);
+
+		if (regex instanceof CharacterRange)
+			return single((CharacterRange) regex, k);
+
+		if (regex instanceof Sequence) {
+			LookaheadSets result = epsilon(k);
+			for (Object symbol : ((Sequence<?>) regex).getSymbols())
+				result = result.concat(from((RegularExpression) symbol, k));
+			return result;
+		}
+
+		if (regex instanceof Alt) {
+			LookaheadSets result = null;
+			for (Object symbol : ((Alt<?>) regex).getSymbols())
+				result = union(result, from((RegularExpression) symbol, k));
+			return result == null ? any(k) : result;
+		}
+
+		if (regex instanceof Plus)
+			return from(((Plus) regex).getSymbol(), k).concat(any(k));
+
+		if (regex instanceof Star || regex instanceof Opt || regex.isNullable())
+			return any(k);
+
+		// Only the first character is known
+		List<Set<CharacterRange>> sets = anySets(k);
+		sets.set(0, new HashSet<>(regex.getFirstSet()));
+		return new LookaheadSets(sets, 1, false);
+	}
+
+	private static LookaheadSets single(CharacterRange range, int k) {
+		List<Set<CharacterRange>> sets = anySets(k);
+		sets.set(0, Collections.singleton(range));
+		return new LookaheadSets(sets, 1, true);
+	}
+
+	private static List<Set<CharacterRange>> anySets(int k) {
+		return new ArrayList<>(Collections.nCopies(k, null));
+	}
+
+	/**
+	 * The lookahead sets of this followed by other.
+	 */
+	LookaheadSets concat(LookaheadSets other) {
+		int k = sets.size();
+		if (!fixedLength || minLength == k)
+			return this;
+
+		List<Set<CharacterRange>> newSets = new ArrayList<>(sets.subList(0, minLength));
+		newSets.addAll(other.sets.subList(0, k - minLength));
+		return new LookaheadSets(newSets, Math.min(k, minLength + other.minLength), other.fixedLength);
+	}
+
+	/**
+	 * Sets the characters that can follow the derived strings, if they have a fixed length below k.
+	 */
+	LookaheadSets followedBy(Set<CharacterRange> followSet) {
+		if (!fixedLength || minLength == sets.size())
+			return this;
+
+		List<Set<CharacterRange>> newSets = new ArrayList<>(sets);
+		newSets.set(minLength, new HashSet<>(followSet));
+		return new LookaheadSets(newSets, minLength, false);
+	}
+
+	/**
+	 * The lookahead sets of the alternatives s1 and s2. A null argument means no derivation.
+	 */
+	static LookaheadSets union(LookaheadSets s1, LookaheadSets s2) {
+		if (s1 == null) return s2;
+		if (s2 == null) return s1;
+
+		int k = s1.sets.size();
+		int minLength = Math.min(s1.minLength, s2.minLength);
+
+		List<Set<CharacterRange>> newSets = anySets(k);
+		for (int i = 0; i < minLength; i++) {
+			Set<CharacterRange> set1 = s1.sets.get(i);
+			Set<CharacterRange> set2 = s2.sets.get(i);
+			if (set1 != null && set2 != null) {
+				Set<CharacterRange> set = new HashSet<>(set1);
+				set.addAll(set2);
+				newSets.set(i, set);
+			}
+		}
+
+		boolean fixedLength = s1.fixedLength && s2.fixedLength && s1.minLength == s2.minLength;
+		return new LookaheadSets(newSets, minLength, fixedLength);
+	}
+
+	/**
+	 * @return the set of characters at each index below k, null meaning any character.
+	 */
+	List<Set<CharacterRange>> getSets() {
+		return sets;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+
+		if (!(obj instanceof LookaheadSets))
+			return false;
+
+		LookaheadSets other = (LookaheadSets) obj;
+		return minLength == other.minLength && fixedLength == other.fixedLength && sets.equals(other.sets);
+	}
+
+	@Override
+	public int hashCode() {
+		return sets.hashCode() * 31 + minLength;
+	}
+
+	@Override
+	public String toString() {
+		return sets + (fixedLength ? ", length " : ", min length ") + minLength;
+	}
+
+}
@@ -27,8 +27,6 @@
 
 package org.iguana.grammar.slot;
 
-import org.iguana.parser.ParserRuntime;
-
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -38,14 +36,13 @@ public abstract class AbstractGrammarSlot implements GrammarSlot {
 
 	protected final List<Transition> transitions;
 
-    protected final ParserRuntime runtime;
+	private int id = -1;
 	
-	public AbstractGrammarSlot(ParserRuntime runtime) {
-		this(runtime, Collections.emptyList());
+	public AbstractGrammarSlot() {
+		this(Collections.emptyList());
 	}
 	
-	public AbstractGrammarSlot(ParserRuntime runtime, List<Transition> transitions) {
-        this.runtime = runtime;
+	public AbstractGrammarSlot(List<Transition> transitions) {
 		this.transitions = new ArrayList<>(transitions);
 	}
 
@@ -59,9 +56,13 @@ public abstract class AbstractGrammarSlot implements GrammarSlot {
 		return transitions;
 	}
 
-    @Override
-    public ParserRuntime getRuntime() {
-        return runtime;
-    }
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
 	
 }
@@ -27,11 +27,9 @@
 
 package org.iguana.grammar.slot;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.function.BiFunction;
 
 import iguana.parsetrees.slot.Action;
 import iguana.parsetrees.slot.PackedNodeSlot;
@@ -40,54 +38,63 @@ import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.parsetrees.sppf.NonterminalNode;
 import iguana.parsetrees.sppf.SPPFNodeFactory;
 import iguana.parsetrees.term.RuleType;
-import iguana.utils.collections.Keys;
 import iguana.utils.input.Input;
 
+import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.grammar.condition.Conditions;
 import org.iguana.grammar.slot.lookahead.FollowTest;
 import org.iguana.grammar.symbol.Position;
 import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
-import org.iguana.util.Holder;
-
-import iguana.utils.collections.key.Key;
 
 
 public class BodyGrammarSlot extends AbstractGrammarSlot implements PackedNodeSlot {
 	
 	protected final Position position;
 	
-	private HashMap<Key, IntermediateNode> intermediateNodes;
-	
 	private final Conditions conditions;
 	
 	private final String label;
 	
+	private final String leftExtentKey;
+	
 	private final int i1;
 	
+	private final int leftExtentIndex;
+	
 	private final String variable;
 	
 	private final int i2;
 	
 	private final Set<String> state;
 	
+	private final int[] stateIndices;
+	
 	private FollowTest followTest;
 	
-	public BodyGrammarSlot(Position position, String label, String variable, Set<String> state, Conditions conditions, ParserRuntime runtime) {
-		this(position, label, -1, variable, -1, state, conditions, runtime);
+	public BodyGrammarSlot(Position position, String label, String variable, Set<String> state, Conditions conditions) {
+		this(position, label, -1, -1, variable, -1, state, null, conditions);
 	}
 	
-	public BodyGrammarSlot(Position position, String label, int i1, String variable, int i2, Set<String> state, Conditions conditions, ParserRuntime runtime) {
-		super(runtime);
+	/**
+	 * The indices are those given by VarToInt for the indexed environments, or -1 (null for
+	 * the state) if the names are used instead. stateIndices follows the iteration order of state,
+	 * with -1 for "_".
+	 */
+	public BodyGrammarSlot(Position position, String label, int i1, int leftExtentIndex, String variable, int i2, 
+						   Set<String> state, int[] stateIndices, Conditions conditions) {
 		this.position = position;
 		this.conditions = conditions;
 		this.label = label;
+		this.leftExtentKey = label != null ? Expression.LeftExtent.key(label) : null;
 		this.i1 = i1;
+		this.leftExtentIndex = leftExtentIndex;
 		this.variable = variable;
 		this.i2 = i2;
 		this.state = state;
-		this.intermediateNodes = new HashMap<>();
+		this.stateIndices = stateIndices;
 	}
 	
 	@Override
@@ -108,76 +115,44 @@ public class BodyGrammarSlot extends AbstractGrammarSlot implements PackedNodeSl
 		return followTest.test(v);
 	}
 	
-	public IntermediateNode createIntermediateNode(NonPackedNode leftChild, NonPackedNode rightChild) {
+	public IntermediateNode createIntermediateNode(NonPackedNode leftChild, NonPackedNode rightChild, ParserRuntime runtime) {
 		IntermediateNode newNode = SPPFNodeFactory.createIntermediateNode(this, leftChild, rightChild);
 		runtime.intermediateNodeAdded(newNode);
         runtime.packedNodeAdded(this, leftChild.getRightExtent());
 		return newNode;
 	}
 	
-	public NonPackedNode getIntermediateNode2(Input input, NonPackedNode leftChild, NonPackedNode rightChild) {
+	/**
+	 * Adds a packed node for the given children to an existing intermediate node of this slot.
+	 */
+	public void addPackedNode(IntermediateNode node, NonPackedNode leftChild, NonPackedNode rightChild, ParserRuntime runtime) {
+		boolean ambiguous = node.addPackedNode(this, leftChild, rightChild);
+		runtime.packedNodeAdded(this, leftChild.getRightExtent());
+		if (ambiguous) runtime.ambiguousNodeAdded(node);
+	}
+	
+	public NonPackedNode getIntermediateNode2(Input input, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild, ParserRuntime runtime) {
 		
 		if (isFirst())
 			return rightChild;
 		
-		Holder<IntermediateNode> holder = new Holder<>();
-		
-		BiFunction<Key, IntermediateNode, IntermediateNode> creator = (key, value) -> {
-			if (value != null) {
-				boolean ambiguous = value.addPackedNode(this, leftChild, rightChild);
-                runtime.packedNodeAdded(this, leftChild.getRightExtent());
-                if (ambiguous) runtime.ambiguousNodeAdded(value);
-				return value;
-			} else {
-				IntermediateNode newNode = createIntermediateNode(leftChild, rightChild);
-				holder.set(newNode);
-				return newNode;				
-			}
-		};
-
-        Key key = Keys.from((x, y) -> x * input.length() + y, leftChild.getLeftExtent(), rightChild.getRightExtent());
-
-        intermediateNodes.compute(key, creator);
-		
-		return holder.get();
+		return runtime.getIntermediateNode(this, u, leftChild, rightChild);
 	}
 	
-	public NonPackedNode getIntermediateNode2(Input input, NonPackedNode leftChild, NonPackedNode rightChild, Environment env) {
+	public NonPackedNode getIntermediateNode2(Input input, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild, Environment env, ParserRuntime runtime) {
 		
 		if (isFirst())
 			return rightChild;
 		
-		Holder<IntermediateNode> holder = new Holder<>();
-		BiFunction<Key, IntermediateNode, IntermediateNode> creator = (key, value) -> {
-			if (value != null) {
-                boolean ambiguous = value.addPackedNode(this, leftChild, rightChild);
-                runtime.packedNodeAdded(this, leftChild.getRightExtent());
-                if (ambiguous) runtime.ambiguousNodeAdded(value);
-				return value;
-			} else {
-				IntermediateNode newNode = createIntermediateNode(leftChild, rightChild);
-				holder.set(newNode);
-				return newNode;				
-			}
-		};
-
-        Key key = Keys.from(leftChild.getLeftExtent(), rightChild.getRightExtent(), env);
-        intermediateNodes.compute(key, creator);
-		
-		return holder.get();
+		return runtime.getIntermediateNode(this, u, leftChild, rightChild, env);
 	}	
 	
 	public Conditions getConditions() {
 		return conditions;
 	}
 
-	@Override
-	public void reset(Input input) {
-		intermediateNodes = new HashMap<>();
-	}
-	
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
-		getTransitions().forEach(t -> t.execute(input, u, node));
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
+		getTransitions().forEach(t -> t.execute(input, u, node, runtime));
 	}
 	
 	/**
@@ -189,12 +164,41 @@ public class BodyGrammarSlot extends AbstractGrammarSlot implements PackedNodeSl
 		return label;
 	}
 	
+	/**
+	 * @return the name of the variable that holds the left extent of the labeled symbol,
+	 *         or null if this slot has no label
+	 */
+	public String getLeftExtentKey() {
+		return leftExtentKey;
+	}
+	
+	/**
+	 * Declares the left extent of the labeled symbol, by its index if it has one.
+	 */
+	public Environment declareLeftExtent(Environment env, int i) {
+		return leftExtentIndex != -1? env._declare(leftExtentIndex, i) : env._declare(leftExtentKey, i);
+	}
+	
+	public void declareLeftExtent(IEvaluatorContext ctx, int i) {
+		if (leftExtentIndex != -1)
+			ctx.declareVariable(leftExtentIndex, i);
+		else
+			ctx.declareVariable(leftExtentKey, i);
+	}
+	
+	public void declareLabel(IEvaluatorContext ctx, Object value) {
+		if (i1 != -1)
+			ctx.declareVariable(i1, value);
+		else
+			ctx.declareVariable(label, value);
+	}
+	
 	public String getVariable() {
 		return variable;
 	}
 	
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
-		getTransitions().forEach(t -> t.execute(input, u, node, env));
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
+		getTransitions().forEach(t -> t.execute(input, u, node, env, runtime));
 	}
 		
 	public boolean requiresBinding() {
@@ -205,49 +209,60 @@ public class BodyGrammarSlot extends AbstractGrammarSlot implements PackedNodeSl
 		
 		if (label != null) {
 			if (i1 != -1)
-				env = env._declare(sppfNode);
+				env = env._declare(i1, sppfNode);
 			else
 				env = env._declare(label, sppfNode);
 		}
 		
 		if (variable != null && state == null) {
 			if (i2 != -1)
-				env = env._declare(((NonterminalNode) sppfNode).getValue());
+				env = env._declare(i2, ((NonterminalNode) sppfNode).getValue());
 			else
 				env = env._declare(variable, ((NonterminalNode) sppfNode).getValue());
 		}
 
-		if (variable == null && state != null) { // TODO: support for the array-based environment implementation
+		if (variable == null && state != null) {
 			if (state.size() == 1) {
 				String v = state.iterator().next();
 				if (!v.equals("_")) {
 					Object value = ((NonterminalNode) sppfNode).getValue();
-					env = env._declare(v, value);
+					env = declareState(env, 0, v, value);
 				}
 			} else {
 				List<?> values = (List<?>) ((NonterminalNode) sppfNode).getValue();
 				Iterator<?> it = values.iterator();
+				int k = 0;
 				for (String v : state) {
 					if (!v.equals("_"))
-						env = env._declare(v, it.next());
+						env = declareState(env, k, v, it.next());
+					k++;
 				}
 			}
 		}
 		
-		if (variable != null && state != null) { // TODO: support for the array-based environment implementation
+		if (variable != null && state != null) {
 			List<?> values = (List<?>) ((NonterminalNode) sppfNode).getValue();
 			Iterator<?> it = values.iterator();
 			
-			env = env._declare(variable, it.next());
+			if (i2 != -1)
+				env = env._declare(i2, it.next());
+			else
+				env = env._declare(variable, it.next());
 			
+			int k = 0;
 			for (String v : state) {
 				if (!v.equals("_"))
-					env = env._declare(v, it.next());
+					env = declareState(env, k, v, it.next());
+				k++;
 			}
 		}
 		
 		return env;
 	}
+	
+	private Environment declareState(Environment env, int k, String v, Object value) {
+		return stateIndices != null? env._declare(stateIndices[k], value) : env._declare(v, value);
+	}
 
     @Override
     public RuleType ruleType() {
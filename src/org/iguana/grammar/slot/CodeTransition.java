@@ -40,18 +40,18 @@ public class CodeTransition extends AbstractTransition {
 	
 	private final Statement[] statements;
 
-	public CodeTransition(Statement[] statements, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+	public CodeTransition(Statement[] statements, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		super(origin, dest);
 		this.statements = statements;
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 		runtime.evaluate(statements, runtime.getEmptyEnvironment());
 		if (runtime.getEnvironment().isEmpty())
-			dest.execute(input, u, node);
+			dest.execute(input, u, node, runtime);
 		else
-			dest.execute(input, u, node, runtime.getEnvironment());
+			dest.execute(input, u, node, runtime.getEnvironment(), runtime);
 	}
 	
 	/**
@@ -60,9 +60,9 @@ public class CodeTransition extends AbstractTransition {
 	 * 
 	 */
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
 		runtime.evaluate(statements, env);
-		dest.execute(input, u, node, runtime.getEnvironment());
+		dest.execute(input, u, node, runtime.getEnvironment(), runtime);
 	}
 
 	@Override
@@ -41,13 +41,13 @@ public class ConditionalTransition extends AbstractTransition {
 	
 	private final BodyGrammarSlot ifFalse;
 
-	public ConditionalTransition(Expression condition, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		this(condition, origin, dest, null, runtime);
+	public ConditionalTransition(Expression condition, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		this(condition, origin, dest, null);
 	}
 	
 	public ConditionalTransition(Expression condition, BodyGrammarSlot origin, BodyGrammarSlot dest,
-                                 BodyGrammarSlot ifFalse, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+                                 BodyGrammarSlot ifFalse) {
+		super(origin, dest);
 		this.condition = condition;
 		this.ifFalse = ifFalse;
 	}
@@ -57,7 +57,7 @@ public class ConditionalTransition extends AbstractTransition {
 	}
 	
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 		
 		Object value = runtime.evaluate(condition, runtime.getEmptyEnvironment());
 		
@@ -68,9 +68,9 @@ public class ConditionalTransition extends AbstractTransition {
 		boolean isTrue = ((Boolean) value) == true;
 		
 		if (isTrue)
-			dest.execute(input, u, node);
+			dest.execute(input, u, node, runtime);
 		else if (ifFalse != null)
-			ifFalse.execute(input, u, node);
+			ifFalse.execute(input, u, node, runtime);
 		// TODO: logging
 	}
 
@@ -80,7 +80,7 @@ public class ConditionalTransition extends AbstractTransition {
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
 		
 		Object value = runtime.evaluate(condition, env);
 		
@@ -91,9 +91,9 @@ public class ConditionalTransition extends AbstractTransition {
 		boolean isTrue = ((Boolean) value) == true;
 		
 		if (isTrue)
-			dest.execute(input, u, node, env);
+			dest.execute(input, u, node, env, runtime);
 		else if (ifFalse != null)
-			ifFalse.execute(input, u, node, env);
+			ifFalse.execute(input, u, node, env, runtime);
 		// TODO: logging
 	}
 
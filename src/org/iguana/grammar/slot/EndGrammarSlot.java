@@ -49,14 +49,14 @@ public class EndGrammarSlot extends BodyGrammarSlot implements PackedNodeSlot {
 
 	public EndGrammarSlot(Position position, NonterminalGrammarSlot nonterminal, String label,
 			              String variable, Set<String> state, Conditions conditions, Action action,
-                          RuleType ruleType, ParserRuntime runtime) {
-		this(position, nonterminal, label, -1, variable, -1, state, conditions, action, ruleType, runtime);
+                          RuleType ruleType) {
+		this(position, nonterminal, label, -1, -1, variable, -1, state, null, conditions, action, ruleType);
 	}
 	
-	public EndGrammarSlot(Position position, NonterminalGrammarSlot nonterminal, String label, int i1,
-            			  String variable, int i2, Set<String> state, Conditions conditions,
-                          Action action, RuleType ruleType, ParserRuntime runtime) {
-		super(position, label, i1, variable, i2, state, conditions, runtime);
+	public EndGrammarSlot(Position position, NonterminalGrammarSlot nonterminal, String label, int i1, int leftExtentIndex,
+            			  String variable, int i2, Set<String> state, int[] stateIndices, Conditions conditions,
+                          Action action, RuleType ruleType) {
+		super(position, label, i1, leftExtentIndex, variable, i2, state, stateIndices, conditions);
 		this.nonterminal = nonterminal;
 		this.action = action;
         this.ruleType = ruleType;
@@ -67,9 +67,9 @@ public class EndGrammarSlot extends BodyGrammarSlot implements PackedNodeSlot {
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 		if (nonterminal.testFollow(input.charAt(node.getRightExtent())))
-            u.pop(input, this, node);
+            u.pop(input, this, node, runtime);
 	}
 	
 	@Override
@@ -102,14 +102,14 @@ public class EndGrammarSlot extends BodyGrammarSlot implements PackedNodeSlot {
 	 * 
 	 */
 	@Override
-	public void execute(Input input, GSSNode u,NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u,NonPackedNode node, Environment env, ParserRuntime runtime) {
 		if (nonterminal.testFollow(input.charAt(node.getRightExtent())))
-            u.pop(input, this, node);
+            u.pop(input, this, node, runtime);
 	}
 	
-	public void execute(Input input, GSSNode u, NonPackedNode node, Object value) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Object value, ParserRuntime runtime) {
 		if (nonterminal.testFollow(input.charAt(node.getRightExtent())))
-            u.pop(input, this, node, value);
+            u.pop(input, this, node, value, runtime);
 	}
 
 }
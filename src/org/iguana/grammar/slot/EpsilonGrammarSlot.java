@@ -42,16 +42,20 @@ public class EpsilonGrammarSlot extends EndGrammarSlot {
 	private TerminalGrammarSlot epsilonSlot;
 
 	public EpsilonGrammarSlot(Position position, NonterminalGrammarSlot nonterminal, TerminalGrammarSlot epsilonSlot,
-			                  Conditions conditions, Action action, RuleType ruleType, ParserRuntime runtime) {
-		super(position, nonterminal, null, null, null, conditions, action, ruleType, runtime);
+			                  Conditions conditions, Action action, RuleType ruleType) {
+		super(position, nonterminal, null, null, null, conditions, action, ruleType);
 		this.epsilonSlot = epsilonSlot;
 	}
+
+	public TerminalGrammarSlot getEpsilonSlot() {
+		return epsilonSlot;
+	}
 	
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
         int i = node.getRightExtent();
 		if (getNonterminal().testFollow(input.charAt(i)))
-            u.pop(input, this, epsilonSlot.getTerminalNode(input, i));
+            u.pop(input, this, epsilonSlot.getTerminalNode(input, i, runtime), runtime);
 	}
 	
 	/**
@@ -61,17 +65,17 @@ public class EpsilonGrammarSlot extends EndGrammarSlot {
 	 * 
 	 */
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
         int i = node.getRightExtent();
 		if (getNonterminal().testFollow(input.charAt(i)))
-            u.pop(input, this, epsilonSlot.getTerminalNode(input, i));
+            u.pop(input, this, epsilonSlot.getTerminalNode(input, i, runtime), runtime);
 	}
 	
 	@Override
-	public void execute(Input input, GSSNode u,NonPackedNode node, Object value) {
+	public void execute(Input input, GSSNode u,NonPackedNode node, Object value, ParserRuntime runtime) {
         int i = node.getRightExtent();
 		if (getNonterminal().testFollow(input.charAt(i)))
-            u.pop(input, this, epsilonSlot.getTerminalNode(input, i), value);
+            u.pop(input, this, epsilonSlot.getTerminalNode(input, i, runtime), value, runtime);
 	}
 
 }
@@ -33,6 +33,7 @@ import iguana.utils.input.Input;
 import org.iguana.datadependent.ast.AST;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.grammar.condition.Conditions;
 import org.iguana.grammar.exception.UnexpectedRuntimeTypeException;
 import org.iguana.parser.ParserRuntime;
@@ -43,35 +44,52 @@ public class EpsilonTransition extends AbstractTransition {
 	
 	private final Type type;
 	private final String label;
+	private final String leftExtentKey;
+	private final int labelIndex;
+	private final int leftExtentIndex;
 	private final Conditions conditions;
 
-	public EpsilonTransition(Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		this(Type.DUMMY, conditions, origin, dest, runtime);
+	public EpsilonTransition(Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		this(Type.DUMMY, conditions, origin, dest);
 	}
 	
-	public EpsilonTransition(Type type, Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+	public EpsilonTransition(Type type, Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		super(origin, dest);
 		this.type = type;
 		this.label = null;
+		this.leftExtentKey = null;
+		this.labelIndex = -1;
+		this.leftExtentIndex = -1;
 		this.conditions = conditions;
 	}
 	
-	public EpsilonTransition(Type type, String label, Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+	public EpsilonTransition(Type type, String label, Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		this(type, label, -1, -1, conditions, origin, dest);
+	}
+	
+	/**
+	 * @param labelIndex      the index of the label in an indexed environment, or -1
+	 * @param leftExtentIndex the index of the left extent of the label in an indexed environment, or -1
+	 */
+	public EpsilonTransition(Type type, String label, int labelIndex, int leftExtentIndex, Conditions conditions, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		super(origin, dest);
 		
 		assert label != null && (type == Type.DECLARE_LABEL || type == Type.STORE_LABEL);
 		
 		this.type = type;
 		this.label = label;
+		this.leftExtentKey = Expression.LeftExtent.key(label);
+		this.labelIndex = labelIndex;
+		this.leftExtentIndex = leftExtentIndex;
 		this.conditions = conditions;
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
         int i = node.getRightExtent();
 		switch(type) {
             case DUMMY:
-                if (conditions.execute(input, u, i))
+                if (conditions.execute(input, u, i, runtime))
                     return;
                 break;
 
@@ -79,17 +97,17 @@ public class EpsilonTransition extends AbstractTransition {
                 break;
 
             case OPEN:
-                if (conditions.execute(input, u, i))
+                if (conditions.execute(input, u, i, runtime))
                     return;
 
                 runtime.setEnvironment(runtime.getEmptyEnvironment());
                 runtime.getEvaluatorContext().pushEnvironment();
 
-                dest.execute(input, u, node, runtime.getEnvironment());
+                dest.execute(input, u, node, runtime.getEnvironment(), runtime);
                 return;
 
             case CLOSE:
-                if (conditions.execute(input, u, i))
+                if (conditions.execute(input, u, i, runtime))
                     return;
                 break;
 
@@ -97,38 +115,41 @@ public class EpsilonTransition extends AbstractTransition {
 
                 runtime.setEnvironment(runtime.getEmptyEnvironment());
 
-                runtime.getEvaluatorContext().declareVariable(label, Tuple.<Integer, Integer>of(i, -1));
-                runtime.getEvaluatorContext().declareVariable(String.format(Expression.LeftExtent.format, label), Tuple.<Integer, Integer>of(i, -1));
+                declareLabel(runtime.getEvaluatorContext(), Tuple.<Integer, Integer>of(i, -1));
 
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
 
-                dest.execute(input, u, node, runtime.getEnvironment());
+                dest.execute(input, u, node, runtime.getEnvironment(), runtime);
                 return;
 
             case STORE_LABEL:
 
                 runtime.setEnvironment(runtime.getEmptyEnvironment());
 
-                Object value = runtime.getEvaluatorContext().lookupVariable(label);
+                Object value = labelIndex != -1? runtime.getEvaluatorContext().lookupVariable(labelIndex)
+                                               : runtime.getEvaluatorContext().lookupVariable(label);
 
                 Integer lhs;
-                if (!(value instanceof Tuple)) {
+                if (value instanceof Tuple) {
                     lhs = (Integer) ((Tuple<?,?>) value).getFirst();
                 } else {
                     throw new UnexpectedRuntimeTypeException(AST.var(label));
                 }
 
-                runtime.getEvaluatorContext().storeVariable(label, Tuple.<Integer, Integer>of(lhs, i));
+                if (labelIndex != -1)
+                    runtime.getEvaluatorContext().storeVariable(labelIndex, Tuple.<Integer, Integer>of(lhs, i));
+                else
+                    runtime.getEvaluatorContext().storeVariable(label, Tuple.<Integer, Integer>of(lhs, i));
 
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
 
-                dest.execute(input, u, node, runtime.getEnvironment());
+                dest.execute(input, u, node, runtime.getEnvironment(), runtime);
                 return;
         }
 		
-		dest.execute(input, u, node);
+		dest.execute(input, u, node, runtime);
 	}
 
 	@Override
@@ -151,7 +172,7 @@ public class EpsilonTransition extends AbstractTransition {
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
 
         int i = node.getRightExtent();
 
@@ -160,7 +181,7 @@ public class EpsilonTransition extends AbstractTransition {
 		switch(type) {
 		
             case DUMMY:
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
                 break;
 
@@ -168,44 +189,57 @@ public class EpsilonTransition extends AbstractTransition {
                 break;
 
             case OPEN:
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
                 runtime.getEvaluatorContext().pushEnvironment();
                 break;
 
             case CLOSE:
                 runtime.getEvaluatorContext().popEnvironment();
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
                 break;
 
             case DECLARE_LABEL:
-                runtime.getEvaluatorContext().declareVariable(label, Tuple.of(i, -1));
-                runtime.getEvaluatorContext().declareVariable(String.format(Expression.LeftExtent.format, label), Tuple.of(i, -1));
+                declareLabel(runtime.getEvaluatorContext(), Tuple.of(i, -1));
 
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
                 break;
 
             case STORE_LABEL:
 
-                Object value = runtime.getEvaluatorContext().lookupVariable(label);
+                Object value = labelIndex != -1? runtime.getEvaluatorContext().lookupVariable(labelIndex)
+                                               : runtime.getEvaluatorContext().lookupVariable(label);
 
                 Integer lhs;
-                if (!(value instanceof Tuple)) {
+                if (value instanceof Tuple) {
                     lhs = (Integer) ((Tuple<?,?>) value).getFirst();
                 } else {
                     throw new UnexpectedRuntimeTypeException(AST.var(label));
                 }
 
-                runtime.getEvaluatorContext().storeVariable(label, Tuple.<Integer, Integer>of(lhs, i));
+                if (labelIndex != -1)
+                    runtime.getEvaluatorContext().storeVariable(labelIndex, Tuple.<Integer, Integer>of(lhs, i));
+                else
+                    runtime.getEvaluatorContext().storeVariable(label, Tuple.<Integer, Integer>of(lhs, i));
 
-                if (conditions.execute(input, u, i, runtime.getEvaluatorContext()))
+                if (conditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
                     return;
                 break;
             }
 		
-		dest.execute(input, u, node, runtime.getEnvironment());
+		dest.execute(input, u, node, runtime.getEnvironment(), runtime);
+	}
+
+	private void declareLabel(IEvaluatorContext ctx, Tuple<Integer, Integer> value) {
+		if (labelIndex != -1) {
+			ctx.declareVariable(labelIndex, value);
+			ctx.declareVariable(leftExtentIndex, value);
+		} else {
+			ctx.declareVariable(label, value);
+			ctx.declareVariable(leftExtentKey, value);
+		}
 	}
 
 	public static enum Type {
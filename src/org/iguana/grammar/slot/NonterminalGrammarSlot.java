@@ -39,16 +39,15 @@ import iguana.parsetrees.sppf.NonterminalNode;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.condition.ConditionsFactory;
 import org.iguana.grammar.slot.lookahead.FollowTest;
 import org.iguana.grammar.slot.lookahead.LookAheadTest;
 import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.DeterministicDescent;
 import org.iguana.parser.ParserRuntime;
-import org.iguana.parser.descriptor.Descriptor;
 import org.iguana.parser.gss.GSSNode;
 import org.iguana.parser.gss.GSSNodeData;
-import org.iguana.parser.gss.lookup.GSSNodeLookup;
 import org.iguana.parser.gss.lookup.GSSNodeLookup.GSSNodeCreator;
-import org.iguana.util.Configuration.EnvironmentImpl;
 import iguana.utils.collections.key.Key;
 
 
@@ -63,18 +62,16 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 	
 	private final List<BodyGrammarSlot> firstSlots;
 	
-	private final GSSNodeLookup nodeLookup;
-
 	private LookAheadTest lookAheadTest;
 	
 	private FollowTest followTest;
 
 	private final int nodeType;
 
-	public NonterminalGrammarSlot(Nonterminal nonterminal, GSSNodeLookup nodeLookup, int nodeType, ParserRuntime runtime) {
-		super(runtime);
+	private boolean ll1SubGrammar;
+
+	public NonterminalGrammarSlot(Nonterminal nonterminal, int nodeType) {
 		this.nonterminal = nonterminal;
-		this.nodeLookup = nodeLookup;
 		this.firstSlots = new ArrayList<>();
 		this.nodeType = nodeType;
 	}
@@ -91,6 +88,10 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 		return lookAheadTest.get(v);
 	}
 	
+	public List<BodyGrammarSlot> getFirstSlots(Input input, int i) {
+		return lookAheadTest.get(input, i);
+	}
+	
 	public void setLookAheadTest(LookAheadTest lookAheadTest) {
 		this.lookAheadTest = lookAheadTest;
 	}
@@ -99,6 +100,14 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 		this.followTest = followTest;
 	}
 	
+	public LookAheadTest getLookAheadTest() {
+		return lookAheadTest;
+	}
+	
+	public FollowTest getFollowTest() {
+		return followTest;
+	}
+	
 //	public boolean testPredict(int v)  {
 //		return lookAheadTest.test(v);
 //	}
@@ -111,6 +120,18 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 		return nonterminal;
 	}
 
+	/**
+	 * Marks this nonterminal as one that can be parsed deterministically with one
+	 * character of lookahead, see {@link DeterministicDescent}.
+	 */
+	public void setLL1SubGrammar(boolean ll1SubGrammar) {
+		this.ll1SubGrammar = ll1SubGrammar;
+	}
+
+	public boolean isLL1SubGrammar() {
+		return ll1SubGrammar;
+	}
+
 	public int getNodeType() {
 		return nodeType;
 	}
@@ -124,38 +145,83 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 		return nonterminal.toString();
 	}
 	
-	public void create(Input input, BodyGrammarSlot returnSlot, GSSNode u, NonPackedNode node) {
+	public void create(Input input, BodyGrammarSlot returnSlot, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 
         int i = node.getRightExtent();
 
-		GSSNodeCreator creator = gssNode -> {
+		if (ll1SubGrammar && createDeterministic(input, returnSlot, u, node, i, runtime))
+			return;
+
+		GSSNodeCreator creator = new GSSNodeCreator() {
+			
 			// No GSS node labelled (slot, k) exits
-			if (gssNode == null) {
-				
-				gssNode = new GSSNode(this, i);
+			@Override
+			public GSSNode create() {
+				return runtime.newGSSNode(NonterminalGrammarSlot.this, i);
+			}
+			
+			@Override
+			public void created(GSSNode gssNode) {
 				runtime.gssNodeAdded(gssNode);
+				gllNodeCreated(i, runtime);
 
-				gssNode.createGSSEdge(input, returnSlot, u, node);
-				
-				final GSSNode __gssNode = gssNode;
+				gssNode.createGSSEdge(input, returnSlot, u, node, runtime);
 				
-				List<BodyGrammarSlot> firstSlots = getFirstSlots(input.charAt(i));
+				List<BodyGrammarSlot> firstSlots = getFirstSlots(input, i);
 				if (firstSlots != null)
 					for (BodyGrammarSlot s : firstSlots) {
-						if (!s.getConditions().execute(input, __gssNode, i))
-							runtime.scheduleDescriptor(new Descriptor(s, __gssNode, new DummyNode(i), input));
+						if (!s.getConditions().execute(input, gssNode, i, runtime))
+							runtime.scheduleDescriptor(s, gssNode, new DummyNode(i));
 					}
 				// nonterminal.getFirstSlots().forEach(s -> scheduleDescriptor(new Descriptor(s, __gssNode, i, DummyNode.getInstance())));
-			} else {
+			}
+			
+			@Override
+			public void found(GSSNode gssNode) {
 				runtime.log("GSSNode found: %s", gssNode);
-				gssNode.createGSSEdge(input, returnSlot, u, node);
+				gssNode.createGSSEdge(input, returnSlot, u, node, runtime);
 			}
-			return gssNode;
 		};
 		
-		nodeLookup.get(i, creator);
+		runtime.getGSSNodeLookup(this).get(i, creator);
 	}
 	
+	/**
+	 * Parses this nonterminal by recursive descent, and continues the caller with the result
+	 * as if the nonterminal node was popped from a GSS node.
+	 *
+	 * @return false if the nonterminal should be parsed by the GLL parser
+	 */
+	private boolean createDeterministic(Input input, BodyGrammarSlot returnSlot, GSSNode u, NonPackedNode node, int i, ParserRuntime runtime) {
+		DeterministicDescent descent = runtime.getDeterministicDescent();
+		if (descent == null || returnSlot.getConditions() != ConditionsFactory.DEFAULT || returnSlot.requiresBinding())
+			return false;
+
+		Object result = descent.parse(input, this, i, u);
+		if (result == DeterministicDescent.ABORTED)
+			return false;
+
+		if (result != DeterministicDescent.FAILED) {
+			NonterminalNode z = (NonterminalNode) result;
+			if (returnSlot.testFollow(input.charAt(z.getRightExtent()))) {
+				NonPackedNode y = returnSlot.getIntermediateNode2(input, u, node, z, runtime);
+				if (y != null)
+					runtime.scheduleDescriptor(returnSlot, u, y);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * From now on, this nonterminal is parsed at input index i by the GLL parser only, so that
+	 * the deterministic descent does not create a second nonterminal node for it.
+	 */
+	private void gllNodeCreated(int i, ParserRuntime runtime) {
+		DeterministicDescent descent = runtime.getDeterministicDescent();
+		if (ll1SubGrammar && descent != null)
+			descent.gssNodeCreated(this, i);
+	}
+
 	@Override
 	public boolean isFirst() {
 		return true;
@@ -169,17 +235,12 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 		throw new RuntimeException("Will be removed soon!");
 	}
 	
-	public GSSNode getGSSNode(int i) {
-		return nodeLookup.get(this, i);
+	public GSSNode getGSSNode(int i, ParserRuntime runtime) {
+		return runtime.getGSSNodeLookup(this).get(this, i);
 	}
 	
-	public Iterable<GSSNode> getGSSNodes() {
-		return nodeLookup.getNodes();
-	}
-
-	@Override
-	public void reset(Input input) {
-		nodeLookup.reset(input);
+	public Iterable<GSSNode> getGSSNodes(ParserRuntime runtime) {
+		return runtime.getGSSNodeLookup(this).getNodes();
 	}
 	
 	/**
@@ -187,89 +248,98 @@ public class NonterminalGrammarSlot extends AbstractGrammarSlot implements Nonte
 	 * Data-dependent GLL parsing
 	 * 
 	 */
-	public void create(Input input, BodyGrammarSlot returnSlot, GSSNode u, NonPackedNode node, Expression[] arguments, Environment env) {
+	public void create(Input input, BodyGrammarSlot returnSlot, GSSNode u, NonPackedNode node, Expression[] arguments, Environment env, ParserRuntime runtime) {
 		assert !(env.isEmpty() && arguments == null);
 
         int i = node.getRightExtent();
 		
 		if (arguments == null) {
 			
-			GSSNodeCreator creator = gssNode -> {
+			GSSNodeCreator creator = new GSSNodeCreator() {
+				
 				// No GSS node labelled (slot, k) exits
-				if (gssNode == null) {
-					
-					gssNode = new GSSNode(this, i);
+				@Override
+				public GSSNode create() {
+					return runtime.newGSSNode(NonterminalGrammarSlot.this, i);
+				}
+				
+				@Override
+				public void created(GSSNode gssNode) {
 					runtime.gssNodeAdded(gssNode);
+					gllNodeCreated(i, runtime);
 					
-					gssNode.createGSSEdge(input, returnSlot, u, node, env); // Record environment on the edge;
+					gssNode.createGSSEdge(input, returnSlot, u, node, env, runtime); // Record environment on the edge;
 					
-					final GSSNode __gssNode = gssNode;
-					
-					List<BodyGrammarSlot> firstSlots = getFirstSlots(input.charAt(i));
+					List<BodyGrammarSlot> firstSlots = getFirstSlots(input, i);
 					if (firstSlots != null)
 						for (BodyGrammarSlot s : firstSlots) {
-							if (!s.getConditions().execute(input, __gssNode, i))
-								runtime.scheduleDescriptor(new Descriptor(s, __gssNode, new DummyNode(i), input));
+							if (!s.getConditions().execute(input, gssNode, i, runtime))
+								runtime.scheduleDescriptor(s, gssNode, new DummyNode(i));
 						}
 					// nonterminal.getFirstSlots().forEach(s -> scheduleDescriptor(new Descriptor(s, __gssNode, i, DummyNode.getInstance())));
-				} else {
+				}
+				
+				@Override
+				public void found(GSSNode gssNode) {
 					runtime.log("GSSNode found: %s", gssNode);
-					gssNode.createGSSEdge(input, returnSlot, u, node, env); // Record environment on the edge
+					gssNode.createGSSEdge(input, returnSlot, u, node, env, runtime); // Record environment on the edge
 				}
-				return gssNode;
-			};	
+			};
 			
-			nodeLookup.get(i, creator);
+			runtime.getGSSNodeLookup(this).get(i, creator);
 			return;
 		}
 		
 		GSSNodeData<Object> data = new GSSNodeData<>(runtime.evaluate(arguments, env));
 		
-		GSSNodeCreator creator = gssNode -> {
-			if (gssNode == null) {
-				
-				gssNode = new org.iguana.datadependent.gss.GSSNode<>(this, i, data);
-				 
+		GSSNodeCreator creator = new GSSNodeCreator() {
+			
+			@Override
+			public GSSNode create() {
+				return runtime.newGSSNode(NonterminalGrammarSlot.this, i, data);
+			}
+			
+			@Override
+			public void created(GSSNode gssNode) {
 				runtime.gssNodeAdded(gssNode);
 				runtime.log("GSSNode created: %s(%s)", gssNode, data);
 				
-				if (env.isEmpty()) gssNode.createGSSEdge(input, returnSlot, u, node);
-				else gssNode.createGSSEdge(input, returnSlot, u, node, env);
+				if (env.isEmpty()) gssNode.createGSSEdge(input, returnSlot, u, node, runtime);
+				else gssNode.createGSSEdge(input, returnSlot, u, node, env, runtime);
 				
 				Environment newEnv;
 				
-				if (runtime.getConfiguration().getEnvImpl() == EnvironmentImpl.ARRAY)
+				if (runtime.getConfiguration().getEnvImpl().isIndexed())
 					newEnv = runtime.getEmptyEnvironment().declare(data.getValues());
 				else
 					newEnv = runtime.getEmptyEnvironment().declare(nonterminal.getParameters(), data.getValues());
 				
-				final GSSNode __gssNode = gssNode;
-				
-				for (BodyGrammarSlot s : getFirstSlots(input.charAt(i))) {
+				for (BodyGrammarSlot s : getFirstSlots(input, i)) {
 					
 					runtime.setEnvironment(newEnv);
 
 					if (s.getLabel() != null)
-						runtime.getEvaluatorContext().declareVariable(String.format(Expression.LeftExtent.format, s.getLabel()), i);
+						s.declareLeftExtent(runtime.getEvaluatorContext(), i);
 
-					if (!s.getConditions().execute(input, __gssNode, i, runtime.getEvaluatorContext()))
-						runtime.scheduleDescriptor(new org.iguana.datadependent.descriptor.Descriptor(s, __gssNode, new DummyNode(i), input, runtime.getEnvironment()));
+					if (!s.getConditions().execute(input, gssNode, i, runtime.getEvaluatorContext(), runtime))
+						runtime.scheduleDescriptor(s, gssNode, new DummyNode(i), runtime.getEnvironment());
 				}
 				
 				// nonterminal.getFirstSlots().forEach(s -> scheduleDescriptor(new org.jgll.datadependent.descriptor.Descriptor(s, __gssNode, i, DummyNode.getInstance(), newEnv)));
-				
-			} else {
+			}
+			
+			@Override
+			public void found(GSSNode gssNode) {
 //				log.trace("GSSNode found: %s",  gssNode);
-				if (env.isEmpty()) gssNode.createGSSEdge(input, returnSlot, u, node);
-				else gssNode.createGSSEdge(input, returnSlot, u, node, env);
+				if (env.isEmpty()) gssNode.createGSSEdge(input, returnSlot, u, node, runtime);
+				else gssNode.createGSSEdge(input, returnSlot, u, node, env, runtime);
 			}
-			return gssNode;
 		};
-		nodeLookup.get(i, data, creator);
+		runtime.getGSSNodeLookup(this).get(i, data, creator);
 	}
 	
-	public <T> GSSNode getGSSNode(int i, GSSNodeData<T> data) {
-		return nodeLookup.get(this, i, data);
+	public <T> GSSNode getGSSNode(int i, GSSNodeData<T> data, ParserRuntime runtime) {
+		return runtime.getGSSNodeLookup(this).get(this, i, data);
 	}
 
     @Override
@@ -48,24 +48,24 @@ public class NonterminalTransition extends AbstractTransition {
 	private final Expression[] arguments;
 
 	public NonterminalTransition(NonterminalGrammarSlot nonterminal, BodyGrammarSlot origin, BodyGrammarSlot dest,
-                                 Conditions preConditions, ParserRuntime runtime) {
-		this(nonterminal, origin, dest, null, preConditions, runtime);
+                                 Conditions preConditions) {
+		this(nonterminal, origin, dest, null, preConditions);
 	}
 	
-	public NonterminalTransition(NonterminalGrammarSlot nonterminal, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		this(nonterminal, origin, dest, null, ConditionsFactory.DEFAULT, runtime);
+	public NonterminalTransition(NonterminalGrammarSlot nonterminal, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		this(nonterminal, origin, dest, null, ConditionsFactory.DEFAULT);
 	}	
 	
 	public NonterminalTransition(NonterminalGrammarSlot nonterminal, BodyGrammarSlot origin, BodyGrammarSlot dest, 
-			                     Expression[] arguments, Conditions preConditions, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+			                     Expression[] arguments, Conditions preConditions) {
+		super(origin, dest);
 		this.nonterminal = nonterminal;
 		this.arguments = arguments;
 		this.preConditions = preConditions;
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 //		if (!nonterminal.testPredict(parser.getInput().charAt(i))) {
 //			parser.recordParseError(origin);
 //			return;
@@ -75,25 +75,25 @@ public class NonterminalTransition extends AbstractTransition {
 		
 		if (nonterminal.getParameters() == null && dest.getLabel() == null) {
 			
-			if (preConditions.execute(input, u, i))
+			if (preConditions.execute(input, u, i, runtime))
 				return;
 			
-			nonterminal.create(input, dest, u, node);
+			nonterminal.create(input, dest, u, node, runtime);
 			
 		} else {
 			
 			Environment env = runtime.getEmptyEnvironment();
 			
 			if (dest.getLabel() != null) {
-				env = env._declare(String.format(Expression.LeftExtent.format, dest.getLabel()), i);
+				env = dest.declareLeftExtent(env, i);
 			}
 			
 			runtime.setEnvironment(env);
 			
-			if (preConditions.execute(input, u, i, runtime.getEvaluatorContext()))
+			if (preConditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
 				return;
 			
-			nonterminal.create(input, dest, u, node, arguments, runtime.getEnvironment());
+			nonterminal.create(input, dest, u, node, arguments, runtime.getEnvironment(), runtime);
 		}
 		
 	}
@@ -101,6 +101,14 @@ public class NonterminalTransition extends AbstractTransition {
 	public NonterminalGrammarSlot getSlot() {
 		return nonterminal;
 	}
+
+	public Conditions getPreConditions() {
+		return preConditions;
+	}
+
+	public Expression[] getArguments() {
+		return arguments;
+	}
 	
 	@Override
 	public String getLabel() {
@@ -115,7 +123,7 @@ public class NonterminalTransition extends AbstractTransition {
 	 * 
 	 */
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
 		
 //		if (!nonterminal.testPredict(parser.getInput().charAt(i))) {
 //			parser.recordParseError(origin);
@@ -125,15 +133,15 @@ public class NonterminalTransition extends AbstractTransition {
         int i = node.getRightExtent();
 
         if (dest.getLabel() != null) {
-			env = env._declare(String.format(Expression.LeftExtent.format, dest.getLabel()), i);
+			env = dest.declareLeftExtent(env, i);
 		}
 		
 		runtime.setEnvironment(env);
 		
-		if (preConditions.execute(input, u, i, runtime.getEvaluatorContext()))
+		if (preConditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
 			return;
 				
-		nonterminal.create(input, dest, u, node, arguments, runtime.getEnvironment());
+		nonterminal.create(input, dest, u, node, arguments, runtime.getEnvironment(), runtime);
 	}
 
 }
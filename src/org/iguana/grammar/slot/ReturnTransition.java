@@ -38,15 +38,15 @@ public class ReturnTransition extends AbstractTransition {
 	
 	private final Expression expression;
 
-	public ReturnTransition(Expression expression, BodyGrammarSlot origin, BodyGrammarSlot dest, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+	public ReturnTransition(Expression expression, BodyGrammarSlot origin, BodyGrammarSlot dest) {
+		super(origin, dest);
 		this.expression = expression;
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 	   Object value = runtime.evaluate(expression, runtime.getEmptyEnvironment());
-	   ((EndGrammarSlot) dest).execute(input, u, node, value);
+	   ((EndGrammarSlot) dest).execute(input, u, node, value, runtime);
 	}
 
 	@Override
@@ -55,9 +55,9 @@ public class ReturnTransition extends AbstractTransition {
 	}
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
 		Object value = runtime.evaluate(expression, env);
-		((EndGrammarSlot) dest).execute(input, u, node, value);
+		((EndGrammarSlot) dest).execute(input, u, node, value, runtime);
 	}
 
 }
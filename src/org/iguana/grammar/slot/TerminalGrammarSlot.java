@@ -28,8 +28,6 @@
 package org.iguana.grammar.slot;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
 import iguana.parsetrees.slot.TerminalSlot;
@@ -48,32 +46,37 @@ public class TerminalGrammarSlot extends AbstractGrammarSlot implements Terminal
 	
 	private final Terminal terminal;
     private final Matcher matcher;
-    private final Map<Integer, TerminalNode> terminalNodes;
     private final String terminalName;
 
-	public TerminalGrammarSlot(Terminal terminal, MatcherFactory factory, String terminalName, ParserRuntime runtime) {
-		super(runtime, Collections.emptyList());
+	public TerminalGrammarSlot(Terminal terminal, MatcherFactory factory, String terminalName) {
+		super(Collections.emptyList());
 		this.terminal = terminal;
         this.matcher = factory.getMatcher(terminal.getRegex());
-        this.terminalNodes = new HashMap<>();
         this.terminalName = terminalName;
     }
 
-    public TerminalGrammarSlot(Terminal terminal, MatcherFactory factory, ParserRuntime runtime) {
-        this(terminal, factory, null, runtime);
+    public TerminalGrammarSlot(Terminal terminal, MatcherFactory factory) {
+        this(terminal, factory, null);
     }
 
-	public TerminalNode getTerminalNode(Input input, int i) {
-		return terminalNodes.computeIfAbsent(i, k -> {
-			int length = matcher.match(input, i);
-			if (length < 0) {
-				return null;
-			} else {
-				TerminalNode t = createTerminalNode(this, i, i + length, input);
-				runtime.terminalNodeAdded(t);
-				return t;
-			}
-		});
+	public TerminalNode getTerminalNode(Input input, int i, ParserRuntime runtime) {
+		return runtime.getTerminalNode(this, input, i);
+	}
+
+	/**
+	 * @return the length of the match of this terminal at input index i, or -1 if it does not match.
+	 */
+	public int match(Input input, int i) {
+		return matcher.match(input, i);
+	}
+
+	/**
+	 * Creates the terminal node of a match of the given length at input index i.
+	 */
+	public TerminalNode createNode(Input input, int i, int length, ParserRuntime runtime) {
+		TerminalNode t = createTerminalNode(this, i, i + length, input);
+		runtime.terminalNodeAdded(t);
+		return t;
 	}
 
     public Terminal getTerminal() {
@@ -95,11 +98,6 @@ public class TerminalGrammarSlot extends AbstractGrammarSlot implements Terminal
 		return terminal.toString();
 	}
 
-    @Override
-	public void reset(Input input) {
-		terminalNodes.clear();
-	}
-
     @Override
     public TerminalType terminalType() {
         return terminal;
@@ -30,7 +30,6 @@ package org.iguana.grammar.slot;
 import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.parsetrees.sppf.TerminalNode;
 import iguana.utils.input.Input;
-import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.env.Environment;
 import org.iguana.grammar.condition.Conditions;
 import org.iguana.parser.ParserRuntime;
@@ -46,26 +45,26 @@ public class TerminalTransition extends AbstractTransition {
 	private final Conditions postConditions;
 
     public TerminalTransition(TerminalGrammarSlot slot, BodyGrammarSlot origin, BodyGrammarSlot dest,
-                              Conditions preConditions, Conditions postConditions, ParserRuntime runtime) {
-		super(origin, dest, runtime);
+                              Conditions preConditions, Conditions postConditions) {
+		super(origin, dest);
         this.slot = slot;
         this.preConditions = preConditions;
         this.postConditions = postConditions;
     }
 
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {
 		int i = node.getRightExtent();
 
 		if (dest.getLabel() != null) {
-            execute(input, u, node, runtime.getEmptyEnvironment());
+            execute(input, u, node, runtime.getEmptyEnvironment(), runtime);
             return;
         }
 		
-		if (preConditions.execute(input, u, i))
+		if (preConditions.execute(input, u, i, runtime))
 			return;
 			
-		TerminalNode cr = slot.getTerminalNode(input, i);
+		TerminalNode cr = slot.getTerminalNode(input, i, runtime);
 		
 		if (cr == null) {
 			runtime.recordParseError(input, i, origin, u);
@@ -74,17 +73,25 @@ public class TerminalTransition extends AbstractTransition {
 
 		int rightExtent = cr.getRightExtent();
 			
-		if (postConditions.execute(input, u, rightExtent))
+		if (postConditions.execute(input, u, rightExtent, runtime))
 			return;
 			
-		NonPackedNode n = dest.isFirst() ? cr : dest.createIntermediateNode(node, cr);
+		NonPackedNode n = dest.isFirst() ? cr : runtime.createIntermediateNode(dest, node, cr);
 				
-		dest.execute(input, u, n);
+		dest.execute(input, u, n, runtime);
 	}
 	
 	public TerminalGrammarSlot getSlot() {
 		return slot;
 	}
+
+	public Conditions getPreConditions() {
+		return preConditions;
+	}
+
+	public Conditions getPostConditions() {
+		return postConditions;
+	}
 	
 	@Override
 	public String getLabel() {
@@ -97,19 +104,19 @@ public class TerminalTransition extends AbstractTransition {
 	 * 
 	 */
 	@Override
-	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env) {
+	public void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime) {
 
         int i = node.getRightExtent();
 
 		runtime.setEnvironment(env);
 		
 		if (dest.getLabel() != null)
-			runtime.getEvaluatorContext().declareVariable(String.format(Expression.LeftExtent.format, dest.getLabel()), i);
+			dest.declareLeftExtent(runtime.getEvaluatorContext(), i);
 
-		if (preConditions.execute(input, u, i, runtime.getEvaluatorContext()))
+		if (preConditions.execute(input, u, i, runtime.getEvaluatorContext(), runtime))
 			return;
 		
-		TerminalNode cr = slot.getTerminalNode(input, i);
+		TerminalNode cr = slot.getTerminalNode(input, i, runtime);
 		
 		if (cr == null) {
 			runtime.recordParseError(input, i, origin, u);
@@ -117,14 +124,14 @@ public class TerminalTransition extends AbstractTransition {
 		}
 
 		if (dest.getLabel() != null)
-			runtime.getEvaluatorContext().declareVariable(dest.getLabel(), cr);
+			dest.declareLabel(runtime.getEvaluatorContext(), cr);
 
-		if (postConditions.execute(input, u, cr.getRightExtent(), runtime.getEvaluatorContext()))
+		if (postConditions.execute(input, u, cr.getRightExtent(), runtime.getEvaluatorContext(), runtime))
 			return;
 		
-		NonPackedNode n = dest.isFirst() ? cr : dest.createIntermediateNode(node, cr);
+		NonPackedNode n = dest.isFirst() ? cr : runtime.createIntermediateNode(dest, node, cr);
 				
-		dest.execute(input, u, n, runtime.getEnvironment());
+		dest.execute(input, u, n, runtime.getEnvironment(), runtime);
 	}
 	
 }
@@ -30,12 +30,13 @@ package org.iguana.grammar.slot;
 import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.Environment;
+import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
 
 
 public interface Transition {
 	
-	void execute(Input input, GSSNode u, NonPackedNode node);
+	void execute(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime);
 	
 	GrammarSlot destination();
 	
@@ -48,6 +49,6 @@ public interface Transition {
 	 * Data-dependent GLL parsing
 	 * 
 	 */
-	void execute(Input input, GSSNode u, NonPackedNode node, Environment env);
+	void execute(Input input, GSSNode u, NonPackedNode node, Environment env, ParserRuntime runtime);
 	
 }
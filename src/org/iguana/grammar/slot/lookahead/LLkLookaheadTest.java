@@ -0,0 +1,66 @@
+package org.iguana.grammar.slot.lookahead;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+
+/**
+ *
+ * Refines a single character lookahead test by testing the next k - 1 characters against the
+ * k-character prediction sets of the alternatives. The additional characters are only looked
+ * at if the first character predicts more than one alternative.
+ *
+ */
+public class LLkLookaheadTest implements LookAheadTest {
+
+	private final LookAheadTest firstCharacterTest;
+
+	/**
+	 * For each first slot, the tests of the characters at index 1 to k - 1
+	 * from the start of the alternative. A null test accepts any character.
+	 */
+	private final Map<BodyGrammarSlot, FollowTest[]> tests;
+
+	public LLkLookaheadTest(LookAheadTest firstCharacterTest, Map<BodyGrammarSlot, FollowTest[]> tests) {
+		this.firstCharacterTest = firstCharacterTest;
+		this.tests = tests;
+	}
+
+	@Override
+	public List<BodyGrammarSlot> get(int v) {
+		return firstCharacterTest.get(v);
+	}
+
+	@Override
+	public List<BodyGrammarSlot> get(Input input, int i) {
+		List<BodyGrammarSlot> alternatives = firstCharacterTest.get(input.charAt(i));
+		if (alternatives.size() <= 1)
+			return alternatives;
+
+		List<BodyGrammarSlot> result = null;
+		for (int j = 0; j < alternatives.size(); j++) {
+			BodyGrammarSlot slot = alternatives.get(j);
+			boolean predicted = test(tests.get(slot), input, i);
+			if (!predicted && result == null)
+				result = new ArrayList<>(alternatives.subList(0, j));
+			else if (predicted && result != null)
+				result.add(slot);
+		}
+		return result == null ? alternatives : result;
+	}
+
+	private static boolean test(FollowTest[] tests, Input input, int i) {
+		if (tests == null)
+			return true;
+
+		for (int j = 0; j < tests.length && i + j + 1 < input.length(); j++) {
+			if (tests[j] != null && !tests[j].test(input.charAt(i + j + 1)))
+				return false;
+		}
+		return true;
+	}
+
+}
@@ -2,6 +2,7 @@ package org.iguana.grammar.slot.lookahead;
 
 import java.util.List;
 
+import iguana.utils.input.Input;
 import org.iguana.grammar.slot.BodyGrammarSlot;
 
 @FunctionalInterface
@@ -13,4 +14,12 @@ public interface LookAheadTest {
 	 */
 	List<BodyGrammarSlot> get(int v);
 	
+	/**
+	 * Returns a list of first slots that can be parsed at the given
+	 * input index, which may look at the characters after it.
+	 */
+	default List<BodyGrammarSlot> get(Input input, int i) {
+		return get(input.charAt(i));
+	}
+	
 }
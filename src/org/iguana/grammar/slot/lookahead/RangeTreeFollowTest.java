@@ -11,14 +11,32 @@ public class RangeTreeFollowTest implements FollowTest {
 
 	private IntRangeTree rangeTree;
 	
+	/**
+	 * A bit set of the characters below RangeTreeLookaheadTest.TABLE_SIZE
+	 * that pass the test. Other characters are looked up in the range tree.
+	 */
+	private final long[] table;
+	
 	public RangeTreeFollowTest(Set<CharacterRange> set) {
 		rangeTree = new AVLIntRangeTree();
 		set.forEach(r -> rangeTree.insert(r, 1));
 		rangeTree = new ArrayIntRangeTree(rangeTree);
+		
+		table = new long[RangeTreeLookaheadTest.TABLE_SIZE / 64];
+		for (int v = 0; v < RangeTreeLookaheadTest.TABLE_SIZE; v++) {
+			if (testRangeTree(v))
+				table[v >> 6] |= 1L << v;
+		}
 	}
 	
 	@Override
 	public boolean test(int v) {
+		if (v >= 0 && v < RangeTreeLookaheadTest.TABLE_SIZE)
+			return (table[v >> 6] & (1L << v)) != 0;
+		return testRangeTree(v);
+	}
+	
+	boolean testRangeTree(int v) {
 		return rangeTree.get(v) == 1;
 	}
 
@@ -10,14 +10,32 @@ import iguana.utils.collections.rangemap.RangeTree;
 
 public class RangeTreeLookaheadTest implements LookAheadTest {
 	
+	/**
+	 * The characters below this value are looked up in a table instead of the range tree.
+	 */
+	static final int TABLE_SIZE = 256;
+	
 	private final RangeTree<List<BodyGrammarSlot>> rangeTree = new RangeTree<>();
+	
+	private final List<BodyGrammarSlot>[] table;
 
+	@SuppressWarnings("unchecked")
 	public RangeTreeLookaheadTest(Map<CharacterRange, List<BodyGrammarSlot>> nonOverlappingMap) {
 		nonOverlappingMap.entrySet().forEach(e -> rangeTree.insert(e.getKey(), e.getValue().isEmpty() ? Collections.emptyList() : e.getValue()));
+		
+		table = new List[TABLE_SIZE];
+		for (int v = 0; v < TABLE_SIZE; v++)
+			table[v] = getFromRangeTree(v);
 	}
 	
 	@Override
 	public List<BodyGrammarSlot> get(int v) {
+		if (v >= 0 && v < TABLE_SIZE)
+			return table[v];
+		return getFromRangeTree(v);
+	}
+	
+	List<BodyGrammarSlot> getFromRangeTree(int v) {
 		List<BodyGrammarSlot> alternatives = rangeTree.get(v);
 		return alternatives == null ? Collections.emptyList() : alternatives;
 	}
@@ -63,6 +63,10 @@ public class Nonterminal extends AbstractSymbol {
 	 * information for each nonterminal. See NonterminalNodeType.
 	 */
 	private final int nodeType;
+
+	private final String effectiveName;
+
+	private final int hash;
 	
 	public static Nonterminal withName(String name) {
 		return builder(name).build();
@@ -79,6 +83,8 @@ public class Nonterminal extends AbstractSymbol {
 		this.excepts = builder.excepts;
 		this.nodeType = builder.nodeType;
 		this.attributes = builder.attributes;
+		this.effectiveName = name + (index > 0 ? index : "");
+		this.hash = effectiveName.hashCode();
 	}
 	
 	public boolean isEbnfList() {
@@ -147,16 +153,16 @@ public class Nonterminal extends AbstractSymbol {
 		
 		Nonterminal other = (Nonterminal) obj;
 
-		return getEffectiveName().equals(other.getEffectiveName());
+		return hash == other.hash && effectiveName.equals(other.effectiveName);
 	}
 
     public String getEffectiveName() {
-        return name + (index > 0 ? index : "");
+        return effectiveName;
     }
 
     @Override
 	public int hashCode() {
-		return getEffectiveName().hashCode();
+		return hash;
 	}
 	
 	public static Builder builder(String name) {
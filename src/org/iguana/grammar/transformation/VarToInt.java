@@ -48,12 +48,25 @@ import org.iguana.grammar.symbol.*;
 import org.iguana.traversal.IConditionVisitor;
 import org.iguana.traversal.ISymbolVisitor;
 
+/**
+ * 
+ * Maps the parameters, labels (and their left extents), variables, state bindings and declared
+ * variables of each rule to indices in the indexed (array and vector) environments. A name that
+ * is bound again in the same scope keeps its index, so that the new value replaces the old one.
+ * Names declared in a nested scope get fresh indices, which makes scopes static: pushing and
+ * popping a scope does not change an indexed environment.
+ *
+ */
 public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<AbstractAST>, ISymbolVisitor<Symbol>, IConditionVisitor<Condition> {
 	
 	private Map<java.lang.Integer, Map<java.lang.String, java.lang.Integer>> mapping;
 	
 	private Map<java.lang.String, java.lang.Integer> current;
 	
+	private Set<java.lang.String> scope;
+	
+	private int next;
+	
 	public Map<java.lang.Integer, Map<java.lang.String, java.lang.Integer>> getMapping() {
 		return mapping;
 	}
@@ -73,17 +86,21 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 				.addEBNFl(grammar.getEBNFLefts())
 				.addEBNFr(grammar.getEBNFRights())
 				.setLayout(grammar.getLayout())
+				.addPrecedencePatterns(grammar.getPrecedencePatterns())
+				.addExceptPatterns(grammar.getExceptPatterns())
 				.build();
 	}
 	
 	public Rule transform(Rule rule) {
 		current = new HashMap<>();
+		scope = new HashSet<>();
+		next = 0;
 		
 		java.lang.String[] parameters = rule.getHead().getParameters();
 		
 		if (parameters != null) {
 			for (java.lang.String parameter : parameters)
-				current.put(parameter, current.size());
+				declare(parameter);
 		}
 		
 		List<Symbol> body = new ArrayList<>();
@@ -91,30 +108,54 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 		for (Symbol symbol : rule.getBody())
 			body.add(visit(symbol));
 		
-		return Rule.withHead(rule.getHead())
-				.addSymbols(body)
-				.setRecursion(rule.getRecursion())
-				.setAssociativity(rule.getAssociativity())
-				.setPrecedence(rule.getPrecedence())
-				.setPrecedenceLevel(rule.getPrecedenceLevel())
-				.setiRecursion(rule.getIRecursion())
-				.setLeftEnd(rule.getLeftEnd())
-				.setRightEnd(rule.getRightEnd())
-				.setLeftEnds(rule.getLeftEnds())
-				.setRightEnds(rule.getRightEnds())
-				.setLayout(rule.getLayout())
-				.setLayoutStrategy(rule.getLayoutStrategy())
-				.setAction(rule.getAction())
-                .setHasRuleType(rule.hasRuleType())
-                .setRuleType(rule.getRuleType())
-				.build();
+		return rule.copyBuilder().setSymbols(body).build();
+	}
+	
+	private int declare(java.lang.String name) {
+		java.lang.Integer i = current.get(name);
+		
+		if (i == null || !scope.contains(name)) {
+			i = next++;
+			current.put(name, i);
+			scope.add(name);
+		}
+		
+		return i;
+	}
+	
+	private int lookup(java.lang.String name) {
+		java.lang.Integer i = current.get(name);
+		
+		if (i == null)
+			throw new UndeclaredVariableException(name);
+		
+		return i;
+	}
+	
+	private Symbol[] visitInScope(Symbol... symbols) {
+		Map<java.lang.String, java.lang.Integer> outer = current;
+		Set<java.lang.String> outerScope = scope;
+		
+		current = new HashMap<>(current);
+		scope = new HashSet<>();
+		
+		Symbol[] syms = new Symbol[symbols.length];
+		int i = 0;
+		for (Symbol symbol : symbols)
+			syms[i++] = visit(symbol);
+		
+		current = outer;
+		scope = outerScope;
+		return syms;
 	}
 	
 	private Symbol visit(Symbol symbol) {
 		java.lang.String label = symbol.getLabel();
 		
-		if (label != null && !label.isEmpty())
-			current.put(label, current.size());
+		if (label != null && !label.isEmpty()) {
+			declare(LeftExtent.key(label));
+			declare(label);
+		}
 		
 		Symbol sym = symbol.accept(this);
 		
@@ -129,6 +170,8 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 		
 		return sym.copyBuilder()
 				.setLabel(symbol.getLabel())
+				.removePreConditions(sym.getPreConditions())
+				.removePostConditions(sym.getPostConditions())
 				.addPreConditions(preConditions)
 				.addPostConditions(postConditions)
 				.build();
@@ -141,7 +184,7 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public Symbol visit(Block symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		return Block.block(visitInScope(symbol.getSymbols()));
 	}
 
 
@@ -165,12 +208,14 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public Symbol visit(IfThen symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		org.iguana.datadependent.ast.Expression expression = (org.iguana.datadependent.ast.Expression) symbol.getExpression().accept(this);
+		return IfThen.ifThen(expression, visitInScope(symbol.getThenPart())[0]);
 	}
 
 	@Override
 	public Symbol visit(IfThenElse symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		org.iguana.datadependent.ast.Expression expression = (org.iguana.datadependent.ast.Expression) symbol.getExpression().accept(this);
+		return IfThenElse.ifThenElse(expression, visitInScope(symbol.getThenPart())[0], visitInScope(symbol.getElsePart())[0]);
 	}
 
 	@Override
@@ -180,30 +225,43 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public Symbol visit(Nonterminal symbol) {
-		java.lang.String variable = symbol.getVariable();
 		
-		if (variable != null && !variable.isEmpty())
-			current.put(variable, current.size());
+		org.iguana.datadependent.ast.Expression[] arguments = null;
 		
-		if (symbol.getArguments() == null || symbol.getArguments().length == 0)
-			return Nonterminal.builder(symbol.getName())
-					.setIndex(symbol.getIndex())
-					.setVariable(symbol.getVariable())
-					.addExcepts(symbol.getExcepts())
-					.build();
+		// The arguments are evaluated before the variable and state are bound
+		if (symbol.getArguments() != null && symbol.getArguments().length != 0) {
+			arguments = new org.iguana.datadependent.ast.Expression[symbol.getArguments().length];
+			
+			int i = 0;
+			for (org.iguana.datadependent.ast.Expression e : symbol.getArguments())
+				arguments[i++] = (org.iguana.datadependent.ast.Expression) e.accept(this);
+		}
 		
-		org.iguana.datadependent.ast.Expression[] arguments = new org.iguana.datadependent.ast.Expression[symbol.getArguments().length];
+		java.lang.String variable = symbol.getVariable();
 		
-		int i = 0;
-		for (org.iguana.datadependent.ast.Expression e : symbol.getArguments())
-			arguments[i++] = (org.iguana.datadependent.ast.Expression) e.accept(this);
+		if (variable != null && !variable.isEmpty())
+			declare(variable);
 		
-		return Nonterminal.builder(symbol.getName())
+		if (symbol.getState() != null) {
+			for (java.lang.String v : symbol.getState()) {
+				if (!v.equals("_"))
+					declare(v);
+			}
+		}
+		
+		Nonterminal.Builder builder = Nonterminal.builder(symbol.getName())
 				.setIndex(symbol.getIndex())
-				.apply(arguments)
 				.setVariable(symbol.getVariable())
-				.addExcepts(symbol.getExcepts())
-				.build();
+				.setState(symbol.getState())
+				.setEbnfList(symbol.isEbnfList())
+				.setType(symbol.getNodeType())
+				.setAttributes(symbol.getAttributes())
+				.addExcepts(symbol.getExcepts());
+		
+		if (arguments != null)
+			builder.apply(arguments);
+		
+		return builder.build();
 	}
 
 	@Override
@@ -218,7 +276,8 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public Symbol visit(While symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		org.iguana.datadependent.ast.Expression expression = (org.iguana.datadependent.ast.Expression) symbol.getExpression().accept(this);
+		return While.whileLoop(expression, visitInScope(symbol.getBody())[0]);
 	}
 
 	@Override
@@ -228,27 +287,28 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public <E extends Symbol> Symbol visit(Alt<E> symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		// The body of an EBNF symbol becomes a rule of its own, with its own environment
+		return symbol;
 	}
 
 	@Override
 	public Symbol visit(Opt symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		return symbol;
 	}
 
 	@Override
 	public Symbol visit(Plus symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		return symbol;
 	}
 
 	@Override
 	public <E extends Symbol> Symbol visit(Sequence<E> symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		return symbol;
 	}
 
 	@Override
 	public Symbol visit(Star symbol) {
-		throw new RuntimeException("Unsupported symbol: var-to-int!");
+		return symbol;
 	}
 
 	@Override
@@ -285,12 +345,7 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 	@Override
 	public AbstractAST visit(Name expression) {
 		java.lang.String name = expression.getName();
-		java.lang.Integer i = current.get(name);
-		
-		if (i == null)
-			throw new UndeclaredVariableException(name);
-		
-		return AST.var(name, i);
+		return AST.var(name, lookup(name));
 	}
 
 	@Override
@@ -337,7 +392,7 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 				if (arguments.length == 2)
 					return AST.put(arguments[0], arguments[1]);
 				else
-					return AST.put(arguments[0], arguments[1], arguments[3]);
+					return AST.put(arguments[0], arguments[1], arguments[2]);
 			case "contains": 
 				return AST.contains(arguments[0], arguments[1]);
 			case "push": 
@@ -363,12 +418,7 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 	public AbstractAST visit(Assignment expression) {
 		
 		java.lang.String id = expression.getId();
-		java.lang.Integer i = current.get(id);
-		
-		if (i == null)
-			throw new UndeclaredVariableException(id);
-		
-		return AST.assign(id, i, (org.iguana.datadependent.ast.Expression) expression.getExpression().accept(this));
+		return AST.assign(id, lookup(id), (org.iguana.datadependent.ast.Expression) expression.getExpression().accept(this));
 	}
 
 	@Override
@@ -442,28 +492,26 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public AbstractAST visit(LeftExtent expression) {
-		throw new RuntimeException("Unsupported yet expression: " + expression);
+		java.lang.String label = expression.getLabel();
+		return AST.lExt(label, lookup(expression.getKey()));
 	}
 
 	@Override
 	public AbstractAST visit(RightExtent expression) {
-		throw new RuntimeException("Unsupported yet expression: " + expression);
+		java.lang.String label = expression.getLabel();
+		return AST.rExt(label, lookup(label));
 	}
 
 	@Override
 	public AbstractAST visit(Yield expression) {
         java.lang.String label = expression.getLabel();
-        java.lang.Integer i = current.get(label);
-
-        if (i == null)
-            throw new UndeclaredVariableException(label);
-
-        return AST.yield(label, i);
+        return AST.yield(label, lookup(label));
 	}
 
 	@Override
 	public AbstractAST visit(Val expression) {
-		throw new RuntimeException("Unsupported yet expression: " + expression);
+		java.lang.String label = expression.getLabel();
+		return AST.val(label, lookup(label));
 	}
 
 	@Override
@@ -480,9 +528,13 @@ public class VarToInt implements GrammarTransformation, IAbstractASTVisitor<Abst
 
 	@Override
 	public AbstractAST visit(VariableDeclaration declaration) {
-		int i = current.size();
-		current.put(declaration.getName(), i);
-		return AST.varDecl(declaration.getName(), i, (org.iguana.datadependent.ast.Expression) declaration.getExpression().accept(this));
+		// The expression is evaluated before the variable is declared
+		org.iguana.datadependent.ast.Expression expression = declaration.getExpression() == null? null 
+				: (org.iguana.datadependent.ast.Expression) declaration.getExpression().accept(this);
+		
+		int i = declare(declaration.getName());
+		
+		return expression == null? AST.varDecl(declaration.getName(), i) : AST.varDecl(declaration.getName(), i, expression);
 	}
 
 	@Override
@@ -0,0 +1,477 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.IntermediateNode;
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.parsetrees.sppf.NonterminalOrIntermediateNode;
+import iguana.parsetrees.sppf.TerminalNode;
+import iguana.utils.benchmark.Timer;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.GLLEvaluator;
+import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.gss.ConcurrentGSSNode;
+import org.iguana.parser.gss.GSSEdge;
+import org.iguana.parser.gss.GSSNode;
+import org.iguana.parser.gss.GSSNodeData;
+import org.iguana.parser.gss.lookup.ConcurrentHashMapNodeLookup;
+import org.iguana.parser.gss.lookup.GSSNodeLookup;
+import org.iguana.util.Configuration;
+import org.iguana.util.Holder;
+import org.iguana.util.ParseStatistics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static iguana.parsetrees.sppf.SPPFNodeFactory.createTerminalNode;
+
+/**
+ *
+ * Experimental parser runtime that processes descriptors on a work-stealing pool of
+ * Configuration.getThreadCount() threads. Each descriptor is a task that is forked onto
+ * the queue of the worker that scheduled it, and idle workers steal from the others.
+ *
+ * The GSS node lookups and the intermediate and terminal node tables are concurrent maps.
+ * Only the creation of a node is atomic per key, and the parse continues with the node
+ * outside of the map. GSS nodes synchronize adding edges and popped elements (see
+ * {@link ConcurrentGSSNode}), and intermediate nodes adding packed nodes, so the resulting
+ * SPPF is the same as the one built by the sequential runtime, although the order of packed
+ * nodes under an ambiguous node may differ. Every worker has its own evaluator context,
+ * therefore global variables are not supported.
+ *
+ * The workers are started for each call of processDescriptors and stopped when it returns.
+ * Outside of it, descriptors are kept in a stack and can be executed one by one on the
+ * calling thread, and the runtime can be reset to parse another input.
+ *
+ */
+public class ConcurrentParserRuntime extends ParserRuntimeImpl {
+
+    /*
+     * The descriptors scheduled while no parse is running on the workers.
+     */
+    private final Deque<Descriptor> pendingDescriptors;
+
+    private volatile RootTask root;
+
+    private final AtomicReferenceArray<GSSNodeLookup> gssNodeLookups;
+
+    private final AtomicReferenceArray<Map<IntermediateNodeKey, IntermediateNode>> intermediateNodes;
+
+    private final AtomicReferenceArray<Map<Integer, TerminalNode>> terminalNodes;
+
+    public ConcurrentParserRuntime(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx) {
+        super(grammarGraph, input, config, ctx, null, null);
+        this.pendingDescriptors = new ArrayDeque<>();
+        this.gssNodeLookups = new AtomicReferenceArray<>(grammarGraph.getSlotCount());
+        this.intermediateNodes = new AtomicReferenceArray<>(grammarGraph.getSlotCount());
+        this.terminalNodes = new AtomicReferenceArray<>(grammarGraph.getSlotCount());
+    }
+
+    @Override
+    public void reset(Input input, IEvaluatorContext ctx) {
+        super.reset(input, ctx);
+        pendingDescriptors.clear();
+        for (int i = 0; i < gssNodeLookups.length(); i++) {
+            gssNodeLookups.set(i, null);
+            intermediateNodes.set(i, null);
+            terminalNodes.set(i, null);
+        }
+        environments.clear();
+        environmentIds.set(0);
+        internedEnvironmentsCount.reset();
+
+        pendingDescriptorsCount.set(0);
+        maxWorklistSize.reset();
+        descriptorsCount.reset();
+        countNonterminalNodes.reset();
+        countIntermediateNodes.reset();
+        countTerminalNodes.reset();
+        countPackedNodes.reset();
+        countAmbiguousNodes.reset();
+        countGSSNodes.reset();
+        countGSSEdges.reset();
+    }
+
+    /**
+     * Processes the pending descriptors, and the ones they transitively schedule, on a new
+     * pool of workers, which is shut down when all of them have been processed.
+     */
+    @Override
+    public void processDescriptors() {
+        if (pendingDescriptors.isEmpty())
+            return;
+
+        Configuration config = getConfiguration();
+        Input input = getInput();
+        ForkJoinPool pool = new ForkJoinPool(config.getThreadCount(), p -> new Worker(p, GLLEvaluator.getEvaluatorContext(config, input)), null, false);
+        root = new RootTask(new ArrayList<>(pendingDescriptors));
+        pendingDescriptors.clear();
+        pool.execute(root);
+        try {
+            root.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Parsing " + input.getURI() + " was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        } finally {
+            root = null;
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean hasDescriptor() {
+        return !pendingDescriptors.isEmpty();
+    }
+
+    @Override
+    public Descriptor nextDescriptor() {
+        Descriptor descriptor = pendingDescriptors.removeLast();
+        pendingDescriptorsCount.decrementAndGet();
+        return descriptor;
+    }
+
+    /**
+     * Executes the last scheduled descriptor on the calling thread.
+     */
+    @Override
+    public void executeNextDescriptor() {
+        nextDescriptor().execute(this);
+    }
+
+    @Override
+    public void scheduleDescriptor(Descriptor descriptor) {
+        RootTask root = this.root;
+        if (root == null) {
+            pendingDescriptors.addLast(descriptor);
+        } else {
+            root.addToPendingCount(1);
+            new DescriptorTask(root, descriptor).fork();
+        }
+        log("Descriptor created: %s", descriptor);
+        descriptorsCount.increment();
+        maxWorklistSize.accumulate(pendingDescriptorsCount.incrementAndGet());
+    }
+
+    @Override
+    public void scheduleDescriptor(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode) {
+        scheduleDescriptor(new Descriptor(slot, gssNode, sppfNode, getInput()));
+    }
+
+    @Override
+    public void scheduleDescriptor(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env) {
+        scheduleDescriptor(new org.iguana.datadependent.descriptor.Descriptor(slot, gssNode, sppfNode, getInput(), intern(env)));
+    }
+
+    @Override
+    public synchronized void recordParseError(Input input, int i, GrammarSlot slot, GSSNode u) {
+        super.recordParseError(input, i, slot, u);
+    }
+
+    @Override
+    public synchronized ParseError getParseError() {
+        return super.getParseError();
+    }
+
+    @Override
+    public Iterable<GSSNode> getGSSNodes() {
+        List<GSSNode> nodes = new ArrayList<>();
+        for (int i = 0; i < gssNodeLookups.length(); i++) {
+            GSSNodeLookup lookup = gssNodeLookups.get(i);
+            if (lookup != null) lookup.getNodes().forEach(nodes::add);
+        }
+        return nodes;
+    }
+
+    @Override
+    public GSSNodeLookup getGSSNodeLookup(NonterminalGrammarSlot slot) {
+        GSSNodeLookup lookup = gssNodeLookups.get(slot.getId());
+        if (lookup == null) {
+            gssNodeLookups.compareAndSet(slot.getId(), null, new ConcurrentHashMapNodeLookup());
+            lookup = gssNodeLookups.get(slot.getId());
+        }
+        return lookup;
+    }
+
+    @Override
+    public GSSNode newGSSNode(NonterminalGrammarSlot slot, int inputIndex) {
+        return new ConcurrentGSSNode(slot, inputIndex);
+    }
+
+    @Override
+    public <T> GSSNode newGSSNode(NonterminalGrammarSlot slot, int inputIndex, GSSNodeData<T> data) {
+        return new org.iguana.datadependent.gss.ConcurrentGSSNode<>(slot, inputIndex, data);
+    }
+
+    @Override
+    public NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild) {
+        return getIntermediateNode(slot, leftChild, rightChild, new IntermediateNodeKey(leftChild.getLeftExtent(), rightChild.getRightExtent()));
+    }
+
+    @Override
+    public NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild, Environment env) {
+        int envId = internEnvironment(env).id;
+        return getIntermediateNode(slot, leftChild, rightChild, new IntermediateNodeKey(leftChild.getLeftExtent(), rightChild.getRightExtent(), envId));
+    }
+
+    /**
+     * Only the new node is created in the map. A packed node is added to an existing node
+     * outside of the map, while holding the lock of the node.
+     */
+    private IntermediateNode getIntermediateNode(BodyGrammarSlot slot, NonPackedNode leftChild, NonPackedNode rightChild, IntermediateNodeKey key) {
+        Map<IntermediateNodeKey, IntermediateNode> nodes = intermediateNodes.get(slot.getId());
+        if (nodes == null) {
+            intermediateNodes.compareAndSet(slot.getId(), null, new ConcurrentHashMap<>());
+            nodes = intermediateNodes.get(slot.getId());
+        }
+
+        Holder<IntermediateNode> holder = new Holder<>();
+        IntermediateNode node = nodes.computeIfAbsent(key, k -> {
+            IntermediateNode newNode = slot.createIntermediateNode(leftChild, rightChild, this);
+            holder.set(newNode);
+            return newNode;
+        });
+        if (holder.get() != null)
+            return node;
+
+        synchronized (node) {
+            slot.addPackedNode(node, leftChild, rightChild, this);
+        }
+        return null;
+    }
+
+    @Override
+    public Environment intern(Environment env) {
+        return internEnvironment(env).env;
+    }
+
+    private InternedEnvironment internEnvironment(Environment env) {
+        internedEnvironmentsCount.increment();
+        InternedEnvironment interned = environments.get(env);
+        if (interned != null)
+            return interned;
+        return environments.computeIfAbsent(env, e -> new InternedEnvironment(e, environmentIds.getAndIncrement()));
+    }
+
+    /**
+     * The terminal is matched outside of the map, so that matching does not hold the lock
+     * of a bin, and the node is only stored if no other thread has stored one for the same
+     * index in the meantime. Only the stored node is reported. Failed matches are not stored.
+     */
+    @Override
+    public TerminalNode getTerminalNode(TerminalGrammarSlot slot, Input input, int i) {
+        Map<Integer, TerminalNode> nodes = terminalNodes.get(slot.getId());
+        if (nodes == null) {
+            terminalNodes.compareAndSet(slot.getId(), null, new ConcurrentHashMap<>());
+            nodes = terminalNodes.get(slot.getId());
+        }
+
+        TerminalNode node = nodes.get(i);
+        if (node != null)
+            return node;
+
+        int length = slot.match(input, i);
+        if (length < 0)
+            return null;
+
+        TerminalNode newNode = createTerminalNode(slot, i, i + length, input);
+        node = nodes.putIfAbsent(i, newNode);
+        if (node != null)
+            return node;
+
+        terminalNodeAdded(newNode);
+        return newNode;
+    }
+
+    @Override
+    public IEvaluatorContext getEvaluatorContext() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof Worker)
+            return ((Worker) thread).ctx;
+        return super.getEvaluatorContext();
+    }
+
+    @Override
+    public void terminalNodeAdded(TerminalNode node) {
+        countTerminalNodes.increment();
+        log("Terminal node added %s", node);
+    }
+
+    @Override
+    public void nonterminalNodeAdded(NonterminalNode node) {
+        countNonterminalNodes.increment();
+        log("Nonterminal node added %s", node);
+    }
+
+    @Override
+    public void intermediateNodeAdded(IntermediateNode node) {
+        countIntermediateNodes.increment();
+        log("Intermediate node added %s", node);
+    }
+
+    @Override
+    public void packedNodeAdded(Object slot, int pivot) {
+        countPackedNodes.increment();
+        log("Packed node added (%s, %d)", slot, pivot);
+    }
+
+    @Override
+    public void ambiguousNodeAdded(NonterminalOrIntermediateNode node) {
+        countAmbiguousNodes.increment();
+        log("Ambiguous node added: %s", node);
+    }
+
+    @Override
+    public void gssNodeAdded(GSSNode node) {
+        countGSSNodes.increment();
+        log("GSS node added %s", node);
+    }
+
+    @Override
+    public void gssEdgeAdded(GSSEdge edge) {
+        countGSSEdges.increment();
+        log("GSS Edge added %s", edge);
+    }
+
+    @Override
+    public ParseStatistics getParseStatistics(Timer timer) {
+        return ParseStatistics.builder()
+                              .setNanoTime(timer.getNanoTime())
+                              .setUserTime(timer.getUserTime())
+                              .setSystemTime(timer.getSystemTime())
+                              .setMemoryUsed(getMemoryUsed())
+                              .setDescriptorsCount(descriptorsCount.intValue())
+                              .setDuplicateDescriptorsCount(0) // Only rejected in recognizer mode, which does not use this runtime
+                              .setGSSNodesCount(countGSSNodes.intValue() + 1) // + start gss node
+                              .setGSSEdgesCount(countGSSEdges.intValue())
+                              .setNonterminalNodesCount(countNonterminalNodes.intValue())
+                              .setTerminalNodesCount(countTerminalNodes.intValue())
+                              .setIntermediateNodesCount(countIntermediateNodes.intValue())
+                              .setPackedNodesCount(countPackedNodes.intValue())
+                              .setAmbiguousNodesCount(countAmbiguousNodes.intValue())
+                              .setMaxWorklistSize(maxWorklistSize.intValue())
+                              .setInternedEnvironmentsCount(internedEnvironmentsCount.intValue())
+                              .setDistinctEnvironmentsCount(environments.size())
+                              .build();
+    }
+
+    /**
+     * Completes when all the descriptors, including the ones they transitively schedule,
+     * have been processed. Every descriptor task is attached to the root as a pending task.
+     */
+    private class RootTask extends CountedCompleter<Void> {
+
+        private final List<Descriptor> descriptors;
+
+        RootTask(List<Descriptor> descriptors) {
+            this.descriptors = descriptors;
+        }
+
+        @Override
+        public void compute() {
+            for (Descriptor descriptor : descriptors) {
+                addToPendingCount(1);
+                new DescriptorTask(this, descriptor).fork();
+            }
+            tryComplete();
+        }
+    }
+
+    private class DescriptorTask extends CountedCompleter<Void> {
+
+        private final Descriptor descriptor;
+
+        DescriptorTask(RootTask root, Descriptor descriptor) {
+            super(root);
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public void compute() {
+            log("Processing %s", descriptor);
+            pendingDescriptorsCount.decrementAndGet();
+            descriptor.execute(ConcurrentParserRuntime.this);
+            tryComplete();
+        }
+    }
+
+    private static final class InternedEnvironment {
+
+        private final Environment env;
+
+        private final int id;
+
+        InternedEnvironment(Environment env, int id) {
+            this.env = env;
+            this.id = id;
+        }
+    }
+
+    private static class Worker extends ForkJoinWorkerThread {
+
+        private final IEvaluatorContext ctx;
+
+        Worker(ForkJoinPool pool, IEvaluatorContext ctx) {
+            super(pool);
+            this.ctx = ctx;
+        }
+    }
+
+    /*
+     * The environments of this parse, interned as in the sequential runtime. The ids are
+     * given in the order in which the workers intern the environments.
+     */
+    private final Map<Environment, InternedEnvironment> environments = new ConcurrentHashMap<>();
+
+    private final AtomicInteger environmentIds = new AtomicInteger();
+
+    private final LongAdder internedEnvironmentsCount = new LongAdder();
+
+    /*
+     * The descriptors that have been scheduled and are not being or have not been executed,
+     * which correspond to the descriptors in the worklist of the sequential runtime.
+     */
+    private final AtomicInteger pendingDescriptorsCount = new AtomicInteger();
+
+    private final LongAccumulator maxWorklistSize = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder descriptorsCount = new LongAdder();
+
+    private final LongAdder countNonterminalNodes = new LongAdder();
+
+    private final LongAdder countIntermediateNodes = new LongAdder();
+
+    private final LongAdder countTerminalNodes = new LongAdder();
+
+    private final LongAdder countPackedNodes = new LongAdder();
+
+    private final LongAdder countAmbiguousNodes = new LongAdder();
+
+    private final LongAdder countGSSNodes = new LongAdder();
+
+    private final LongAdder countGSSEdges = new LongAdder();
+
+}
@@ -0,0 +1,343 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.DummyNode;
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.parsetrees.sppf.TerminalNode;
+import iguana.utils.collections.IntHashMap;
+import iguana.utils.collections.OpenAddressingIntHashMap;
+import iguana.utils.input.Input;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.condition.ConditionsFactory;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.EpsilonGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.slot.NonterminalTransition;
+import org.iguana.grammar.slot.TerminalTransition;
+import org.iguana.grammar.slot.Transition;
+import org.iguana.parser.gss.GSSNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ *
+ * Parses nonterminals that are marked as LL(1) sub grammars by recursive descent, without
+ * creating GSS edges or descriptors. The SPPF nodes of an alternative are only created when
+ * the alternative has been parsed, through the node tables of the runtime. The nonterminal
+ * node is popped from the GSS node of (nonterminal, input index), which is created without
+ * edges, so a later GLL call of the nonterminal at that index finds the GSS node and
+ * continues with the same nonterminal node. Conversely, once the GLL parser has created the
+ * GSS node of a (nonterminal, input index) pair, the descent leaves that pair to it.
+ *
+ * The descent gives up on the first nondeterminism it meets: more than one alternative
+ * for the lookahead character, conditions, labels, parameters, a left-recursive call or
+ * a too deep recursion. The (nonterminal, input index) pairs on the current descent path
+ * are then marked as aborted, and are parsed by the GLL parser instead.
+ *
+ */
+public class DeterministicDescent {
+
+    /**
+     * The result of a nonterminal that has no derivation at an input index.
+     */
+    public static final Object FAILED = new Object();
+
+    /**
+     * The result of a nonterminal that should be parsed by the GLL parser.
+     */
+    public static final Object ABORTED = new Object();
+
+    private static final Object IN_PROGRESS = new Object();
+
+    private static final int MAX_DEPTH = 1000;
+
+    private final ParserRuntime runtime;
+
+    private final Results[] results;
+
+    /**
+     * The results that are not empty, so that reset only visits these.
+     */
+    private final List<Results> usedResults = new ArrayList<>();
+
+    private int depth;
+
+    public DeterministicDescent(GrammarGraph grammarGraph, ParserRuntime runtime) {
+        this.runtime = runtime;
+        this.results = new Results[grammarGraph.getSlotCount()];
+    }
+
+    /**
+     * Parses the given nonterminal at input index i.
+     *
+     * @param u the GSS node of the GLL caller, used for reporting parse errors
+     *
+     * @return the nonterminal node, FAILED or ABORTED
+     */
+    public Object parse(Input input, NonterminalGrammarSlot slot, int i, GSSNode u) {
+        if (!slot.isLL1SubGrammar())
+            return ABORTED;
+
+        Results map = getResults(slot);
+
+        Object result = map.get(i);
+        if (result == IN_PROGRESS)
+            return ABORTED;
+        if (result != null)
+            return result;
+
+        if (depth == MAX_DEPTH)
+            return ABORTED;
+
+        map.add(i, IN_PROGRESS);
+        depth++;
+        try {
+            result = parseAlternative(input, slot, i, u);
+        } finally {
+            depth--;
+        }
+        map.set(i, result);
+        return result;
+    }
+
+    /**
+     * Called when the GLL parser creates the GSS node of the given nonterminal at input index i,
+     * after which the nonterminal at i is parsed by the GLL parser only.
+     */
+    public void gssNodeCreated(NonterminalGrammarSlot slot, int i) {
+        Results map = getResults(slot);
+        if (map.get(i) == null)
+            map.add(i, ABORTED);
+        else
+            map.set(i, ABORTED);
+    }
+
+    /**
+     * Removes the results of the previous parse.
+     */
+    public void reset() {
+        for (Results map : usedResults) {
+            map.clear();
+            map.used = false;
+        }
+        usedResults.clear();
+    }
+
+    /**
+     * Removes the results at input indices before i. The results at later indices, including
+     * the pairs marked as aborted for the GLL parser, are kept under the index they were
+     * stored with: in recognizer mode the left extent of a nonterminal node is not the index
+     * it was parsed at, as its children are dummy nodes.
+     */
+    public void releaseBefore(int i) {
+        Iterator<Results> it = usedResults.iterator();
+        while (it.hasNext()) {
+            Results map = it.next();
+            map.releaseBefore(i);
+            if (map.isEmpty()) {
+                map.used = false;
+                it.remove();
+            }
+        }
+    }
+
+    private Results getResults(NonterminalGrammarSlot slot) {
+        Results map = results[slot.getId()];
+        if (map == null) {
+            map = new Results();
+            results[slot.getId()] = map;
+        }
+        if (!map.used) {
+            map.used = true;
+            usedResults.add(map);
+        }
+        return map;
+    }
+
+    private Object parseAlternative(Input input, NonterminalGrammarSlot nonterminal, int i, GSSNode u) {
+        List<BodyGrammarSlot> firstSlots = nonterminal.getFirstSlots(input, i);
+
+        if (firstSlots == null || firstSlots.isEmpty())
+            return FAILED;
+
+        if (firstSlots.size() > 1)
+            return ABORTED;
+
+        BodyGrammarSlot slot = firstSlots.get(0);
+
+        if (slot.getConditions() != ConditionsFactory.DEFAULT)
+            return ABORTED;
+
+        // The slots after each symbol and the nodes of the symbols, from which the SPPF is built
+        List<BodyGrammarSlot> slots = new ArrayList<>();
+        List<NonPackedNode> children = new ArrayList<>();
+        int j = i;
+
+        while (true) {
+            if (slot.getClass() == EpsilonGrammarSlot.class) {
+                EpsilonGrammarSlot end = (EpsilonGrammarSlot) slot;
+                if (!nonterminal.testFollow(input.charAt(i)))
+                    return FAILED;
+                return createNode(input, nonterminal, i, end, end.getEpsilonSlot().getTerminalNode(input, i, runtime));
+            }
+
+            if (slot.getClass() == EndGrammarSlot.class) {
+                if (!nonterminal.testFollow(input.charAt(j)))
+                    return FAILED;
+                return createNode(input, nonterminal, i, (EndGrammarSlot) slot, createNodes(i, slots, children, u));
+            }
+
+            if (slot.getClass() != BodyGrammarSlot.class)
+                return ABORTED;
+
+            Iterator<Transition> it = slot.getTransitions().iterator();
+            if (!it.hasNext())
+                return ABORTED;
+            Transition transition = it.next();
+            if (it.hasNext())
+                return ABORTED;
+
+            BodyGrammarSlot dest = (BodyGrammarSlot) transition.destination();
+            if (dest.getLabel() != null)
+                return ABORTED;
+
+            NonPackedNode child;
+
+            if (transition.getClass() == TerminalTransition.class) {
+                TerminalTransition t = (TerminalTransition) transition;
+                if (t.getPreConditions() != ConditionsFactory.DEFAULT || t.getPostConditions() != ConditionsFactory.DEFAULT)
+                    return ABORTED;
+
+                TerminalNode cr = t.getSlot().getTerminalNode(input, j, runtime);
+                if (cr == null) {
+                    runtime.recordParseError(input, j, slot, u);
+                    return FAILED;
+                }
+                child = cr;
+            }
+            else if (transition.getClass() == NonterminalTransition.class) {
+                NonterminalTransition t = (NonterminalTransition) transition;
+                if (t.getPreConditions() != ConditionsFactory.DEFAULT || t.getSlot().getParameters() != null)
+                    return ABORTED;
+
+                Object result = parse(input, t.getSlot(), j, u);
+                if (result == ABORTED || result == FAILED)
+                    return result;
+
+                NonterminalNode z = (NonterminalNode) result;
+
+                if (!dest.testFollow(input.charAt(z.getRightExtent())))
+                    return FAILED;
+
+                if (dest.getConditions() != ConditionsFactory.DEFAULT || dest.requiresBinding())
+                    return ABORTED;
+
+                child = z;
+            }
+            else {
+                return ABORTED;
+            }
+
+            slots.add(dest);
+            children.add(child);
+            j = child.getRightExtent();
+            slot = dest;
+        }
+    }
+
+    /**
+     * Creates the intermediate nodes of a parsed alternative in the runtime's table.
+     */
+    private NonPackedNode createNodes(int i, List<BodyGrammarSlot> slots, List<NonPackedNode> children, GSSNode u) {
+        NonPackedNode node = new DummyNode(i);
+        for (int k = 0; k < slots.size(); k++) {
+            BodyGrammarSlot dest = slots.get(k);
+            if (dest.isFirst()) {
+                node = children.get(k);
+            } else {
+                node = runtime.getIntermediateNode(dest, u, node, children.get(k));
+                // The GLL parser has not parsed the nonterminal at i, so the node is new
+                assert node != null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Pops the nonterminal node from a new GSS node without edges, which is found by the
+     * GLL parser if it calls the nonterminal at i later.
+     */
+    private NonterminalNode createNode(Input input, NonterminalGrammarSlot nonterminal, int i, EndGrammarSlot slot, NonPackedNode child) {
+        GSSNode gssNode = nonterminal.getGSSNode(i, runtime);
+        runtime.gssNodeAdded(gssNode);
+        gssNode.pop(input, slot, child, runtime);
+        return gssNode.getNonterminalNode(input, child.getRightExtent());
+    }
+
+    /**
+     * The results of a nonterminal by input index, together with the indices they are stored
+     * at, as the result map cannot be iterated by key and does not support removal.
+     */
+    private static final class Results {
+
+        private final IntHashMap<Object> map = new OpenAddressingIntHashMap<>();
+
+        private int[] indices = new int[8];
+
+        private int size;
+
+        /**
+         * Whether the results are in the list of used results.
+         */
+        private boolean used;
+
+        Object get(int i) {
+            return map.get(i);
+        }
+
+        /**
+         * Adds the result at an index that has no result yet.
+         */
+        void add(int i, Object result) {
+            if (size == indices.length)
+                indices = Arrays.copyOf(indices, size << 1);
+            indices[size++] = i;
+            map.put(i, result);
+        }
+
+        /**
+         * Replaces the result at an index that already has one.
+         */
+        void set(int i, Object result) {
+            map.put(i, result);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            map.clear();
+            size = 0;
+        }
+
+        void releaseBefore(int i) {
+            int[] oldIndices = indices;
+            int oldSize = size;
+            Object[] values = new Object[oldSize];
+            for (int k = 0; k < oldSize; k++)
+                values[k] = map.get(oldIndices[k]);
+
+            clear();
+            indices = new int[Math.max(8, Integer.highestOneBit(oldSize))];
+            for (int k = 0; k < oldSize; k++)
+                if (oldIndices[k] >= i)
+                    add(oldIndices[k], values[k]);
+        }
+    }
+
+}
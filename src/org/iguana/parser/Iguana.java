@@ -38,7 +38,7 @@ import org.iguana.grammar.Grammar;
 import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.slot.NonterminalGrammarSlot;
 import org.iguana.grammar.symbol.Nonterminal;
-import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.codegen.CompiledParser;
 import org.iguana.parser.gss.GSSNode;
 import org.iguana.parser.gss.GSSNodeData;
 import org.iguana.util.Configuration;
@@ -57,11 +57,37 @@ import java.util.Map;
 public class Iguana {
 	
 	public static ParseResult parse(Input input, GrammarGraph grammarGraph, Configuration config, Nonterminal nonterminal, Map<String, ?> map, boolean global) {
+        return parse(input, grammarGraph, config, nonterminal, map, global, null);
+    }
+
+    private static ParseResult parse(Input input, GrammarGraph grammarGraph, Configuration config, Nonterminal nonterminal, Map<String, ?> map, boolean global, CompiledParser compiledParser) {
         IEvaluatorContext ctx = GLLEvaluator.getEvaluatorContext(config, input);
 
-        ParserRuntime runtime = grammarGraph.getRuntime();
+        ParserRuntime runtime;
+        if (config.isRecognizer())
+            runtime = new RecognizerRuntime(grammarGraph, input, config, ctx, compiledParser);
+        else if (compiledParser != null)
+            runtime = new ParserRuntimeImpl(grammarGraph, input, config, ctx, compiledParser);
+        else if (config.getThreadCount() > 1 && map.isEmpty())
+            runtime = new ConcurrentParserRuntime(grammarGraph, input, config, ctx);
+        else
+            runtime = new ParserRuntimeImpl(grammarGraph, input, config, ctx);
+
+        return parse(runtime, nonterminal, map, global);
+    }
+
+	/**
+	 * Parses the input of the given runtime. After ParserRuntimeImpl.reset, the same runtime
+	 * can be used to parse another input, reusing the tables it has allocated.
+	 */
+	public static ParseResult parse(ParserRuntime runtime, Nonterminal startSymbol) {
+		return parse(runtime, startSymbol, Collections.emptyMap(), true);
+	}
 
-        grammarGraph.reset(input);
+    private static ParseResult parse(ParserRuntime runtime, Nonterminal nonterminal, Map<String, ?> map, boolean global) {
+        Input input = runtime.getInput();
+        GrammarGraph grammarGraph = runtime.getGrammarGraph();
+        IEvaluatorContext ctx = runtime.getEvaluatorContext();
 
         if (global)
             map.forEach((k,v) -> ctx.declareGlobalVariable(k, v));
@@ -85,11 +111,14 @@ public class Iguana {
             for (String parameter : nonterminal.getParameters())
                 arguments[i++] = map.get(parameter);
 
-            startGSSNode = startSymbol.getGSSNode(0, new GSSNodeData<>(arguments));
-            env = ctx.getEmptyEnvironment().declare(nonterminal.getParameters(), arguments);
+            startGSSNode = startSymbol.getGSSNode(0, new GSSNodeData<>(arguments), runtime);
+            if (runtime.getConfiguration().getEnvImpl().isIndexed())
+                env = ctx.getEmptyEnvironment().declare(arguments);
+            else
+                env = ctx.getEmptyEnvironment().declare(nonterminal.getParameters(), arguments);
         } else {
             env = null;
-            startGSSNode = startSymbol.getGSSNode(0);
+            startGSSNode = startSymbol.getGSSNode(0, runtime);
         }
 
         runtime.log("Parsing %s:", input.getURI());
@@ -98,15 +127,11 @@ public class Iguana {
         timer.start();
 
         if (env == null)
-            startSymbol.getFirstSlots().forEach(s -> runtime.scheduleDescriptor(new Descriptor(s, startGSSNode, new DummyNode(0), input)));
+            startSymbol.getFirstSlots().forEach(s -> runtime.scheduleDescriptor(s, startGSSNode, new DummyNode(0)));
         else
-            startSymbol.getFirstSlots().forEach(s -> runtime.scheduleDescriptor(new org.iguana.datadependent.descriptor.Descriptor(s, startGSSNode, new DummyNode(0), input, env)));
+            startSymbol.getFirstSlots().forEach(s -> runtime.scheduleDescriptor(s, startGSSNode, new DummyNode(0), env));
 
-        while(runtime.hasDescriptor()) {
-            Descriptor descriptor = runtime.nextDescriptor();
-            runtime.log("Processing %s", descriptor);
-            descriptor.execute();
-        }
+        runtime.processDescriptors();
 
         root = startGSSNode.getNonterminalNode(input, input.length() - 1);
 
@@ -119,7 +144,10 @@ public class Iguana {
             runtime.log("Parse error:\n %s", parseResult);
         } else {
             ParseStatistics parseStatistics = runtime.getParseStatistics(timer);
-            parseResult = new ParseSuccess(root, parseStatistics, input);
+            if (runtime.getConfiguration().isRecognizer())
+                parseResult = new RecognitionSuccess(parseStatistics, input);
+            else
+                parseResult = new ParseSuccess(root, parseStatistics, input);
             runtime.log("Parsing finished successfully.");
             runtime.log(parseStatistics.toString());
         }
@@ -128,7 +156,15 @@ public class Iguana {
     }
 	
 	public static ParseResult parse(Input input, GrammarGraph grammarGraph, Nonterminal startSymbol) {
-		return parse(input, grammarGraph, Configuration.load(), startSymbol, Collections.emptyMap(), true);
+		return parse(input, grammarGraph, grammarGraph.getConfiguration(), startSymbol, Collections.emptyMap(), true);
+	}
+
+	/**
+	 * Parses the input with a parser generated by {@link org.iguana.parser.codegen.ParserGenerator}.
+	 */
+	public static ParseResult parse(Input input, CompiledParser parser, Nonterminal startSymbol) {
+		GrammarGraph grammarGraph = parser.getGrammarGraph();
+		return parse(input, grammarGraph, grammarGraph.getConfiguration(), startSymbol, Collections.emptyMap(), true, parser);
 	}
 
     public static ParseResult parse(Input input, Grammar grammar, Nonterminal startSymbol) {
@@ -0,0 +1,42 @@
+package org.iguana.parser;
+
+/**
+ * The key of an intermediate node in the table of its slot. Environments are interned,
+ * so equal environments have the same id. The id is -1 for nodes without an environment.
+ */
+final class IntermediateNodeKey {
+
+    private final int leftExtent;
+
+    private final int rightExtent;
+
+    private final int envId;
+
+    IntermediateNodeKey(int leftExtent, int rightExtent) {
+        this(leftExtent, rightExtent, -1);
+    }
+
+    IntermediateNodeKey(int leftExtent, int rightExtent, int envId) {
+        this.leftExtent = leftExtent;
+        this.rightExtent = rightExtent;
+        this.envId = envId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+
+        if (!(obj instanceof IntermediateNodeKey))
+            return false;
+
+        IntermediateNodeKey other = (IntermediateNodeKey) obj;
+        return leftExtent == other.leftExtent && rightExtent == other.rightExtent && envId == other.envId;
+    }
+
+    @Override
+    public int hashCode() {
+        return (leftExtent * 31 + rightExtent) * 31 + envId;
+    }
+
+}
@@ -0,0 +1,147 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.IntermediateNode;
+
+import java.util.Arrays;
+
+/**
+ *
+ * The intermediate nodes of a parse, keyed by (slot id, left extent, right extent). The
+ * extents are packed in a long, and the slot ids are kept in a parallel array. The table
+ * uses open addressing with linear probing, so looking up and adding a node does not
+ * allocate, except when the table grows.
+ *
+ */
+public class IntermediateNodeTable {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+
+    private int[] slotIds;
+
+    private IntermediateNode[] nodes;
+
+    private int mask;
+
+    private int size;
+
+    private int threshold;
+
+    /**
+     * The index of the entry found, or of the free entry where it should be added,
+     * by the last call of get.
+     */
+    private int lastIndex;
+
+    public IntermediateNodeTable() {
+        init(INITIAL_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        keys = new long[capacity];
+        slotIds = new int[capacity];
+        nodes = new IntermediateNode[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * @return the intermediate node of the slot with the given extents, or null if there is none.
+     */
+    public IntermediateNode get(int slotId, int leftExtent, int rightExtent) {
+        long key = key(leftExtent, rightExtent);
+        int i = hash(slotId, key) & mask;
+        IntermediateNode node;
+        while ((node = nodes[i]) != null) {
+            if (keys[i] == key && slotIds[i] == slotId)
+                break;
+            i = (i + 1) & mask;
+        }
+        lastIndex = i;
+        return node;
+    }
+
+    /**
+     * Adds a node for which get has just returned null, with the same arguments.
+     */
+    public void putAfterGet(int slotId, int leftExtent, int rightExtent, IntermediateNode node) {
+        if (size >= threshold) {
+            rehash();
+            get(slotId, leftExtent, rightExtent);
+        }
+        keys[lastIndex] = key(leftExtent, rightExtent);
+        slotIds[lastIndex] = slotId;
+        nodes[lastIndex] = node;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the nodes. A table that has grown is replaced by a table of the initial
+     * capacity, so that clearing after a small parse stays cheap.
+     */
+    public void clear() {
+        if (nodes.length > INITIAL_CAPACITY)
+            init(INITIAL_CAPACITY);
+        else if (size > 0)
+            Arrays.fill(nodes, null);
+        size = 0;
+    }
+
+    /**
+     * Removes the nodes whose right extent is before the given index. The capacity of the
+     * table is kept.
+     */
+    public void removeBefore(int rightExtent) {
+        long[] oldKeys = keys;
+        int[] oldSlotIds = slotIds;
+        IntermediateNode[] oldNodes = nodes;
+
+        init(oldNodes.length);
+        size = 0;
+
+        for (int j = 0; j < oldNodes.length; j++) {
+            if (oldNodes[j] == null || (int) oldKeys[j] < rightExtent) continue;
+            insert(oldSlotIds[j], oldKeys[j], oldNodes[j]);
+            size++;
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlotIds = slotIds;
+        IntermediateNode[] oldNodes = nodes;
+
+        init(oldNodes.length << 1);
+
+        for (int j = 0; j < oldNodes.length; j++) {
+            if (oldNodes[j] == null) continue;
+            insert(oldSlotIds[j], oldKeys[j], oldNodes[j]);
+        }
+    }
+
+    private void insert(int slotId, long key, IntermediateNode node) {
+        int i = hash(slotId, key) & mask;
+        while (nodes[i] != null)
+            i = (i + 1) & mask;
+        keys[i] = key;
+        slotIds[i] = slotId;
+        nodes[i] = node;
+    }
+
+    private static long key(int leftExtent, int rightExtent) {
+        return ((long) leftExtent << 32) | (rightExtent & 0xFFFFFFFFL);
+    }
+
+    private static int hash(int slotId, long key) {
+        long h = (key ^ ((long) slotId << 17)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -14,10 +14,14 @@ trait ParseResult {
 
   def isParseSuccess: Boolean = !isParseError
 
+  def isRecognitionSuccess: Boolean = false
+
   def asParseError: ParseError
 
   def asParseSuccess: ParseSuccess
 
+  def asRecognitionSuccess: RecognitionSuccess = throw new RuntimeException("Cannot call getRecognitionSuccess on " + getClass.getSimpleName + ".")
+
   def getInput: Input
 
   def asTerm: Option[Term] = if (isParseSuccess) Some(this.asParseSuccess.getTerm) else None
@@ -54,6 +58,30 @@ case class ParseSuccess(sppfNode: NonterminalNode, statistics: ParseStatistics,
 
 }
 
+/**
+ * The result of a successful parse in recognizer mode, which does not build an SPPF.
+ * It is neither a parse error nor a parse success, as there is no SPPF to return.
+ */
+case class RecognitionSuccess(statistics: ParseStatistics, input: Input) extends ParseResult {
+
+  override def isParseError: Boolean = false
+
+  override def isParseSuccess: Boolean = false
+
+  override def isRecognitionSuccess: Boolean = true
+
+  override def getInput: Input = input
+
+  override def asParseError: ParseError = throw new RuntimeException("Cannot call getParseError on Success.")
+
+  override def asParseSuccess: ParseSuccess = throw new RuntimeException("Cannot call getParseSuccess on RecognitionSuccess.")
+
+  override def asRecognitionSuccess: RecognitionSuccess = this
+
+  def getStatistics() = statistics
+
+}
+
 case class ParseError (slot: GrammarSlot, input: Input, inputIndex: Int, gssNode: GSSNode) extends  ParseResult {
 
   override def isParseError: Boolean = true
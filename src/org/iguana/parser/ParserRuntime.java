@@ -1,6 +1,7 @@
 package org.iguana.parser;
 
 import iguana.parsetrees.sppf.IntermediateNode;
+import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.parsetrees.sppf.NonterminalNode;
 import iguana.parsetrees.sppf.NonterminalOrIntermediateNode;
 import iguana.parsetrees.sppf.TerminalNode;
@@ -12,25 +13,95 @@ import org.iguana.datadependent.env.Environment;
 import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.condition.DataDependentCondition;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
 import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
 import org.iguana.parser.descriptor.Descriptor;
 import org.iguana.parser.gss.GSSEdge;
 import org.iguana.parser.gss.GSSNode;
+import org.iguana.parser.gss.GSSNodeData;
+import org.iguana.parser.gss.lookup.GSSNodeLookup;
 import org.iguana.util.Configuration;
 import org.iguana.util.ParseStatistics;
 
+
+/**
+ *
+ * Holds the state of a single parse: the descriptors, the GSS and SPPF lookup tables,
+ * the evaluator context and the statistics. A parser runtime is created for each call
+ * to {@link Iguana#parse}, and is passed through the (immutable) grammar graph.
+ *
+ */
 public interface ParserRuntime {
 
+    Input getInput();
+
     boolean hasDescriptor();
 
     Descriptor nextDescriptor();
 
     void scheduleDescriptor(Descriptor descriptor);
 
+    void scheduleDescriptor(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode);
+
+    /**
+     * Executes the slot of a descriptor, either by interpreting the transitions
+     * of the slot or through the compiled parser, if the runtime has one.
+     */
+    void execute(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode);
+
+    /**
+     * Removes the next descriptor from the worklist and executes it.
+     */
+    void executeNextDescriptor();
+
+    /**
+     * Processes the scheduled descriptors, and the descriptors they schedule,
+     * until there are no descriptors left.
+     *
+     * @throws java.util.concurrent.CancellationException if the parsing thread is interrupted
+     */
+    void processDescriptors();
+
     void recordParseError(Input input, int i, GrammarSlot slot, GSSNode u);
 
     Iterable<GSSNode> getGSSNodes();
 
+    GSSNodeLookup getGSSNodeLookup(NonterminalGrammarSlot slot);
+
+    GSSNode newGSSNode(NonterminalGrammarSlot slot, int inputIndex);
+
+    /**
+     * Creates a new intermediate node of the slot, for the given children, that is not shared.
+     */
+    NonPackedNode createIntermediateNode(BodyGrammarSlot slot, NonPackedNode leftChild, NonPackedNode rightChild);
+
+    /**
+     * Returns the intermediate node of the slot that spans the given children, for a descriptor
+     * of the slot and GSS node u, creating it if it does not exist yet. If the node already
+     * exists, a packed node for the children is added to it and null is returned.
+     */
+    NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild);
+
+    /**
+     * The data-dependent version of getIntermediateNode, where the environment is part of the key.
+     */
+    NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild, Environment env);
+
+    /**
+     * Returns the terminal node of the given slot at input index i, matching the terminal
+     * if it has not been matched there before, or null if the terminal does not match at i.
+     */
+    TerminalNode getTerminalNode(TerminalGrammarSlot slot, Input input, int i);
+
+    /**
+     * @return the recursive descent parser for LL(1) nonterminals, or null if
+     *         Configuration.isDeterministicDescent() is not set.
+     */
+    DeterministicDescent getDeterministicDescent();
+
     /**
      *
      * Data-dependent GLL parsing
@@ -44,6 +115,19 @@ public interface ParserRuntime {
 
     Object[] evaluate(Expression[] arguments, Environment env);
 
+    void scheduleDescriptor(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env);
+
+    /**
+     * @return the environment of this parse that is equal to env, so that equal environments
+     *         stored in the GSS and the SPPF are shared. Returns env if environments are not
+     *         interned.
+     */
+    default Environment intern(Environment env) {
+        return env;
+    }
+
+    <T> GSSNode newGSSNode(NonterminalGrammarSlot slot, int inputIndex, GSSNodeData<T> data);
+
     IEvaluatorContext getEvaluatorContext();
 
     Environment getEnvironment();
@@ -60,6 +144,17 @@ public interface ParserRuntime {
 
     void intermediateNodeAdded(IntermediateNode node);
 
+    /**
+     * Adds a packed node for child to a nonterminal node that has already been created.
+     * A recognizer only needs to know that the nonterminal has been recognized, and does
+     * not add the packed node.
+     */
+    default void addPackedNode(NonterminalNode node, EndGrammarSlot slot, NonPackedNode child) {
+        boolean ambiguous = node.addPackedNode(slot, child);
+        packedNodeAdded(slot, child.getRightExtent());
+        if (ambiguous) ambiguousNodeAdded(node);
+    }
+
     void packedNodeAdded(Object slot, int pivot);
 
     void ambiguousNodeAdded(NonterminalOrIntermediateNode node);
@@ -1,10 +1,13 @@
 package org.iguana.parser;
 
 import iguana.parsetrees.sppf.IntermediateNode;
+import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.parsetrees.sppf.NonterminalNode;
 import iguana.parsetrees.sppf.NonterminalOrIntermediateNode;
 import iguana.parsetrees.sppf.TerminalNode;
 import iguana.utils.benchmark.Timer;
+import iguana.utils.collections.IntHashMap;
+import iguana.utils.collections.OpenAddressingIntHashMap;
 import iguana.utils.input.Input;
 import iguana.utils.logging.IguanaLogger;
 import iguana.utils.logging.JavaUtilIguanaLogger;
@@ -12,20 +15,42 @@ import iguana.utils.logging.LogLevel;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.ast.Statement;
 import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.EnvironmentPool;
 import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.condition.DataDependentCondition;
+import org.iguana.grammar.slot.BodyGrammarSlot;
 import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.parser.codegen.CompiledParser;
 import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.descriptor.DescriptorSet;
+import org.iguana.parser.descriptor.DescriptorWorklist;
+import org.iguana.parser.descriptor.InputPositionDescriptorWorklist;
+import org.iguana.parser.descriptor.ObjectDescriptorWorklist;
+import org.iguana.parser.descriptor.PackedDescriptorWorklist;
 import org.iguana.parser.gss.GSSEdge;
 import org.iguana.parser.gss.GSSNode;
+import org.iguana.parser.gss.GSSNodeData;
+import org.iguana.parser.gss.lookup.ArrayNodeLookup;
+import org.iguana.parser.gss.lookup.GSSNodeLookup;
+import org.iguana.parser.gss.lookup.IntOpenAddressingMap;
+import org.iguana.parser.gss.lookup.JavaHashMapNodeLookup;
+import org.iguana.parser.gss.lookup.PagedNodeLookup;
 import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.HashMapImpl;
+import org.iguana.util.Configuration.LookupImpl;
+import org.iguana.util.Configuration.TerminalCacheImpl;
+import org.iguana.util.Configuration.WorklistImpl;
 import org.iguana.util.ParseStatistics;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 public class ParserRuntimeImpl implements ParserRuntime {
 
@@ -46,19 +71,120 @@ public class ParserRuntimeImpl implements ParserRuntime {
      */
     private GSSNode errorGSSNode;
 
-    private final Deque<Descriptor> descriptorsStack;
+    private DescriptorWorklist worklist;
 
     private final IguanaLogger logger;
 
     private final GrammarGraph grammarGraph;
 
-    private final IEvaluatorContext ctx;
+    private Input input;
+
+    private IEvaluatorContext ctx;
 
     private final Configuration config;
 
-    public ParserRuntimeImpl(GrammarGraph grammarGraph, Configuration config, IEvaluatorContext ctx) {
+    private final CompiledParser compiledParser;
+
+    /*
+     * The per-slot tables are indexed by slot id.
+     */
+    private final GSSNodeLookup[] gssNodeLookups;
+
+    private final IntermediateNodeTable intermediateNodes;
+
+    /*
+     * Only allocated for the slots of data-dependent rules, whose intermediate nodes
+     * are also keyed by the id of their environment in the environment pool.
+     */
+    private final Map<IntermediateNodeKey, IntermediateNode>[] intermediateNodesWithEnv;
+
+    /*
+     * The environments of the GSS edges and intermediate nodes of this parse, and of the
+     * descriptors in recognizer mode, interned so that equal environments are shared and
+     * keys can use their ids.
+     */
+    private final EnvironmentPool environments = new EnvironmentPool();
+
+    private final IntHashMap<TerminalNode>[] terminalNodes;
+
+    private final TerminalMatchCache[] terminalMatchCaches;
+
+    private final DeterministicDescent deterministicDescent;
+
+    /*
+     * The (slot, GSS node, input index) of the descriptors scheduled in this parse. Only
+     * kept in recognizer mode: otherwise a descriptor is only scheduled for a new SPPF node,
+     * and the sharing of SPPF nodes already rules out duplicates.
+     */
+    private final DescriptorSet descriptors;
+
+    /*
+     * The ids of the slots whose tables have been used since the runtime was created or
+     * reset, so that reset only clears these tables. A slot is added when it is used for
+     * the first time in a parse, which is when touched[id] differs from parseNumber.
+     * touched[id] is the last parse that used the slot: if it is not the previous parse,
+     * the tables of the slot were cleared for an earlier input, and are reset for the
+     * current input when the slot is used again.
+     */
+    private final int[] touched;
+
+    private int[] touchedSlots;
+
+    private int touchedCount;
+
+    private int parseNumber = 1;
+
+    /*
+     * In windowed mode, the tables are released behind the frontier, the leftmost input
+     * position with pending descriptors, once it has moved WINDOW_SIZE positions past the
+     * previous release.
+     */
+    private static final int WINDOW_SIZE = 1 << 10;
+
+    private final boolean windowed;
+
+    private int releaseIndex = WINDOW_SIZE;
+
+    private final boolean compileExpressions;
+
+    public ParserRuntimeImpl(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx) {
+        this(grammarGraph, input, config, ctx, newWorklist(config, input), null);
+    }
+
+    /**
+     * Creates a runtime that executes descriptors through the given compiled parser,
+     * which should have been generated from the given grammar graph.
+     */
+    public ParserRuntimeImpl(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx, CompiledParser compiledParser) {
+        this(grammarGraph, input, config, ctx, newWorklist(config, input), compiledParser);
+    }
+
+    /**
+     * For runtimes that schedule descriptors themselves, the worklist may be null.
+     */
+    @SuppressWarnings("unchecked")
+    protected ParserRuntimeImpl(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx,
+                                DescriptorWorklist worklist, CompiledParser compiledParser) {
         this.grammarGraph = grammarGraph;
-        this.descriptorsStack = new ArrayDeque<>();
+        this.compiledParser = compiledParser;
+        this.input = input;
+        this.worklist = worklist;
+        this.gssNodeLookups = new GSSNodeLookup[grammarGraph.getSlotCount()];
+        this.intermediateNodes = new IntermediateNodeTable();
+        this.intermediateNodesWithEnv = new Map[grammarGraph.getSlotCount()];
+        if (config.getTerminalCacheImpl() == TerminalCacheImpl.PAGED) {
+            this.terminalNodes = null;
+            this.terminalMatchCaches = new TerminalMatchCache[grammarGraph.getSlotCount()];
+        } else {
+            this.terminalNodes = new IntHashMap[grammarGraph.getSlotCount()];
+            this.terminalMatchCaches = null;
+        }
+        this.deterministicDescent = config.isDeterministicDescent() ? new DeterministicDescent(grammarGraph, this) : null;
+        this.descriptors = config.isRecognizer() ? new DescriptorSet() : null;
+        this.windowed = config.isWindowed();
+        this.compileExpressions = config.isCompileExpressions();
+        this.touched = new int[grammarGraph.getSlotCount()];
+        this.touchedSlots = new int[64];
         this.ctx = ctx;
         this.config = config;
         if (config.getLogLevel() == LogLevel.NONE)
@@ -67,6 +193,73 @@ public class ParserRuntimeImpl implements ParserRuntime {
             logger = new JavaUtilIguanaLogger("Iguana Logger", config.getLogLevel());
     }
 
+    /**
+     * Prepares this runtime for parsing another input. The tables of the slots used by the
+     * previous parse are cleared and kept for the next parse, and the tables of the other
+     * slots are not visited, so the cost of a reset does not depend on the size of the grammar.
+     */
+    public void reset(Input input, IEvaluatorContext ctx) {
+        this.input = input;
+        this.ctx = ctx;
+
+        for (int i = 0; i < touchedCount; i++)
+            resetTables(touchedSlots[i]);
+        touchedCount = 0;
+        parseNumber++;
+        releaseIndex = WINDOW_SIZE;
+
+        intermediateNodes.clear();
+        if (deterministicDescent != null)
+            deterministicDescent.reset();
+        if (descriptors != null)
+            descriptors.clear();
+        environments.clear();
+
+        if (worklist != null)
+            this.worklist = newWorklist(config, input);
+
+        errorSlot = null;
+        errorIndex = 0;
+        errorInput = null;
+        errorGSSNode = null;
+
+        descriptorsCount = 0;
+        duplicateDescriptorsCount = 0;
+        maxWorklistSize = 0;
+        countNonterminalNodes = 0;
+        countIntermediateNodes = 0;
+        countTerminalNodes = 0;
+        countPackedNodes = 0;
+        countAmbiguousNodes = 0;
+        countGSSNodes = 0;
+        countGSSEdges = 0;
+    }
+
+    private void touch(int id) {
+        int lastParse = touched[id];
+        if (lastParse == parseNumber) return;
+        touched[id] = parseNumber;
+        if (lastParse != 0 && lastParse != parseNumber - 1)
+            resetTables(id);
+        if (touchedCount == touchedSlots.length)
+            touchedSlots = Arrays.copyOf(touchedSlots, touchedCount * 2);
+        touchedSlots[touchedCount++] = id;
+    }
+
+    /**
+     * Clears the tables of the given slot, and prepares them for the current input.
+     */
+    private void resetTables(int id) {
+        if (gssNodeLookups[id] != null)
+            gssNodeLookups[id].reset(input);
+        if (intermediateNodesWithEnv[id] != null)
+            intermediateNodesWithEnv[id].clear();
+        if (terminalNodes != null && terminalNodes[id] != null)
+            terminalNodes[id].clear();
+        if (terminalMatchCaches != null && terminalMatchCaches[id] != null)
+            terminalMatchCaches[id].reset(input.length());
+    }
+
     /**
      * Replaces the previously reported parse error with the new one if the
      * inputIndex of the new parse error is greater than the previous one. In
@@ -87,24 +280,270 @@ public class ParserRuntimeImpl implements ParserRuntime {
 
     @Override
     public boolean hasDescriptor() {
-        return !descriptorsStack.isEmpty();
+        return !worklist.isEmpty();
     }
 
     @Override
     public Descriptor nextDescriptor() {
-        return descriptorsStack.pop();
+        return worklist.remove();
+    }
+
+    @Override
+    public void execute(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode) {
+        if (compiledParser == null)
+            slot.execute(input, gssNode, sppfNode, this);
+        else
+            compiledParser.execute(input, slot, gssNode, sppfNode, this);
+    }
+
+    @Override
+    public void executeNextDescriptor() {
+        worklist.executeNext(this);
+    }
+
+    @Override
+    public void processDescriptors() {
+        while (!worklist.isEmpty()) {
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException("Parsing " + input.getURI() + " was interrupted");
+            worklist.executeNext(this);
+            if (windowed)
+                releaseBehindFrontier();
+        }
+    }
+
+    private void releaseBehindFrontier() {
+        int frontier = ((InputPositionDescriptorWorklist) worklist).getCurrentIndex();
+        if (frontier < releaseIndex)
+            return;
+        releaseBefore(frontier);
+        releaseIndex = frontier + WINDOW_SIZE;
+    }
+
+    /**
+     * Releases the entries of the tables before input index i. With input position scheduling,
+     * no descriptor is scheduled before the leftmost pending descriptor, so no GSS node,
+     * terminal node or intermediate node is looked up there anymore. The GSS nodes that
+     * remain reachable from the pending descriptors are kept alive by their edges.
+     */
+    private void releaseBefore(int i) {
+        for (int k = 0; k < touchedCount; k++) {
+            int id = touchedSlots[k];
+            if (gssNodeLookups[id] != null)
+                gssNodeLookups[id].releaseBefore(i);
+            if (intermediateNodesWithEnv[id] != null)
+                intermediateNodesWithEnv[id].values().removeIf(node -> node.getRightExtent() < i);
+            if (terminalNodes != null && terminalNodes[id] != null)
+                releaseBefore(terminalNodes[id], i);
+            if (terminalMatchCaches != null && terminalMatchCaches[id] != null)
+                terminalMatchCaches[id].releaseBefore(i);
+        }
+
+        intermediateNodes.removeBefore(i);
+        if (deterministicDescent != null)
+            deterministicDescent.releaseBefore(i);
+        if (descriptors != null)
+            descriptors.removeBefore(i);
+    }
+
+    /**
+     * The map does not support removal, so it is refilled with the terminal nodes that are kept.
+     */
+    private static void releaseBefore(IntHashMap<TerminalNode> nodes, int i) {
+        List<TerminalNode> live = new ArrayList<>();
+        for (TerminalNode node : nodes.values()) {
+            if (node != null && node.getLeftExtent() >= i)
+                live.add(node);
+        }
+        nodes.clear();
+        for (TerminalNode node : live)
+            nodes.put(node.getLeftExtent(), node);
     }
 
     @Override
-    public final void scheduleDescriptor(Descriptor descriptor) {
-        descriptorsStack.push(descriptor);
+    public void scheduleDescriptor(Descriptor descriptor) {
+        worklist.add(descriptor);
         logger.log("Descriptor created: %s", descriptor);
+        descriptorAdded();
+    }
+
+    @Override
+    public void scheduleDescriptor(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode) {
+        if (descriptors != null && !descriptors.add(slot, gssNode, sppfNode.getRightExtent())) {
+            duplicateDescriptorsCount++;
+            return;
+        }
+        worklist.add(slot, gssNode, sppfNode, null);
+        logger.log("Descriptor created: (%s, %d, %s, %s)", slot, sppfNode.getRightExtent(), gssNode, sppfNode);
+        descriptorAdded();
+    }
+
+    @Override
+    public void scheduleDescriptor(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env) {
+        if (descriptors != null) {
+            int envId = environments.intern(env);
+            if (!descriptors.add(slot, gssNode, sppfNode.getRightExtent(), envId)) {
+                duplicateDescriptorsCount++;
+                return;
+            }
+            env = environments.get(envId);
+        }
+        worklist.add(slot, gssNode, sppfNode, env);
+        logger.log("Descriptor created: (%s, %d, %s, %s)", slot, sppfNode.getRightExtent(), gssNode, sppfNode);
+        descriptorAdded();
+    }
+
+    private void descriptorAdded() {
         descriptorsCount++;
+        if (worklist.size() > maxWorklistSize)
+            maxWorklistSize = worklist.size();
+    }
+
+    private static DescriptorWorklist newWorklist(Configuration config, Input input) {
+        switch (config.getSchedulingPolicy()) {
+            case FIFO: return newWorklist(config.getWorklistImpl(), input, true);
+            case INPUT_POSITION: return new InputPositionDescriptorWorklist(input.length(), () -> newBucket(config.getWorklistImpl(), input));
+            default: return newWorklist(config.getWorklistImpl(), input, false);
+        }
+    }
+
+    private static DescriptorWorklist newWorklist(WorklistImpl impl, Input input, boolean fifo) {
+        switch (impl) {
+            case PACKED: return new PackedDescriptorWorklist(input, fifo);
+            default: return new ObjectDescriptorWorklist(input, fifo);
+        }
+    }
+
+    private static DescriptorWorklist newBucket(WorklistImpl impl, Input input) {
+        switch (impl) {
+            case PACKED: return new PackedDescriptorWorklist(input, false, 16);
+            default: return new ObjectDescriptorWorklist(input);
+        }
+    }
+
+    @Override
+    public Input getInput() {
+        return input;
     }
 
     @Override
     public Iterable<GSSNode> getGSSNodes() {
-        return grammarGraph.getNonterminals().stream().flatMap(s -> StreamSupport.stream(s.getGSSNodes().spliterator(), false)).collect(Collectors.toList());
+        List<GSSNode> nodes = new ArrayList<>();
+        for (GSSNodeLookup lookup : gssNodeLookups) {
+            if (lookup != null) lookup.getNodes().forEach(nodes::add);
+        }
+        return nodes;
+    }
+
+    @Override
+    public GSSNodeLookup getGSSNodeLookup(NonterminalGrammarSlot slot) {
+        touch(slot.getId());
+        GSSNodeLookup lookup = gssNodeLookups[slot.getId()];
+        if (lookup == null) {
+            lookup = newNodeLookup();
+            gssNodeLookups[slot.getId()] = lookup;
+        }
+        return lookup;
+    }
+
+    @Override
+    public GSSNode newGSSNode(NonterminalGrammarSlot slot, int inputIndex) {
+        return new GSSNode(slot, inputIndex);
+    }
+
+    @Override
+    public <T> GSSNode newGSSNode(NonterminalGrammarSlot slot, int inputIndex, GSSNodeData<T> data) {
+        return new org.iguana.datadependent.gss.GSSNode<>(slot, inputIndex, data);
+    }
+
+    @Override
+    public NonPackedNode createIntermediateNode(BodyGrammarSlot slot, NonPackedNode leftChild, NonPackedNode rightChild) {
+        return slot.createIntermediateNode(leftChild, rightChild, this);
+    }
+
+    @Override
+    public NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild) {
+        int leftExtent = leftChild.getLeftExtent();
+        int rightExtent = rightChild.getRightExtent();
+
+        IntermediateNode node = intermediateNodes.get(slot.getId(), leftExtent, rightExtent);
+        if (node != null) {
+            slot.addPackedNode(node, leftChild, rightChild, this);
+            return null;
+        }
+
+        node = slot.createIntermediateNode(leftChild, rightChild, this);
+        intermediateNodes.putAfterGet(slot.getId(), leftExtent, rightExtent, node);
+        return node;
+    }
+
+    @Override
+    public NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild, Environment env) {
+        touch(slot.getId());
+        Map<IntermediateNodeKey, IntermediateNode> nodes = intermediateNodesWithEnv[slot.getId()];
+        if (nodes == null) {
+            nodes = new HashMap<>();
+            intermediateNodesWithEnv[slot.getId()] = nodes;
+        }
+
+        IntermediateNodeKey key = new IntermediateNodeKey(leftChild.getLeftExtent(), rightChild.getRightExtent(), environments.intern(env));
+        IntermediateNode node = nodes.get(key);
+        if (node != null) {
+            slot.addPackedNode(node, leftChild, rightChild, this);
+            return null;
+        }
+
+        node = slot.createIntermediateNode(leftChild, rightChild, this);
+        nodes.put(key, node);
+        return node;
+    }
+
+    @Override
+    public Environment intern(Environment env) {
+        return environments.get(environments.intern(env));
+    }
+
+    @Override
+    public TerminalNode getTerminalNode(TerminalGrammarSlot slot, Input input, int i) {
+        touch(slot.getId());
+        if (terminalMatchCaches != null) {
+            TerminalMatchCache cache = terminalMatchCaches[slot.getId()];
+            if (cache == null) {
+                cache = new TerminalMatchCache(input.length());
+                terminalMatchCaches[slot.getId()] = cache;
+            }
+            return cache.get(slot, input, i, this);
+        }
+
+        IntHashMap<TerminalNode> nodes = terminalNodes[slot.getId()];
+        if (nodes == null) {
+            nodes = new OpenAddressingIntHashMap<>();
+            terminalNodes[slot.getId()] = nodes;
+        }
+        return nodes.computeIfAbsent(i, k -> {
+            int length = slot.match(input, i);
+            return length < 0 ? null : slot.createNode(input, i, length, this);
+        });
+    }
+
+    @Override
+    public DeterministicDescent getDeterministicDescent() {
+        return deterministicDescent;
+    }
+
+    private GSSNodeLookup newNodeLookup() {
+        if (config.getGSSLookupImpl() == LookupImpl.HASH_MAP) {
+            if (config.getHashmapImpl() == HashMapImpl.JAVA)
+                return new JavaHashMapNodeLookup();
+            else if (config.getHashmapImpl() == HashMapImpl.INT_OPEN_ADDRESSING)
+                return new IntOpenAddressingMap();
+            else
+                throw new RuntimeException();
+        } else if (config.getGSSLookupImpl() == LookupImpl.PAGED) {
+            return new PagedNodeLookup(input);
+        } else {
+            return new ArrayNodeLookup(input);
+        }
     }
 
     @Override
@@ -114,17 +553,17 @@ public class ParserRuntimeImpl implements ParserRuntime {
 
     @Override
     public Environment getEnvironment() {
-        return ctx.getEnvironment();
+        return getEvaluatorContext().getEnvironment();
     }
 
     @Override
     public void setEnvironment(Environment env) {
-        ctx.setEnvironment(env);
+        getEvaluatorContext().setEnvironment(env);
     }
 
     @Override
     public Environment getEmptyEnvironment() {
-        return ctx.getEmptyEnvironment();
+        return getEvaluatorContext().getEmptyEnvironment();
     }
 
     @Override
@@ -136,11 +575,15 @@ public class ParserRuntimeImpl implements ParserRuntime {
     public Object evaluate(Statement[] statements, Environment env) {
         assert statements.length > 1;
 
+        IEvaluatorContext ctx = getEvaluatorContext();
         ctx.setEnvironment(env);
 
         int i = 0;
         while (i < statements.length) {
-            statements[i].interpret(ctx);
+            if (compileExpressions)
+                statements[i].compile().evaluate(ctx);
+            else
+                statements[i].interpret(ctx);
             i++;
         }
 
@@ -149,27 +592,30 @@ public class ParserRuntimeImpl implements ParserRuntime {
 
     @Override
     public Object evaluate(DataDependentCondition condition, Environment env) {
+        IEvaluatorContext ctx = getEvaluatorContext();
         ctx.setEnvironment(env);
-        return condition.getExpression().interpret(ctx);
+        return compileExpressions ? condition.getExpression().compile().evaluate(ctx) : condition.getExpression().interpret(ctx);
     }
 
     @Override
     public Object evaluate(Expression expression, Environment env) {
+        IEvaluatorContext ctx = getEvaluatorContext();
         ctx.setEnvironment(env);
-        return expression.interpret(ctx);
+        return compileExpressions ? expression.compile().evaluate(ctx) : expression.interpret(ctx);
     }
 
     @Override
     public Object[] evaluate(Expression[] arguments, Environment env) {
         if (arguments == null) return null;
 
+        IEvaluatorContext ctx = getEvaluatorContext();
         ctx.setEnvironment(env);
 
         Object[] values = new Object[arguments.length];
 
         int i = 0;
         while (i < arguments.length) {
-            values[i] = arguments[i].interpret(ctx);
+            values[i] = compileExpressions ? arguments[i].compile().evaluate(ctx) : arguments[i].interpret(ctx);
             i++;
         }
 
@@ -270,6 +716,7 @@ public class ParserRuntimeImpl implements ParserRuntime {
                               .setSystemTime(timer.getSystemTime())
                               .setMemoryUsed(getMemoryUsed())
                               .setDescriptorsCount(descriptorsCount)
+                              .setDuplicateDescriptorsCount(duplicateDescriptorsCount)
                               .setGSSNodesCount(countGSSNodes + 1) // + start gss node
                               .setGSSEdgesCount(countGSSEdges)
                               .setNonterminalNodesCount(countNonterminalNodes)
@@ -277,6 +724,9 @@ public class ParserRuntimeImpl implements ParserRuntime {
                               .setIntermediateNodesCount(countIntermediateNodes)
                               .setPackedNodesCount(countPackedNodes)
                               .setAmbiguousNodesCount(countAmbiguousNodes)
+                              .setMaxWorklistSize(maxWorklistSize)
+                              .setInternedEnvironmentsCount(environments.getInternCount())
+                              .setDistinctEnvironmentsCount(environments.size())
                               .build();
     }
 
@@ -294,6 +744,10 @@ public class ParserRuntimeImpl implements ParserRuntime {
 
     private int descriptorsCount;
 
+    private int duplicateDescriptorsCount;
+
+    private int maxWorklistSize;
+
     private int countNonterminalNodes;
 
     private int countIntermediateNodes;
@@ -0,0 +1,54 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.DummyNode;
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.parser.codegen.CompiledParser;
+import org.iguana.parser.gss.GSSNode;
+import org.iguana.util.Configuration;
+
+/**
+ *
+ * A parser runtime that only recognizes the input, selected by Configuration.isRecognizer().
+ * Intermediate nodes are replaced by dummy nodes that only carry an input index. As they
+ * are not shared, duplicate descriptors are rejected by the descriptor set of the runtime
+ * when they are scheduled. Nonterminal nodes are still created as the popped elements of
+ * the GSS nodes, but their children are dummy nodes and no packed nodes are added for
+ * their ambiguities.
+ *
+ */
+public class RecognizerRuntime extends ParserRuntimeImpl {
+
+    /**
+     * @param compiledParser the compiled parser that executes the descriptors, or null for the interpreter
+     */
+    public RecognizerRuntime(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx, CompiledParser compiledParser) {
+        super(grammarGraph, input, config, ctx, compiledParser);
+    }
+
+    @Override
+    public NonPackedNode createIntermediateNode(BodyGrammarSlot slot, NonPackedNode leftChild, NonPackedNode rightChild) {
+        return new DummyNode(rightChild.getRightExtent());
+    }
+
+    @Override
+    public NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild) {
+        return new DummyNode(rightChild.getRightExtent());
+    }
+
+    @Override
+    public NonPackedNode getIntermediateNode(BodyGrammarSlot slot, GSSNode u, NonPackedNode leftChild, NonPackedNode rightChild, Environment env) {
+        return new DummyNode(rightChild.getRightExtent());
+    }
+
+    @Override
+    public void addPackedNode(NonterminalNode node, EndGrammarSlot slot, NonPackedNode child) {
+    }
+
+}
@@ -0,0 +1,124 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.TerminalNode;
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+
+import java.util.Arrays;
+
+/**
+ *
+ * The matches of a terminal, indexed by input position. The match lengths are stored in
+ * int pages of PAGE_SIZE positions, which also record the positions where the terminal
+ * does not match. Terminal nodes are created on the first request of a match, and are
+ * kept in pages that are only allocated for the parts of the input where the terminal
+ * matches.
+ *
+ */
+public class TerminalMatchCache {
+
+    private static final int PAGE_BITS = 10;
+
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /*
+     * A match of length n is stored as n + 1, so that 0 means not matched yet.
+     */
+    private static final int NOT_MATCHED = 0;
+
+    private static final int NO_MATCH = -1;
+
+    private int[][] lengths;
+
+    private TerminalNode[][] nodes;
+
+    /**
+     * The pages before this page index have been released.
+     */
+    private int releasedPages;
+
+    /**
+     * @param inputLength the length of the input. Positions up to and including inputLength can be looked up.
+     */
+    public TerminalMatchCache(int inputLength) {
+        init(inputLength);
+    }
+
+    private void init(int inputLength) {
+        int pageCount = (inputLength >> PAGE_BITS) + 1;
+        this.lengths = new int[pageCount][];
+        this.nodes = new TerminalNode[pageCount][];
+        this.releasedPages = 0;
+    }
+
+    /**
+     * Removes all the matches, and prepares the cache for an input of the given length.
+     */
+    public void reset(int inputLength) {
+        if (lengths.length == (inputLength >> PAGE_BITS) + 1) {
+            Arrays.fill(lengths, null);
+            Arrays.fill(nodes, null);
+            releasedPages = 0;
+        } else {
+            init(inputLength);
+        }
+    }
+
+    /**
+     * Releases the pages that only contain positions before i. These positions should
+     * not be looked up anymore.
+     */
+    public void releaseBefore(int i) {
+        int end = i >> PAGE_BITS;
+        for (; releasedPages < end; releasedPages++) {
+            lengths[releasedPages] = null;
+            nodes[releasedPages] = null;
+        }
+    }
+
+    /**
+     * @return the terminal node of the match of the slot at input index i,
+     *         or null if the terminal does not match at i.
+     */
+    public TerminalNode get(TerminalGrammarSlot slot, Input input, int i, ParserRuntime runtime) {
+        int page = i >> PAGE_BITS;
+        int offset = i & PAGE_MASK;
+
+        int[] lengthPage = lengths[page];
+        if (lengthPage == null) {
+            lengthPage = new int[PAGE_SIZE];
+            lengths[page] = lengthPage;
+        }
+
+        int length = lengthPage[offset];
+        if (length == NO_MATCH)
+            return null;
+
+        if (length == NOT_MATCHED) {
+            length = slot.match(input, i);
+            if (length < 0) {
+                lengthPage[offset] = NO_MATCH;
+                return null;
+            }
+            lengthPage[offset] = length + 1;
+        } else {
+            length--;
+        }
+
+        TerminalNode[] nodePage = nodes[page];
+        if (nodePage == null) {
+            nodePage = new TerminalNode[PAGE_SIZE];
+            nodes[page] = nodePage;
+        }
+
+        TerminalNode node = nodePage[offset];
+        if (node == null) {
+            node = slot.createNode(input, i, length, runtime);
+            nodePage[offset] = node;
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.iguana.parser.codegen;
+
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.grammar.slot.Transition;
+
+public abstract class AbstractCompiledParser implements CompiledParser {
+
+    protected final GrammarGraph grammarGraph;
+
+    public AbstractCompiledParser(GrammarGraph grammarGraph, int slotCount) {
+        if (grammarGraph.getSlotCount() != slotCount)
+            throw new IllegalArgumentException("The grammar graph has " + grammarGraph.getSlotCount() + " slots, but the parser was generated for " + slotCount);
+        this.grammarGraph = grammarGraph;
+    }
+
+    @Override
+    public GrammarGraph getGrammarGraph() {
+        return grammarGraph;
+    }
+
+    /**
+     * Returns the slot with the given id, after checking that it is the slot the parser was generated for.
+     */
+    protected <T extends GrammarSlot> T slot(int id, String name, Class<T> type) {
+        GrammarSlot slot = grammarGraph.getSlot(id);
+        if (!type.isInstance(slot) || !slot.toString().equals(name))
+            throw new IllegalArgumentException("Slot " + id + " should be " + name + ", but is " + slot);
+        return type.cast(slot);
+    }
+
+    /**
+     * Returns the only transition of the given slot.
+     */
+    protected <T extends Transition> T transition(GrammarSlot slot, Class<T> type) {
+        return type.cast(slot.getTransitions().iterator().next());
+    }
+
+}
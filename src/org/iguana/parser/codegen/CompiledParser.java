@@ -0,0 +1,23 @@
+package org.iguana.parser.codegen;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.utils.input.Input;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.gss.GSSNode;
+
+/**
+ *
+ * A parser generated by {@link ParserGenerator} for a specific grammar graph. Instead of
+ * walking the transitions of a slot, a compiled parser executes a descriptor with
+ * straight-line code specialized for the slot.
+ *
+ */
+public interface CompiledParser {
+
+    GrammarGraph getGrammarGraph();
+
+    void execute(Input input, BodyGrammarSlot slot, GSSNode u, NonPackedNode node, ParserRuntime runtime);
+
+}
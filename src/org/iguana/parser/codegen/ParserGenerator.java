@@ -0,0 +1,277 @@
+package org.iguana.parser.codegen;
+
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.condition.Conditions;
+import org.iguana.grammar.condition.ConditionsFactory;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.slot.NonterminalTransition;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.grammar.slot.TerminalTransition;
+import org.iguana.grammar.slot.Transition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ *
+ * Generates the Java source of a {@link CompiledParser} for a grammar graph. The generated
+ * parser has a method per body slot, in which the chain of terminal transitions starting
+ * at the slot, and the nonterminal call or pop that ends the chain, are inlined as
+ * straight-line code. Descriptors are dispatched to these methods by a switch on the slot id.
+ *
+ * Transitions that need an environment (labels, nonterminals with parameters, code,
+ * conditionals, returns) and epsilon slots are not compiled; the generated code calls
+ * the interpreter for them, so the parse results are the same as the interpreter's.
+ *
+ * The generated parser checks, when it is created, that the grammar graph it is given
+ * has the same slots as the one it was generated from.
+ *
+ */
+public class ParserGenerator {
+
+    /**
+     * The number of slot ids handled by one generated method, which keeps
+     * the generated methods well below the size limit of the JVM.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private final GrammarGraph grammarGraph;
+
+    private final String packageName;
+
+    private final String className;
+
+    private final List<String[]> fields = new ArrayList<>();
+
+    private final Set<String> fieldNames = new HashSet<>();
+
+    private final List<BodyGrammarSlot> compiledSlots = new ArrayList<>();
+
+    private final StringBuilder methods = new StringBuilder();
+
+    private ParserGenerator(GrammarGraph grammarGraph, String packageName, String className) {
+        this.grammarGraph = grammarGraph;
+        this.packageName = packageName;
+        this.className = className;
+    }
+
+    public static String generate(GrammarGraph grammarGraph, String packageName, String className) {
+        return new ParserGenerator(grammarGraph, packageName, className).generate();
+    }
+
+    /**
+     * Writes the generated source to the package directory of the given source directory.
+     *
+     * @return the path of the generated file
+     */
+    public static Path generate(GrammarGraph grammarGraph, String packageName, String className, Path sourceDirectory) throws IOException {
+        Path directory = sourceDirectory.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        Path file = directory.resolve(className + ".java");
+        Files.write(file, generate(grammarGraph, packageName, className).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String generate() {
+        for (int id = 0; id < grammarGraph.getSlotCount(); id++) {
+            GrammarSlot slot = grammarGraph.getSlot(id);
+            if (slot.getClass() == BodyGrammarSlot.class) {
+                compiledSlots.add((BodyGrammarSlot) slot);
+                generateSlotMethod((BodyGrammarSlot) slot);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        if (!packageName.isEmpty())
+            sb.append("package ").append(packageName).append(";\n\n");
+
+        sb.append("import iguana.parsetrees.sppf.NonPackedNode;\n")
+          .append("import iguana.parsetrees.sppf.TerminalNode;\n")
+          .append("import iguana.utils.input.Input;\n")
+          .append("import org.iguana.grammar.GrammarGraph;\n")
+          .append("import org.iguana.grammar.condition.Conditions;\n")
+          .append("import org.iguana.grammar.slot.*;\n")
+          .append("import org.iguana.parser.ParserRuntime;\n")
+          .append("import org.iguana.parser.codegen.AbstractCompiledParser;\n")
+          .append("import org.iguana.parser.gss.GSSNode;\n\n");
+
+        sb.append("/**\n")
+          .append(" * Generated by ").append(ParserGenerator.class.getName()).append(". Do not edit.\n")
+          .append(" */\n")
+          .append("public class ").append(className).append(" extends AbstractCompiledParser {\n\n");
+
+        for (String[] field : fields)
+            sb.append("    private ").append(field[0]).append(" ").append(field[1]).append(";\n");
+
+        sb.append("\n    public ").append(className).append("(GrammarGraph grammarGraph) {\n")
+          .append("        super(grammarGraph, ").append(grammarGraph.getSlotCount()).append(");\n");
+        for (int chunk = 0; chunk * CHUNK_SIZE < fields.size(); chunk++)
+            sb.append("        init").append(chunk).append("();\n");
+        sb.append("    }\n");
+
+        for (int chunk = 0; chunk * CHUNK_SIZE < fields.size(); chunk++) {
+            sb.append("\n    private void init").append(chunk).append("() {\n");
+            for (String[] field : fields.subList(chunk * CHUNK_SIZE, Math.min(fields.size(), (chunk + 1) * CHUNK_SIZE)))
+                sb.append("        ").append(field[1]).append(" = ").append(field[2]).append(";\n");
+            sb.append("    }\n");
+        }
+
+        generateDispatch(sb);
+
+        sb.append(methods);
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    private void generateDispatch(StringBuilder sb) {
+        sb.append("\n    @Override\n")
+          .append("    public void execute(Input input, BodyGrammarSlot slot, GSSNode u, NonPackedNode node, ParserRuntime runtime) {\n")
+          .append("        int id = slot.getId();\n")
+          .append("        switch (id / ").append(CHUNK_SIZE).append(") {\n");
+
+        int chunks = (grammarGraph.getSlotCount() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        boolean[] used = new boolean[chunks];
+        for (BodyGrammarSlot slot : compiledSlots)
+            used[slot.getId() / CHUNK_SIZE] = true;
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (used[chunk])
+                sb.append("            case ").append(chunk).append(": dispatch").append(chunk).append("(id, input, slot, u, node, runtime); break;\n");
+        }
+        sb.append("            default: slot.execute(input, u, node, runtime);\n")
+          .append("        }\n")
+          .append("    }\n");
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (!used[chunk]) continue;
+
+            sb.append("\n    private void dispatch").append(chunk).append("(int id, Input input, BodyGrammarSlot slot, GSSNode u, NonPackedNode node, ParserRuntime runtime) {\n")
+              .append("        switch (id) {\n");
+            for (BodyGrammarSlot slot : compiledSlots) {
+                if (slot.getId() / CHUNK_SIZE == chunk)
+                    sb.append("            case ").append(slot.getId()).append(": execute").append(slot.getId()).append("(input, u, node, runtime); break;\n");
+            }
+            sb.append("            default: slot.execute(input, u, node, runtime);\n")
+              .append("        }\n")
+              .append("    }\n");
+        }
+    }
+
+    private void generateSlotMethod(BodyGrammarSlot start) {
+        methods.append("\n    // ").append(escape(start.toString())).append("\n")
+               .append("    private void execute").append(start.getId()).append("(Input input, GSSNode u, NonPackedNode node, ParserRuntime runtime) {\n")
+               .append("        int i;\n");
+
+        BodyGrammarSlot slot = start;
+
+        while (true) {
+            if (slot.getClass() == EndGrammarSlot.class) {
+                EndGrammarSlot end = (EndGrammarSlot) slot;
+                methods.append("        if (").append(field(end.getNonterminal())).append(".testFollow(input.charAt(node.getRightExtent())))\n")
+                       .append("            u.pop(input, ").append(field(end)).append(", node, runtime);\n");
+                break;
+            }
+
+            List<Transition> transitions = new ArrayList<>();
+            slot.getTransitions().forEach(transitions::add);
+
+            if (slot.getClass() != BodyGrammarSlot.class || transitions.size() != 1) {
+                methods.append("        ").append(field(slot)).append(".execute(input, u, node, runtime);\n");
+                break;
+            }
+
+            Transition transition = transitions.get(0);
+            BodyGrammarSlot dest = (BodyGrammarSlot) transition.destination();
+
+            if (transition.getClass() == TerminalTransition.class && dest.getLabel() == null) {
+                TerminalTransition t = (TerminalTransition) transition;
+                String cr = "cr" + dest.getId();
+                methods.append("        i = node.getRightExtent();\n");
+                appendConditions(t.getPreConditions(), "pre" + slot.getId(), slot, "TerminalTransition", "getPreConditions", "i");
+                methods.append("        TerminalNode ").append(cr).append(" = ").append(field(t.getSlot())).append(".getTerminalNode(input, i, runtime);\n")
+                       .append("        if (").append(cr).append(" == null) {\n")
+                       .append("            runtime.recordParseError(input, i, ").append(field(slot)).append(", u);\n")
+                       .append("            return;\n")
+                       .append("        }\n");
+                appendConditions(t.getPostConditions(), "post" + slot.getId(), slot, "TerminalTransition", "getPostConditions", cr + ".getRightExtent()");
+                if (dest.isFirst())
+                    methods.append("        node = ").append(cr).append(";\n");
+                else
+                    methods.append("        node = runtime.createIntermediateNode(").append(field(dest)).append(", node, ").append(cr).append(");\n");
+                slot = dest;
+            }
+            else if (transition.getClass() == NonterminalTransition.class && dest.getLabel() == null
+                     && ((NonterminalTransition) transition).getSlot().getParameters() == null) {
+                NonterminalTransition t = (NonterminalTransition) transition;
+                methods.append("        i = node.getRightExtent();\n");
+                appendConditions(t.getPreConditions(), "pre" + slot.getId(), slot, "NonterminalTransition", "getPreConditions", "i");
+                methods.append("        ").append(field(t.getSlot())).append(".create(input, ").append(field(dest)).append(", u, node, runtime);\n");
+                break;
+            }
+            else {
+                methods.append("        ").append(field(slot)).append(".execute(input, u, node, runtime);\n");
+                break;
+            }
+        }
+
+        methods.append("    }\n");
+    }
+
+    private void appendConditions(Conditions conditions, String name, BodyGrammarSlot origin, String transitionType, String getter, String index) {
+        if (conditions == ConditionsFactory.DEFAULT) return;
+
+        addField("Conditions", name, "transition(" + field(origin) + ", " + transitionType + ".class)." + getter + "()");
+        methods.append("        if (").append(name).append(".execute(input, u, ").append(index).append(", runtime)) return;\n");
+    }
+
+    private String field(GrammarSlot slot) {
+        String name = "slot" + slot.getId();
+        String type;
+        if (slot.getClass() == EndGrammarSlot.class)
+            type = "EndGrammarSlot";
+        else if (slot instanceof BodyGrammarSlot)
+            type = "BodyGrammarSlot";
+        else if (slot instanceof TerminalGrammarSlot)
+            type = "TerminalGrammarSlot";
+        else if (slot instanceof NonterminalGrammarSlot)
+            type = "NonterminalGrammarSlot";
+        else
+            type = "GrammarSlot";
+
+        addField(type, name, "slot(" + slot.getId() + ", \"" + escape(slot.toString()) + "\", " + type + ".class)");
+        return name;
+    }
+
+    private void addField(String type, String name, String initializer) {
+        if (fieldNames.add(name))
+            fields.add(new String[] { type, name, initializer });
+    }
+
+    /**
+     * Escapes a string so that it can be used in a string literal or a line comment.
+     */
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') sb.append("\\\\");
+            else if (c == '"') sb.append("\\\"");
+            else if (c < 0x20 || c == 0x7f) sb.append(String.format("\\%03o", (int) c));
+            else if (c > 0x7f) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+}
@@ -30,6 +30,7 @@ package org.iguana.parser.descriptor;
 import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.utils.input.Input;
 import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
 import org.iguana.parser.gss.GSSNode;
 
 /**
@@ -77,8 +78,8 @@ public class Descriptor {
 		return sppfNode;
 	}
 	
-	public void execute() {
-		slot.execute(input, gssNode, sppfNode);
+	public void execute(ParserRuntime runtime) {
+		runtime.execute(slot, gssNode, sppfNode);
 	}
 	
 	@Override
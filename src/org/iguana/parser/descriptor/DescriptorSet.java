@@ -0,0 +1,176 @@
+package org.iguana.parser.descriptor;
+
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.gss.GSSNode;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ *
+ * The set of (slot, GSS node, input index) triples of the descriptors created in a parse,
+ * without their SPPF nodes. The slot id and input index are packed in a long, and the GSS
+ * nodes, which are unique in a parse, are compared by identity. The table uses open
+ * addressing with linear probing, so adding a descriptor does not allocate, except when
+ * the table grows. Descriptors with an environment are kept in a separate hash set, keyed
+ * by the id the environment has been interned with in the parse.
+ *
+ */
+public class DescriptorSet {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+
+    private GSSNode[] gssNodes;
+
+    private int mask;
+
+    private int size;
+
+    private int threshold;
+
+    private final Set<EnvironmentKey> withEnvironment = new HashSet<>();
+
+    public DescriptorSet() {
+        init(INITIAL_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        keys = new long[capacity];
+        gssNodes = new GSSNode[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * @return true if the descriptor was not in the set
+     */
+    public boolean add(BodyGrammarSlot slot, GSSNode u, int i) {
+        long key = key(slot.getId(), i);
+        int j = hash(key, u) & mask;
+        GSSNode v;
+        while ((v = gssNodes[j]) != null) {
+            if (v == u && keys[j] == key)
+                return false;
+            j = (j + 1) & mask;
+        }
+
+        keys[j] = key;
+        gssNodes[j] = u;
+        if (++size > threshold)
+            rehash();
+        return true;
+    }
+
+    /**
+     * @return true if the descriptor was not in the set
+     */
+    public boolean add(BodyGrammarSlot slot, GSSNode u, int i, int envId) {
+        return withEnvironment.add(new EnvironmentKey(slot.getId(), u, i, envId));
+    }
+
+    public int size() {
+        return size + withEnvironment.size();
+    }
+
+    /**
+     * Removes all the descriptors. A table that has grown is replaced by a table of the
+     * initial capacity, so that clearing after a small parse stays cheap.
+     */
+    public void clear() {
+        if (gssNodes.length > INITIAL_CAPACITY)
+            init(INITIAL_CAPACITY);
+        else if (size > 0)
+            Arrays.fill(gssNodes, null);
+        size = 0;
+        withEnvironment.clear();
+    }
+
+    /**
+     * Removes the descriptors whose input index is before i. The capacity of the table is kept.
+     */
+    public void removeBefore(int i) {
+        long[] oldKeys = keys;
+        GSSNode[] oldGSSNodes = gssNodes;
+
+        init(oldGSSNodes.length);
+        size = 0;
+
+        for (int k = 0; k < oldGSSNodes.length; k++) {
+            if (oldGSSNodes[k] == null || (int) oldKeys[k] < i) continue;
+            insert(oldKeys[k], oldGSSNodes[k]);
+            size++;
+        }
+
+        withEnvironment.removeIf(key -> key.i < i);
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        GSSNode[] oldGSSNodes = gssNodes;
+
+        init(oldGSSNodes.length << 1);
+
+        for (int k = 0; k < oldGSSNodes.length; k++) {
+            if (oldGSSNodes[k] == null) continue;
+            insert(oldKeys[k], oldGSSNodes[k]);
+        }
+    }
+
+    private void insert(long key, GSSNode u) {
+        int j = hash(key, u) & mask;
+        while (gssNodes[j] != null)
+            j = (j + 1) & mask;
+        keys[j] = key;
+        gssNodes[j] = u;
+    }
+
+    private static long key(int slotId, int i) {
+        return ((long) slotId << 32) | (i & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key, GSSNode u) {
+        long h = (key ^ ((long) System.identityHashCode(u) << 16)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class EnvironmentKey {
+
+        private final int slotId;
+
+        private final GSSNode u;
+
+        private final int i;
+
+        private final int envId;
+
+        EnvironmentKey(int slotId, GSSNode u, int i, int envId) {
+            this.slotId = slotId;
+            this.u = u;
+            this.i = i;
+            this.envId = envId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+
+            if (!(obj instanceof EnvironmentKey))
+                return false;
+
+            EnvironmentKey other = (EnvironmentKey) obj;
+            return slotId == other.slotId && u == other.u && i == other.i && envId == other.envId;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((slotId * 31 + System.identityHashCode(u)) * 31 + i) * 31 + envId;
+        }
+    }
+
+}
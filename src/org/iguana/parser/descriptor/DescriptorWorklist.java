@@ -0,0 +1,40 @@
+package org.iguana.parser.descriptor;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.gss.GSSNode;
+
+/**
+ *
+ * The set of descriptors that are scheduled but not yet processed during a parse.
+ * Implementations decide how the descriptors are stored, so a descriptor does
+ * not have to exist as an object between scheduling and execution.
+ *
+ */
+public interface DescriptorWorklist {
+
+    void add(Descriptor descriptor);
+
+    /**
+     * Schedules the descriptor (slot, gssNode, sppfNode). The environment is null
+     * for descriptors that do not carry data-dependent state.
+     */
+    void add(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env);
+
+    boolean isEmpty();
+
+    int size();
+
+    /**
+     * Removes the next descriptor and returns it as an object.
+     */
+    Descriptor remove();
+
+    /**
+     * Removes the next descriptor and executes it, without materializing it as an object if possible.
+     */
+    void executeNext(ParserRuntime runtime);
+
+}
@@ -0,0 +1,101 @@
+package org.iguana.parser.descriptor;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.gss.GSSNode;
+
+import java.util.function.Supplier;
+
+/**
+ *
+ * Processes the descriptors in the order of their input index: all descriptors at
+ * input index i are processed before any descriptor at an index greater than i.
+ * Descriptors at the same index are kept in a bucket, created by the given supplier.
+ *
+ * Since processing a descriptor at index i only schedules descriptors at indices
+ * greater than or equal to i, the part of the input before the current index is
+ * finished once the worklist moves past it, and its bucket is released.
+ *
+ */
+public class InputPositionDescriptorWorklist implements DescriptorWorklist {
+
+    private final DescriptorWorklist[] buckets;
+
+    private final Supplier<DescriptorWorklist> bucketSupplier;
+
+    private int current;
+
+    private int size;
+
+    public InputPositionDescriptorWorklist(int inputLength, Supplier<DescriptorWorklist> bucketSupplier) {
+        this.buckets = new DescriptorWorklist[inputLength + 1];
+        this.bucketSupplier = bucketSupplier;
+    }
+
+    @Override
+    public void add(Descriptor descriptor) {
+        getBucket(descriptor.getInputIndex()).add(descriptor);
+        size++;
+    }
+
+    @Override
+    public void add(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env) {
+        getBucket(sppfNode.getRightExtent()).add(slot, gssNode, sppfNode, env);
+        size++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the leftmost input position whose descriptors are not all processed.
+     */
+    public int getCurrentIndex() {
+        return current;
+    }
+
+    @Override
+    public Descriptor remove() {
+        DescriptorWorklist bucket = nextBucket();
+        size--;
+        return bucket.remove();
+    }
+
+    @Override
+    public void executeNext(ParserRuntime runtime) {
+        DescriptorWorklist bucket = nextBucket();
+        size--;
+        bucket.executeNext(runtime);
+    }
+
+    private DescriptorWorklist getBucket(int i) {
+        // Should not happen in GLL parsing, but the order is kept correct if it does.
+        if (i < current)
+            current = i;
+
+        DescriptorWorklist bucket = buckets[i];
+        if (bucket == null) {
+            bucket = bucketSupplier.get();
+            buckets[i] = bucket;
+        }
+        return bucket;
+    }
+
+    private DescriptorWorklist nextBucket() {
+        while (buckets[current] == null || buckets[current].isEmpty()) {
+            buckets[current] = null;
+            current++;
+        }
+        return buckets[current];
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.iguana.parser.descriptor;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.gss.GSSNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ *
+ * Keeps the scheduled descriptors as Descriptor objects in a deque, which is used
+ * either as a stack (LIFO) or as a queue (FIFO).
+ *
+ */
+public class ObjectDescriptorWorklist implements DescriptorWorklist {
+
+    private final Deque<Descriptor> descriptors;
+
+    private final Input input;
+
+    private final boolean fifo;
+
+    public ObjectDescriptorWorklist(Input input) {
+        this(input, false);
+    }
+
+    public ObjectDescriptorWorklist(Input input, boolean fifo) {
+        this.input = input;
+        this.fifo = fifo;
+        this.descriptors = new ArrayDeque<>();
+    }
+
+    @Override
+    public void add(Descriptor descriptor) {
+        descriptors.addLast(descriptor);
+    }
+
+    @Override
+    public void add(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env) {
+        if (env == null)
+            descriptors.addLast(new Descriptor(slot, gssNode, sppfNode, input));
+        else
+            descriptors.addLast(new org.iguana.datadependent.descriptor.Descriptor(slot, gssNode, sppfNode, input, env));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return descriptors.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return descriptors.size();
+    }
+
+    @Override
+    public Descriptor remove() {
+        return fifo ? descriptors.removeFirst() : descriptors.removeLast();
+    }
+
+    @Override
+    public void executeNext(ParserRuntime runtime) {
+        Descriptor descriptor = remove();
+        runtime.log("Processing %s", descriptor);
+        descriptor.execute(runtime);
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.iguana.parser.descriptor;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.gss.GSSNode;
+
+/**
+ *
+ * Keeps the scheduled descriptors as records in parallel growable arrays, one array per
+ * component of a descriptor, instead of allocating a Descriptor object per descriptor.
+ * The arrays form a circular buffer, so descriptors can be removed from the end (LIFO)
+ * or from the front (FIFO). Entries are cleared when a descriptor is removed so that
+ * processed GSS and SPPF nodes are not kept reachable by the worklist.
+ *
+ */
+public class PackedDescriptorWorklist implements DescriptorWorklist {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final Input input;
+
+    private final boolean fifo;
+
+    private BodyGrammarSlot[] slots;
+
+    private GSSNode[] gssNodes;
+
+    private NonPackedNode[] sppfNodes;
+
+    private Environment[] envs;
+
+    private int head;
+
+    private int size;
+
+    public PackedDescriptorWorklist(Input input) {
+        this(input, false, DEFAULT_CAPACITY);
+    }
+
+    public PackedDescriptorWorklist(Input input, boolean fifo) {
+        this(input, fifo, DEFAULT_CAPACITY);
+    }
+
+    public PackedDescriptorWorklist(Input input, boolean fifo, int initialCapacity) {
+        this.input = input;
+        this.fifo = fifo;
+        this.slots = new BodyGrammarSlot[initialCapacity];
+        this.gssNodes = new GSSNode[initialCapacity];
+        this.sppfNodes = new NonPackedNode[initialCapacity];
+        this.envs = new Environment[initialCapacity];
+    }
+
+    @Override
+    public void add(Descriptor descriptor) {
+        Environment env = null;
+        if (descriptor instanceof org.iguana.datadependent.descriptor.Descriptor)
+            env = ((org.iguana.datadependent.descriptor.Descriptor) descriptor).getEnv();
+        add(descriptor.getGrammarSlot(), descriptor.getGSSNode(), descriptor.getSPPFNode(), env);
+    }
+
+    @Override
+    public void add(BodyGrammarSlot slot, GSSNode gssNode, NonPackedNode sppfNode, Environment env) {
+        if (size == slots.length)
+            grow();
+
+        int i = index(size);
+        slots[i] = slot;
+        gssNodes[i] = gssNode;
+        sppfNodes[i] = sppfNode;
+        envs[i] = env;
+        size++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Descriptor remove() {
+        int i = removeIndex();
+        Descriptor descriptor;
+        if (envs[i] == null)
+            descriptor = new Descriptor(slots[i], gssNodes[i], sppfNodes[i], input);
+        else
+            descriptor = new org.iguana.datadependent.descriptor.Descriptor(slots[i], gssNodes[i], sppfNodes[i], input, envs[i]);
+        clear(i);
+        return descriptor;
+    }
+
+    @Override
+    public void executeNext(ParserRuntime runtime) {
+        int i = removeIndex();
+        BodyGrammarSlot slot = slots[i];
+        GSSNode gssNode = gssNodes[i];
+        NonPackedNode sppfNode = sppfNodes[i];
+        Environment env = envs[i];
+        clear(i);
+
+        runtime.log("Processing (%s, %d, %s, %s)", slot, sppfNode.getRightExtent(), gssNode, sppfNode);
+
+        if (env == null)
+            runtime.execute(slot, gssNode, sppfNode);
+        else
+            slot.execute(input, gssNode, sppfNode, env, runtime);
+    }
+
+    private int removeIndex() {
+        int i;
+        if (fifo) {
+            i = head;
+            head = index(1);
+        } else {
+            i = index(size - 1);
+        }
+        size--;
+        return i;
+    }
+
+    private int index(int offset) {
+        int i = head + offset;
+        return i < slots.length ? i : i - slots.length;
+    }
+
+    private void clear(int i) {
+        slots[i] = null;
+        gssNodes[i] = null;
+        sppfNodes[i] = null;
+        envs[i] = null;
+    }
+
+    private void grow() {
+        int capacity = slots.length << 1;
+        slots = copy(slots, new BodyGrammarSlot[capacity]);
+        gssNodes = copy(gssNodes, new GSSNode[capacity]);
+        sppfNodes = copy(sppfNodes, new NonPackedNode[capacity]);
+        envs = copy(envs, new Environment[capacity]);
+        head = 0;
+    }
+
+    /**
+     * Copies the elements of a full circular buffer, starting from head, to the start of dest.
+     */
+    private <T> T[] copy(T[] src, T[] dest) {
+        int firstPart = src.length - head;
+        System.arraycopy(src, head, dest, 0, firstPart);
+        System.arraycopy(src, 0, dest, firstPart, head);
+        return dest;
+    }
+
+}
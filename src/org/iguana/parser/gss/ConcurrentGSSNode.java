@@ -0,0 +1,68 @@
+package org.iguana.parser.gss;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.parser.ParserRuntime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * A GSS node that can be shared by the threads of a concurrent parse. Adding an edge
+ * and adding a popped element are done under the monitor of the node, and each of them
+ * takes a snapshot of the other collection. This way each (edge, popped element) pair
+ * is processed exactly once, by the thread that added the later of the two, while the
+ * descriptors themselves are scheduled outside the lock.
+ *
+ */
+public class ConcurrentGSSNode extends GSSNode {
+
+    public ConcurrentGSSNode(NonterminalGrammarSlot slot, int inputIndex) {
+        super(slot, inputIndex);
+    }
+
+    @Override
+    protected void addGSSEdge(Input input, GSSEdge edge, ParserRuntime runtime) {
+        List<NonterminalNode> popped = new ArrayList<>();
+        synchronized (this) {
+            storeGSSEdge(edge);
+            forEachPoppedElement(popped::add);
+        }
+
+        for (NonterminalNode z : popped) {
+            if (edge.getReturnSlot().testFollow(input.charAt(z.getRightExtent()))) {
+                edge.addDescriptor(input, this, z, runtime);
+            }
+        }
+    }
+
+    @Override
+    public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, ParserRuntime runtime) {
+        runtime.log("Pop %s, %d, %s", this, getInputIndex(), child);
+        NonterminalNode node;
+        List<GSSEdge> edges;
+        synchronized (this) {
+            node = getPoppedElements().add(input, slot, child, runtime);
+            if (node == null) return;
+            edges = copyGSSEdges();
+        }
+        iterateOverEdges(input, node, edges, runtime);
+    }
+
+    @Override
+    public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, Object value, ParserRuntime runtime) {
+        NonterminalNode node;
+        List<GSSEdge> edges;
+        synchronized (this) {
+            node = getPoppedElements().add(input, slot, child, value, runtime);
+            if (node == null) return;
+            edges = copyGSSEdges();
+        }
+        iterateOverEdges(input, node, edges, runtime);
+    }
+
+}
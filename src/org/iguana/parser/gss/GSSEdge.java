@@ -30,7 +30,7 @@ package org.iguana.parser.gss;
 import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.utils.input.Input;
 import org.iguana.grammar.slot.BodyGrammarSlot;
-import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.ParserRuntime;
 
 public interface GSSEdge {
 
@@ -45,10 +45,10 @@ public interface GSSEdge {
 	 * Does the following:
 	 * (1) checks conditions associated with the return slot
 	 * (2) checks whether the descriptor to be created has been already created (and scheduled) before
-	 * (2.1) if yes, returns null
-	 * (2.2) if no, creates one and returns it
+	 * (2.1) if yes, returns false
+	 * (2.2) if no, schedules one and returns true
 	 * 
 	 */
-	Descriptor addDescriptor(Input input, GSSNode source, NonPackedNode sppfNode);
+	boolean addDescriptor(Input input, GSSNode source, NonPackedNode sppfNode, ParserRuntime runtime);
 
 }
@@ -28,7 +28,9 @@
 package org.iguana.parser.gss;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import iguana.parsetrees.sppf.NonPackedNode;
 import iguana.parsetrees.sppf.NonterminalNode;
@@ -38,7 +40,7 @@ import org.iguana.datadependent.env.Environment;
 import org.iguana.grammar.slot.BodyGrammarSlot;
 import org.iguana.grammar.slot.EndGrammarSlot;
 import org.iguana.grammar.slot.NonterminalGrammarSlot;
-import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.ParserRuntime;
 
 /**
  *
@@ -52,62 +54,106 @@ public class GSSNode {
 
 	private final int inputIndex;
 	
-	private final PoppedElements poppedElements;
+	/*
+	 * Most GSS nodes have a single outgoing edge, and many are never popped. Therefore, the
+	 * popped elements are created on the first pop, and the first edge is kept in a field;
+	 * the list of edges is only created for the second edge, and then contains all the edges.
+	 */
+	private PoppedElements poppedElements;
+
+	private GSSEdge firstEdge;
 	
-	private final List<GSSEdge> gssEdges;
+	private List<GSSEdge> gssEdges;
 
 	public GSSNode(NonterminalGrammarSlot slot, int inputIndex) {
 		this.slot = slot;
 		this.inputIndex = inputIndex;
-		this.poppedElements = new PoppedElements(slot.getRuntime());
-		this.gssEdges = new ArrayList<>();
 	}
 	
-	public void createGSSEdge(Input input, BodyGrammarSlot returnSlot, GSSNode destination, NonPackedNode w) {
+	public void createGSSEdge(Input input, BodyGrammarSlot returnSlot, GSSNode destination, NonPackedNode w, ParserRuntime runtime) {
 		NewGSSEdgeImpl edge = new NewGSSEdgeImpl(returnSlot, w, destination);
-		slot.getRuntime().gssEdgeAdded(edge);
+		runtime.gssEdgeAdded(edge);
 		
-		gssEdges.add(edge);
+		addGSSEdge(input, edge, runtime);
+	}
+
+	/**
+	 * Adds the edge to this GSS node and schedules the descriptors for the
+	 * nonterminal nodes that have already been popped from this node.
+	 */
+	protected void addGSSEdge(Input input, GSSEdge edge, ParserRuntime runtime) {
+		storeGSSEdge(edge);
 		
-		poppedElements.forEach(z -> {
+		forEachPoppedElement(z -> {
 			if (edge.getReturnSlot().testFollow(input.charAt(z.getRightExtent()))) {
-				Descriptor descriptor = edge.addDescriptor(input, this, z);
-				if (descriptor != null) {
-					slot.getRuntime().scheduleDescriptor(descriptor);
-				}
+				edge.addDescriptor(input, this, z, runtime);
 			}
 		});
 	}
 
-    public void pop(Input input, EndGrammarSlot slot, NonPackedNode child) {
-        slot.getRuntime().log("Pop %s, %d, %s", this, inputIndex, child);
-        NonterminalNode node = poppedElements.add(input, slot, child);
-        if (node == null) return; else iterateOverEdges(input, node);
+	protected void storeGSSEdge(GSSEdge edge) {
+		if (firstEdge == null) {
+			firstEdge = edge;
+		} else {
+			if (gssEdges == null) {
+				gssEdges = new ArrayList<>(4);
+				gssEdges.add(firstEdge);
+			}
+			gssEdges.add(edge);
+		}
+	}
+
+	protected void forEachPoppedElement(Consumer<NonterminalNode> c) {
+		if (poppedElements != null) poppedElements.forEach(c);
+	}
+
+	protected PoppedElements getPoppedElements() {
+		if (poppedElements == null) poppedElements = new PoppedElements();
+		return poppedElements;
+	}
+
+	/**
+	 * @return a copy of the edges of this node
+	 */
+	protected List<GSSEdge> copyGSSEdges() {
+		if (gssEdges != null) return new ArrayList<>(gssEdges);
+		if (firstEdge != null) return Collections.singletonList(firstEdge);
+		return Collections.emptyList();
+	}
+
+    public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, ParserRuntime runtime) {
+        runtime.log("Pop %s, %d, %s", this, inputIndex, child);
+        NonterminalNode node = getPoppedElements().add(input, slot, child, runtime);
+        if (node == null) return; else iterateOverEdges(input, node, runtime);
     }
 
-    public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, Object value) {
-        NonterminalNode node = poppedElements.add(input, slot, child, value);
-        if (node == null) return; else iterateOverEdges(input, node);
+    public void pop(Input input, EndGrammarSlot slot, NonPackedNode child, Object value, ParserRuntime runtime) {
+        NonterminalNode node = getPoppedElements().add(input, slot, child, value, runtime);
+        if (node == null) return; else iterateOverEdges(input, node, runtime);
     }
 
-    private void iterateOverEdges(Input input, NonterminalNode node) {
-        for(GSSEdge edge : getGSSEdges()) {
+    private void iterateOverEdges(Input input, NonterminalNode node, ParserRuntime runtime) {
+        if (gssEdges != null)
+            iterateOverEdges(input, node, gssEdges, runtime);
+        else if (firstEdge != null && firstEdge.getReturnSlot().testFollow(input.charAt(node.getRightExtent())))
+            firstEdge.addDescriptor(input, this, node, runtime);
+    }
+
+    protected void iterateOverEdges(Input input, NonterminalNode node, Iterable<GSSEdge> edges, ParserRuntime runtime) {
+        for(GSSEdge edge : edges) {
 
             if (!edge.getReturnSlot().testFollow(input.charAt(node.getRightExtent()))) continue;
 
-            Descriptor descriptor = edge.addDescriptor(input, this, node);
-            if (descriptor != null) {
-                slot.getRuntime().scheduleDescriptor(descriptor);
-            }
+            edge.addDescriptor(input, this, node, runtime);
         }
     }
 
     public NonterminalNode getNonterminalNode(Input input, int j) {
-		return poppedElements.getNonterminalNode(input, j);
+		return poppedElements == null ? null : poppedElements.getNonterminalNode(input, j);
 	}
 
     public NonterminalNode getNonterminalNode(Input input) {
-        return poppedElements.getNonterminalNode(input);
+        return poppedElements == null ? null : poppedElements.getNonterminalNode(input);
     }
 	
 	public NonterminalGrammarSlot getGrammarSlot() {
@@ -119,15 +165,17 @@ public class GSSNode {
 	}
 	
 	public int countGSSEdges() {
-		return gssEdges.size();
+		if (gssEdges != null) return gssEdges.size();
+		return firstEdge == null ? 0 : 1;
 	}
 	
 	public int countPoppedElements() {
-		return poppedElements.size();
+		return poppedElements == null ? 0 : poppedElements.size();
 	}
 		
 	public Iterable<GSSEdge> getGSSEdges() {
-		return gssEdges;
+		if (gssEdges != null) return gssEdges;
+		return firstEdge == null ? Collections.emptyList() : Collections.singletonList(firstEdge);
 	}
 	
 	public boolean equals(Object obj) {
@@ -153,7 +201,7 @@ public class GSSNode {
 	}
 
 	public int getCountGSSEdges() {
-		return gssEdges.size();
+		return countGSSEdges();
 	}
 	
 	/**
@@ -162,20 +210,11 @@ public class GSSNode {
 	 * 
 	 */
 	
-	public void createGSSEdge(Input input, BodyGrammarSlot returnSlot, GSSNode destination, NonPackedNode w, Environment env) {
-		NewGSSEdgeImpl edge = new org.iguana.datadependent.gss.NewGSSEdgeImpl(returnSlot, w, destination, env);
-		
-		gssEdges.add(edge);
-		returnSlot.getRuntime().gssEdgeAdded(edge);
+	public void createGSSEdge(Input input, BodyGrammarSlot returnSlot, GSSNode destination, NonPackedNode w, Environment env, ParserRuntime runtime) {
+		NewGSSEdgeImpl edge = new org.iguana.datadependent.gss.NewGSSEdgeImpl(returnSlot, w, destination, runtime.intern(env));
+		runtime.gssEdgeAdded(edge);
 
-		poppedElements.forEach(z -> {
-			if (edge.getReturnSlot().testFollow(input.charAt(z.getRightExtent()))) {
-				Descriptor descriptor = edge.addDescriptor(input, this, z);
-				if (descriptor != null) {
-                    returnSlot.getRuntime().scheduleDescriptor(descriptor);
-				}
-			}
-		});
+		addGSSEdge(input, edge, runtime);
 	}
 	
 }
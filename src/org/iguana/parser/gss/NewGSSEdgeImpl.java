@@ -33,7 +33,6 @@ import iguana.utils.input.Input;
 import org.iguana.datadependent.env.Environment;
 import org.iguana.grammar.slot.BodyGrammarSlot;
 import org.iguana.parser.ParserRuntime;
-import org.iguana.parser.descriptor.Descriptor;
 
 public class NewGSSEdgeImpl implements GSSEdge {
 	
@@ -88,7 +87,7 @@ public class NewGSSEdgeImpl implements GSSEdge {
 	}
 
 	@Override
-	public Descriptor addDescriptor(Input input, GSSNode source, NonPackedNode sppfNode) {
+	public boolean addDescriptor(Input input, GSSNode source, NonPackedNode sppfNode, ParserRuntime runtime) {
 		
 		/**
 		 * 
@@ -97,7 +96,6 @@ public class NewGSSEdgeImpl implements GSSEdge {
 		 */
 
         int i = sppfNode.getRightExtent();
-        ParserRuntime runtime = returnSlot.getRuntime();
 		
 		NonPackedNode y;
 		BodyGrammarSlot returnSlot = this.returnSlot;
@@ -107,30 +105,38 @@ public class NewGSSEdgeImpl implements GSSEdge {
 
             runtime.setEnvironment(env);
 			
-			if (returnSlot.getConditions().execute(input, source, i, runtime.getEvaluatorContext()))
-				return null;
+			if (returnSlot.getConditions().execute(input, source, i, runtime.getEvaluatorContext(), runtime))
+				return false;
 			
 			env = runtime.getEnvironment();
 			
-			y = returnSlot.getIntermediateNode2(input, node, sppfNode, env);
+			y = returnSlot.getIntermediateNode2(input, destination, node, sppfNode, env, runtime);
 			
 //			y = parser.getNode(returnSlot, node, sppfNode, env);
 //			if (!parser.hasDescriptor(returnSlot, destination, inputIndex, y, env))
 //				return new org.iguana.datadependent.descriptor.Descriptor(returnSlot, destination, inputIndex, y, env);
 			
-			return y != null ? new org.iguana.datadependent.descriptor.Descriptor(returnSlot, destination, y, input, env) : null;
+			if (y == null)
+				return false;
+
+			runtime.scheduleDescriptor(returnSlot, destination, y, env);
+			return true;
 		}
 		
-		if (returnSlot.getConditions().execute(input, source, i))
-			return null;
+		if (returnSlot.getConditions().execute(input, source, i, runtime))
+			return false;
 		
 //		y = parser.getNode(returnSlot, node, sppfNode);
 //		if (!parser.hasDescriptor(returnSlot, destination, inputIndex, y))
 //			return new Descriptor(returnSlot, destination, inputIndex, y);
 		
-		y = returnSlot.getIntermediateNode2(input, node, sppfNode);
+		y = returnSlot.getIntermediateNode2(input, destination, node, sppfNode, runtime);
 		
-		return y != null ? new Descriptor(returnSlot, destination, y, input) : null;
+		if (y == null)
+			return false;
+
+		runtime.scheduleDescriptor(returnSlot, destination, y);
+		return true;
 	}
 
 }
@@ -27,164 +27,178 @@
 
 package org.iguana.parser.gss;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 
 import iguana.parsetrees.sppf.*;
+import iguana.utils.collections.IntHashMap;
 import iguana.utils.collections.Keys;
+import iguana.utils.collections.OpenAddressingIntHashMap;
 import iguana.utils.input.Input;
 import org.iguana.grammar.slot.EndGrammarSlot;
 import org.iguana.parser.ParserRuntime;
-import org.iguana.util.Holder;
 import iguana.utils.collections.key.Key;
 
 import static iguana.parsetrees.sppf.SPPFNodeFactory.*;
 
+/**
+ *
+ * The nonterminal nodes popped from a GSS node. Most GSS nodes are popped with a single
+ * right extent, so the first node is kept in a field and the array of nodes is only
+ * allocated for the second one. The nodes are looked up by a linear scan of the array,
+ * until there are more than INDEX_THRESHOLD of them; then they are indexed by their right
+ * extent, or by their right extent and value in the data-dependent case.
+ *
+ * The nodes are visited in the order they are added. All the nodes belong to the input of
+ * the parse that created the GSS node, so the input is not compared.
+ *
+ */
 public class PoppedElements {
 
-    private ParserRuntime runtime;
+	private static final int INDEX_THRESHOLD = 8;
 
 	private NonterminalNode firstNode;
 
-    private Input firstInput;
-	
-	private Map<Object, NonterminalNode> poppedElements;
+	/**
+	 * All the popped nodes, including the first one, once there are at least two of them
+	 */
+	private NonterminalNode[] nodes;
 
-    public PoppedElements(ParserRuntime runtime) {
-        this.runtime = runtime;
-    }
-	
-	public NonterminalNode add(Input input, EndGrammarSlot slot, NonPackedNode child) {
+	private int size;
 
-		// No node added yet
-		if (firstNode == null) {
-			firstNode = createNonterminalNode(slot.getNonterminal(), slot, child, input);
-            firstInput = input;
-            runtime.packedNodeAdded(slot, child.getRightExtent());
-			runtime.nonterminalNodeAdded(firstNode);
-			return firstNode;
-		// Only one node is added and there is an ambiguity
-		} else if (poppedElements == null && firstNode.getRightExtent() == child.getRightExtent() && firstInput.equals(input)) {
-            boolean ambiguous = firstNode.addPackedNode(slot, child);
-            runtime.packedNodeAdded(slot, child.getRightExtent());
-            if (ambiguous) runtime.ambiguousNodeAdded(firstNode);
-			return null;
-        // Only one node is added and the node is not in the map
-		} else {
-			// Initialize the map and put the firstNode element there
-			if (poppedElements == null) {
-				poppedElements = new LinkedHashMap<>();
-				poppedElements.put(Keys.from(firstNode.getRightExtent(), firstInput), firstNode);
-			}
-			
-			Holder<NonterminalNode> holder = new Holder<>();
-			poppedElements.compute(Keys.from(child.getRightExtent(), input), (k, v) -> {
-                if (v == null) {
-                    NonterminalNode node = createNonterminalNode(slot.getNonterminal(), slot, child, input);
-                    runtime.nonterminalNodeAdded(node);
-                    runtime.packedNodeAdded(slot, child.getRightExtent());
-                    holder.set(node);
-                    return node;
-                } else {
-                    boolean ambiguous = v.addPackedNode(slot, child);
-                    runtime.packedNodeAdded(slot, child.getRightExtent());
-                    if (ambiguous) runtime.ambiguousNodeAdded(v);
-                    return v;
-                }
-            });
-
-	 		return holder.get();
+	private IntHashMap<NonterminalNode> index;
+
+	private Map<Key, NonterminalNode> valueIndex;
+
+	public NonterminalNode add(Input input, EndGrammarSlot slot, NonPackedNode child, ParserRuntime runtime) {
+		int rightExtent = child.getRightExtent();
+		NonterminalNode node = find(rightExtent);
+
+		if (node == null) {
+			node = createNonterminalNode(slot.getNonterminal(), slot, child, input);
+			append(node);
+			if (index != null)
+				index.put(rightExtent, node);
+			else if (size > INDEX_THRESHOLD)
+				createIndex();
+			runtime.packedNodeAdded(slot, rightExtent);
+			runtime.nonterminalNodeAdded(node);
+			return node;
+		}
+
+		runtime.addPackedNode(node, slot, child);
+		return null;
+	}
+
+	public NonterminalNode add(Input input, EndGrammarSlot slot, NonPackedNode child, Object value, ParserRuntime runtime) {
+		int rightExtent = child.getRightExtent();
+		NonterminalNode node = find(input, rightExtent, value);
+
+		if (node == null) {
+			node = createNonterminalNode(slot.getNonterminal(), slot, child, value, input);
+			append(node);
+			if (valueIndex != null)
+				valueIndex.put(Keys.from(rightExtent, value, input), node);
+			else if (size > INDEX_THRESHOLD)
+				createValueIndex(input);
+			runtime.nonterminalNodeAdded(node);
+			runtime.packedNodeAdded(slot, rightExtent);
+			return node;
+		}
+
+		runtime.addPackedNode(node, slot, child);
+		return null;
+	}
+
+	private NonterminalNode find(int rightExtent) {
+		if (index != null)
+			return index.get(rightExtent);
+
+		if (nodes == null)
+			return firstNode != null && firstNode.getRightExtent() == rightExtent ? firstNode : null;
+
+		for (int i = 0; i < size; i++) {
+			if (nodes[i].getRightExtent() == rightExtent)
+				return nodes[i];
+		}
+		return null;
+	}
+
+	private NonterminalNode find(Input input, int rightExtent, Object value) {
+		if (valueIndex != null)
+			return valueIndex.get(Keys.from(rightExtent, value, input));
+
+		if (nodes == null)
+			return firstNode != null && matches(firstNode, rightExtent, value) ? firstNode : null;
+
+		for (int i = 0; i < size; i++) {
+			if (matches(nodes[i], rightExtent, value))
+				return nodes[i];
 		}
+		return null;
+	}
+
+	private static boolean matches(NonterminalNode node, int rightExtent, Object value) {
+		return node.getRightExtent() == rightExtent && Objects.equals(node.getValue(), value);
 	}
-	
-	public NonterminalNode add(Input input, EndGrammarSlot slot, NonPackedNode child, Object value) {
-		// No node added yet
+
+	private void append(NonterminalNode node) {
 		if (firstNode == null) {
-            firstNode = createNonterminalNode(slot.getNonterminal(), slot, child, value, input);
-            firstInput = input;
-            runtime.nonterminalNodeAdded(firstNode);
-            runtime.packedNodeAdded(slot, child.getRightExtent());
-            return firstNode;
-        } else {
-            Key key = Keys.from(child.getRightExtent(), value, input);
-            // Only one node is added and there is an ambiguity
-            if (poppedElements == null && Keys.from(firstNode.getRightExtent(), firstNode.getValue(), firstInput).equals(key)) {
-            boolean ambiguous = firstNode.addPackedNode(slot, child);
-            runtime.packedNodeAdded(slot, child.getRightExtent());
-            if (ambiguous) runtime.ambiguousNodeAdded(firstNode);
-            return null;
-        } else {
-            // Initialize the map and put the firstNode element there
-            if (poppedElements == null) {
-                poppedElements = new HashMap<>();
-                poppedElements.put(Keys.from(firstNode.getRightExtent(), firstNode.getValue(), firstInput), firstNode);
-            }
-
-            Holder<NonterminalNode> holder = new Holder<>();
-            poppedElements.compute(key, (k, v) -> {
-                if (v == null) {
-                    NonterminalNode node = createNonterminalNode(slot.getNonterminal(), slot, child, value, input);
-                    runtime.nonterminalNodeAdded(node);
-                    runtime.packedNodeAdded(slot, child.getLeftExtent());
-                    holder.set(node);
-                    return node;
-                }
-                else {
-                    boolean ambiguous = v.addPackedNode(slot, child);
-                    runtime.packedNodeAdded(slot, child.getRightExtent());
-                    if (ambiguous) runtime.ambiguousNodeAdded(v);
-                    return v;
-                }
-            });
-            return holder.get();
-            }
-        }
+			firstNode = node;
+			size = 1;
+			return;
+		}
+
+		if (nodes == null) {
+			nodes = new NonterminalNode[4];
+			nodes[0] = firstNode;
+		} else if (size == nodes.length) {
+			nodes = Arrays.copyOf(nodes, size * 2);
+		}
+		nodes[size++] = node;
+	}
+
+	private void createIndex() {
+		index = new OpenAddressingIntHashMap<>();
+		for (int i = 0; i < size; i++)
+			index.put(nodes[i].getRightExtent(), nodes[i]);
+	}
+
+	private void createValueIndex(Input input) {
+		valueIndex = new HashMap<>();
+		for (int i = 0; i < size; i++)
+			valueIndex.put(Keys.from(nodes[i].getRightExtent(), nodes[i].getValue(), input), nodes[i]);
 	}
-	
+
 	public void forEach(Consumer<NonterminalNode> c) {
-		if (poppedElements == null) {
+		if (nodes == null) {
 			if (firstNode != null) c.accept(firstNode);
 		} else {
-			poppedElements.values().forEach(c);
+			for (int i = 0; i < size; i++)
+				c.accept(nodes[i]);
 		}
 	}
-	
+
 	public NonterminalNode getNonterminalNode(Input input, int j) {
-		if (poppedElements == null) {
-			if (firstNode != null && firstNode.getRightExtent() == j && firstInput == input)
-				return firstNode;
-			else 
-				return null;
+		return find(j);
+	}
+
+	public NonterminalNode getNonterminalNode(Input input) {
+		if (nodes == null)
+			return firstNode;
+
+		NonterminalNode node = firstNode;
+		for (int i = 1; i < size; i++) {
+			if (nodes[i].getRightExtent() > node.getRightExtent())
+				node = nodes[i];
 		}
-		return poppedElements.get(Keys.from(j, input));
+		return node;
 	}
 
-    public NonterminalNode getNonterminalNode(Input input) {
-        int max = 0;
-        NonterminalNode node = null;
-        if (firstNode != null) {
-            node = firstNode;
-            max = firstNode.getRightExtent();
-        }
-        if (poppedElements != null) {
-            for (Map.Entry<Object, NonterminalNode> entry : poppedElements.entrySet()) {
-                int r = entry.getValue().getRightExtent();
-                if (r > max && entry.getKey().equals(Keys.from(r, input))) {
-                    max = r;
-                    node = entry.getValue();
-                }
-            }
-        }
-        return node;
-    }
-	
 	public int size() {
-		if (poppedElements == null) {
-			return firstNode != null ? 1 : 0;
-		} else {
-			return poppedElements.size();
-		}
+		return size;
 	}
 }
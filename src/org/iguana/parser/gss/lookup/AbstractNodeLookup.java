@@ -54,12 +54,25 @@ public abstract class AbstractNodeLookup implements GSSNodeLookup {
 	
 	@Override
 	public <T> void get(int i, GSSNodeData<T> data, GSSNodeCreator creator) {
-		map.compute(new Tuple<>(i, data), (k, v) -> creator.create(v));
+		Tuple<Integer, GSSNodeData<?>> key = new Tuple<>(i, data);
+		GSSNode node = map.get(key);
+		if (node == null) {
+			node = creator.create();
+			map.put(key, node);
+			creator.created(node);
+		} else {
+			creator.found(node);
+		}
 	}
 	
 	@Override
 	public void reset(Input input) {
-		map = new HashMap<>();
+		map.clear();
+	}
+	
+	@Override
+	public void releaseBefore(int i) {
+		map.values().removeIf(node -> node.getInputIndex() < i);
 	}
 	
 	@Override
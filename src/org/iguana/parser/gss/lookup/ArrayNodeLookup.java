@@ -39,6 +39,11 @@ public class ArrayNodeLookup extends AbstractNodeLookup {
 
 	private GSSNode[] gssNodes;
 	
+	/**
+	 * The entries before this index have been released.
+	 */
+	private int releasedIndex;
+	
 	public ArrayNodeLookup(Input input) {
 		gssNodes = new GSSNode[input.length()];
 	}
@@ -46,7 +51,21 @@ public class ArrayNodeLookup extends AbstractNodeLookup {
 	@Override
 	public void reset(Input input) {
 		super.reset(input);
-		gssNodes = new GSSNode[input.length()];		
+		if (gssNodes.length == input.length())
+			Arrays.fill(gssNodes, null);
+		else
+			gssNodes = new GSSNode[input.length()];
+		releasedIndex = 0;
+	}
+	
+	@Override
+	public void releaseBefore(int i) {
+		super.releaseBefore(i);
+		int end = Math.min(i, gssNodes.length);
+		if (end > releasedIndex) {
+			Arrays.fill(gssNodes, releasedIndex, end, null);
+			releasedIndex = end;
+		}
 	}
 	
 	@Override
@@ -56,7 +75,14 @@ public class ArrayNodeLookup extends AbstractNodeLookup {
 
 	@Override
 	public void get(int i, GSSNodeCreator creator) {
-		gssNodes[i] = creator.create(gssNodes[i]);
+		GSSNode node = gssNodes[i];
+		if (node == null) {
+			node = creator.create();
+			gssNodes[i] = node;
+			creator.created(node);
+		} else {
+			creator.found(node);
+		}
 	}
 
 	@Override
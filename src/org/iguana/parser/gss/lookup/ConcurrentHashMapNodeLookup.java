@@ -0,0 +1,88 @@
+package org.iguana.parser.gss.lookup;
+
+import iguana.utils.collections.CollectionsUtil;
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.parser.gss.ConcurrentGSSNode;
+import org.iguana.parser.gss.GSSNode;
+import org.iguana.parser.gss.GSSNodeData;
+import org.iguana.util.Tuple;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *
+ * A GSS node lookup that can be shared by the threads of a concurrent parse.
+ * The creator passed to get is run atomically for an input index.
+ *
+ */
+public class ConcurrentHashMapNodeLookup extends AbstractNodeLookup {
+
+	private ConcurrentMap<Integer, GSSNode> map = new ConcurrentHashMap<>();
+	
+	private ConcurrentMap<Tuple<Integer, GSSNodeData<?>>, GSSNode> dataMap = new ConcurrentHashMap<>();
+
+	public ConcurrentHashMapNodeLookup() {
+		super.map = dataMap;
+	}
+
+	@Override
+	public void get(int i, GSSNodeCreator creator) {
+		get(map, i, creator);
+	}
+	
+	@Override
+	public <T> void get(int i, GSSNodeData<T> data, GSSNodeCreator creator) {
+		get(dataMap, new Tuple<>(i, data), creator);
+	}
+	
+	/**
+	 * The node is created outside of the map, and only stored if no other thread has stored
+	 * a node for the key in the meantime. The parse continues after the map has been updated.
+	 */
+	private static <K> void get(ConcurrentMap<K, GSSNode> map, K key, GSSNodeCreator creator) {
+		GSSNode node = map.get(key);
+		if (node == null) {
+			GSSNode newNode = creator.create();
+			node = map.putIfAbsent(key, newNode);
+			if (node == null) {
+				creator.created(newNode);
+				return;
+			}
+		}
+		creator.found(node);
+	}
+
+	@Override
+	public void reset(Input input) {
+		dataMap = new ConcurrentHashMap<>();
+		super.map = dataMap;
+		map = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public void releaseBefore(int i) {
+		super.releaseBefore(i);
+		map.values().removeIf(node -> node.getInputIndex() < i);
+	}
+
+	@Override
+	public Iterable<GSSNode> getNodes() {
+		return CollectionsUtil.concat(map.values(), super.map.values());
+	}
+
+	@Override
+	public GSSNode get(NonterminalGrammarSlot slot, int i) {
+		return map.computeIfAbsent(i, k -> new ConcurrentGSSNode(slot, i));
+	}
+
+	@Override
+	public <T> GSSNode get(NonterminalGrammarSlot slot, int i, GSSNodeData<T> data) {
+		GSSNode gssNode = dataMap.get(new Tuple<>(i, data));
+		if (gssNode == null)
+			return new org.iguana.datadependent.gss.ConcurrentGSSNode<>(slot, i, data);
+		return gssNode;
+	}
+
+}
@@ -45,6 +45,12 @@ public interface GSSNodeLookup {
 	
 	void reset(Input input);
 	
+	/**
+	 * Removes the GSS nodes created before input index i. Used in windowed parsing,
+	 * where no GSS node is looked up before the leftmost pending descriptor.
+	 */
+	void releaseBefore(int i);
+	
 	Iterable<GSSNode> getNodes();
 	
 	/**
@@ -56,8 +62,18 @@ public interface GSSNodeLookup {
 	
 	<T> GSSNode get(NonterminalGrammarSlot slot, int i, GSSNodeData<T> data);
 	
-	@FunctionalInterface
+	/**
+	 * Creates the GSS node of an input index if the lookup has none, and continues the parse
+	 * with it. create should only create the node, because a concurrent lookup may discard
+	 * it when another thread stores a node first. Then either created or found is called with
+	 * the node that is in the lookup, outside of any lock.
+	 */
 	interface GSSNodeCreator {
-		GSSNode create(GSSNode node);
+		
+		GSSNode create();
+		
+		void created(GSSNode node);
+		
+		void found(GSSNode node);
 	}
 }
@@ -1,5 +1,8 @@
 package org.iguana.parser.gss.lookup;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import iguana.utils.collections.CollectionsUtil;
 import iguana.utils.input.Input;
 import org.iguana.grammar.slot.NonterminalGrammarSlot;
@@ -13,13 +16,36 @@ public class IntOpenAddressingMap extends AbstractNodeLookup {
 	
 	@Override
 	public void get(int i, GSSNodeCreator creator) {
-		map.compute(i, (k, v) -> creator.create(v));
+		GSSNode node = map.get(i);
+		if (node == null) {
+			node = creator.create();
+			map.put(i, node);
+			creator.created(node);
+		} else {
+			creator.found(node);
+		}
 	}
 
 	@Override
 	public void reset(Input input) {
 		super.reset(input);
-		map = new OpenAddressingIntHashMap<>();
+		map.clear();
+	}
+
+	/**
+	 * The map does not support removal, so it is refilled with the nodes that are kept.
+	 */
+	@Override
+	public void releaseBefore(int i) {
+		super.releaseBefore(i);
+		List<GSSNode> nodes = new ArrayList<>();
+		for (GSSNode node : map.values()) {
+			if (node.getInputIndex() >= i)
+				nodes.add(node);
+		}
+		map.clear();
+		for (GSSNode node : nodes)
+			map.put(node.getInputIndex(), node);
 	}
 
 	@Override
@@ -42,13 +42,26 @@ public class JavaHashMapNodeLookup extends AbstractNodeLookup {
 	
 	@Override
 	public void get(int i, GSSNodeCreator creator) {
-		map.compute(i, (k, v) -> creator.create(v)); 
+		GSSNode node = map.get(i);
+		if (node == null) {
+			node = creator.create();
+			map.put(i, node);
+			creator.created(node);
+		} else {
+			creator.found(node);
+		}
 	}
 	
 	@Override
 	public void reset(Input input) {
 		super.reset(input);
-		map = new HashMap<>();
+		map.clear();
+	}
+
+	@Override
+	public void releaseBefore(int i) {
+		super.releaseBefore(i);
+		map.values().removeIf(node -> node.getInputIndex() < i);
 	}
 
 	@Override
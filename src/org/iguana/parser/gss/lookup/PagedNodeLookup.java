@@ -0,0 +1,122 @@
+package org.iguana.parser.gss.lookup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import iguana.utils.collections.CollectionsUtil;
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.parser.gss.GSSNode;
+
+/**
+ * 
+ * A GSS node lookup that, like ArrayNodeLookup, indexes the GSS nodes by input position,
+ * but allocates the array in pages of PAGE_SIZE positions when a position in the page is
+ * first used. The memory used therefore depends on the positions where the nonterminal
+ * is called rather than on the length of the input.
+ *
+ */
+public class PagedNodeLookup extends AbstractNodeLookup {
+	
+	private static final int PAGE_BITS = 10;
+	
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	private GSSNode[][] pages;
+	
+	/**
+	 * The allocated pages, in the order of allocation.
+	 */
+	private List<GSSNode[]> occupiedPages;
+	
+	/**
+	 * The pages before this page index have been released.
+	 */
+	private int releasedPages;
+	
+	public PagedNodeLookup(Input input) {
+		init(input);
+	}
+	
+	private void init(Input input) {
+		pages = new GSSNode[(input.length() >> PAGE_BITS) + 1][];
+		occupiedPages = new ArrayList<>();
+		releasedPages = 0;
+	}
+	
+	@Override
+	public void reset(Input input) {
+		super.reset(input);
+		if (pages.length == (input.length() >> PAGE_BITS) + 1) {
+			Arrays.fill(pages, null);
+			occupiedPages.clear();
+			releasedPages = 0;
+		} else {
+			init(input);
+		}
+	}
+	
+	/**
+	 * Releases the pages that only contain positions before i.
+	 */
+	@Override
+	public void releaseBefore(int i) {
+		super.releaseBefore(i);
+		int end = i >> PAGE_BITS;
+		for (; releasedPages < end; releasedPages++) {
+			GSSNode[] page = pages[releasedPages];
+			if (page != null) {
+				occupiedPages.remove(page);
+				pages[releasedPages] = null;
+			}
+		}
+	}
+	
+	private GSSNode[] getPage(int i) {
+		GSSNode[] page = pages[i >> PAGE_BITS];
+		if (page == null) {
+			page = new GSSNode[PAGE_SIZE];
+			pages[i >> PAGE_BITS] = page;
+			occupiedPages.add(page);
+		}
+		return page;
+	}
+	
+	@Override
+	public Iterable<GSSNode> getNodes() {
+		List<GSSNode> nodes = new ArrayList<>();
+		for (GSSNode[] page : occupiedPages) {
+			for (GSSNode node : page) {
+				if (node != null) nodes.add(node);
+			}
+		}
+		return CollectionsUtil.concat(nodes, super.map.values());
+	}
+
+	@Override
+	public void get(int i, GSSNodeCreator creator) {
+		GSSNode[] page = getPage(i);
+		GSSNode node = page[i & PAGE_MASK];
+		if (node == null) {
+			node = creator.create();
+			page[i & PAGE_MASK] = node;
+			creator.created(node);
+		} else {
+			creator.found(node);
+		}
+	}
+
+	@Override
+	public GSSNode get(NonterminalGrammarSlot slot, int i) {
+		GSSNode[] page = getPage(i);
+		GSSNode node = page[i & PAGE_MASK];
+		if (node == null) {
+			node = new GSSNode(slot, i);
+			page[i & PAGE_MASK] = node;
+		}
+		return node;
+	}
+}
@@ -31,6 +31,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import iguana.utils.input.Input;
+import org.iguana.datadependent.ast.CompiledExpression;
 import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.grammar.condition.DataDependentCondition;
 import org.iguana.grammar.condition.PositionalCondition;
@@ -44,16 +45,30 @@ public class ToSlotActionConditionVisitor implements IConditionVisitor<SlotActio
 
 	private final MatcherFactory factory;
 	
+	private final boolean compileExpressions;
+	
 	private Map<PositionalCondition, SlotAction> cachePositional = new HashMap<>();
 	
 	private Map<RegularExpressionCondition, SlotAction> cacheRegular = new HashMap<>();
 
 	public ToSlotActionConditionVisitor(MatcherFactory factory) {
+		this(factory, false);
+	}
+	
+	/**
+	 * @param compileExpressions whether the expressions of data-dependent conditions are compiled
+	 *                           when they are visited, instead of being interpreted
+	 */
+	public ToSlotActionConditionVisitor(MatcherFactory factory, boolean compileExpressions) {
 		this.factory = factory;
+		this.compileExpressions = compileExpressions;
 	}
 	
 	@Override
 	public SlotAction visit(DataDependentCondition condition) {
+		if (compileExpressions)
+			return compile(condition);
+		
 		return new SlotAction() {
 			
 			@Override
@@ -76,6 +91,30 @@ public class ToSlotActionConditionVisitor implements IConditionVisitor<SlotActio
 		};
 	}
 
+	private static SlotAction compile(DataDependentCondition condition) {
+		CompiledExpression expression = condition.getExpression().compile();
+		return new SlotAction() {
+			
+			@Override
+			public boolean execute(Input input, GSSNode gssNode, int inputIndex) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@Override
+			public boolean execute(Input input, GSSNode gssNode, int inputIndex, IEvaluatorContext ctx) {
+				Object value = expression.evaluate(ctx);
+				if (!(value instanceof Boolean)) 
+					throw new RuntimeException("Data dependent condition should evaluate to a boolean value."); 
+				return (!(Boolean) value);
+			}
+			
+			@Override
+			public String toString() {
+				return condition.toString();
+			}
+		};
+	}
+
 	@Override
 	public SlotAction visit(PositionalCondition condition) {
 		return cachePositional.computeIfAbsent(condition, c -> create(c));
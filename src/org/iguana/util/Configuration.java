@@ -51,6 +51,22 @@ public class Configuration {
 	
 	private final EnvironmentImpl envImpl;
 
+	private final WorklistImpl worklistImpl;
+
+	private final SchedulingPolicy schedulingPolicy;
+
+	private final int threadCount;
+
+	private final boolean deterministicDescent;
+
+	private final boolean recognizer;
+
+	private final boolean windowed;
+
+	private final boolean compileExpressions;
+
+	private final TerminalCacheImpl terminalCacheImpl;
+
     private final LogLevel logLevel;
 
     public static Configuration load() {
@@ -71,6 +87,14 @@ public class Configuration {
 		this.matcherType = builder.matcherType;
 		this.hashmapImpl = builder.hashmapImpl;
 		this.envImpl = builder.envImpl;
+		this.worklistImpl = builder.worklistImpl;
+		this.schedulingPolicy = builder.schedulingPolicy;
+		this.threadCount = builder.threadCount;
+		this.deterministicDescent = builder.deterministicDescent;
+		this.recognizer = builder.recognizer;
+		this.windowed = builder.windowed;
+		this.compileExpressions = builder.compileExpressions;
+		this.terminalCacheImpl = builder.terminalCacheImpl;
         this.logLevel = builder.logLevel;
 	}
 		
@@ -94,6 +118,66 @@ public class Configuration {
 		return envImpl;
 	}
 
+	public WorklistImpl getWorklistImpl() {
+		return worklistImpl;
+	}
+
+	public SchedulingPolicy getSchedulingPolicy() {
+		return schedulingPolicy;
+	}
+
+	/**
+	 * The number of threads that process descriptors within a single parse.
+	 * Values greater than one select the (experimental) concurrent parser runtime,
+	 * which does not support deterministic descent.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Whether nonterminals that can be parsed deterministically with one character of
+	 * lookahead are parsed by recursive descent, without creating GSS edges and descriptors.
+	 */
+	public boolean isDeterministicDescent() {
+		return deterministicDescent;
+	}
+
+	/**
+	 * Whether the parser only recognizes the input, without building an SPPF. A successful
+	 * parse then only reports the parse statistics. Grammars with labels, which include the
+	 * desugared offside and precedence grammars, are not supported, as the recognizer does not
+	 * keep the extents of the labelled nodes: building their grammar graph throws an
+	 * IllegalArgumentException.
+	 */
+	public boolean isRecognizer() {
+		return recognizer;
+	}
+
+	/**
+	 * Whether the tables of the parser runtime that are indexed by input position, such as
+	 * the GSS node lookups and the terminal and intermediate node caches, are released behind
+	 * the leftmost input position that has pending descriptors. Requires the INPUT_POSITION
+	 * scheduling policy and the recognizer mode, as the SPPF of a parse keeps its nodes
+	 * reachable. Not supported with more than one thread.
+	 */
+	public boolean isWindowed() {
+		return windowed;
+	}
+
+	/**
+	 * Whether the expressions and statements of data-dependent grammars are compiled into
+	 * closures when the grammar graph is built, instead of being interpreted by walking their
+	 * ASTs. The interpreter is kept for comparison.
+	 */
+	public boolean isCompileExpressions() {
+		return compileExpressions;
+	}
+
+	public TerminalCacheImpl getTerminalCacheImpl() {
+		return terminalCacheImpl;
+	}
+
     public LogLevel getLogLevel() {
         return logLevel;
     }
@@ -101,15 +185,27 @@ public class Configuration {
     public static Builder builder() {
 		return new Builder();
 	}
+
+	/**
+	 * @return a builder initialized with the settings of this configuration
+	 */
+	public Builder copyBuilder() {
+		return new Builder(this);
+	}
 	
 	public enum MatcherType {
 		DFA,
 		JAVA_REGEX
 	}
 		
+	/**
+	 * How GSS nodes are looked up by input position: in an array of the size of the input,
+	 * in a hash map, or in pages of an array that are allocated when first used.
+	 */
 	public enum LookupImpl {
 		ARRAY,
-		HASH_MAP
+		HASH_MAP,
+		PAGED
 	}
 	
 	public enum HashMapImpl {
@@ -120,7 +216,46 @@ public class Configuration {
 	public enum EnvironmentImpl {
 		ARRAY,
 		HASH_MAP,
-		TRIE
+		TRIE,
+		/**
+		 * A persistent vector that shares its structure between versions
+		 */
+		VECTOR;
+		
+		/**
+		 * @return true if the variables are accessed by the indices given by VarToInt
+		 */
+		public boolean isIndexed() {
+			return this == ARRAY || this == VECTOR;
+		}
+	}
+
+	/**
+	 * How scheduled descriptors are stored: as Descriptor objects, or packed
+	 * into parallel arrays without allocating a Descriptor per descriptor.
+	 */
+	public enum WorklistImpl {
+		OBJECT,
+		PACKED
+	}
+
+	/**
+	 * The order in which scheduled descriptors are processed. INPUT_POSITION processes
+	 * all descriptors at an input index before moving to the next index.
+	 */
+	public enum SchedulingPolicy {
+		LIFO,
+		FIFO,
+		INPUT_POSITION
+	}
+
+	/**
+	 * How the matches of terminals are cached: in a hash map per terminal, or in pages indexed
+	 * by input position that also remember the positions where a terminal does not match.
+	 */
+	public enum TerminalCacheImpl {
+		HASH_MAP,
+		PAGED
 	}
 		
 	@Override
@@ -130,6 +265,14 @@ public class Configuration {
 		sb.append(MatcherType.class.getName()).append(": ").append(matcherType)
 		  .append(LookupImpl.class.getName()).append(": ").append(gssLookupImpl)
 		  .append(HashMapImpl.class.getName()).append(": ").append(hashmapImpl)
+		  .append(WorklistImpl.class.getName()).append(": ").append(worklistImpl)
+		  .append(SchedulingPolicy.class.getName()).append(": ").append(schedulingPolicy)
+		  .append(TerminalCacheImpl.class.getName()).append(": ").append(terminalCacheImpl)
+		  .append("ThreadCount").append(": ").append(threadCount)
+		  .append("DeterministicDescent").append(": ").append(deterministicDescent)
+		  .append("Recognizer").append(": ").append(recognizer)
+		  .append("Windowed").append(": ").append(windowed)
+		  .append("CompileExpressions").append(": ").append(compileExpressions)
 		  .append("LookaheadCount").append(": ").append(lookAheadCount);
 		
 		return sb.toString();
@@ -144,8 +287,51 @@ public class Configuration {
         private LogLevel logLevel = LogLevel.NONE;
 		
 		private EnvironmentImpl envImpl = EnvironmentImpl.TRIE;
+
+		private WorklistImpl worklistImpl = WorklistImpl.OBJECT;
+
+		private SchedulingPolicy schedulingPolicy = SchedulingPolicy.LIFO;
+
+		private int threadCount = 1;
+
+		private boolean deterministicDescent = false;
+
+		private boolean recognizer = false;
+
+		private boolean windowed = false;
+
+		private boolean compileExpressions = true;
+
+		private TerminalCacheImpl terminalCacheImpl = TerminalCacheImpl.HASH_MAP;
+
+		public Builder() {}
+
+		public Builder(Configuration config) {
+			this.gssLookupImpl = config.gssLookupImpl;
+			this.matcherType = config.matcherType;
+			this.hashmapImpl = config.hashmapImpl;
+			this.lookaheadCount = config.lookAheadCount;
+			this.logLevel = config.logLevel;
+			this.envImpl = config.envImpl;
+			this.worklistImpl = config.worklistImpl;
+			this.schedulingPolicy = config.schedulingPolicy;
+			this.threadCount = config.threadCount;
+			this.deterministicDescent = config.deterministicDescent;
+			this.recognizer = config.recognizer;
+			this.windowed = config.windowed;
+			this.compileExpressions = config.compileExpressions;
+			this.terminalCacheImpl = config.terminalCacheImpl;
+		}
 				
 		public Configuration build() {
+			if (windowed && schedulingPolicy != SchedulingPolicy.INPUT_POSITION)
+				throw new IllegalArgumentException("Windowed parsing requires the INPUT_POSITION scheduling policy");
+			if (windowed && !recognizer)
+				throw new IllegalArgumentException("Windowed parsing requires the recognizer mode, as the SPPF keeps the released nodes reachable");
+			if (windowed && threadCount > 1)
+				throw new IllegalArgumentException("Windowed parsing is not supported with more than one thread");
+			if (deterministicDescent && threadCount > 1)
+				throw new IllegalArgumentException("Deterministic descent is not supported with more than one thread");
 			return new Configuration(this);
 		}
 		
@@ -174,6 +360,48 @@ public class Configuration {
 			return this;
 		}
 
+		public Builder setWorklistImpl(WorklistImpl impl) {
+			this.worklistImpl = impl;
+			return this;
+		}
+
+		public Builder setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+			this.schedulingPolicy = schedulingPolicy;
+			return this;
+		}
+
+		public Builder setThreadCount(int threadCount) {
+			if (threadCount < 1)
+				throw new IllegalArgumentException("Thread count should be at least 1");
+			this.threadCount = threadCount;
+			return this;
+		}
+
+		public Builder setDeterministicDescent(boolean deterministicDescent) {
+			this.deterministicDescent = deterministicDescent;
+			return this;
+		}
+
+		public Builder setRecognizer(boolean recognizer) {
+			this.recognizer = recognizer;
+			return this;
+		}
+
+		public Builder setWindowed(boolean windowed) {
+			this.windowed = windowed;
+			return this;
+		}
+
+		public Builder setCompileExpressions(boolean compileExpressions) {
+			this.compileExpressions = compileExpressions;
+			return this;
+		}
+
+		public Builder setTerminalCacheImpl(TerminalCacheImpl impl) {
+			this.terminalCacheImpl = impl;
+			return this;
+		}
+
         public Builder setLogLevel(LogLevel logLevel) {
             this.logLevel = logLevel;
             return this;
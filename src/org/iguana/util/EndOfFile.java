@@ -0,0 +1,23 @@
+package org.iguana.util;
+
+import iguana.utils.input.Input;
+
+/**
+ * The character and length of the end of file marker of the inputs created by the library,
+ * so that the inputs of this package end in the same way.
+ */
+final class EndOfFile {
+
+    static final int CHAR;
+
+    static final int LENGTH;
+
+    static {
+        Input empty = Input.fromString("");
+        LENGTH = empty.length();
+        CHAR = LENGTH > 0 ? empty.charAt(0) : -1;
+    }
+
+    private EndOfFile() {}
+
+}
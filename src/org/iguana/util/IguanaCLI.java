@@ -27,10 +27,9 @@
 
 package org.iguana.util;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -77,10 +76,18 @@ public class IguanaCLI {
 	        if (line.hasOption("s")) {
 	        	startSymbol = Nonterminal.withName(line.getOptionValue("s"));
 	        }
+
+	        if (line.hasOption("recognize")) {
+	        	config = config.copyBuilder().setRecognizer(true).build();
+	        }
 	        						
 	        // Input
 	        if (line.hasOption("i")) {
-	        	inputPaths.add(line.getOptionValue("i"));
+	        	try {
+	        		parse(startSymbol, grammar, MappedInput.fromFile(new File(line.getOptionValue("i"))), config);
+	        	} catch (Exception e) {
+	        		e.printStackTrace();
+	        	}
 	        } 
 	        
 	        else if (line.hasOption("d")) {
@@ -114,7 +121,7 @@ public class IguanaCLI {
 	    		try {
 	    			for (String inputPath : inputPaths) {								
 	    				if (!ignore(ignorePaths, inputPath)) {
-	    					parse(startSymbol, grammar, Input.fromPath(inputPath), config);
+	    					parse(startSymbol, grammar, MappedInput.fromFile(new File(inputPath)), config);
 	    				}
 	    			}
 	    		} catch (Exception e) {
@@ -122,14 +129,8 @@ public class IguanaCLI {
 	    		}
 	        	
 	        } else {
-	        	BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
-	        	try {
-					String commandLineInput = in.readLine();
-					System.out.println(commandLineInput);
-					parse(startSymbol, grammar, Input.fromString(commandLineInput), config);
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
+	        	// Parses the standard input while it is being read
+	        	parse(startSymbol, grammar, StreamingInput.fromInputStream(System.in, Charset.defaultCharset(), URI.create("stdin")), config);
 	        }
 	    }
 		catch (ParseException e) {
@@ -138,12 +139,15 @@ public class IguanaCLI {
 	}
 	
 	private static void parse(Nonterminal startSymbol, Grammar grammar, Input input, Configuration config) {
-		ParseResult result = Iguana.parse(input, grammar, Configuration.DEFAULT, startSymbol);
-		if (result.isParseSuccess()) {
+		ParseResult result = Iguana.parse(input, grammar, config, startSymbol);
+		if (result.isRecognitionSuccess()) {
+			System.out.println("Accepted.");
+			System.out.println(result.asRecognitionSuccess().getStatistics());
+		} else if (result.isParseSuccess()) {
 			// TODO: fix it!
 //			System.out.println(BenchmarkUtil.format(input, result.asParseSuccess().getStatistics()));
 		} else {
-			System.out.println("Parse error.");
+			System.out.println(result.asParseError());
 		}
 	}
 	
@@ -199,6 +203,10 @@ public class IguanaCLI {
                 .withDescription("The run count")
                 .hasArg()
                 .create("r"));
+
+		options.addOption(OptionBuilder.withLongOpt("recognize")
+                .withDescription("Only recognize the input, without building an SPPF. Grammars with labels are not supported")
+                .create());
 		
 		return options;
 	}
@@ -35,7 +35,18 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -63,6 +74,7 @@ public class IguanaRunner {
 	private final Nonterminal start;
 	private final boolean runGCInBetween;
 	private final int timeout;
+	private final int threadCount;
     private final boolean buildTrees;
     private final TermBuilder<?> termBuilder;
 
@@ -77,6 +89,7 @@ public class IguanaRunner {
 		this.runCount = builder.runCount;
 		this.runGCInBetween = builder.runGCInBetween;
 		this.timeout = builder.timeout;
+		this.threadCount = builder.threadCount;
         this.buildTrees = builder.buildTrees;
         this.termBuilder = builder.termBuilder;
         if (builder.log) {
@@ -86,95 +99,167 @@ public class IguanaRunner {
         }
 	}
 
+	/**
+	 * Parses the inputs using a pool of threadCount workers that share the same grammar graph.
+	 * Each worker warms up once, on the first input it picks, and each parse is cancelled
+	 * after timeout seconds. The results are returned in the order of the inputs.
+	 */
 	public List<RunResult> run() {
 
-		final GrammarGraph grammarGraph = GrammarGraph.from(grammar, Input.empty(), config);
-		
+		final GrammarGraph grammarGraph = GrammarGraph.from(grammar, config);
+
+		final Iterator<Input> it = inputs.iterator();
+		final AtomicInteger nextIndex = new AtomicInteger();
+		final Map<Integer, List<RunResult>> resultsMap = new ConcurrentSkipListMap<>();
+
+		ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+		ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threadCount; t++) {
+			futures.add(workers.submit(() -> {
+				boolean warmedUp = false;
+				while (true) {
+					Input input;
+					int index;
+					synchronized (it) {
+						if (!it.hasNext()) return;
+						input = it.next();
+						index = nextIndex.getAndIncrement();
+					}
+					if (!warmedUp) {
+						warmup(grammarGraph, input, watchdog);
+						warmedUp = true;
+					}
+					resultsMap.put(index, run(grammarGraph, input, watchdog));
+				}
+			}));
+		}
+
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			workers.shutdownNow();
+			watchdog.shutdownNow();
+		}
+
 		List<RunResult> results = new ArrayList<>();
+		resultsMap.values().forEach(results::addAll);
+		return results;
+	}
 
-		Iterator<Input> it = inputs.iterator();
-		
-		while (it.hasNext()) {
-			
-			Input input = it.next();
-
-            logger.log(input.getURI());
-
-			logger.log("Warming up: ");
-			for (int i = 0; i < warmupCount; i++) {
-				try {
-                    ParseResult result = run(grammarGraph, input, start);
-                    if (result.isParseError()) {
-						logger.log(result.asParseError());
-					} else {
-                        if (buildTrees) {
-                            result.asParseSuccess().getTerm();
-                        }
-                    }
-					logger.log((i + 1) + " ");
-				} catch (Exception e) {
-					continue;
+	private void warmup(GrammarGraph grammarGraph, Input input, ScheduledExecutorService watchdog) {
+		logger.log("Warming up: %s", input.getURI());
+		for (int i = 0; i < warmupCount; i++) {
+			try {
+				ParseResult result = run(grammarGraph, input, start, watchdog);
+				if (result.isParseError()) {
+					logger.log(result.asParseError());
+				} else {
+					if (buildTrees && result.isParseSuccess()) {
+						result.asParseSuccess().getTerm();
+					}
 				}
+				logger.log((i + 1) + " ");
+			} catch (Exception e) {
+				continue;
 			}
-            logger.log("\n");
-            logger.log("Running: ");
-			for (int i = 0; i < runCount; i++) {			
-				try {
-					ParseResult result = run(grammarGraph, input, start);
-					if (result.isParseSuccess()) {
-						results.add(new SuccessResult(input.length(), input.getURI(), result.asParseSuccess().getStatistics()));
-                        logger.log("  : Success");
-                        if (buildTrees) {
-                            result.asParseSuccess().getTerm();
-//                            TreeVisualization.generate(result.asParseSuccess().getTree(), "/Users/afroozeh/output", "tree", input);
-                        }
-					} else {
-						results.add(new FailureResult(input.getURI(), result.asParseError().toString()));
-                        logger.log("  : Error");
-					}
+		}
+		logger.log("\n");
+	}
 
-                    logger.log((i + 1) + " ");
-				} catch (Exception e) {
-					e.printStackTrace();
-					results.add(new FailureResult(input.getURI(), "Time out"));
-                    logger.log("Time out");
-					continue;
+	private List<RunResult> run(GrammarGraph grammarGraph, Input input, ScheduledExecutorService watchdog) {
+		List<RunResult> results = new ArrayList<>();
+
+		logger.log("Running: %s", input.getURI());
+		for (int i = 0; i < runCount; i++) {
+			try {
+				ParseResult result = run(grammarGraph, input, start, watchdog);
+				if (result.isRecognitionSuccess()) {
+					results.add(new SuccessResult(input.length(), input.getURI(), result.asRecognitionSuccess().getStatistics()));
+					logger.log("  : Success");
+				} else if (result.isParseSuccess()) {
+					results.add(new SuccessResult(input.length(), input.getURI(), result.asParseSuccess().getStatistics()));
+					logger.log("  : Success");
+					if (buildTrees) {
+						result.asParseSuccess().getTerm();
+					}
+				} else {
+					results.add(new FailureResult(input.getURI(), result.asParseError().toString()));
+					logger.log("  : Error");
 				}
+
+				logger.log((i + 1) + " ");
+			} catch (CancellationException e) {
+				results.add(new FailureResult(input.getURI(), "Time out"));
+				logger.log("Time out");
+			} catch (Exception e) {
+				e.printStackTrace();
+				results.add(new FailureResult(input.getURI(), e.toString()));
+				logger.log("  : Error");
 			}
-            logger.log("\n");
 		}
-		
+		logger.log("\n");
+
 		return results;
-            
 	}
-	
-	private ParseResult run(GrammarGraph grammarGraph, Input input, Nonterminal start) throws Exception {
-		ParseResult result = Iguana.parse(input, grammarGraph, start);
+
+	private ParseResult run(GrammarGraph grammarGraph, Input input, Nonterminal start, ScheduledExecutorService watchdog) {
+		Alarm alarm = new Alarm(Thread.currentThread());
+		ScheduledFuture<?> scheduled = timeout > 0 ? watchdog.schedule(alarm::fire, timeout, TimeUnit.SECONDS) : null;
+
+		ParseResult result;
+		try {
+			result = parse(grammarGraph, input, start);
+		} finally {
+			alarm.disarm();
+			if (scheduled != null)
+				scheduled.cancel(false);
+		}
+
 		if (runGCInBetween)
 			GcFinalization.awaitFullGc();
-		
+
 		return result;
-		
-//		ExecutorService executor = Executors.newSingleThreadExecutor();
-//        Future<ParseResult> future = executor.submit(() -> {
-//			return parser.parse(input, grammarGraph, start);
-//        });
-//        
-//        ParseResult result;
-//        if (timeout > 0)
-//        	result = future.get(timeout, TimeUnit.SECONDS);
-//        else 
-//        	result = future.get();
-//        
-//        executor.shutdownNow();
-//
-//		if (runGCInBetween)
-//			GcFinalization.awaitFullGc();
-//		
-//		return result;
+	}
 
+	/**
+	 * Parses the input with the grammar graph shared by the workers. Tests override it to
+	 * control how long a parse takes.
+	 */
+	ParseResult parse(GrammarGraph grammarGraph, Input input, Nonterminal start) {
+		return Iguana.parse(input, grammarGraph, start);
 	}
-	
+
+	/**
+	 * Interrupts the worker running a parse when the timeout expires. Iguana.parse checks
+	 * the interrupt flag and gives up with a CancellationException. Once disarmed, an alarm
+	 * never fires and any pending interrupt of the worker is cleared.
+	 */
+	static class Alarm {
+
+		private final Thread worker;
+
+		private boolean armed = true;
+
+		Alarm(Thread worker) {
+			this.worker = worker;
+		}
+
+		synchronized void fire() {
+			if (armed)
+				worker.interrupt();
+		}
+
+		synchronized void disarm() {
+			armed = false;
+			Thread.interrupted();
+		}
+	}
+
 	public static Builder builder(Grammar grammar, Nonterminal start) {
 		return new Builder(grammar, start);
 	}
@@ -189,6 +274,7 @@ public class IguanaRunner {
 		private int runCount = 1;
 		private boolean runGCInBetween = false;
 		private int timeout = 30;
+		private int threadCount = 1;
 		private int limit = Integer.MAX_VALUE;
         private boolean buildTrees;
         private TermBuilder<?> termBuilder;
@@ -203,12 +289,12 @@ public class IguanaRunner {
 		}
 		
 		public Builder addDirectory(String dir, String ext, boolean recursive) {
-			inputs = concat(inputs, find(dir, ext, recursive, ignoreSet).stream().map(Input::fromFile));
+			inputs = concat(inputs, find(dir, ext, recursive, ignoreSet).stream().map(MappedInput::fromFile));
 			return this;
 		}
 		
 		public Builder addFile(String f) {
-			inputs = concat(inputs, Stream.of(Input.fromFile(new File(f))));
+			inputs = concat(inputs, Stream.of(MappedInput.fromFile(new File(f))));
 			return this;
 		}
 		
@@ -252,6 +338,12 @@ public class IguanaRunner {
 			return this;
 		}
 		
+		public Builder setThreadCount(int threadCount) {
+			if (threadCount < 1) throw new IllegalArgumentException("Thread count should be at least one.");
+			this.threadCount = threadCount;
+			return this;
+		}
+
 		public Builder setLimit(int limit) {
 			this.limit = limit;
 			return this;
@@ -0,0 +1,171 @@
+package org.iguana.util;
+
+import iguana.utils.input.Input;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *
+ * An input backed by a memory-mapped file with one byte per character, for files in
+ * Latin-1, and for UTF-8 or ASCII files that only contain ASCII characters. The file
+ * is not decoded and its characters are not copied to the heap. The line index, used
+ * for getLineNumber and getColumnNumber, is built on the first call of these methods.
+ *
+ * Use fromFile, which falls back to Input.fromFile for other files.
+ *
+ */
+public class MappedInput implements Input {
+
+    private final MappedByteBuffer buffer;
+
+    private final int size;
+
+    private final URI uri;
+
+    /*
+     * The index of the first character of each line, built on demand.
+     */
+    private int[] lineStarts;
+
+    private MappedInput(MappedByteBuffer buffer, URI uri) {
+        this.buffer = buffer;
+        this.size = buffer.limit();
+        this.uri = uri;
+    }
+
+    /**
+     * Reads the file as UTF-8.
+     */
+    public static Input fromFile(File file) {
+        return fromFile(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a memory-mapped input if the charset is Latin-1, or if the charset is UTF-8 or
+     *         ASCII and the file only contains ASCII characters, and Input.fromFile otherwise.
+     */
+    public static Input fromFile(File file, Charset charset) {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() >= Integer.MAX_VALUE - EndOfFile.LENGTH)
+                throw new IllegalArgumentException("File too large: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (charset.equals(StandardCharsets.ISO_8859_1))
+            return new MappedInput(buffer, file.toURI());
+
+        if ((charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) && isAscii(buffer))
+            return new MappedInput(buffer, file.toURI());
+
+        return Input.fromFile(file);
+    }
+
+    private static boolean isAscii(MappedByteBuffer buffer) {
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int charAt(int i) {
+        return i < size ? buffer.get(i) & 0xFF : EndOfFile.CHAR;
+    }
+
+    @Override
+    public int length() {
+        return size + EndOfFile.LENGTH;
+    }
+
+    @Override
+    public String subString(int start, int end) {
+        end = Math.min(end, size);
+        byte[] bytes = new byte[Math.max(end - start, 0)];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(start + i);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    /**
+     * @return the line number of the character at index i, starting from 1.
+     */
+    @Override
+    public int getLineNumber(int i) {
+        int[] starts = getLineStarts();
+        int line = Arrays.binarySearch(starts, Math.min(i, size));
+        return line >= 0 ? line + 1 : -(line + 1);
+    }
+
+    /**
+     * @return the column number of the character at index i, starting from 1.
+     */
+    @Override
+    public int getColumnNumber(int i) {
+        int line = getLineNumber(i);
+        return Math.min(i, size) - lineStarts[line - 1] + 1;
+    }
+
+    @Override
+    public boolean isStartOfLine(int i) {
+        if (i == 0)
+            return true;
+        int c = charAt(i - 1);
+        return c == '\n' || (c == '\r' && charAt(i) != '\n');
+    }
+
+    @Override
+    public boolean isEndOfLine(int i) {
+        int c = charAt(i);
+        return i >= size || c == '\n' || c == '\r';
+    }
+
+    @Override
+    public boolean isEndOfFile(int i) {
+        return i >= size;
+    }
+
+    /**
+     * A line starts at index 0, and after each '\n', '\r\n' and '\r'.
+     */
+    private int[] getLineStarts() {
+        if (lineStarts != null)
+            return lineStarts;
+
+        int[] starts = new int[64];
+        int count = 0;
+        starts[count++] = 0;
+        for (int i = 0; i < size; i++) {
+            byte c = buffer.get(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == size || buffer.get(i + 1) != '\n'))) {
+                if (count == starts.length)
+                    starts = Arrays.copyOf(starts, count * 2);
+                starts[count++] = i + 1;
+            }
+        }
+        lineStarts = Arrays.copyOf(starts, count);
+        return lineStarts;
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+
+}
@@ -37,6 +37,27 @@ public class ParseStatistics {
 	long userTime;
 	int memoryUsed;
 	
+	/**
+	 * The maximum number of descriptors waiting in the worklist at the same time.
+	 * Depends on the scheduling policy, therefore not part of equals/hashCode.
+	 */
+	int maxWorklistSize;
+
+	/**
+	 * The number of descriptors rejected by the descriptor set because they had already
+	 * been scheduled. Only counted in recognizer mode, therefore not part of equals/hashCode.
+	 */
+	int duplicateDescriptorsCount;
+
+	/**
+	 * The number of times an environment has been interned, and the number of distinct
+	 * environments among them. The runtimes intern different environments, and the
+	 * environments of descriptors are only interned in recognizer mode or by the concurrent
+	 * runtime, therefore not part of equals/hashCode.
+	 */
+	int internedEnvironmentsCount;
+	int distinctEnvironmentsCount;
+
 	int descriptorsCount = -1;
 	int gssNodesCount = -1;
 	int gssEdgesCount = -1;
@@ -79,6 +100,10 @@ public class ParseStatistics {
 		this.intermediateNodesCount = builder.intermediateNodesCount;
 		this.packedNodesCount = builder.packedNodesCount;
 		this.ambiguousNodesCount = builder.ambiguousNodesCount;
+		this.maxWorklistSize = builder.maxWorklistSize;
+		this.duplicateDescriptorsCount = builder.duplicateDescriptorsCount;
+		this.internedEnvironmentsCount = builder.internedEnvironmentsCount;
+		this.distinctEnvironmentsCount = builder.distinctEnvironmentsCount;
 	}
 
 	public long getNanoTime() {
@@ -128,6 +153,30 @@ public class ParseStatistics {
 	public int getCountAmbiguousNodes() {
 		return ambiguousNodesCount;
 	}
+
+	public int getMaxWorklistSize() {
+		return maxWorklistSize;
+	}
+
+	public int getDuplicateDescriptorsCount() {
+		return duplicateDescriptorsCount;
+	}
+
+	public int getInternedEnvironmentsCount() {
+		return internedEnvironmentsCount;
+	}
+
+	public int getDistinctEnvironmentsCount() {
+		return distinctEnvironmentsCount;
+	}
+
+	/**
+	 * @return the average number of times each distinct environment has been interned,
+	 *         or 0 if no environment has been interned.
+	 */
+	public double getEnvironmentDedupRatio() {
+		return distinctEnvironmentsCount == 0 ? 0 : (double) internedEnvironmentsCount / distinctEnvironmentsCount;
+	}
 	
 	public static Builder builder() {
 		return new Builder();
@@ -168,13 +217,17 @@ public class ParseStatistics {
 				"Parsing Time (system time): " + systemTime / 1000_000 + " ms" + "\n" +
 				"Memory used: " + memoryUsed + " mb" + "\n" +
 				"Descriptors: " + descriptorsCount + "\n" +
+				"Duplicate descriptors: " + duplicateDescriptorsCount + "\n" +
 				"GSS Nodes: " + gssNodesCount + "\n" +
 				"GSS Edges: " + gssEdgesCount + "\n" +
 				"Nonterminal nodes: " + nonterminalNodesCount + "\n" +
 				"Terminal nodes: " + terminalNodesCount + "\n" +
 				"Intermediate nodes: " + intermediateNodesCount + "\n" +
 				"Packed nodes: " + packedNodesCount + "\n" +
-				"Ambiguities: " + ambiguousNodesCount + "\n";
+				"Ambiguities: " + ambiguousNodesCount + "\n" +
+				"Max worklist size: " + maxWorklistSize + "\n" +
+				"Environments: " + internedEnvironmentsCount + " interned, " + distinctEnvironmentsCount + " distinct" +
+				String.format(" (dedup ratio %.2f)", getEnvironmentDedupRatio()) + "\n";
 	}
 	
 	public static class Builder {
@@ -191,6 +244,10 @@ public class ParseStatistics {
 		int intermediateNodesCount;
 		int packedNodesCount;
 		int ambiguousNodesCount;
+		int maxWorklistSize;
+		int duplicateDescriptorsCount;
+		int internedEnvironmentsCount;
+		int distinctEnvironmentsCount;
 		
 		public Builder setNanoTime(long nanoTime) {
 			this.nanoTime = nanoTime;
@@ -217,6 +274,11 @@ public class ParseStatistics {
 			return this;
 		}
 
+		public Builder setDuplicateDescriptorsCount(int duplicateDescriptorsCount) {
+			this.duplicateDescriptorsCount = duplicateDescriptorsCount;
+			return this;
+		}
+
 		public Builder setGSSNodesCount(int gssNodesCount) {
 			this.gssNodesCount = gssNodesCount;
 			return this;
@@ -252,6 +314,21 @@ public class ParseStatistics {
 			return this;
 		}
 		
+		public Builder setMaxWorklistSize(int maxWorklistSize) {
+			this.maxWorklistSize = maxWorklistSize;
+			return this;
+		}
+
+		public Builder setInternedEnvironmentsCount(int internedEnvironmentsCount) {
+			this.internedEnvironmentsCount = internedEnvironmentsCount;
+			return this;
+		}
+
+		public Builder setDistinctEnvironmentsCount(int distinctEnvironmentsCount) {
+			this.distinctEnvironmentsCount = distinctEnvironmentsCount;
+			return this;
+		}
+
 		public ParseStatistics build() {
 			return new ParseStatistics(this);
 		}
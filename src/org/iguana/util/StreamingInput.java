@@ -0,0 +1,205 @@
+package org.iguana.util;
+
+import iguana.utils.input.Input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ *
+ * An input that reads its characters from a reader while it is being parsed. The characters
+ * are decoded in chunks into a growing buffer when charAt, or another method taking an index,
+ * reaches past the characters read so far, so the parser can start before the whole input
+ * has arrived. The line index is extended as the characters are read.
+ *
+ * length() reads the rest of the input, so it should only be called once the end of the
+ * input is needed. Configurations that size their tables by the length of the input, such
+ * as the ARRAY and PAGED GSS lookups, the PAGED terminal cache and the INPUT_POSITION
+ * scheduling policy, read the whole input before the parse starts. Not thread-safe, and
+ * therefore not for the concurrent runtime.
+ *
+ */
+public class StreamingInput implements Input {
+
+    private static final int CHUNK_SIZE = 1 << 13;
+
+    private final Reader reader;
+
+    private final URI uri;
+
+    private final char[] chunk = new char[CHUNK_SIZE];
+
+    /*
+     * The number of chars at the start of chunk that are left from the last read, which is
+     * one for a high surrogate whose low surrogate has not been read yet.
+     */
+    private int pending;
+
+    private boolean endOfInput;
+
+    private int[] characters = new int[CHUNK_SIZE];
+
+    private int size;
+
+    /*
+     * The index of the first character of each line that has been read.
+     */
+    private int[] lineStarts = new int[64];
+
+    private int lineCount = 1;
+
+    public StreamingInput(Reader reader, URI uri) {
+        this.reader = reader;
+        this.uri = uri;
+    }
+
+    public static StreamingInput fromInputStream(InputStream in, Charset charset, URI uri) {
+        return new StreamingInput(new InputStreamReader(in, charset), uri);
+    }
+
+    @Override
+    public int charAt(int i) {
+        if (i >= size)
+            readUntil(i);
+        return i < size ? characters[i] : EndOfFile.CHAR;
+    }
+
+    /**
+     * Reads the rest of the input.
+     */
+    @Override
+    public int length() {
+        readUntil(Integer.MAX_VALUE);
+        return size + EndOfFile.LENGTH;
+    }
+
+    @Override
+    public String subString(int start, int end) {
+        readUntil(end - 1);
+        end = Math.min(end, size);
+        return new String(characters, start, Math.max(end - start, 0));
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    /**
+     * @return the line number of the character at index i, starting from 1.
+     */
+    @Override
+    public int getLineNumber(int i) {
+        readUntil(i);
+        int line = Arrays.binarySearch(lineStarts, 0, lineCount, Math.min(i, size));
+        return line >= 0 ? line + 1 : -(line + 1);
+    }
+
+    /**
+     * @return the column number of the character at index i, starting from 1.
+     */
+    @Override
+    public int getColumnNumber(int i) {
+        int line = getLineNumber(i);
+        return Math.min(i, size) - lineStarts[line - 1] + 1;
+    }
+
+    @Override
+    public boolean isStartOfLine(int i) {
+        if (i == 0)
+            return true;
+        int c = charAt(i - 1);
+        return c == '\n' || (c == '\r' && charAt(i) != '\n');
+    }
+
+    @Override
+    public boolean isEndOfLine(int i) {
+        int c = charAt(i);
+        return i >= size || c == '\n' || c == '\r';
+    }
+
+    @Override
+    public boolean isEndOfFile(int i) {
+        if (i >= size)
+            readUntil(i);
+        return i >= size;
+    }
+
+    /**
+     * Reads chunks until the character at index i is read, or the input ends.
+     */
+    private void readUntil(int i) {
+        try {
+            while (i >= size && !endOfInput)
+                readChunk();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void readChunk() throws IOException {
+        int n = reader.read(chunk, pending, CHUNK_SIZE - pending);
+        if (n < 0) {
+            endOfInput = true;
+            if (pending > 0)
+                add(chunk[0]);
+            if (size > 0 && characters[size - 1] == '\r')
+                addLineStart(size);
+            reader.close();
+            return;
+        }
+
+        int end = pending + n;
+        int k = 0;
+        while (k < end) {
+            char c = chunk[k];
+            if (Character.isHighSurrogate(c)) {
+                if (k + 1 == end)
+                    break;
+                if (Character.isLowSurrogate(chunk[k + 1])) {
+                    add(Character.toCodePoint(c, chunk[k + 1]));
+                    k += 2;
+                    continue;
+                }
+            }
+            add(c);
+            k++;
+        }
+
+        pending = end - k;
+        if (pending > 0)
+            chunk[0] = chunk[k];
+    }
+
+    /**
+     * A line starts at index 0, and after each '\n', '\r\n' and '\r'.
+     */
+    private void add(int c) {
+        if (size > 0 && characters[size - 1] == '\r' && c != '\n')
+            addLineStart(size);
+
+        if (size == characters.length)
+            characters = Arrays.copyOf(characters, size * 2);
+        characters[size++] = c;
+
+        if (c == '\n')
+            addLineStart(size);
+    }
+
+    private void addLineStart(int i) {
+        if (lineCount == lineStarts.length)
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        lineStarts[lineCount++] = i;
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+
+}
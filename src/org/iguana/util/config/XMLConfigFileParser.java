@@ -59,6 +59,38 @@ public class XMLConfigFileParser implements ConfigFileParser {
                 case "EnvironmentImpl":
                     builder.setEnvironmentImpl(Configuration.EnvironmentImpl.valueOf(node.getTextContent().toUpperCase()));
                     break;
+
+                case "WorklistImpl":
+                    builder.setWorklistImpl(Configuration.WorklistImpl.valueOf(node.getTextContent().toUpperCase()));
+                    break;
+
+                case "SchedulingPolicy":
+                    builder.setSchedulingPolicy(Configuration.SchedulingPolicy.valueOf(node.getTextContent().toUpperCase()));
+                    break;
+
+                case "TerminalCacheImpl":
+                    builder.setTerminalCacheImpl(Configuration.TerminalCacheImpl.valueOf(node.getTextContent().toUpperCase()));
+                    break;
+
+                case "ThreadCount":
+                    builder.setThreadCount(Integer.parseInt(node.getTextContent().trim()));
+                    break;
+
+                case "DeterministicDescent":
+                    builder.setDeterministicDescent(Boolean.parseBoolean(node.getTextContent().trim()));
+                    break;
+
+                case "Recognizer":
+                    builder.setRecognizer(Boolean.parseBoolean(node.getTextContent().trim()));
+                    break;
+
+                case "Windowed":
+                    builder.setWindowed(Boolean.parseBoolean(node.getTextContent().trim()));
+                    break;
+
+                case "CompileExpressions":
+                    builder.setCompileExpressions(Boolean.parseBoolean(node.getTextContent().trim()));
+                    break;
             }
         }
     }
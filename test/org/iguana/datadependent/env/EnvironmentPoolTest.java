@@ -0,0 +1,126 @@
+package org.iguana.datadependent.env;
+
+import org.iguana.datadependent.env.array.ArrayEnvironment;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class EnvironmentPoolTest {
+
+    @Test
+    public void testIds() {
+        EnvironmentPool pool = new EnvironmentPool();
+        Environment env1 = ArrayEnvironment.EMPTY._declare(1);
+        Environment env2 = ArrayEnvironment.EMPTY._declare(2);
+        Environment env1Copy = ArrayEnvironment.EMPTY._declare(1);
+        assertNotSame(env1, env1Copy);
+
+        assertEquals(0, pool.intern(env1));
+        assertEquals(1, pool.intern(env2));
+        assertEquals(0, pool.intern(env1Copy));
+        assertEquals(1, pool.intern(env2));
+
+        assertSame(env1, pool.get(0));
+        assertSame(env2, pool.get(1));
+        assertEquals(2, pool.size());
+        assertEquals(4, pool.getInternCount());
+    }
+
+    /**
+     * The table starts with 64 entries and is rehashed when more than half of them are used,
+     * at the 33rd, 65th, 129th... environment. The ids do not change.
+     */
+    @Test
+    public void testRehash() {
+        EnvironmentPool pool = new EnvironmentPool();
+        Environment[] envs = environments(1000);
+        int interns = 0;
+
+        for (int i = 0; i < envs.length; i++) {
+            assertEquals(i, pool.intern(envs[i]));
+            interns++;
+            assertEquals(i + 1, pool.size());
+
+            if (i == 31 || i == 32 || i == 33 || i == 64 || i == 65 || i == 128) {
+                assertInterned(pool, envs, i + 1);
+                interns += i + 1;
+            }
+        }
+
+        // Equal environments that are not the canonical ones
+        assertInterned(pool, environments(1000), 1000);
+        interns += 1000;
+
+        assertEquals(1000, pool.size());
+        assertEquals(interns, pool.getInternCount());
+        for (int i = 0; i < envs.length; i++)
+            assertSame(envs[i], pool.get(i));
+    }
+
+    /**
+     * Environments whose hash codes collide are told apart by equals.
+     */
+    @Test
+    public void testCollisions() {
+        EnvironmentPool pool = new EnvironmentPool();
+
+        // 17 * 48 == 17 * 0 + 48 * 17
+        Environment env1 = ArrayEnvironment.EMPTY._declare(48);
+        Environment env2 = ArrayEnvironment.EMPTY._declare(0)._declare(17);
+        assertEquals(env1.hashCode(), env2.hashCode());
+        assertNotEquals(env1, env2);
+
+        assertEquals(0, pool.intern(env1));
+        assertEquals(1, pool.intern(env2));
+        assertEquals(0, pool.intern(ArrayEnvironment.EMPTY._declare(48)));
+        assertEquals(1, pool.intern(ArrayEnvironment.EMPTY._declare(0)._declare(17)));
+
+        // The colliding environments keep their ids when the table is rehashed
+        Environment[] envs = environments(100);
+        for (int i = 0; i < envs.length; i++)
+            assertEquals(i + 2, pool.intern(envs[i]));
+        assertEquals(0, pool.intern(env1));
+        assertEquals(1, pool.intern(env2));
+        assertEquals(102, pool.size());
+    }
+
+    @Test
+    public void testClear() {
+        for (int count : new int[] { 10, 1000 }) {
+            EnvironmentPool pool = new EnvironmentPool();
+            Environment[] envs = environments(count);
+            for (Environment env : envs)
+                pool.intern(env);
+
+            pool.clear();
+            assertEquals(0, pool.size());
+            assertEquals(0, pool.getInternCount());
+
+            // The ids start from 0 again, in the order the environments are interned
+            for (int i = 0; i < count; i++)
+                assertEquals(i, pool.intern(envs[count - 1 - i]));
+            for (int i = 0; i < count; i++)
+                assertSame(envs[count - 1 - i], pool.get(i));
+            assertEquals(count, pool.size());
+            assertEquals(count, pool.getInternCount());
+        }
+    }
+
+    private static Environment[] environments(int count) {
+        Environment[] envs = new Environment[count];
+        for (int i = 0; i < count; i++)
+            envs[i] = ArrayEnvironment.EMPTY._declare(i)._declare(i % 7);
+        return envs;
+    }
+
+    private static void assertInterned(EnvironmentPool pool, Environment[] envs, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, pool.intern(envs[i]));
+            assertEquals(envs[i], pool.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.iguana.datadependent.env.array;
+
+import org.iguana.datadependent.env.Environment;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArrayEnvironmentTest {
+
+    @Test
+    public void testDeclareAndStore() {
+        Environment env = ArrayEnvironment.EMPTY._declare("a")._declare(2, "c");
+        assertEquals("a", env.lookup(0));
+        assertNull(env.lookup(1));
+        assertEquals("c", env.lookup(2));
+        assertNull(env.lookup(3));
+
+        Environment stored = env.store(1, "b");
+        assertEquals("b", stored.lookup(1));
+        assertNull(env.lookup(1));
+        assertEquals(ArrayEnvironment.EMPTY.declare(new Object[] { "a", "b", "c" }), stored);
+        assertEquals(ArrayEnvironment.EMPTY.declare(new Object[] { "a", "b", "c" }).hashCode(), stored.hashCode());
+    }
+
+    @Test
+    public void testSameValueAtDifferentIndices() {
+        Environment env1 = ArrayEnvironment.EMPTY._declare(0, "a");
+        Environment env2 = ArrayEnvironment.EMPTY._declare(1, "a");
+        assertNotEquals(env1, env2);
+        assertNotEquals(env1.hashCode(), env2.hashCode());
+    }
+
+    @Test
+    public void testTrailingNulls() {
+        Environment env1 = ArrayEnvironment.EMPTY._declare("a");
+        Environment env2 = ArrayEnvironment.EMPTY._declare("a")._declare(null);
+        Environment env3 = ArrayEnvironment.EMPTY._declare("a")._declare("b").store(1, null);
+
+        assertEquals(env1, env2);
+        assertEquals(env2, env1);
+        assertEquals(env1, env3);
+        assertEquals(env1.hashCode(), env2.hashCode());
+        assertEquals(env1.hashCode(), env3.hashCode());
+
+        assertNotEquals(env2, ArrayEnvironment.EMPTY._declare("a")._declare("b"));
+        assertNotEquals(ArrayEnvironment.EMPTY._declare("a")._declare("b"), env1);
+    }
+
+}
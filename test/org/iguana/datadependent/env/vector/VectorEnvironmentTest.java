@@ -0,0 +1,253 @@
+package org.iguana.datadependent.env.vector;
+
+import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.array.ArrayEnvironment;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class VectorEnvironmentTest {
+
+    /**
+     * The tail becomes a leaf of the tree at every multiple of 32. The root overflows when the
+     * tail is full and the tree holds 32 leaves, at 1056 values.
+     */
+    @Test
+    public void testAppendAcrossBoundaries() {
+        VectorEnvironment env = VectorEnvironment.EMPTY;
+        for (int i = 0; i < 2 * 1024 + 100; i++) {
+            env = (VectorEnvironment) env._declare(i);
+            assertEquals(i + 1, env.size());
+            assertEquals(i, env.lookup(i));
+            assertNull(env.lookup(i + 1));
+
+            if (i % 32 >= 30 || i % 32 <= 1) {
+                assertValues(env, i + 1);
+                assertEquals(vector(i + 1), env);
+                assertEquals(vector(i + 1).hashCode(), env.hashCode());
+            }
+        }
+    }
+
+    @Test
+    public void testDeclareAtIndex() {
+        Environment env = VectorEnvironment.EMPTY._declare(2, "c");
+        assertEquals(3, ((VectorEnvironment) env).size());
+        assertNull(env.lookup(0));
+        assertNull(env.lookup(1));
+        assertEquals("c", env.lookup(2));
+
+        env = env._declare(0, "a");
+        assertEquals(3, ((VectorEnvironment) env).size());
+        assertEquals("a", env.lookup(0));
+        assertEquals(VectorEnvironment.EMPTY.declare(new Object[] { "a", null, "c" }), env);
+    }
+
+    @Test
+    public void testStoreIntoTree() {
+        VectorEnvironment env = vector(1100);
+
+        for (int i : new int[] { 0, 31, 32, 1023, 1024, 1055 }) {
+            Environment stored = env.store(i, "x");
+            assertEquals("x", stored.lookup(i));
+            assertEquals(i, env.lookup(i));
+            assertEquals(1100, ((VectorEnvironment) stored).size());
+
+            Object[] values = values(1100);
+            values[i] = "x";
+            assertEquals(VectorEnvironment.EMPTY.declare(values), stored);
+            assertEquals(VectorEnvironment.EMPTY.declare(values).hashCode(), stored.hashCode());
+            assertNotEquals(env, stored);
+        }
+
+        assertValues(env, 1100);
+    }
+
+    @Test
+    public void testStoreIntoTail() {
+        VectorEnvironment env = vector(1100);
+
+        // The tail holds the values from 1088
+        Environment stored = env.store(1090, "x");
+        assertEquals("x", stored.lookup(1090));
+        assertEquals(1090, env.lookup(1090));
+
+        // Appending to the old version does not see the stored value, and the other way around
+        Environment appended = env._declare("y");
+        Environment storedAppended = stored._declare("z");
+        assertEquals(1090, appended.lookup(1090));
+        assertEquals("y", appended.lookup(1100));
+        assertEquals("x", storedAppended.lookup(1090));
+        assertEquals("z", storedAppended.lookup(1100));
+
+        Object[] values = values(1100);
+        values[1090] = "x";
+        assertEquals(VectorEnvironment.EMPTY.declare(values), stored);
+        assertValues(env, 1100);
+    }
+
+    @Test
+    public void testStoreSameValue() {
+        VectorEnvironment env = vector(40);
+        Integer value = (Integer) env.lookup(5);
+        assertSame(env, env.store(5, value));
+        assertSame(env, env.store(35, env.lookup(35)));
+    }
+
+    /**
+     * The first version to append to a shared tail writes into it, the second copies it.
+     */
+    @Test
+    public void testDivergentAppends() {
+        for (int size : new int[] { 0, 3, 4, 31, 32, 33, 1023, 1024, 1055, 1056, 1057 }) {
+            VectorEnvironment env = vector(size);
+
+            Environment a = env._declare("a");
+            Environment b = env._declare("b");
+            Environment aa = a._declare("aa");
+            Environment bb = b._declare("bb");
+            Environment c = env._declare("c");
+
+            assertEquals(size, env.size());
+            assertNull(env.lookup(size));
+            assertValues(env, size);
+
+            assertEquals("a", a.lookup(size));
+            assertEquals("b", b.lookup(size));
+            assertEquals("c", c.lookup(size));
+            assertEquals("a", aa.lookup(size));
+            assertEquals("aa", aa.lookup(size + 1));
+            assertEquals("b", bb.lookup(size));
+            assertEquals("bb", bb.lookup(size + 1));
+            assertNull(a.lookup(size + 1));
+
+            assertValues((VectorEnvironment) aa, size);
+            assertValues((VectorEnvironment) bb, size);
+            assertNotEquals(a, b);
+            assertEquals(env._declare("b"), b);
+        }
+    }
+
+    /**
+     * Versions derived from each other, compared to a list of values per version.
+     */
+    @Test
+    public void testRandomVersions() {
+        Random random = new Random(7);
+        List<VectorEnvironment> versions = new ArrayList<>();
+        List<List<Object>> expected = new ArrayList<>();
+        versions.add(VectorEnvironment.EMPTY);
+        expected.add(new ArrayList<>());
+
+        for (int k = 0; k < 20_000; k++) {
+            int v = random.nextInt(versions.size());
+            VectorEnvironment env = versions.get(v);
+            List<Object> values = new ArrayList<>(expected.get(v));
+            Object value = random.nextInt(100);
+
+            if (values.isEmpty() || random.nextInt(4) > 0) {
+                env = (VectorEnvironment) env._declare(value);
+                values.add(value);
+            } else {
+                int i = random.nextInt(values.size());
+                env = (VectorEnvironment) env.store(i, value);
+                values.set(i, value);
+            }
+
+            // Keep extending the recent versions, so that they grow past the boundaries
+            if (versions.size() < 64) {
+                versions.add(env);
+                expected.add(values);
+            } else {
+                versions.set(v, env);
+                expected.set(v, values);
+            }
+        }
+
+        for (int v = 0; v < versions.size(); v++) {
+            VectorEnvironment env = versions.get(v);
+            List<Object> values = expected.get(v);
+            assertEquals(values.size(), env.size());
+            for (int i = 0; i < values.size(); i++)
+                assertEquals(values.get(i), env.lookup(i));
+
+            Environment copy = VectorEnvironment.EMPTY.declare(values.toArray());
+            assertEquals(copy, env);
+            assertEquals(env, copy);
+            assertEquals(copy.hashCode(), env.hashCode());
+        }
+    }
+
+    @Test
+    public void testEquals() {
+        VectorEnvironment env = vector(1100);
+
+        assertEquals(env, env);
+        assertEquals(vector(1100), env);
+        assertNotEquals(vector(1099), env);
+        assertNotEquals(env, ArrayEnvironment.EMPTY.declare(values(1100)));
+
+        // The same size and different values
+        Object[] values = values(1100);
+        values[1099] = -1;
+        assertNotEquals(VectorEnvironment.EMPTY.declare(values), env);
+
+        // Versions of different sizes are not equal, even if the longer one only adds nulls
+        assertNotEquals(VectorEnvironment.EMPTY._declare("a"), VectorEnvironment.EMPTY._declare("a")._declare(null));
+    }
+
+    /**
+     * Versions that share the root only compare their tails, and versions that share the
+     * tail skip it.
+     */
+    @Test
+    public void testEqualsWithSharedRootAndTail() {
+        VectorEnvironment env = vector(1100);
+
+        // Same root, different tails
+        Environment stored1 = env.store(1090, "x");
+        Environment stored2 = env.store(1090, "x");
+        assertEquals(stored1, stored2);
+        assertEquals(stored1.hashCode(), stored2.hashCode());
+        assertNotEquals(stored1, env.store(1090, "y"));
+        assertNotEquals(stored1, env.store(1091, "x"));
+
+        // Different roots, same tail
+        Environment stored3 = env.store(5, "x");
+        Environment stored4 = env.store(5, "x");
+        assertEquals(stored3, stored4);
+        assertEquals(stored3.hashCode(), stored4.hashCode());
+        assertNotEquals(stored3, env.store(6, "x"));
+        assertNotEquals(stored3, env);
+
+        // Same root and tail, different sizes
+        Environment appended = env._declare("a");
+        assertNotEquals(env, appended);
+        assertNotEquals(appended, env);
+        assertEquals(env._declare("a"), appended);
+    }
+
+    private static VectorEnvironment vector(int size) {
+        return (VectorEnvironment) VectorEnvironment.EMPTY.declare(values(size));
+    }
+
+    private static Object[] values(int size) {
+        Object[] values = new Object[size];
+        for (int i = 0; i < size; i++)
+            values[i] = i;
+        return values;
+    }
+
+    private static void assertValues(VectorEnvironment env, int count) {
+        for (int i = 0; i < count; i++)
+            assertEquals(i, env.lookup(i));
+    }
+
+}
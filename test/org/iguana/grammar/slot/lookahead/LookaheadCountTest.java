@@ -0,0 +1,120 @@
+package org.iguana.grammar.slot.lookahead;
+
+import iguana.parsetrees.sppf.IntermediateNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.parsetrees.sppf.TerminalNode;
+import iguana.regex.Character;
+import iguana.regex.CharacterRange;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.operations.FirstFollowSets;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.parser.ParseSuccess;
+import org.iguana.util.Configuration;
+import org.iguana.util.ParseStatistics;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static iguana.parsetrees.sppf.SPPFNodeFactory.createIntermediateNode;
+import static iguana.parsetrees.sppf.SPPFNodeFactory.createNonterminalNode;
+import static iguana.parsetrees.sppf.SPPFNodeFactory.createTerminalNode;
+import static iguana.utils.collections.CollectionsUtil.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * S ::= A
+ *
+ * A ::= 'a' 'b'
+ *     | 'a' 'c'
+ *
+ * With one character of lookahead, both alternatives of A are predicted at "ac", and the
+ * first one fails at 'c'. With two characters, only the second one is predicted.
+ */
+public class LookaheadCountTest {
+
+    static Nonterminal S = Nonterminal.withName("S");
+    static Nonterminal A = Nonterminal.withName("A");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal b = Terminal.from(Character.from('b'));
+    static Terminal c = Terminal.from(Character.from('c'));
+
+    static Rule r1 = Rule.withHead(S).addSymbol(A).build();
+    static Rule r2 = Rule.withHead(A).addSymbols(a, b).build();
+    static Rule r3 = Rule.withHead(A).addSymbols(a, c).build();
+
+    private static Grammar grammar = Grammar.builder().addRule(r1).addRule(r2).addRule(r3).build();
+
+    private static Input input = Input.fromString("ac");
+
+    @Test
+    public void testPredictionSets() {
+        FirstFollowSets firstFollowSets = new FirstFollowSets(grammar);
+        assertEquals(Arrays.asList(set(CharacterRange.from('a')), set(CharacterRange.from('b'))), firstFollowSets.getPredictionSets(r2, 2));
+        assertEquals(Arrays.asList(set(CharacterRange.from('a')), set(CharacterRange.from('c'))), firstFollowSets.getPredictionSets(r3, 2));
+        assertEquals(Arrays.asList(set(CharacterRange.from('a')), set(CharacterRange.from('b'), CharacterRange.from('c'))), firstFollowSets.getPredictionSets(r1, 2));
+    }
+
+    @Test
+    public void testLookahead1() {
+        GrammarGraph graph = GrammarGraph.from(grammar, input, Configuration.builder().setLookaheadCount(1).build());
+        ParseResult result = Iguana.parse(input, graph, S);
+        assertTrue(result.isParseSuccess());
+        assertEquals(getParseResult(graph, 4), result);
+    }
+
+    @Test
+    public void testLookahead2() {
+        GrammarGraph graph = GrammarGraph.from(grammar, input, Configuration.builder().setLookaheadCount(2).build());
+        ParseResult result = Iguana.parse(input, graph, S);
+        assertTrue(result.isParseSuccess());
+        // The descriptor of A ::= . a b is not created
+        assertEquals(getParseResult(graph, 3), result);
+    }
+
+    @Test
+    public void testLookahead3() {
+        GrammarGraph graph = GrammarGraph.from(grammar, input, Configuration.builder().setLookaheadCount(3).build());
+        ParseResult result = Iguana.parse(input, graph, S);
+        assertTrue(result.isParseSuccess());
+        assertEquals(getParseResult(graph, 3), result);
+    }
+
+    @Test
+    public void testParseError() {
+        Input input = Input.fromString("ad");
+        for (int k = 1; k <= 3; k++) {
+            GrammarGraph graph = GrammarGraph.from(grammar, input, Configuration.builder().setLookaheadCount(k).build());
+            ParseResult result = Iguana.parse(input, graph, S);
+            assertTrue(result.isParseError());
+        }
+    }
+
+    private static ParseSuccess getParseResult(GrammarGraph graph, int descriptorsCount) {
+        ParseStatistics statistics = ParseStatistics.builder()
+                .setDescriptorsCount(descriptorsCount)
+                .setGSSNodesCount(2)
+                .setGSSEdgesCount(1)
+                .setNonterminalNodesCount(2)
+                .setTerminalNodesCount(2)
+                .setIntermediateNodesCount(1)
+                .setPackedNodesCount(3)
+                .setAmbiguousNodesCount(0).build();
+        return new ParseSuccess(expectedSPPF(graph), statistics, input);
+    }
+
+    private static NonterminalNode expectedSPPF(GrammarGraph graph) {
+        TerminalNode node0 = createTerminalNode(graph.getSlot("a"), 0, 1, input);
+        TerminalNode node1 = createTerminalNode(graph.getSlot("c"), 1, 2, input);
+        IntermediateNode node2 = createIntermediateNode(graph.getSlot("A ::= a c ."), node0, node1);
+        NonterminalNode node3 = createNonterminalNode(graph.getSlot("A"), graph.getSlot("A ::= a c ."), node2, input);
+        return createNonterminalNode(graph.getSlot("S"), graph.getSlot("S ::= A ."), node3, input);
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.iguana.grammar.slot.lookahead;
+
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.transformation.EBNFToBNF;
+import org.iguana.grammar.transformation.LayoutWeaver;
+import org.iguana.util.Configuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the character tables of the lookahead and follow tests with the range trees
+ * they replace, by running the tests of all nonterminals over the characters of an input.
+ */
+public class LookaheadTestBenchmark {
+
+    private static final int WARMUP_COUNT = 5;
+
+    private static final int RUN_COUNT = 10;
+
+    public static void main(String[] args) {
+        Grammar iggy = Grammar.load(LookaheadTestBenchmark.class.getResourceAsStream("/IggyGrammar"));
+        iggy = new LayoutWeaver().transform(new EBNFToBNF().transform(iggy));
+        run("Iggy", iggy, Input.fromFile(new File("test/org/iguana/parser/iggy/paper/grammars/Haskell.iggy")));
+
+        Grammar java = Grammar.load(new File("test/org/iguana/parser/datadependent/precedence/JavaNatChar"));
+        run("Java", java, Input.fromFile(new File("src/org/iguana/grammar/GrammarGraph.java")));
+    }
+
+    private static void run(String name, Grammar grammar, Input input) {
+        GrammarGraph graph = GrammarGraph.from(grammar, Configuration.DEFAULT);
+
+        List<RangeTreeLookaheadTest> lookaheadTests = new ArrayList<>();
+        List<RangeTreeFollowTest> followTests = new ArrayList<>();
+        for (NonterminalGrammarSlot slot : graph.getNonterminals()) {
+            if (slot.getLookAheadTest() instanceof RangeTreeLookaheadTest)
+                lookaheadTests.add((RangeTreeLookaheadTest) slot.getLookAheadTest());
+            if (slot.getFollowTest() instanceof RangeTreeFollowTest)
+                followTests.add((RangeTreeFollowTest) slot.getFollowTest());
+        }
+
+        int[] chars = new int[input.length()];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = input.charAt(i);
+
+        for (int i = 0; i < WARMUP_COUNT; i++) {
+            lookahead(lookaheadTests, chars, true);
+            lookahead(lookaheadTests, chars, false);
+            follow(followTests, chars, true);
+            follow(followTests, chars, false);
+        }
+
+        long[] times = new long[4];
+        for (int i = 0; i < RUN_COUNT; i++) {
+            times[0] += lookahead(lookaheadTests, chars, true);
+            times[1] += lookahead(lookaheadTests, chars, false);
+            times[2] += follow(followTests, chars, true);
+            times[3] += follow(followTests, chars, false);
+        }
+
+        long lookups = (long) RUN_COUNT * chars.length;
+        System.out.println(String.format("%s: %d nonterminals, %d characters", name, lookaheadTests.size(), chars.length));
+        System.out.println(String.format("  lookahead, table:      %8.2f ns/character", (double) times[0] / lookups));
+        System.out.println(String.format("  lookahead, range tree: %8.2f ns/character", (double) times[1] / lookups));
+        System.out.println(String.format("  follow, table:         %8.2f ns/character", (double) times[2] / lookups));
+        System.out.println(String.format("  follow, range tree:    %8.2f ns/character", (double) times[3] / lookups));
+    }
+
+    private static int sink;
+
+    private static long lookahead(List<RangeTreeLookaheadTest> tests, int[] chars, boolean table) {
+        long start = System.nanoTime();
+        int count = 0;
+        for (int c : chars) {
+            for (RangeTreeLookaheadTest test : tests)
+                count += table ? test.get(c).size() : test.getFromRangeTree(c).size();
+        }
+        sink += count;
+        return System.nanoTime() - start;
+    }
+
+    private static long follow(List<RangeTreeFollowTest> tests, int[] chars, boolean table) {
+        long start = System.nanoTime();
+        int count = 0;
+        for (int c : chars) {
+            for (RangeTreeFollowTest test : tests)
+                if (table ? test.test(c) : test.testRangeTree(c)) count++;
+        }
+        sink += count;
+        return System.nanoTime() - start;
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.IntermediateNode;
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.parsetrees.sppf.NonterminalOrIntermediateNode;
+import iguana.parsetrees.sppf.TerminalNode;
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.GLLEvaluator;
+import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.ParseStatistics;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * E ::= E '+' E
+ *     | 'a'
+ *
+ * The grammar is highly ambiguous, so the workers race to create the same GSS, intermediate
+ * and packed nodes. The order of the packed nodes may differ from the sequential runtime,
+ * so the SPPFs are compared by the nodes that are created.
+ */
+public class ConcurrentParserRuntimeTest {
+
+    static Nonterminal E = Nonterminal.withName("E");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal plus = Terminal.from(Character.from('+'));
+
+    private static Grammar grammar = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, E).build())
+                                                      .addRule(Rule.withHead(E).addSymbol(a).build())
+                                                      .build();
+
+    private static final int RUNS = 20;
+
+    @Test
+    public void testSameAsSequential() {
+        Input input = Input.fromString("a+a+a+a+a+a+a+a+a");
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+        Configuration config = Configuration.DEFAULT;
+        Configuration concurrentConfig = Configuration.builder().setThreadCount(4).build();
+
+        RecordingParserRuntime sequential = new RecordingParserRuntime(graph, input, config, GLLEvaluator.getEvaluatorContext(config, input));
+        ParseResult expected = Iguana.parse(sequential, E);
+        assertTrue(expected.isParseSuccess());
+        ParseStatistics expectedStatistics = expected.asParseSuccess().getStatistics();
+        assertTrue(expectedStatistics.getCountAmbiguousNodes() > 0);
+
+        RecordingConcurrentParserRuntime concurrent = new RecordingConcurrentParserRuntime(graph, input, concurrentConfig, GLLEvaluator.getEvaluatorContext(concurrentConfig, input));
+        for (int run = 0; run < RUNS; run++) {
+            if (run > 0) {
+                concurrent.reset(input, GLLEvaluator.getEvaluatorContext(concurrentConfig, input));
+                concurrent.nodes.clear();
+            }
+            ParseResult result = Iguana.parse(concurrent, E);
+            assertTrue(result.isParseSuccess());
+            assertFalse(concurrent.hasDescriptor());
+            assertEquals(sequential.nodes, concurrent.nodes);
+
+            ParseStatistics statistics = result.asParseSuccess().getStatistics();
+            assertEquals(expectedStatistics, statistics);
+            assertEquals(0, statistics.getDuplicateDescriptorsCount());
+            assertTrue(statistics.getMaxWorklistSize() > 0);
+            assertTrue(statistics.getMaxWorklistSize() <= statistics.getDescriptorsCount());
+        }
+    }
+
+    @Test
+    public void testParseError() {
+        Input input = Input.fromString("a+a+a+");
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+        Configuration config = Configuration.builder().setThreadCount(4).build();
+
+        ParseResult expected = Iguana.parse(input, graph, E);
+        ConcurrentParserRuntime runtime = new ConcurrentParserRuntime(graph, input, config, GLLEvaluator.getEvaluatorContext(config, input));
+        for (int run = 0; run < RUNS; run++) {
+            if (run > 0)
+                runtime.reset(input, GLLEvaluator.getEvaluatorContext(config, input));
+            ParseResult result = Iguana.parse(runtime, E);
+            assertTrue(result.isParseError());
+            assertEquals(expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeterministicDescentRejected() {
+        Configuration.builder().setThreadCount(4).setDeterministicDescent(true).build();
+    }
+
+    private static String key(String kind, NonPackedNode node) {
+        return kind + " " + node.getGrammarSlot() + " " + node.getLeftExtent() + " " + node.getRightExtent();
+    }
+
+    private static void add(Map<String, Integer> nodes, String key) {
+        nodes.merge(key, 1, Integer::sum);
+    }
+
+    private static class RecordingParserRuntime extends ParserRuntimeImpl {
+
+        final Map<String, Integer> nodes = new ConcurrentHashMap<>();
+
+        RecordingParserRuntime(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx) {
+            super(grammarGraph, input, config, ctx);
+        }
+
+        @Override
+        public void terminalNodeAdded(TerminalNode node) {
+            super.terminalNodeAdded(node);
+            add(nodes, key("T", node));
+        }
+
+        @Override
+        public void nonterminalNodeAdded(NonterminalNode node) {
+            super.nonterminalNodeAdded(node);
+            add(nodes, key("N", node));
+        }
+
+        @Override
+        public void intermediateNodeAdded(IntermediateNode node) {
+            super.intermediateNodeAdded(node);
+            add(nodes, key("I", node));
+        }
+
+        @Override
+        public void packedNodeAdded(Object slot, int pivot) {
+            super.packedNodeAdded(slot, pivot);
+            add(nodes, "P " + slot + " " + pivot);
+        }
+
+        @Override
+        public void ambiguousNodeAdded(NonterminalOrIntermediateNode node) {
+            super.ambiguousNodeAdded(node);
+            add(nodes, key("A", node));
+        }
+    }
+
+    private static class RecordingConcurrentParserRuntime extends ConcurrentParserRuntime {
+
+        final Map<String, Integer> nodes = new ConcurrentHashMap<>();
+
+        RecordingConcurrentParserRuntime(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx) {
+            super(grammarGraph, input, config, ctx);
+        }
+
+        @Override
+        public void terminalNodeAdded(TerminalNode node) {
+            super.terminalNodeAdded(node);
+            add(nodes, key("T", node));
+        }
+
+        @Override
+        public void nonterminalNodeAdded(NonterminalNode node) {
+            super.nonterminalNodeAdded(node);
+            add(nodes, key("N", node));
+        }
+
+        @Override
+        public void intermediateNodeAdded(IntermediateNode node) {
+            super.intermediateNodeAdded(node);
+            add(nodes, key("I", node));
+        }
+
+        @Override
+        public void packedNodeAdded(Object slot, int pivot) {
+            super.packedNodeAdded(slot, pivot);
+            add(nodes, "P " + slot + " " + pivot);
+        }
+
+        @Override
+        public void ambiguousNodeAdded(NonterminalOrIntermediateNode node) {
+            super.ambiguousNodeAdded(node);
+            add(nodes, key("A", node));
+        }
+    }
+
+}
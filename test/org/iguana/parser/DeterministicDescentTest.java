@@ -0,0 +1,128 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.GLLEvaluator;
+import org.iguana.datadependent.env.IEvaluatorContext;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.condition.RegularExpressionCondition;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.SchedulingPolicy;
+import org.iguana.util.ParseStatistics;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * S ::= S S
+ *     | A
+ *     | 'a' B !>> 'x'
+ *
+ * A ::= 'a' B
+ *     | 'b'
+ *
+ * B ::= 'c'
+ *     | 'd' B
+ *
+ * S is ambiguous and not LL(1), while A and B are LL(1). B is called after 'a' both by the
+ * descent of A and, because of the condition, by the GLL parser, in either order depending
+ * on the scheduling policy. Both should share the same nonterminal nodes of B.
+ */
+public class DeterministicDescentTest {
+
+    static Nonterminal S = Nonterminal.withName("S");
+    static Nonterminal A = Nonterminal.withName("A");
+    static Nonterminal B = Nonterminal.withName("B");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal b = Terminal.from(Character.from('b'));
+    static Terminal c = Terminal.from(Character.from('c'));
+    static Terminal d = Terminal.from(Character.from('d'));
+
+    private static Grammar grammar = Grammar.builder().addRule(Rule.withHead(S).addSymbols(S, S).build())
+                                                      .addRule(Rule.withHead(S).addSymbol(A).build())
+                                                      .addRule(Rule.withHead(S).addSymbols(a, Nonterminal.builder(B).addPostCondition(RegularExpressionCondition.notFollow(Character.from('x'))).build()).build())
+                                                      .addRule(Rule.withHead(A).addSymbols(a, B).build())
+                                                      .addRule(Rule.withHead(A).addSymbol(b).build())
+                                                      .addRule(Rule.withHead(B).addSymbol(c).build())
+                                                      .addRule(Rule.withHead(B).addSymbols(d, B).build())
+                                                      .build();
+
+    @Test
+    public void testSameSPPFAsGLL() {
+        Input input = Input.fromString("acbaddcbac");
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+        assertTrue(graph.getHead(A).isLL1SubGrammar());
+        assertTrue(graph.getHead(B).isLL1SubGrammar());
+        assertFalse(graph.getHead(S).isLL1SubGrammar());
+
+        for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+            Configuration config = Configuration.builder().setSchedulingPolicy(policy).build();
+            RecordingParserRuntime gll = parse(graph, input, config);
+
+            Configuration descentConfig = Configuration.builder().setSchedulingPolicy(policy).setDeterministicDescent(true).build();
+            RecordingParserRuntime descent = parse(graph, input, descentConfig);
+
+            for (Map.Entry<String, Integer> entry : descent.nonterminalNodes.entrySet())
+                assertEquals(policy + ": " + entry.getKey(), 1, (int) entry.getValue());
+            assertEquals(policy.toString(), gll.nonterminalNodes, descent.nonterminalNodes);
+
+            ParseStatistics expected = gll.result.asParseSuccess().getStatistics();
+            ParseStatistics statistics = descent.result.asParseSuccess().getStatistics();
+            assertTrue(expected.getCountAmbiguousNodes() > 0);
+            assertEquals(expected.getNonterminalNodesCount(), statistics.getNonterminalNodesCount());
+            assertEquals(expected.getIntermediateNodesCount(), statistics.getIntermediateNodesCount());
+            assertEquals(expected.getTerminalNodesCount(), statistics.getTerminalNodesCount());
+            assertEquals(expected.getPackedNodesCount(), statistics.getPackedNodesCount());
+            assertEquals(expected.getCountAmbiguousNodes(), statistics.getCountAmbiguousNodes());
+            assertTrue(statistics.getDescriptorsCount() < expected.getDescriptorsCount());
+        }
+    }
+
+    @Test
+    public void testParseError() {
+        Input input = Input.fromString("acbaddx");
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+        Configuration config = Configuration.builder().setDeterministicDescent(true).build();
+
+        ParseResult expected = Iguana.parse(input, graph, S);
+        ParseResult result = Iguana.parse(input, graph, config, S, Collections.emptyMap(), true);
+        assertTrue(result.isParseError());
+        assertEquals(expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+    }
+
+    private static RecordingParserRuntime parse(GrammarGraph graph, Input input, Configuration config) {
+        RecordingParserRuntime runtime = new RecordingParserRuntime(graph, input, config, GLLEvaluator.getEvaluatorContext(config, input));
+        runtime.result = Iguana.parse(runtime, S);
+        assertTrue(runtime.result.isParseSuccess());
+        return runtime;
+    }
+
+    private static class RecordingParserRuntime extends ParserRuntimeImpl {
+
+        final Map<String, Integer> nonterminalNodes = new HashMap<>();
+
+        ParseResult result;
+
+        RecordingParserRuntime(GrammarGraph grammarGraph, Input input, Configuration config, IEvaluatorContext ctx) {
+            super(grammarGraph, input, config, ctx);
+        }
+
+        @Override
+        public void nonterminalNodeAdded(NonterminalNode node) {
+            super.nonterminalNodeAdded(node);
+            nonterminalNodes.merge(node.getGrammarSlot() + " " + node.getLeftExtent() + " " + node.getRightExtent(), 1, Integer::sum);
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.iguana.parser;
+
+import iguana.utils.collections.Keys;
+import iguana.utils.collections.key.Key;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.array.ArrayEnvironment;
+import org.iguana.datadependent.env.persistent.PersistentEnvironment;
+import org.iguana.datadependent.env.simple.SimpleImmutableEnvironment;
+import org.iguana.datadependent.env.vector.VectorEnvironment;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.EnvironmentImpl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compares the four environment implementations. The first part repeats what a data-dependent
+ * rule does to its environment: declare the parameters, then bind a label, its left extent and
+ * a variable after each symbol, store into a binding, look the bindings up and use the
+ * environment in an intermediate node key. The second part parses the grammar of the offside
+ * tests with each implementation.
+ */
+public class EnvironmentBenchmark {
+
+    private static final int WARMUP_COUNT = 10;
+
+    private static final int RUN_COUNT = 20;
+
+    private static final int RULES = 200_000;
+
+    private static final int PARAMETERS = 3;
+
+    private static final int SYMBOLS = 4;
+
+    private static final String[] NAMES = new String[PARAMETERS + 3 * SYMBOLS];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++)
+            NAMES[i] = ("x" + i).intern();
+    }
+
+    public static void main(String[] args) {
+        for (EnvironmentImpl impl : EnvironmentImpl.values())
+            operations(impl, WARMUP_COUNT);
+
+        System.out.println(String.format("Environment operations, %d rules of %d symbols", RULES, SYMBOLS));
+        for (EnvironmentImpl impl : EnvironmentImpl.values())
+            System.out.println(String.format("  %-8s %8.2f ms", impl, operations(impl, RUN_COUNT) / 1e6 / RUN_COUNT));
+
+        Grammar grammar = ExpressionEvaluationBenchmark.offsideGrammar();
+        Input input = ExpressionEvaluationBenchmark.offsideInput();
+        Nonterminal start = Nonterminal.withName("S");
+
+        System.out.println(String.format("Offside, %d characters", input.length()));
+        for (EnvironmentImpl impl : EnvironmentImpl.values()) {
+            GrammarGraph graph = GrammarGraph.from(grammar, Configuration.builder().setEnvironmentImpl(impl).build());
+            parse(graph, start, input, WARMUP_COUNT);
+            System.out.println(String.format("  %-8s %8.2f ms/parse", impl, parse(graph, start, input, RUN_COUNT) / 1e6 / RUN_COUNT));
+        }
+    }
+
+    private static long operations(EnvironmentImpl impl, int count) {
+        Environment empty = empty(impl);
+        boolean indexed = impl.isIndexed();
+        Object[] arguments = new Object[PARAMETERS];
+        String[] parameters = new String[PARAMETERS];
+        System.arraycopy(NAMES, 0, parameters, 0, PARAMETERS);
+
+        long startTime = System.nanoTime();
+        int found = 0;
+        for (int c = 0; c < count; c++) {
+            Set<Key> keys = new HashSet<>();
+            for (int r = 0; r < RULES; r++) {
+                for (int k = 0; k < PARAMETERS; k++)
+                    arguments[k] = (r + k) % 16;
+
+                Environment env = indexed ? empty.declare(arguments) : empty.declare(parameters, arguments);
+
+                int i = PARAMETERS;
+                for (int s = 0; s < SYMBOLS; s++, i += 3) {
+                    Integer lExt = (r + s) % 64;
+                    env = indexed ? env._declare(i, lExt) : env._declare(NAMES[i], lExt);
+                    env = indexed ? env._declare(i + 1, s) : env._declare(NAMES[i + 1], s);
+                    env = indexed ? env._declare(i + 2, r % 8) : env._declare(NAMES[i + 2], r % 8);
+                    env = indexed ? env.store(i + 2, r % 4) : env.store(NAMES[i + 2], r % 4);
+
+                    Object value = indexed ? env.lookup(i - 1) : env.lookup(NAMES[i - 1]);
+                    if (value != null && keys.add(Keys.from(lExt, lExt + s, env)))
+                        found++;
+                }
+            }
+        }
+        long time = System.nanoTime() - startTime;
+        if (found == 0)
+            throw new RuntimeException("No keys added");
+        return time;
+    }
+
+    private static Environment empty(EnvironmentImpl impl) {
+        switch (impl) {
+            case ARRAY:
+                return ArrayEnvironment.EMPTY;
+            case HASH_MAP:
+                return SimpleImmutableEnvironment.EMPTY;
+            case TRIE:
+                return PersistentEnvironment.EMPTY;
+            case VECTOR:
+                return VectorEnvironment.EMPTY;
+            default:
+                throw new RuntimeException("Unknown environment: " + impl);
+        }
+    }
+
+    private static long parse(GrammarGraph graph, Nonterminal start, Input input, int count) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            ParseResult result = Iguana.parse(input, graph, start);
+            if (!result.isParseSuccess())
+                throw new RuntimeException("Parse error in " + input);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+}
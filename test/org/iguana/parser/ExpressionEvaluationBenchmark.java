@@ -0,0 +1,119 @@
+package org.iguana.parser;
+
+import iguana.regex.Alt;
+import iguana.regex.Character;
+import iguana.regex.CharacterRange;
+import iguana.regex.Sequence;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.condition.ConditionType;
+import org.iguana.grammar.condition.RegularExpressionCondition;
+import org.iguana.grammar.symbol.*;
+import org.iguana.grammar.transformation.DesugarAlignAndOffside;
+import org.iguana.grammar.transformation.DesugarPrecedenceAndAssociativity;
+import org.iguana.grammar.transformation.EBNFToBNF;
+import org.iguana.grammar.transformation.LayoutWeaver;
+import org.iguana.util.Configuration;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static iguana.utils.collections.CollectionsUtil.set;
+import static org.iguana.grammar.symbol.LayoutStrategy.NO_LAYOUT;
+
+/**
+ * Compares the parse time with interpreted and with compiled data-dependent expressions,
+ * on the Java grammar desugared with the second operator precedence scheme (OP2), and on
+ * the grammar of the offside tests.
+ */
+public class ExpressionEvaluationBenchmark {
+
+    private static final int WARMUP_COUNT = 10;
+
+    private static final int RUN_COUNT = 20;
+
+    private static final int OFFSIDE_STATEMENTS = 2_000;
+
+    public static void main(String[] args) {
+        Grammar java = Grammar.load(new File("test/org/iguana/parser/datadependent/precedence/JavaNatChar"));
+        java = new EBNFToBNF().transform(java);
+        DesugarPrecedenceAndAssociativity desugarPrecedenceAndAssociativity = new DesugarPrecedenceAndAssociativity();
+        desugarPrecedenceAndAssociativity.setOP2();
+        java = new LayoutWeaver().transform(desugarPrecedenceAndAssociativity.transform(java));
+        Input javaInput = Input.fromFile(new File("src/org/iguana/datadependent/traversal/FreeVariableVisitor.java"));
+
+        run("Precedence (OP2)", java, Nonterminal.withName("CompilationUnit"), javaInput);
+        run("Offside", offsideGrammar(), Nonterminal.withName("S"), offsideInput());
+    }
+
+    private static void run(String name, Grammar grammar, Nonterminal start, Input input) {
+        GrammarGraph interpreted = GrammarGraph.from(grammar, Configuration.builder().setCompileExpressions(false).build());
+        GrammarGraph compiled = GrammarGraph.from(grammar, Configuration.builder().setCompileExpressions(true).build());
+
+        parse(interpreted, start, input, WARMUP_COUNT);
+        parse(compiled, start, input, WARMUP_COUNT);
+
+        long interpretedTime = parse(interpreted, start, input, RUN_COUNT);
+        long compiledTime = parse(compiled, start, input, RUN_COUNT);
+
+        System.out.println(String.format("%s, %d characters", name, input.length()));
+        System.out.println(String.format("  interpreted: %8.2f ms/parse", interpretedTime / 1e6 / RUN_COUNT));
+        System.out.println(String.format("  compiled:    %8.2f ms/parse", compiledTime / 1e6 / RUN_COUNT));
+    }
+
+    private static long parse(GrammarGraph graph, Nonterminal start, Input input, int count) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            ParseResult result = Iguana.parse(input, graph, start);
+            if (!result.isParseSuccess())
+                throw new RuntimeException("Parse error in " + input);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * The grammar of offside.Test1_1: S ::= offside Stat+ separated by ';'.
+     */
+    static Grammar offsideGrammar() {
+        Grammar grammar =
+            Grammar.builder()
+            .setLayout(Nonterminal.builder("Layout").build())
+            // $default$ ::=  {UNDEFINED,-1,NON_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("$default$").build()).setLayoutStrategy(NO_LAYOUT).setRecursion(Recursion.NON_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(-1).setPrecedenceLevel(PrecedenceLevel.from(1,1,-1,false,false,false,false)).build())
+            // Exp ::= (a)  {UNDEFINED,-1,NON_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("Exp").build()).addSymbol(Terminal.builder(Sequence.builder(Character.builder(97).build()).build()).build()).setRecursion(Recursion.NON_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(-1).setPrecedenceLevel(PrecedenceLevel.from(1,1,1,false,true,false,false)).build())
+            // Exp ::= Exp (+) (a)  {UNDEFINED,1,LEFT_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("Exp").build()).addSymbol(Nonterminal.builder("Exp").build()).addSymbol(Terminal.builder(Sequence.builder(Character.builder(43).build()).build()).build()).addSymbol(Terminal.builder(Sequence.builder(Character.builder(97).build()).build()).build()).setRecursion(Recursion.LEFT_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(1).setPrecedenceLevel(PrecedenceLevel.from(1,1,1,false,true,false,false)).build())
+            // Stat ::= (x) (=) Exp  {UNDEFINED,-1,NON_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("Stat").build()).addSymbol(Terminal.builder(Sequence.builder(Character.builder(120).build()).build()).build()).addSymbol(Terminal.builder(Sequence.builder(Character.builder(61).build()).build()).build()).addSymbol(Nonterminal.builder("Exp").build()).setRecursion(Recursion.NON_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(-1).setPrecedenceLevel(PrecedenceLevel.from(1,1,-1,false,false,false,false)).build())
+            // Layout ::= WhiteSpace*  !>>  (\u0009-\\u000A | \u000C-\\u000D | \u0020)  {UNDEFINED,-1,NON_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("Layout").build()).addSymbol(Star.builder(Nonterminal.builder("WhiteSpace").build()).addPostConditions(set(new RegularExpressionCondition(ConditionType.NOT_FOLLOW, Alt.builder(CharacterRange.builder(9, 10).build(), CharacterRange.builder(12, 13).build(), CharacterRange.builder(32, 32).build()).build()))).build()).setLayoutStrategy(NO_LAYOUT).setRecursion(Recursion.NON_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(-1).setPrecedenceLevel(PrecedenceLevel.from(1,1,-1,false,false,false,false)).build())
+            // WhiteSpace ::= (\u0009-\\u000A | \u000C-\\u000D | \\u001A | \\u0020)  {UNDEFINED,-1,NON_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("WhiteSpace").build()).addSymbol(Terminal.from(Alt.builder(CharacterRange.builder(9, 10).build(), CharacterRange.builder(12, 13).build(), CharacterRange.builder(26, 26).build(), CharacterRange.builder(32, 32).build()).build())).setLayoutStrategy(NO_LAYOUT).setRecursion(Recursion.NON_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(-1).setPrecedenceLevel(PrecedenceLevel.from(1,1,-1,false,false,false,false)).build())
+            // S ::= offside Stat+  {UNDEFINED,-1,NON_REC} PREC(1,1)
+            .addRule(Rule.withHead(Nonterminal.builder("S").build()).addSymbol(Plus.builder(Offside.builder(Nonterminal.builder("Stat").build()).build()).addSeparators(Arrays.asList(Terminal.builder(Sequence.builder(Character.builder(59).build()).build()).build())).build()).setRecursion(Recursion.NON_REC).setAssociativity(Associativity.UNDEFINED).setPrecedence(-1).setPrecedenceLevel(PrecedenceLevel.from(1,1,-1,false,false,false,false)).build())
+            .build();
+
+        grammar = new EBNFToBNF().transform(grammar);
+        grammar = new DesugarPrecedenceAndAssociativity().transform(grammar);
+        DesugarAlignAndOffside desugarAlignAndOffside = new DesugarAlignAndOffside();
+        desugarAlignAndOffside.doOffside();
+        grammar = desugarAlignAndOffside.transform(grammar);
+        return new LayoutWeaver().transform(grammar);
+    }
+
+    /**
+     * Statements whose expressions continue on lines indented past the start of the statement.
+     */
+    static Input offsideInput() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < OFFSIDE_STATEMENTS; i++) {
+            if (i > 0)
+                sb.append(";\n");
+            sb.append("x =\n").append("   a + a +\n").append("     a");
+        }
+        return Input.fromString(sb.toString());
+    }
+
+}
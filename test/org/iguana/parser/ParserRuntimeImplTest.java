@@ -0,0 +1,94 @@
+package org.iguana.parser;
+
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.GLLEvaluator;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.LookupImpl;
+import org.iguana.util.Configuration.TerminalCacheImpl;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * S ::= A | 'b'
+ *
+ * A ::= 'a' A | 'a'
+ *
+ * A runtime is reused for inputs of different lengths, where the second input does not
+ * use A and 'a', so their tables are not cleared by the reset before the third parse.
+ */
+public class ParserRuntimeImplTest {
+
+    static Nonterminal S = Nonterminal.withName("S");
+    static Nonterminal A = Nonterminal.withName("A");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal b = Terminal.from(Character.from('b'));
+
+    private static Grammar grammar = Grammar.builder().addRule(Rule.withHead(S).addSymbol(A).build())
+                                                      .addRule(Rule.withHead(S).addSymbol(b).build())
+                                                      .addRule(Rule.withHead(A).addSymbols(a, A).build())
+                                                      .addRule(Rule.withHead(A).addSymbol(a).build())
+                                                      .build();
+
+    private static final String[] inputs = { "aa", "b", "aaaaaaaaaa", "a", "aaaaaaaaaaaaaaaaaaaaaaaaa" };
+
+    @Test
+    public void testArrayLookup() {
+        testReset(Configuration.builder().setGSSLookupImpl(LookupImpl.ARRAY).build());
+    }
+
+    @Test
+    public void testHashMapLookup() {
+        testReset(Configuration.builder().setGSSLookupImpl(LookupImpl.HASH_MAP).build());
+    }
+
+    @Test
+    public void testPagedLookup() {
+        testReset(Configuration.builder().setGSSLookupImpl(LookupImpl.PAGED).build());
+    }
+
+    @Test
+    public void testPagedTerminalCache() {
+        testReset(Configuration.builder().setTerminalCacheImpl(TerminalCacheImpl.PAGED).build());
+    }
+
+    @Test
+    public void testParseError() {
+        Configuration config = Configuration.DEFAULT;
+        GrammarGraph graph = GrammarGraph.from(grammar, config);
+        Input first = Input.fromString("aaab");
+        ParserRuntimeImpl runtime = new ParserRuntimeImpl(graph, first, config, GLLEvaluator.getEvaluatorContext(config, first));
+        ParseResult error = Iguana.parse(runtime, S);
+        assertTrue(error.isParseError());
+
+        Input second = Input.fromString("aaaa");
+        runtime.reset(second, GLLEvaluator.getEvaluatorContext(config, second));
+        assertEquals(Iguana.parse(second, graph, config, S, Collections.emptyMap(), true), Iguana.parse(runtime, S));
+    }
+
+    private static void testReset(Configuration config) {
+        GrammarGraph graph = GrammarGraph.from(grammar, config);
+        ParserRuntimeImpl runtime = null;
+        for (String s : inputs) {
+            Input input = Input.fromString(s);
+            if (runtime == null)
+                runtime = new ParserRuntimeImpl(graph, input, config, GLLEvaluator.getEvaluatorContext(config, input));
+            else
+                runtime.reset(input, GLLEvaluator.getEvaluatorContext(config, input));
+
+            ParseResult result = Iguana.parse(runtime, S);
+            assertTrue(result.isParseSuccess());
+            assertEquals(Iguana.parse(input, graph, config, S, Collections.emptyMap(), true), result);
+        }
+    }
+
+}
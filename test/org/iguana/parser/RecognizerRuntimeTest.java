@@ -0,0 +1,119 @@
+package org.iguana.parser;
+
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.ParseStatistics;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The recognizer accepts the same inputs as the parser, and reports the same parse errors.
+ */
+public class RecognizerRuntimeTest {
+
+    static Nonterminal S = Nonterminal.withName("S");
+    static Nonterminal E = Nonterminal.withName("E");
+    static Nonterminal A = Nonterminal.withName("A");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal b = Terminal.from(Character.from('b'));
+    static Terminal plus = Terminal.from(Character.from('+'));
+    static Terminal star = Terminal.from(Character.from('*'));
+
+    /**
+     * S ::= S S S | S S | 'b'
+     */
+    @Test
+    public void testGamma2() {
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(S).addSymbols(S, S, S).build())
+                                           .addRule(Rule.withHead(S).addSymbols(S, S).build())
+                                           .addRule(Rule.withHead(S).addSymbol(b).build())
+                                           .build();
+        testSameAsParser(grammar, S, "b", "bb", "bbbbbbbbbb", "", "bba", "abb");
+    }
+
+    /**
+     * E ::= E '+' E | E '*' E | 'a'
+     */
+    @Test
+    public void testExpressions() {
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, E).build())
+                                           .addRule(Rule.withHead(E).addSymbols(E, star, E).build())
+                                           .addRule(Rule.withHead(E).addSymbol(a).build())
+                                           .build();
+        testSameAsParser(grammar, E, "a", "a+a*a", "a*a+a*a+a", "a+", "+a", "a+*a");
+    }
+
+    /**
+     * A ::= 'a' A 'b' | epsilon
+     */
+    @Test
+    public void testNullable() {
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(A).addSymbols(a, A, b).build())
+                                           .addRule(Rule.withHead(A).build())
+                                           .build();
+        testSameAsParser(grammar, A, "", "ab", "aaabbb", "aab", "abb", "ba");
+    }
+
+    /**
+     * S ::= l:A 'b'
+     * A ::= 'a'
+     */
+    @Test
+    public void testLabelsAreRejected() {
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(S).addSymbol(Nonterminal.builder(A).setLabel("l").build()).addSymbol(b).build())
+                                           .addRule(Rule.withHead(A).addSymbol(a).build())
+                                           .build();
+
+        assertTrue(Iguana.parse(Input.fromString("ab"), GrammarGraph.from(grammar, Configuration.DEFAULT), S).isParseSuccess());
+
+        try {
+            GrammarGraph.from(grammar, Configuration.builder().setRecognizer(true).build());
+            fail("Recognizer mode accepted a grammar with labels");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Recognizer mode does not support grammars with labels"));
+        }
+    }
+
+    private static void testSameAsParser(Grammar grammar, Nonterminal startSymbol, String... inputs) {
+        Configuration parserConfig = Configuration.DEFAULT;
+        Configuration recognizerConfig = Configuration.builder().setRecognizer(true).build();
+        GrammarGraph graph = GrammarGraph.from(grammar, recognizerConfig);
+
+        for (String s : inputs) {
+            Input input = Input.fromString(s);
+            ParseResult expected = Iguana.parse(input, graph, parserConfig, startSymbol, Collections.emptyMap(), true);
+            ParseResult result = Iguana.parse(input, graph, recognizerConfig, startSymbol, Collections.emptyMap(), true);
+
+            if (expected.isParseSuccess()) {
+                assertTrue(s, result.isRecognitionSuccess());
+                assertFalse(s, result.isParseSuccess());
+                assertFalse(s, result.isParseError());
+                assertFalse(s, result.asTerm().isDefined());
+                assertSame(result, result.asRecognitionSuccess());
+
+                ParseStatistics statistics = result.asRecognitionSuccess().getStatistics();
+                assertEquals(s, expected.asParseSuccess().getStatistics().getGssNodesCount(), statistics.getGssNodesCount());
+                assertEquals(s, 0, statistics.getIntermediateNodesCount());
+                assertEquals(s, 0, statistics.getCountAmbiguousNodes());
+            } else {
+                assertTrue(s, result.isParseError());
+                assertFalse(s, result.isRecognitionSuccess());
+                assertEquals(s, expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package org.iguana.parser;
+
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.GLLEvaluator;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.transformation.EBNFToBNF;
+import org.iguana.grammar.transformation.LayoutWeaver;
+import org.iguana.util.Configuration;
+
+import java.io.File;
+
+/**
+ * Measures the throughput of parsing many small inputs with a large grammar, creating a
+ * new parser runtime for each input, and reusing a single runtime that is reset between
+ * the inputs.
+ */
+public class SmallInputBenchmark {
+
+    private static final int WARMUP_COUNT = 10_000;
+
+    private static final int RUN_COUNT = 100_000;
+
+    private static final String[] EXPRESSIONS = {
+        "a", "1 + 2", "x * (y + z)", "a.b(c, d)", "i++", "!done && count < max", "s + \"x\"", "new int[10]"
+    };
+
+    public static void main(String[] args) {
+        Grammar grammar = Grammar.load(new File("test/org/iguana/parser/datadependent/precedence/JavaSpecChar"));
+        grammar = new LayoutWeaver().transform(new EBNFToBNF().transform(grammar));
+        GrammarGraph graph = GrammarGraph.from(grammar, Configuration.DEFAULT);
+        Nonterminal start = Nonterminal.withName("Expression");
+
+        Input[] inputs = new Input[EXPRESSIONS.length];
+        for (int i = 0; i < inputs.length; i++)
+            inputs[i] = Input.fromString(EXPRESSIONS[i]);
+
+        System.out.println(String.format("%d slots, %d inputs of at most %d characters",
+                                         graph.getSlotCount(), inputs.length, maxLength(inputs)));
+
+        newRuntime(graph, start, inputs, WARMUP_COUNT);
+        reusedRuntime(graph, start, inputs, WARMUP_COUNT);
+
+        long newTime = newRuntime(graph, start, inputs, RUN_COUNT);
+        long reusedTime = reusedRuntime(graph, start, inputs, RUN_COUNT);
+
+        System.out.println(String.format("  new runtime per parse: %10.0f parses/s", RUN_COUNT / (newTime / 1e9)));
+        System.out.println(String.format("  reset runtime:         %10.0f parses/s", RUN_COUNT / (reusedTime / 1e9)));
+    }
+
+    private static long newRuntime(GrammarGraph graph, Nonterminal start, Input[] inputs, int count) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Input input = inputs[i % inputs.length];
+            check(Iguana.parse(input, graph, start), input);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private static long reusedRuntime(GrammarGraph graph, Nonterminal start, Input[] inputs, int count) {
+        Configuration config = graph.getConfiguration();
+        ParserRuntimeImpl runtime = new ParserRuntimeImpl(graph, inputs[0], config, GLLEvaluator.getEvaluatorContext(config, inputs[0]));
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Input input = inputs[i % inputs.length];
+            if (i > 0)
+                runtime.reset(input, GLLEvaluator.getEvaluatorContext(config, input));
+            check(Iguana.parse(runtime, start), input);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private static void check(ParseResult result, Input input) {
+        if (!result.isParseSuccess())
+            throw new RuntimeException("Parse error in " + input);
+    }
+
+    private static int maxLength(Input[] inputs) {
+        int max = 0;
+        for (Input input : inputs)
+            max = Math.max(max, input.length());
+        return max;
+    }
+
+}
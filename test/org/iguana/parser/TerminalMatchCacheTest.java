@@ -0,0 +1,188 @@
+package org.iguana.parser;
+
+import iguana.parsetrees.sppf.TerminalNode;
+import iguana.regex.Character;
+import iguana.regex.matcher.DFAMatcherFactory;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.TerminalCacheImpl;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static iguana.parsetrees.sppf.SPPFNodeFactory.createTerminalNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TerminalMatchCacheTest {
+
+    private static final int PAGE_SIZE = 1024;
+
+    /**
+     * The terminal 'a' on an input where every third character is a 'b', so that the
+     * matches and the failed matches are on both sides of the page boundaries.
+     */
+    private static final Input input = Input.fromString(input(2 * PAGE_SIZE + 10));
+
+    @Test
+    public void testMatchesOnce() {
+        CountingSlot slot = new CountingSlot();
+        TerminalMatchCache cache = new TerminalMatchCache(input.length());
+
+        for (int i = 0; i < input.length(); i++)
+            assertMatch(slot, i, cache.get(slot, input, i, null));
+        assertEquals(input.length(), slot.matchCount);
+        int nodeCount = slot.nodeCount;
+
+        for (int i = input.length() - 1; i >= 0; i--)
+            assertMatch(slot, i, cache.get(slot, input, i, null));
+        assertEquals(input.length(), slot.matchCount);
+        assertEquals(nodeCount, slot.nodeCount);
+    }
+
+    @Test
+    public void testPageBoundaries() {
+        CountingSlot slot = new CountingSlot();
+        TerminalMatchCache cache = new TerminalMatchCache(input.length());
+
+        int[] positions = { PAGE_SIZE - 1, PAGE_SIZE, 2 * PAGE_SIZE - 1, 2 * PAGE_SIZE, input.length() - 1 };
+        TerminalNode[] nodes = new TerminalNode[positions.length];
+        for (int k = 0; k < positions.length; k++) {
+            nodes[k] = cache.get(slot, input, positions[k], null);
+            assertMatch(slot, positions[k], nodes[k]);
+        }
+
+        for (int k = 0; k < positions.length; k++)
+            assertSame(nodes[k], cache.get(slot, input, positions[k], null));
+        assertEquals(positions.length, slot.matchCount);
+    }
+
+    /**
+     * The end of file is the first position of a page
+     */
+    @Test
+    public void testEndOfFileStartsAPage() {
+        Input input = Input.fromString(input(PAGE_SIZE));
+        CountingSlot slot = new CountingSlot();
+        TerminalMatchCache cache = new TerminalMatchCache(input.length());
+        assertNull(cache.get(slot, input, PAGE_SIZE, null));
+        assertMatch(slot, input, PAGE_SIZE - 1, cache.get(slot, input, PAGE_SIZE - 1, null));
+    }
+
+    @Test
+    public void testReleaseBefore() {
+        CountingSlot slot = new CountingSlot();
+        TerminalMatchCache cache = new TerminalMatchCache(input.length());
+        TerminalNode first = cache.get(slot, input, 0, null);
+        TerminalNode second = cache.get(slot, input, PAGE_SIZE + 1, null);
+
+        // Releases the first page only, as PAGE_SIZE + 1 is still in the second one
+        cache.releaseBefore(PAGE_SIZE + 1);
+        assertSame(second, cache.get(slot, input, PAGE_SIZE + 1, null));
+        assertEquals(2, slot.matchCount);
+
+        TerminalNode node = cache.get(slot, input, 0, null);
+        assertEquals(first, node);
+        assertEquals(3, slot.matchCount);
+    }
+
+    @Test
+    public void testReset() {
+        CountingSlot slot = new CountingSlot();
+        TerminalMatchCache cache = new TerminalMatchCache(input.length());
+        cache.get(slot, input, 0, null);
+
+        cache.reset(input.length());
+        assertMatch(slot, 0, cache.get(slot, input, 0, null));
+        assertEquals(2, slot.matchCount);
+
+        Input longer = Input.fromString(input(4 * PAGE_SIZE));
+        cache.reset(longer.length());
+        for (int i = 0; i < longer.length(); i += PAGE_SIZE - 1)
+            assertMatch(slot, longer, i, cache.get(slot, longer, i, null));
+    }
+
+    /**
+     * E ::= E '+' 'a' | 'a', on an input that spans several pages
+     */
+    @Test
+    public void testSameParseAsHashMap() {
+        Nonterminal E = Nonterminal.withName("E");
+        Terminal a = Terminal.from(Character.from('a'));
+        Terminal plus = Terminal.from(Character.from('+'));
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, a).build())
+                                           .addRule(Rule.withHead(E).addSymbol(a).build())
+                                           .build();
+
+        StringBuilder sb = new StringBuilder("a");
+        for (int i = 0; i < PAGE_SIZE; i++)
+            sb.append("+a");
+        Input input = Input.fromString(sb.toString());
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+
+        ParseResult expected = Iguana.parse(input, graph, Configuration.DEFAULT, E, Collections.emptyMap(), true);
+        Configuration config = Configuration.builder().setTerminalCacheImpl(TerminalCacheImpl.PAGED).build();
+        ParseResult result = Iguana.parse(input, graph, config, E, Collections.emptyMap(), true);
+        assertTrue(result.isParseSuccess());
+        assertEquals(expected, result);
+
+        Input error = Input.fromString(sb.append("+b").toString());
+        expected = Iguana.parse(error, graph, Configuration.DEFAULT, E, Collections.emptyMap(), true);
+        result = Iguana.parse(error, graph, config, E, Collections.emptyMap(), true);
+        assertTrue(result.isParseError());
+        assertEquals(expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+    }
+
+    private static void assertMatch(TerminalGrammarSlot slot, int i, TerminalNode node) {
+        assertMatch(slot, input, i, node);
+    }
+
+    private static void assertMatch(TerminalGrammarSlot slot, Input input, int i, TerminalNode node) {
+        if (i % 3 == 2 || i == input.length() - 1) {
+            assertNull(node);
+        } else {
+            assertNotNull(node);
+            assertEquals(createTerminalNode(slot, i, i + 1, input), node);
+        }
+    }
+
+    private static String input(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append(i % 3 == 2 ? 'b' : 'a');
+        return sb.toString();
+    }
+
+    private static class CountingSlot extends TerminalGrammarSlot {
+
+        int matchCount;
+
+        int nodeCount;
+
+        CountingSlot() {
+            super(Terminal.from(Character.from('a')), new DFAMatcherFactory());
+        }
+
+        @Override
+        public int match(Input input, int i) {
+            matchCount++;
+            return super.match(input, i);
+        }
+
+        @Override
+        public TerminalNode createNode(Input input, int i, int length, ParserRuntime runtime) {
+            nodeCount++;
+            return createTerminalNode(this, i, i + length, input);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.iguana.parser;
+
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.SchedulingPolicy;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The inputs are long enough for the tables to be released several times during a parse.
+ * Releasing them does not change the result, as nothing is looked up behind the frontier.
+ */
+public class WindowedRecognizerTest {
+
+    static Nonterminal E = Nonterminal.withName("E");
+    static Nonterminal A = Nonterminal.withName("A");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal b = Terminal.from(Character.from('b'));
+    static Terminal plus = Terminal.from(Character.from('+'));
+
+    private static final Configuration recognizer = Configuration.builder()
+                                                                 .setSchedulingPolicy(SchedulingPolicy.INPUT_POSITION)
+                                                                 .setRecognizer(true)
+                                                                 .build();
+
+    private static final Configuration windowed = recognizer.copyBuilder().setWindowed(true).build();
+
+    /**
+     * E ::= E '+' 'a' | 'a'
+     *
+     * The GSS node of E at 0 is reached from every position.
+     */
+    @Test
+    public void testLeftRecursive() {
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, a).build())
+                                           .addRule(Rule.withHead(E).addSymbol(a).build())
+                                           .build();
+        String s = repeat("a+", 2000) + "a";
+        testSameAsNotWindowed(grammar, E, s);
+        testSameAsNotWindowed(grammar, E, s + "+");
+        testSameAsNotWindowed(grammar, E, repeat("a+", 1500) + "+" + s);
+    }
+
+    /**
+     * A ::= 'a' A 'b' | epsilon
+     *
+     * The GSS nodes of A stay on the stack until the 'b's are reached.
+     */
+    @Test
+    public void testNested() {
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(A).addSymbols(a, A, b).build())
+                                           .addRule(Rule.withHead(A).build())
+                                           .build();
+        testSameAsNotWindowed(grammar, A, repeat("a", 3000) + repeat("b", 3000));
+        testSameAsNotWindowed(grammar, A, repeat("a", 3000) + repeat("b", 2999));
+    }
+
+    /**
+     * S ::= S X | X
+     * X ::= 'a' B 'b'
+     * B ::= 'c' | 'd'
+     *
+     * X and B are parsed by the deterministic descent, whose results are released with the
+     * other tables. The calls of X from the left-recursive S are made by the GLL parser.
+     */
+    @Test
+    public void testDeterministicDescent() {
+        Nonterminal S = Nonterminal.withName("S");
+        Nonterminal X = Nonterminal.withName("X");
+        Nonterminal B = Nonterminal.withName("B");
+        Terminal c = Terminal.from(Character.from('c'));
+        Terminal d = Terminal.from(Character.from('d'));
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(S).addSymbols(S, X).build())
+                                           .addRule(Rule.withHead(S).addSymbol(X).build())
+                                           .addRule(Rule.withHead(X).addSymbols(a, B, b).build())
+                                           .addRule(Rule.withHead(B).addSymbol(c).build())
+                                           .addRule(Rule.withHead(B).addSymbol(d).build())
+                                           .build();
+
+        Configuration descent = recognizer.copyBuilder().setDeterministicDescent(true).build();
+        Configuration windowedDescent = descent.copyBuilder().setWindowed(true).build();
+
+        String s = repeat("acb", 1000);
+        for (String input : new String[] { s, repeat("adb", 600) + s, s + "ab", s + "acc" + s, s + "a" }) {
+            testSameAsNotWindowed(grammar, S, input, descent, windowedDescent);
+
+            // The same answer as without the descent
+            ParseResult expected = Iguana.parse(Input.fromString(input), GrammarGraph.from(grammar, recognizer), S);
+            ParseResult result = Iguana.parse(Input.fromString(input), GrammarGraph.from(grammar, windowedDescent), S);
+            assertEquals(expected.isRecognitionSuccess(), result.isRecognitionSuccess());
+        }
+    }
+
+    private static void testSameAsNotWindowed(Grammar grammar, Nonterminal startSymbol, String s) {
+        testSameAsNotWindowed(grammar, startSymbol, s, recognizer, windowed);
+    }
+
+    private static void testSameAsNotWindowed(Grammar grammar, Nonterminal startSymbol, String s, Configuration recognizer, Configuration windowed) {
+        Input input = Input.fromString(s);
+        GrammarGraph graph = GrammarGraph.from(grammar, recognizer);
+        ParseResult expected = Iguana.parse(input, graph, recognizer, startSymbol, Collections.emptyMap(), true);
+        ParseResult result = Iguana.parse(input, graph, windowed, startSymbol, Collections.emptyMap(), true);
+
+        if (expected.isRecognitionSuccess()) {
+            assertTrue(result.isRecognitionSuccess());
+            assertEquals(expected.asRecognitionSuccess().getStatistics(), result.asRecognitionSuccess().getStatistics());
+        } else {
+            assertTrue(result.isParseError());
+            assertEquals(expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+        }
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++)
+            sb.append(s);
+        return sb.toString();
+    }
+
+}
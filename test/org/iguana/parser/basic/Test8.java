@@ -35,6 +35,7 @@ import iguana.parsetrees.sppf.IntermediateNode;
 import iguana.parsetrees.sppf.NonterminalNode;
 import iguana.parsetrees.sppf.TerminalNode;
 import iguana.parsetrees.term.Term;
+import iguana.regex.CharacterRange;
 import org.iguana.grammar.Grammar;
 import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.operations.FirstFollowSets;
@@ -56,6 +57,8 @@ import static iguana.utils.collections.CollectionsUtil.*;
 
 import iguana.utils.input.Input;
 
+import java.util.Arrays;
+
 /**
  * A ::= 'a' B 'c'
  *     | C
@@ -104,11 +107,17 @@ public class Test8 {
 		assertFalse(firstFollowSets.isNullable(Nonterminal.withName("C")));
 	}
 	
+	@Test
+	public void testPredictionSets2() {
+		FirstFollowSets firstFollowSets = new FirstFollowSets(grammar);
+		assertEquals(Arrays.asList(set(CharacterRange.from('a')), set(CharacterRange.from('b'))), firstFollowSets.getPredictionSets(r1, 2));
+		assertEquals(Arrays.asList(set(CharacterRange.from('a'), CharacterRange.from('c')), null), firstFollowSets.getPredictionSets(r2, 2));
+	}
+	
 	@Test
 	public void testLL1() {
-//		assertTrue(grammarGraph.isLL1SubGrammar(A));
-//		assertTrue(grammarGraph.isLL1SubGrammar(B));
-//		assertTrue(grammarGraph.isLL1SubGrammar(C));
+		FirstFollowSets firstFollowSets = new FirstFollowSets(grammar);
+		assertEquals(set(B, C), firstFollowSets.calculateLL1Nonterminals(new ReachabilityGraph(grammar)));
 	}
 
 	@Test
@@ -147,6 +156,17 @@ public class Test8 {
         assertTrue(getTree2().equals(result.asParseSuccess().getTerm()));
     }
 
+    @Test
+    public void testParser2_2() {
+        GrammarGraph graph = GrammarGraph.from(grammar, input2, Configuration.builder().setLookaheadCount(2).build());
+        ParseResult result = Iguana.parse(input2, graph, startSymbol);
+        assertTrue(result.isParseSuccess());
+        // All the alternatives of the start symbol are scheduled, and C is LL(1), so the
+        // second character does not remove any descriptor (see LookaheadCountTest)
+        assertEquals(getParseResult2_Lookahead1(graph), result);
+        assertTrue(getTree2().equals(result.asParseSuccess().getTerm()));
+    }
+
 
     private static ParseSuccess getParseResult1_Lookahead0(GrammarGraph graph) {
 		ParseStatistics statistics = ParseStatistics.builder()
@@ -0,0 +1,121 @@
+package org.iguana.parser.codegen;
+
+import iguana.parsetrees.sppf.NonPackedNode;
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.util.Configuration;
+import org.junit.Test;
+import scala.Option;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Generates the parsers of two grammars, compiles them with the system Java compiler,
+ * and checks that they give the same results as the interpreter on the same grammar graph.
+ */
+public class ParserGeneratorTest {
+
+    static Nonterminal E = Nonterminal.withName("E");
+    static Nonterminal T = Nonterminal.withName("T");
+    static Nonterminal F = Nonterminal.withName("F");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal plus = Terminal.from(Character.from('+'));
+    static Terminal star = Terminal.from(Character.from('*'));
+    static Terminal open = Terminal.from(Character.from('('));
+    static Terminal close = Terminal.from(Character.from(')'));
+
+    /**
+     * E ::= E '+' T | T
+     * T ::= T '*' F | F
+     * F ::= 'a' | '(' E ')'
+     */
+    private static Grammar expressions = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, T).build())
+                                                          .addRule(Rule.withHead(E).addSymbol(T).build())
+                                                          .addRule(Rule.withHead(T).addSymbols(T, star, F).build())
+                                                          .addRule(Rule.withHead(T).addSymbol(F).build())
+                                                          .addRule(Rule.withHead(F).addSymbol(a).build())
+                                                          .addRule(Rule.withHead(F).addSymbols(open, E, close).build())
+                                                          .build();
+
+    /**
+     * E ::= E '+' E | 'a'
+     */
+    private static Grammar ambiguous = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, E).build())
+                                                        .addRule(Rule.withHead(E).addSymbol(a).build())
+                                                        .build();
+
+    @Test
+    public void testExpressions() throws Exception {
+        assertSameResults(expressions, "ExpressionsParser", "a", "a+a*a", "(a+a)*(a*(a+a))+a", "a+", "(a+a", "a*+a");
+    }
+
+    @Test
+    public void testAmbiguous() throws Exception {
+        assertSameResults(ambiguous, "AmbiguousParser", "a", "a+a+a", "a+a+a+a+a+a+a", "a+", "+a", "a+a+");
+    }
+
+    private static void assertSameResults(Grammar grammar, String className, String... inputs) throws Exception {
+        GrammarGraph graph = GrammarGraph.from(grammar, Configuration.DEFAULT);
+        CompiledParser parser = compile(graph, className);
+
+        for (String s : inputs) {
+            Input input = Input.fromString(s);
+            ParseResult expected = Iguana.parse(input, graph, E);
+            ParseResult result = Iguana.parse(input, parser, E);
+            if (expected.isParseSuccess()) {
+                assertEquals(s, expected, result);
+            } else {
+                assertTrue(s, result.isParseError());
+                assertEquals(s, expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+            }
+        }
+    }
+
+    private static CompiledParser compile(GrammarGraph graph, String className) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("The tests should run on a JDK", compiler);
+
+        String packageName = ParserGeneratorTest.class.getPackage().getName() + ".generated";
+        Path directory = Files.createTempDirectory("iguana-codegen");
+        Path source = ParserGenerator.generate(graph, packageName, className, directory);
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int status = compiler.run(null, null, errors, "-classpath", classpath(), "-d", directory.toString(), source.toString());
+        assertEquals(errors.toString(), 0, status);
+
+        ClassLoader loader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, ParserGeneratorTest.class.getClassLoader());
+        Class<?> parserClass = loader.loadClass(packageName + "." + className);
+        return (CompiledParser) parserClass.getConstructor(GrammarGraph.class).newInstance(graph);
+    }
+
+    /**
+     * The tests may run in the JVM of the build tool, whose class path does not contain
+     * the projects, so the locations of the classes the generated code uses are added.
+     */
+    private static String classpath() throws Exception {
+        StringBuilder sb = new StringBuilder(System.getProperty("java.class.path"));
+        for (Class<?> c : new Class<?>[] { ParserGenerator.class, NonPackedNode.class, Input.class, Character.class, Option.class })
+            sb.append(File.pathSeparator).append(Paths.get(c.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        return sb.toString();
+    }
+
+}
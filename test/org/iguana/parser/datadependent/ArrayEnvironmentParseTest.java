@@ -0,0 +1,242 @@
+package org.iguana.parser.datadependent;
+
+import iguana.parsetrees.term.RuleType;
+import iguana.parsetrees.term.SPPFToTerms;
+import iguana.parsetrees.term.TermBuilder;
+import iguana.parsetrees.term.TerminalType;
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Block;
+import org.iguana.grammar.symbol.Conditional;
+import org.iguana.grammar.symbol.IfThenElse;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.grammar.transformation.DesugarState;
+import org.iguana.grammar.transformation.EBNFToBNF;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.EnvironmentImpl;
+import org.junit.Test;
+import scala.collection.Iterator;
+import scala.collection.Seq;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.iguana.datadependent.ast.AST.and;
+import static org.iguana.datadependent.ast.AST.assign;
+import static org.iguana.datadependent.ast.AST.equal;
+import static org.iguana.datadependent.ast.AST.integer;
+import static org.iguana.datadependent.ast.AST.stat;
+import static org.iguana.datadependent.ast.AST.var;
+import static org.iguana.datadependent.ast.AST.varDeclStat;
+import static org.iguana.grammar.symbol.Code.code;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parses grammars with labels, state threading and nested scopes with the array environment,
+ * which should give the same results as the default environment. VarToInt rewrites the
+ * expressions in the rules for the array environment, and expressions are compared by
+ * reference, so the trees are compared as printed by {@link TermPrinter}, which leaves out
+ * the expressions.
+ */
+public class ArrayEnvironmentParseTest {
+
+    private static final Configuration ARRAY = Configuration.builder().setEnvironmentImpl(EnvironmentImpl.ARRAY).build();
+
+    private static final Configuration TRIE = Configuration.builder().setEnvironmentImpl(EnvironmentImpl.TRIE).build();
+
+    /**
+     * The grammar of Test10, whose labels are bound and whose left and right extents are
+     * looked up in conditions and in code.
+     */
+    @Test
+    public void testLabels() {
+        Test10 test10 = new Test10();
+        test10.init();
+        Grammar grammar = new EBNFToBNF().transform(test10.grammar);
+
+        assertTrue(assertSameResult(grammar, Nonterminal.withName("X"), "a    b", Collections.emptyMap(), true).isParseSuccess());
+        assertFalse(assertSameResult(grammar, Nonterminal.withName("X"), "a   b", Collections.emptyMap(), true).isParseSuccess());
+    }
+
+    /**
+     * S ::= A do var m = 3; B when y == 1 && m == 3 'c'
+     * A ::= 'a' do x = 1; | 'd'
+     * B ::= 'b' do y = x;
+     *
+     * x and y are state variables, which DesugarState threads through the calls.
+     */
+    @Test
+    public void testState() {
+        Grammar grammar = Grammar.builder()
+            .addRule(Rule.withHead(Nonterminal.withName("S"))
+                         .addSymbol(code(Nonterminal.withName("A"), varDeclStat("m", integer(3))))
+                         .addSymbol(Conditional.builder(Nonterminal.withName("B"),
+                                                        and(equal(var("y"), integer(1)), equal(var("m"), integer(3)))).build())
+                         .addSymbol(Terminal.from(Character.from('c'))).build())
+            .addRule(Rule.withHead(Nonterminal.withName("A"))
+                         .addSymbol(code(Terminal.from(Character.from('a')), stat(assign("x", integer(1))))).build())
+            .addRule(Rule.withHead(Nonterminal.withName("A"))
+                         .addSymbol(Terminal.from(Character.from('d'))).build())
+            .addRule(Rule.withHead(Nonterminal.withName("B"))
+                         .addSymbol(code(Terminal.from(Character.from('b')), stat(assign("y", var("x"))))).build())
+            .build();
+
+        grammar = new DesugarState().transform(new EBNFToBNF().transform(grammar));
+
+        Nonterminal start = null;
+        for (Nonterminal nonterminal : grammar.getNonterminals())
+            if (nonterminal.getName().equals("S"))
+                start = nonterminal;
+
+        Map<String, Object> inits = new HashMap<>();
+        inits.put("x", 0);
+        inits.put("y", 0);
+
+        assertTrue(assertSameResult(grammar, start, "abc", inits, false).isParseSuccess());
+        assertFalse(assertSameResult(grammar, start, "dbc", inits, false).isParseSuccess());
+    }
+
+    /**
+     * S ::= AB(5,6)
+     * T ::= AB(4,6)
+     * AB(a,b) ::= 'c' do var x = a; if (x == 5) { A do var z = x; A when z == 5 } else B do var z = b;
+     * A ::= 'a'
+     * B ::= 'b'
+     *
+     * z is declared in both branches, which are nested scopes.
+     */
+    @Test
+    public void testScopes() {
+        Nonterminal A = Nonterminal.withName("A");
+        Nonterminal B = Nonterminal.withName("B");
+        Nonterminal AB = Nonterminal.builder("AB").addParameters("a", "b").build();
+
+        Grammar grammar = Grammar.builder()
+            .addRule(Rule.withHead(Nonterminal.withName("S"))
+                         .addSymbol(Nonterminal.builder(AB).apply(integer(5), integer(6)).build()).build())
+            .addRule(Rule.withHead(Nonterminal.withName("T"))
+                         .addSymbol(Nonterminal.builder(AB).apply(integer(4), integer(6)).build()).build())
+            .addRule(Rule.withHead(AB)
+                         .addSymbol(code(Terminal.from(Character.from('c')), varDeclStat("x", var("a"))))
+                         .addSymbol(IfThenElse.builder(equal(var("x"), integer(5)),
+                                                       Block.builder(code(A, varDeclStat("z", var("x"))),
+                                                                     Conditional.builder(A, equal(var("z"), integer(5))).build()).build(),
+                                                       code(B, varDeclStat("z", var("b")))).build()).build())
+            .addRule(Rule.withHead(A).addSymbol(Terminal.from(Character.from('a'))).build())
+            .addRule(Rule.withHead(B).addSymbol(Terminal.from(Character.from('b'))).build())
+            .build();
+
+        grammar = new EBNFToBNF().transform(grammar);
+
+        assertTrue(assertSameResult(grammar, Nonterminal.withName("S"), "caa", Collections.emptyMap(), true).isParseSuccess());
+        assertFalse(assertSameResult(grammar, Nonterminal.withName("S"), "cb", Collections.emptyMap(), true).isParseSuccess());
+        assertTrue(assertSameResult(grammar, Nonterminal.withName("T"), "cb", Collections.emptyMap(), true).isParseSuccess());
+        assertFalse(assertSameResult(grammar, Nonterminal.withName("T"), "caa", Collections.emptyMap(), true).isParseSuccess());
+    }
+
+    private static ParseResult assertSameResult(Grammar grammar, Nonterminal start, String s, Map<String, ?> inits, boolean global) {
+        Input input = Input.fromString(s);
+        ParseResult expected = Iguana.parse(input, GrammarGraph.from(grammar, input, TRIE), TRIE, start, inits, global);
+        ParseResult result = Iguana.parse(input, GrammarGraph.from(grammar, input, ARRAY), ARRAY, start, inits, global);
+
+        assertEquals(s, expected.isParseSuccess(), result.isParseSuccess());
+        if (expected.isParseSuccess()) {
+            assertEquals(s, expected.asParseSuccess().getStatistics(), result.asParseSuccess().getStatistics());
+            assertEquals(s, print(expected), print(result));
+        } else {
+            assertEquals(s, expected.asParseError().inputIndex(), result.asParseError().inputIndex());
+        }
+        return result;
+    }
+
+    private static String print(ParseResult result) {
+        return SPPFToTerms.convert(result.asParseSuccess().getSPPFNode(), new TermPrinter());
+    }
+
+    /**
+     * Prints a term with the extents of its nodes and the heads and labels of its rules.
+     */
+    private static class TermPrinter implements TermBuilder<String> {
+
+        @Override
+        public String terminalTerm(TerminalType type, int l, int r, Input input) {
+            return "'" + input.subString(l, r) + "'" + extent(l, r);
+        }
+
+        @Override
+        public String nonterminalTerm(RuleType type, Seq<String> children, int l, int r, Input input) {
+            String label = type.label() == null ? "" : ":" + type.label();
+            return type.head() + label + extent(l, r) + join("(", children, ")");
+        }
+
+        @Override
+        public String ambiguityTerm(Seq<Seq<String>> children) {
+            StringBuilder sb = new StringBuilder("amb(");
+            Iterator<Seq<String>> it = children.iterator();
+            while (it.hasNext()) {
+                sb.append(join("(", it.next(), ")"));
+                if (it.hasNext()) sb.append(" | ");
+            }
+            return sb.append(")").toString();
+        }
+
+        @Override
+        public String cycle(String label) {
+            return "cycle(" + label + ")";
+        }
+
+        @Override
+        public String star(Seq<String> children) {
+            return join("star(", children, ")");
+        }
+
+        @Override
+        public String plus(Seq<String> children) {
+            return join("plus(", children, ")");
+        }
+
+        @Override
+        public String opt(String child) {
+            return "opt(" + child + ")";
+        }
+
+        @Override
+        public String group(Seq<String> children) {
+            return join("group(", children, ")");
+        }
+
+        @Override
+        public String alt(Seq<String> children) {
+            return join("alt(", children, ")");
+        }
+
+        @Override
+        public String epsilon(int i) {
+            return "epsilon" + extent(i, i);
+        }
+
+        private static String extent(int l, int r) {
+            return "[" + l + ", " + r + "]";
+        }
+
+        private static String join(String prefix, Seq<String> children, String suffix) {
+            StringBuilder sb = new StringBuilder(prefix);
+            Iterator<String> it = children.iterator();
+            while (it.hasNext()) {
+                sb.append(it.next());
+                if (it.hasNext()) sb.append(", ");
+            }
+            return sb.append(suffix).toString();
+        }
+    }
+
+}
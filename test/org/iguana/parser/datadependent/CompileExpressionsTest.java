@@ -0,0 +1,122 @@
+package org.iguana.parser.datadependent;
+
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.grammar.transformation.EBNFToBNF;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.util.Configuration;
+import org.junit.Test;
+
+import static org.iguana.datadependent.ast.AST.integer;
+import static org.iguana.datadependent.ast.AST.notEqual;
+import static org.iguana.datadependent.ast.AST.var;
+import static org.iguana.grammar.condition.DataDependentCondition.predicate;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parses the data-dependent grammars with interpreted and with compiled expressions, which
+ * should give the same results.
+ */
+public class CompileExpressionsTest {
+
+    @Test
+    public void testDataDependentGrammars() {
+        Test1 test1 = new Test1();
+        test1.init();
+        assertSameResult(test1.grammar, "X", "ab");
+
+        Test3 test3 = new Test3();
+        test3.init();
+        assertSameResult(test3.grammar, "S", "abc");
+
+        Test4 test4 = new Test4();
+        test4.init();
+        assertSameResult(test4.grammar, "S", "a^a-^a");
+        assertSameResult(test4.grammar, "S", "a^a^a");
+
+        Test5 test5 = new Test5();
+        test5.init();
+        assertSameResult(test5.grammar, "S", "a+-a+a");
+        assertSameResult(test5.grammar, "S", "a+a+a");
+
+        Test6 test6 = new Test6();
+        test6.init();
+        assertSameResult(test6.grammar, "S", "a+a^a^a*a");
+
+        Test7 test7 = new Test7();
+        test7.init();
+        assertSameResult(test7.grammar, "S", "a+a^a^-a+a");
+
+        Test8 test8 = new Test8();
+        test8.init();
+        assertSameResult(test8.grammar, "S", "xawz");
+
+        Test9 test9 = new Test9();
+        test9.init();
+        assertSameResult(test9.grammar, "S", "xyaw");
+        assertSameResult(test9.grammar, "S", "xawz");
+
+        Test10 test10 = new Test10();
+        test10.init();
+        assertSameResult(new EBNFToBNF().transform(test10.grammar), "X", "a    b");
+
+        Test11 test11 = new Test11();
+        test11.init();
+        assertSameResult(new EBNFToBNF().transform(test11.grammar), "X", "a    b");
+    }
+
+    /**
+     * S ::= A(1000)
+     * A(n) ::= [n != 1000] 'a' | [n != 999] 'b'
+     *
+     * The argument and the literal are boxed separately, so they are different Integer objects.
+     */
+    @Test
+    public void testNotEqualComparesByValue() {
+        Nonterminal S = Nonterminal.withName("S");
+        Nonterminal A = Nonterminal.builder("A").addParameters("n").build();
+
+        Rule r0 = Rule.withHead(S).addSymbol(Nonterminal.builder(A).apply(integer(1000)).build()).build();
+        Rule r1 = Rule.withHead(A)
+                      .addSymbol(Terminal.builder(Character.from('a'))
+                                         .addPreCondition(predicate(notEqual(var("n"), integer(1000)))).build()).build();
+        Rule r2 = Rule.withHead(A)
+                      .addSymbol(Terminal.builder(Character.from('b'))
+                                         .addPreCondition(predicate(notEqual(var("n"), integer(999)))).build()).build();
+
+        Grammar grammar = Grammar.builder().addRules(r0, r1, r2).build();
+
+        assertFalse(assertSameResult(grammar, "S", "a").isParseSuccess());
+        assertTrue(assertSameResult(grammar, "S", "b").isParseSuccess());
+    }
+
+    private static ParseResult assertSameResult(Grammar grammar, String start, String s) {
+        Input input = Input.fromString(s);
+        ParseResult interpreted = parse(grammar, start, input, false);
+        ParseResult compiled = parse(grammar, start, input, true);
+
+        assertEquals(s, interpreted.isParseSuccess(), compiled.isParseSuccess());
+        if (interpreted.isParseSuccess()) {
+            assertEquals(s, interpreted.asParseSuccess().getStatistics(), compiled.asParseSuccess().getStatistics());
+            assertEquals(s, interpreted.asTerm(), compiled.asTerm());
+        } else {
+            assertEquals(s, interpreted.asParseError().inputIndex(), compiled.asParseError().inputIndex());
+        }
+        return compiled;
+    }
+
+    private static ParseResult parse(Grammar grammar, String start, Input input, boolean compileExpressions) {
+        Configuration config = Configuration.builder().setCompileExpressions(compileExpressions).build();
+        GrammarGraph graph = GrammarGraph.from(grammar, input, config);
+        return Iguana.parse(input, graph, Nonterminal.withName(start));
+    }
+
+}
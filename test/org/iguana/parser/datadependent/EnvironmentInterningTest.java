@@ -0,0 +1,76 @@
+package org.iguana.parser.datadependent;
+
+import iguana.utils.input.Input;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.EnvironmentImpl;
+import org.iguana.util.ParseStatistics;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The environments of a data-dependent parse are interned. The number of interned and
+ * distinct environments is reported, and the results do not depend on the environment
+ * implementation.
+ */
+public class EnvironmentInterningTest {
+
+    @Test
+    public void testParse() {
+        Test9 test9 = new Test9();
+        test9.init();
+
+        for (String s : new String[] { "xyaw", "xawz" }) {
+            Input input = Input.fromString(s);
+            ParseResult expected = null;
+
+            for (EnvironmentImpl impl : EnvironmentImpl.values()) {
+                Configuration config = Configuration.builder().setEnvironmentImpl(impl).build();
+                ParseResult result = Iguana.parse(input, GrammarGraph.from(test9.grammar, input, config), Nonterminal.withName("S"));
+                assertTrue(s + " " + impl, result.isParseSuccess());
+
+                ParseStatistics statistics = result.asParseSuccess().getStatistics();
+                assertTrue(s + " " + impl, statistics.getDistinctEnvironmentsCount() > 0);
+                assertTrue(s + " " + impl, statistics.getDistinctEnvironmentsCount() <= statistics.getInternedEnvironmentsCount());
+
+                if (expected == null) {
+                    expected = result;
+                } else {
+                    assertEquals(s + " " + impl, expected.asParseSuccess().getStatistics(), statistics);
+                }
+            }
+        }
+    }
+
+    /**
+     * In recognizer mode the environments of the descriptors are interned as well, so that
+     * the descriptor set can key them by id.
+     */
+    @Test
+    public void testRecognize() {
+        Test9 test9 = new Test9();
+        test9.init();
+        Input input = Input.fromString("xyaw");
+
+        Configuration parserConfig = Configuration.DEFAULT;
+        Configuration recognizerConfig = Configuration.builder().setRecognizer(true).build();
+
+        ParseResult parsed = Iguana.parse(input, GrammarGraph.from(test9.grammar, input, parserConfig), Nonterminal.withName("S"));
+        ParseResult recognized = Iguana.parse(input, GrammarGraph.from(test9.grammar, input, recognizerConfig), Nonterminal.withName("S"));
+
+        assertTrue(parsed.isParseSuccess());
+        assertTrue(recognized.isRecognitionSuccess());
+
+        ParseStatistics statistics = recognized.asRecognitionSuccess().getStatistics();
+        assertTrue(statistics.getDistinctEnvironmentsCount() > 0);
+        assertTrue(statistics.getDistinctEnvironmentsCount() <= statistics.getInternedEnvironmentsCount());
+        assertEquals(parsed.asParseSuccess().getStatistics().getGssNodesCount(), statistics.getGssNodesCount());
+        assertEquals(parsed.asParseSuccess().getStatistics().getGssEdgesCount(), statistics.getGssEdgesCount());
+    }
+
+}
@@ -67,7 +67,7 @@ import iguana.utils.input.Input;
 
 public class Test10 {
 	
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
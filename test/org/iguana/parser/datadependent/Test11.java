@@ -64,7 +64,7 @@ import iguana.utils.input.Input;
 
 public class Test11 {
 	
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
@@ -74,7 +74,7 @@ import iguana.utils.input.Input;
 
 public class Test4 {
 
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
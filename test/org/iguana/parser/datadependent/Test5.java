@@ -71,7 +71,7 @@ import iguana.utils.input.Input;
 
 public class Test5 {
 	
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
@@ -66,7 +66,7 @@ import iguana.utils.input.Input;
 
 public class Test6 {
 	
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
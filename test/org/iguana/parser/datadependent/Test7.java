@@ -61,7 +61,7 @@ import iguana.utils.input.Input;
 
 public class Test7 {
 	
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
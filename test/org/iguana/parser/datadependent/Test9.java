@@ -63,7 +63,7 @@ import iguana.utils.input.Input;
 
 public class Test9 {
 	
-	private Grammar grammar;
+	Grammar grammar;
 
 	@Before
 	public void init() {
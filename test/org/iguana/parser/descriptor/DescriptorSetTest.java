@@ -0,0 +1,140 @@
+package org.iguana.parser.descriptor;
+
+import org.iguana.grammar.condition.ConditionsFactory;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.gss.GSSNode;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DescriptorSetTest {
+
+    private static final BodyGrammarSlot slot1 = slot(1);
+
+    private static final BodyGrammarSlot slot2 = slot(2);
+
+    private static final GSSNode gssNode1 = new GSSNode(new NonterminalGrammarSlot(Nonterminal.withName("A"), 0), 0);
+
+    private static final GSSNode gssNode2 = new GSSNode(new NonterminalGrammarSlot(Nonterminal.withName("A"), 0), 0);
+
+    @Test
+    public void testAdd() {
+        DescriptorSet descriptors = new DescriptorSet();
+
+        assertTrue(descriptors.add(slot1, gssNode1, 0));
+        assertFalse(descriptors.add(slot1, gssNode1, 0));
+
+        // Differ in one component
+        assertTrue(descriptors.add(slot2, gssNode1, 0));
+        assertTrue(descriptors.add(slot1, gssNode2, 0));
+        assertTrue(descriptors.add(slot1, gssNode1, 1));
+        assertEquals(4, descriptors.size());
+
+        // The input index and the slot id are packed in a long without overlapping
+        assertTrue(descriptors.add(slot1, gssNode1, -1));
+        assertTrue(descriptors.add(slot(0), gssNode1, -1));
+        assertFalse(descriptors.add(slot1, gssNode1, -1));
+        assertEquals(6, descriptors.size());
+    }
+
+    @Test
+    public void testAddWithEnvironment() {
+        DescriptorSet descriptors = new DescriptorSet();
+
+        assertTrue(descriptors.add(slot1, gssNode1, 0));
+        assertTrue(descriptors.add(slot1, gssNode1, 0, 0));
+        assertFalse(descriptors.add(slot1, gssNode1, 0, 0));
+        assertTrue(descriptors.add(slot1, gssNode1, 0, 1));
+        assertTrue(descriptors.add(slot1, gssNode2, 0, 1));
+        assertEquals(4, descriptors.size());
+    }
+
+    /**
+     * The table starts with 1024 entries and grows when more than half of them are used.
+     */
+    @Test
+    public void testRehash() {
+        DescriptorSet descriptors = new DescriptorSet();
+        for (int i = 0; i < 10_000; i++)
+            assertTrue(descriptors.add(slot1, gssNode1, i));
+        for (int i = 0; i < 10_000; i++)
+            assertFalse(descriptors.add(slot1, gssNode1, i));
+        assertEquals(10_000, descriptors.size());
+    }
+
+    @Test
+    public void testClear() {
+        for (int count : new int[] { 10, 10_000 }) {
+            DescriptorSet descriptors = new DescriptorSet();
+            for (int i = 0; i < count; i++) {
+                descriptors.add(slot1, gssNode1, i);
+                descriptors.add(slot1, gssNode1, i, 0);
+            }
+
+            descriptors.clear();
+            assertEquals(0, descriptors.size());
+            for (int i = 0; i < count; i++) {
+                assertTrue(descriptors.add(slot1, gssNode1, i));
+                assertTrue(descriptors.add(slot1, gssNode1, i, 0));
+            }
+            assertEquals(2 * count, descriptors.size());
+        }
+    }
+
+    @Test
+    public void testRemoveBefore() {
+        DescriptorSet descriptors = new DescriptorSet();
+        for (int i = 0; i < 2000; i++) {
+            descriptors.add(slot1, gssNode1, i);
+            descriptors.add(slot2, gssNode2, i);
+            descriptors.add(slot1, gssNode1, i, 0);
+        }
+
+        descriptors.removeBefore(1500);
+        assertEquals(3 * 500, descriptors.size());
+
+        for (int i = 1500; i < 2000; i++) {
+            assertFalse(descriptors.add(slot1, gssNode1, i));
+            assertFalse(descriptors.add(slot2, gssNode2, i));
+            assertFalse(descriptors.add(slot1, gssNode1, i, 0));
+        }
+        for (int i = 0; i < 1500; i++) {
+            assertTrue(descriptors.add(slot1, gssNode1, i));
+            assertTrue(descriptors.add(slot1, gssNode1, i, 0));
+        }
+        assertEquals(3 * 500 + 2 * 1500, descriptors.size());
+    }
+
+    @Test
+    public void testSameAsHashSet() {
+        Random random = new Random(3);
+        BodyGrammarSlot[] slots = { slot1, slot2, slot(3) };
+        GSSNode[] gssNodes = { gssNode1, gssNode2 };
+
+        DescriptorSet descriptors = new DescriptorSet();
+        Set<String> expected = new HashSet<>();
+
+        for (int k = 0; k < 50_000; k++) {
+            int s = random.nextInt(slots.length);
+            int u = random.nextInt(gssNodes.length);
+            int i = random.nextInt(5_000);
+            assertEquals(expected.add(s + " " + u + " " + i), descriptors.add(slots[s], gssNodes[u], i));
+            assertEquals(expected.size(), descriptors.size());
+        }
+    }
+
+    private static BodyGrammarSlot slot(int id) {
+        BodyGrammarSlot slot = new BodyGrammarSlot(null, null, null, null, ConditionsFactory.DEFAULT);
+        slot.setId(id);
+        return slot;
+    }
+
+}
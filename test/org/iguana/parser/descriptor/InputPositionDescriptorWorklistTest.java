@@ -0,0 +1,81 @@
+package org.iguana.parser.descriptor;
+
+import iguana.parsetrees.sppf.DummyNode;
+import iguana.parsetrees.sppf.NonPackedNode;
+import org.iguana.grammar.condition.ConditionsFactory;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.gss.GSSNode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InputPositionDescriptorWorklistTest {
+
+    private static final BodyGrammarSlot slot = new BodyGrammarSlot(null, null, null, null, ConditionsFactory.DEFAULT);
+
+    private static final GSSNode gssNode = new GSSNode(new NonterminalGrammarSlot(Nonterminal.withName("A"), 0), 0);
+
+    @Test
+    public void testInputIndexOrder() {
+        InputPositionDescriptorWorklist worklist = new InputPositionDescriptorWorklist(5, () -> new ObjectDescriptorWorklist(null));
+        NonPackedNode n3 = add(worklist, 3);
+        NonPackedNode n1 = add(worklist, 1);
+        NonPackedNode n5 = add(worklist, 5);
+        NonPackedNode n1b = add(worklist, 1);
+
+        assertEquals(4, worklist.size());
+
+        // The descriptors at the same index are removed in the order of their bucket, LIFO here
+        assertSame(n1b, worklist.remove().getSPPFNode());
+        assertSame(n1, worklist.remove().getSPPFNode());
+        assertSame(n3, worklist.remove().getSPPFNode());
+        assertEquals(3, worklist.getCurrentIndex());
+        assertSame(n5, worklist.remove().getSPPFNode());
+        assertEquals(5, worklist.getCurrentIndex());
+        assertTrue(worklist.isEmpty());
+    }
+
+    @Test
+    public void testFIFOBuckets() {
+        InputPositionDescriptorWorklist worklist = new InputPositionDescriptorWorklist(2, () -> new PackedDescriptorWorklist(null, true, 2));
+        NonPackedNode n2 = add(worklist, 2);
+        NonPackedNode n0 = add(worklist, 0);
+        NonPackedNode n0b = add(worklist, 0);
+        NonPackedNode n0c = add(worklist, 0);
+
+        assertSame(n0, worklist.remove().getSPPFNode());
+        assertSame(n0b, worklist.remove().getSPPFNode());
+        assertSame(n0c, worklist.remove().getSPPFNode());
+        assertSame(n2, worklist.remove().getSPPFNode());
+    }
+
+    /**
+     * A descriptor before the current index does not happen in GLL parsing, but is still
+     * removed first.
+     */
+    @Test
+    public void testDescriptorBeforeCurrentIndex() {
+        InputPositionDescriptorWorklist worklist = new InputPositionDescriptorWorklist(4, () -> new ObjectDescriptorWorklist(null));
+        add(worklist, 2);
+        NonPackedNode n4 = add(worklist, 4);
+        worklist.remove();
+        assertEquals(2, worklist.getCurrentIndex());
+
+        NonPackedNode n1 = add(worklist, 1);
+        assertEquals(1, worklist.getCurrentIndex());
+        assertSame(n1, worklist.remove().getSPPFNode());
+        assertSame(n4, worklist.remove().getSPPFNode());
+        assertTrue(worklist.isEmpty());
+    }
+
+    private static NonPackedNode add(DescriptorWorklist worklist, int i) {
+        NonPackedNode node = new DummyNode(i);
+        worklist.add(slot, gssNode, node, null);
+        return node;
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.iguana.parser.descriptor;
+
+import iguana.parsetrees.sppf.DummyNode;
+import iguana.parsetrees.sppf.NonPackedNode;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.datadependent.env.array.ArrayEnvironment;
+import org.iguana.grammar.condition.ConditionsFactory;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.gss.GSSNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PackedDescriptorWorklistTest {
+
+    private static final BodyGrammarSlot slot = new BodyGrammarSlot(null, null, null, null, ConditionsFactory.DEFAULT);
+
+    private static final GSSNode gssNode = new GSSNode(new NonterminalGrammarSlot(Nonterminal.withName("A"), 0), 0);
+
+    @Test
+    public void testLIFO() {
+        PackedDescriptorWorklist worklist = new PackedDescriptorWorklist(null, false, 2);
+        List<NonPackedNode> nodes = addNodes(worklist, 5);
+
+        assertEquals(5, worklist.size());
+        for (int i = 4; i >= 0; i--)
+            assertSame(nodes.get(i), worklist.remove().getSPPFNode());
+        assertTrue(worklist.isEmpty());
+    }
+
+    @Test
+    public void testFIFO() {
+        PackedDescriptorWorklist worklist = new PackedDescriptorWorklist(null, true, 2);
+        List<NonPackedNode> nodes = addNodes(worklist, 5);
+
+        for (int i = 0; i < 5; i++)
+            assertSame(nodes.get(i), worklist.remove().getSPPFNode());
+        assertTrue(worklist.isEmpty());
+    }
+
+    /**
+     * The buffer grows when the descriptors wrap around its end, and the order is kept.
+     */
+    @Test
+    public void testFIFOGrowsAfterWrappingAround() {
+        PackedDescriptorWorklist worklist = new PackedDescriptorWorklist(null, true, 4);
+        List<NonPackedNode> nodes = addNodes(worklist, 3);
+        assertSame(nodes.get(0), worklist.remove().getSPPFNode());
+        assertSame(nodes.get(1), worklist.remove().getSPPFNode());
+
+        // The head is at 2, the next three descriptors wrap around, and the fourth grows the buffer
+        nodes.addAll(addNodes(worklist, 6));
+        assertEquals(7, worklist.size());
+        for (int i = 2; i < nodes.size(); i++)
+            assertSame(nodes.get(i), worklist.remove().getSPPFNode());
+        assertTrue(worklist.isEmpty());
+    }
+
+    @Test
+    public void testSameOrderAsObjectWorklist() {
+        for (boolean fifo : new boolean[] { false, true }) {
+            Random random = new Random(fifo ? 1 : 2);
+            PackedDescriptorWorklist packed = new PackedDescriptorWorklist(null, fifo, 2);
+            ObjectDescriptorWorklist objects = new ObjectDescriptorWorklist(null, fifo);
+
+            for (int k = 0; k < 10_000; k++) {
+                if (random.nextInt(3) > 0 || objects.isEmpty()) {
+                    NonPackedNode node = new DummyNode(k);
+                    packed.add(slot, gssNode, node, null);
+                    objects.add(slot, gssNode, node, null);
+                } else {
+                    assertSame(objects.remove().getSPPFNode(), packed.remove().getSPPFNode());
+                }
+                assertEquals(objects.size(), packed.size());
+            }
+
+            while (!objects.isEmpty())
+                assertSame(objects.remove().getSPPFNode(), packed.remove().getSPPFNode());
+            assertTrue(packed.isEmpty());
+        }
+    }
+
+    @Test
+    public void testEnvironment() {
+        PackedDescriptorWorklist worklist = new PackedDescriptorWorklist(null);
+        Environment env = ArrayEnvironment.EMPTY._declare(0, 1);
+        worklist.add(slot, gssNode, new DummyNode(0), env);
+        worklist.add(slot, gssNode, new DummyNode(0), null);
+
+        Descriptor descriptor = worklist.remove();
+        assertFalse(descriptor instanceof org.iguana.datadependent.descriptor.Descriptor);
+        assertSame(slot, descriptor.getGrammarSlot());
+        assertSame(gssNode, descriptor.getGSSNode());
+
+        descriptor = worklist.remove();
+        assertTrue(descriptor instanceof org.iguana.datadependent.descriptor.Descriptor);
+        assertSame(env, ((org.iguana.datadependent.descriptor.Descriptor) descriptor).getEnv());
+    }
+
+    private static List<NonPackedNode> addNodes(DescriptorWorklist worklist, int count) {
+        List<NonPackedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            NonPackedNode node = new DummyNode(i);
+            worklist.add(slot, gssNode, node, null);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.iguana.parser.descriptor;
+
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.SchedulingPolicy;
+import org.iguana.util.Configuration.WorklistImpl;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * E ::= E '+' T
+ *     | T
+ *
+ * T ::= 'a'
+ *     | '(' E ')'
+ *
+ * The grammar is unambiguous, so every worklist and scheduling policy should build the
+ * same SPPF, with the same statistics, as the default ones.
+ */
+public class SchedulingPolicyTest {
+
+    static Nonterminal E = Nonterminal.withName("E");
+    static Nonterminal T = Nonterminal.withName("T");
+    static Terminal a = Terminal.from(Character.from('a'));
+    static Terminal plus = Terminal.from(Character.from('+'));
+    static Terminal open = Terminal.from(Character.from('('));
+    static Terminal close = Terminal.from(Character.from(')'));
+
+    private static Grammar grammar = Grammar.builder().addRule(Rule.withHead(E).addSymbols(E, plus, T).build())
+                                                      .addRule(Rule.withHead(E).addSymbol(T).build())
+                                                      .addRule(Rule.withHead(T).addSymbol(a).build())
+                                                      .addRule(Rule.withHead(T).addSymbols(open, E, close).build())
+                                                      .build();
+
+    @Test
+    public void testSameResult() {
+        Input input = Input.fromString("a+(a+a)+a+((a+a)+a)");
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+        ParseResult expected = Iguana.parse(input, graph, E);
+        assertTrue(expected.isParseSuccess());
+
+        for (WorklistImpl worklistImpl : WorklistImpl.values()) {
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                Configuration config = Configuration.builder().setWorklistImpl(worklistImpl).setSchedulingPolicy(policy).build();
+                ParseResult result = Iguana.parse(input, graph, config, E, Collections.emptyMap(), true);
+                assertEquals(worklistImpl + ", " + policy, expected, result);
+            }
+        }
+    }
+
+    @Test
+    public void testParseError() {
+        Input input = Input.fromString("a+(a+a");
+        GrammarGraph graph = GrammarGraph.from(grammar, input);
+
+        for (WorklistImpl worklistImpl : WorklistImpl.values()) {
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                Configuration config = Configuration.builder().setWorklistImpl(worklistImpl).setSchedulingPolicy(policy).build();
+                assertTrue(Iguana.parse(input, graph, config, E, Collections.emptyMap(), true).isParseError());
+            }
+        }
+    }
+
+}
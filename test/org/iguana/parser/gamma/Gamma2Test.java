@@ -27,14 +27,20 @@
 
 package org.iguana.parser.gamma;
 
+import static org.junit.Assert.assertTrue;
+
 import org.iguana.grammar.Grammar;
 import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.symbol.Terminal;
 import iguana.regex.Character;
 import org.iguana.grammar.symbol.Nonterminal;
 import org.iguana.grammar.symbol.Rule;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
 import org.iguana.parser.ParseSuccess;
+import org.iguana.util.Configuration;
 import org.iguana.util.ParseStatistics;
+import org.junit.Test;
 
 import iguana.utils.input.Input;
 
@@ -113,6 +119,15 @@ public class Gamma2Test {
 		return new ParseSuccess(null, statistics, getInput3());
 	}
 	
+	@Test
+	public void testRecognizer() {
+		GrammarGraph graph = GrammarGraph.from(getGrammar(), getInput1(), Configuration.builder().setRecognizer(true).build());
+		ParseResult result = Iguana.parse(getInput1(), graph, getStartSymbol());
+		assertTrue(result.isRecognitionSuccess());
+		// (S ::= S S . S, 0, 3) is reached from both S(0, 1) S(1, 3) and S(0, 2) S(2, 3)
+		assertTrue(result.asRecognitionSuccess().getStatistics().getDuplicateDescriptorsCount() > 0);
+	}
+	
 //	private static NonterminalNode expectedSPPF1(GrammarGraph graph) {
 //		SPPFNodeFactory factory = new SPPFNodeFactory(graph);
 //		NonterminalNode node1 = factory.createNonterminalNode("S", 0, 0, 3);
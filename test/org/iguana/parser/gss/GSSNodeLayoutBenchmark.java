@@ -0,0 +1,112 @@
+package org.iguana.parser.gss;
+
+import iguana.parsetrees.sppf.DummyNode;
+import iguana.parsetrees.sppf.NonterminalNode;
+import iguana.utils.input.Input;
+import org.iguana.grammar.condition.ConditionsFactory;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.util.Configuration;
+
+import java.lang.reflect.Proxy;
+
+import static iguana.parsetrees.sppf.SPPFNodeFactory.createNonterminalNode;
+
+/**
+ * Reports the heap used per GSS node for a given number of outgoing edges and pops,
+ * without parsing. The edges do not pass their follow test, so no descriptors are created,
+ * and the nonterminal nodes created by the pops are not counted. Unlike GSSNodeMemoryBenchmark,
+ * this only depends on the GSS node layout, so the numbers of two revisions can be compared
+ * directly. They are only meaningful when the benchmark runs against the real utils and
+ * parse-trees libraries, as the sizes of the nodes and of the input keys depend on them.
+ */
+public class GSSNodeLayoutBenchmark {
+
+    private static final int NODES = 200_000;
+
+    private static final int[][] SCENARIOS = { {0, 0}, {1, 0}, {1, 1}, {2, 0}, {2, 1}, {4, 4} };
+
+    private static Object reachable;
+
+    public static void main(String[] args) {
+        Input input = Input.fromString("a");
+        NonterminalGrammarSlot slot = new NonterminalGrammarSlot(Nonterminal.withName("A"), 0);
+        EndGrammarSlot endSlot = new EndGrammarSlot(null, slot, null, null, null, ConditionsFactory.DEFAULT, null, null);
+        BodyGrammarSlot returnSlot = new BodyGrammarSlot(null, null, null, null, ConditionsFactory.DEFAULT) {
+            @Override
+            public boolean testFollow(int v) {
+                return false;
+            }
+        };
+        ParserRuntime runtime = ignoringRuntime();
+        GSSNode destination = new GSSNode(slot, 0);
+
+        DummyNode[] children = new DummyNode[4];
+        for (int i = 0; i < children.length; i++)
+            children[i] = new DummyNode(i + 1);
+
+        double nonterminalNodeSize = nonterminalNodeSize(input, endSlot, children[0]);
+
+        // The first round warms up the JIT and the heap
+        for (int round = 0; round < 2; round++) {
+            for (int[] scenario : SCENARIOS) {
+                int edges = scenario[0], pops = scenario[1];
+                long before = usedMemory();
+                GSSNode[] nodes = new GSSNode[NODES];
+                long array = usedMemory() - before;
+                for (int i = 0; i < NODES; i++) {
+                    GSSNode node = new GSSNode(slot, i);
+                    for (int k = 0; k < edges; k++)
+                        node.createGSSEdge(input, returnSlot, destination, children[k], runtime);
+                    for (int k = 0; k < pops; k++)
+                        node.pop(input, endSlot, children[k], runtime);
+                    nodes[i] = node;
+                }
+                reachable = nodes;
+                long after = usedMemory();
+                reachable = null;
+
+                double bytes = (double) (after - before - array) / NODES - pops * nonterminalNodeSize;
+                if (round == 1)
+                    System.out.println(String.format("%d edges, %d pops: %.1f bytes per GSS node", edges, pops, bytes));
+            }
+        }
+    }
+
+    private static double nonterminalNodeSize(Input input, EndGrammarSlot slot, DummyNode child) {
+        long before = usedMemory();
+        NonterminalNode[] nodes = new NonterminalNode[NODES];
+        long array = usedMemory() - before;
+        for (int i = 0; i < NODES; i++)
+            nodes[i] = createNonterminalNode(slot.getNonterminal(), slot, child, input);
+        reachable = nodes;
+        long after = usedMemory();
+        reachable = null;
+        return (double) (after - before - array) / NODES;
+    }
+
+    /**
+     * A runtime that ignores the statistics, as GSS nodes only report to it.
+     */
+    private static ParserRuntime ignoringRuntime() {
+        return (ParserRuntime) Proxy.newProxyInstance(ParserRuntime.class.getClassLoader(), new Class<?>[] { ParserRuntime.class }, (proxy, method, args) -> {
+            if (method.getName().equals("getConfiguration")) return Configuration.DEFAULT;
+            Class<?> type = method.getReturnType();
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            return null;
+        });
+    }
+
+    private static long usedMemory() {
+        for (int i = 0; i < 4; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,88 @@
+package org.iguana.parser.gss;
+
+import com.google.common.testing.GcFinalization;
+import iguana.parsetrees.sppf.DummyNode;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.GLLEvaluator;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.transformation.EBNFToBNF;
+import org.iguana.grammar.transformation.LayoutWeaver;
+import org.iguana.parser.ParserRuntime;
+import org.iguana.parser.ParserRuntimeImpl;
+import org.iguana.util.Configuration;
+
+import java.io.File;
+
+/**
+ * Reports the heap retained by a parse, which includes its GSS and SPPF, per GSS node.
+ * The runtime of the parse is kept reachable while the heap is measured. The SPPF does
+ * not depend on the GSS node layout, so running this on two revisions gives the difference
+ * between their GSS node layouts.
+ */
+public class GSSNodeMemoryBenchmark {
+
+    public static void main(String[] args) {
+        Grammar grammar = Grammar.load(new File("test/org/iguana/parser/datadependent/precedence/JavaSpecChar"));
+        grammar = new LayoutWeaver().transform(new EBNFToBNF().transform(grammar));
+        GrammarGraph graph = GrammarGraph.from(grammar, Configuration.DEFAULT);
+
+        String[] files = args.length > 0 ? args : new String[] {
+            "src/org/iguana/grammar/GrammarGraph.java",
+            "src/org/iguana/parser/ParserRuntimeImpl.java",
+            "src/org/iguana/grammar/slot/NonterminalGrammarSlot.java"
+        };
+
+        for (String file : files)
+            run(graph, Input.fromFile(new File(file)));
+    }
+
+    private static void run(GrammarGraph graph, Input input) {
+        GcFinalization.awaitFullGc();
+        long before = usedMemory();
+
+        ParserRuntime runtime = parse(graph, input);
+
+        GcFinalization.awaitFullGc();
+        long after = usedMemory();
+
+        int nodes = 0, edges = 0, popped = 0, singleEdge = 0, notPopped = 0;
+        for (GSSNode node : runtime.getGSSNodes()) {
+            nodes++;
+            edges += node.countGSSEdges();
+            popped += node.countPoppedElements();
+            if (node.countGSSEdges() <= 1) singleEdge++;
+            if (node.countPoppedElements() == 0) notPopped++;
+        }
+
+        System.out.println(String.format("%s: %d characters", input.getURI(), input.length()));
+        System.out.println(String.format("  GSS nodes: %d, edges: %d, popped elements: %d", nodes, edges, popped));
+        System.out.println(String.format("  nodes with at most one edge: %.1f%%, nodes never popped: %.1f%%",
+                                         100.0 * singleEdge / nodes, 100.0 * notPopped / nodes));
+        System.out.println(String.format("  heap retained by the parse: %d KB, %.1f bytes per GSS node",
+                                         (after - before) / 1024, (double) (after - before) / nodes));
+
+        // Keeps the runtime reachable until the heap is measured
+        if (runtime.getGSSNodes() == null) throw new AssertionError();
+    }
+
+    private static ParserRuntime parse(GrammarGraph graph, Input input) {
+        Configuration config = graph.getConfiguration();
+        ParserRuntime runtime = new ParserRuntimeImpl(graph, input, config, GLLEvaluator.getEvaluatorContext(config, input));
+        NonterminalGrammarSlot start = graph.getHead(Nonterminal.withName("CompilationUnit"));
+        GSSNode u = start.getGSSNode(0, runtime);
+        start.getFirstSlots().forEach(s -> runtime.scheduleDescriptor(s, u, new DummyNode(0)));
+        runtime.processDescriptors();
+        if (u.getNonterminalNode(input, input.length() - 1) == null)
+            throw new RuntimeException("Parse error in " + input.getURI());
+        return runtime;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
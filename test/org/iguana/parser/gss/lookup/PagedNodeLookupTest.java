@@ -0,0 +1,171 @@
+package org.iguana.parser.gss.lookup;
+
+import iguana.utils.input.Input;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.parser.gss.GSSNode;
+import org.iguana.parser.gss.lookup.GSSNodeLookup.GSSNodeCreator;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PagedNodeLookupTest {
+
+    private static final int PAGE_SIZE = 1024;
+
+    private static final NonterminalGrammarSlot slot = new NonterminalGrammarSlot(Nonterminal.withName("A"), 0);
+
+    private static final Input input = Input.fromString(input(2 * PAGE_SIZE + 10));
+
+    /*
+     * The input positions go up to the end of file, at input.length() - 1
+     */
+    private static final int end = input.length() - 1;
+
+    private static final int[] boundaries = { 0, PAGE_SIZE - 1, PAGE_SIZE, 2 * PAGE_SIZE - 1, 2 * PAGE_SIZE, end };
+
+    @Test
+    public void testPageBoundaries() {
+        PagedNodeLookup lookup = new PagedNodeLookup(input);
+        GSSNode[] nodes = new GSSNode[boundaries.length];
+        for (int k = 0; k < boundaries.length; k++) {
+            nodes[k] = lookup.get(slot, boundaries[k]);
+            assertEquals(boundaries[k], nodes[k].getInputIndex());
+        }
+
+        for (int k = 0; k < boundaries.length; k++)
+            assertSame(nodes[k], lookup.get(slot, boundaries[k]));
+        assertEquals(new HashSet<>(Arrays.asList(nodes)), nodes(lookup));
+    }
+
+    @Test
+    public void testCreator() {
+        PagedNodeLookup lookup = new PagedNodeLookup(input);
+        for (int i : boundaries) {
+            CountingCreator creator = new CountingCreator(i);
+            lookup.get(i, creator);
+            assertEquals(1, creator.createdCount);
+            assertEquals(0, creator.foundCount);
+
+            lookup.get(i, creator);
+            assertEquals(1, creator.createdCount);
+            assertEquals(1, creator.foundCount);
+            assertSame(creator.node, lookup.get(slot, i));
+        }
+    }
+
+    @Test
+    public void testSameAsArrayLookup() {
+        Random random = new Random(1);
+        PagedNodeLookup paged = new PagedNodeLookup(input);
+        ArrayNodeLookup array = new ArrayNodeLookup(input);
+        for (int k = 0; k < 1000; k++) {
+            int i = random.nextInt(input.length());
+            CountingCreator pagedCreator = new CountingCreator(i);
+            CountingCreator arrayCreator = new CountingCreator(i);
+            paged.get(i, pagedCreator);
+            array.get(i, arrayCreator);
+            assertEquals(arrayCreator.createdCount, pagedCreator.createdCount);
+            assertEquals(arrayCreator.foundCount, pagedCreator.foundCount);
+        }
+        assertEquals(indices(array), indices(paged));
+    }
+
+    @Test
+    public void testReleaseBefore() {
+        PagedNodeLookup lookup = new PagedNodeLookup(input);
+        for (int i : boundaries)
+            lookup.get(slot, i);
+
+        // Releases the first page only, as PAGE_SIZE + 1 is still in the second one
+        lookup.releaseBefore(PAGE_SIZE + 1);
+        assertEquals(set(PAGE_SIZE, 2 * PAGE_SIZE - 1, 2 * PAGE_SIZE, end), indices(lookup));
+        GSSNode node = lookup.get(slot, PAGE_SIZE);
+        assertSame(node, lookup.get(slot, PAGE_SIZE));
+
+        lookup.releaseBefore(2 * PAGE_SIZE);
+        assertEquals(set(2 * PAGE_SIZE, end), indices(lookup));
+    }
+
+    @Test
+    public void testReset() {
+        PagedNodeLookup lookup = new PagedNodeLookup(input);
+        GSSNode node = lookup.get(slot, PAGE_SIZE);
+
+        lookup.reset(input);
+        assertTrue(nodes(lookup).isEmpty());
+        assertNotSame(node, lookup.get(slot, PAGE_SIZE));
+
+        Input longer = Input.fromString(input(4 * PAGE_SIZE));
+        lookup.reset(longer);
+        assertTrue(nodes(lookup).isEmpty());
+        lookup.get(slot, longer.length() - 1);
+        assertEquals(set(longer.length() - 1), indices(lookup));
+    }
+
+    private static Set<GSSNode> nodes(GSSNodeLookup lookup) {
+        Set<GSSNode> set = new HashSet<>();
+        for (GSSNode node : lookup.getNodes())
+            assertTrue(set.add(node));
+        return set;
+    }
+
+    private static Set<Integer> indices(GSSNodeLookup lookup) {
+        Set<Integer> set = new HashSet<>();
+        for (GSSNode node : nodes(lookup))
+            set.add(node.getInputIndex());
+        return set;
+    }
+
+    private static Set<Integer> set(Integer... indices) {
+        return new HashSet<>(Arrays.asList(indices));
+    }
+
+    private static String input(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append('a');
+        return sb.toString();
+    }
+
+    private static class CountingCreator implements GSSNodeCreator {
+
+        private final int i;
+
+        GSSNode node;
+
+        int createdCount;
+
+        int foundCount;
+
+        CountingCreator(int i) {
+            this.i = i;
+        }
+
+        @Override
+        public GSSNode create() {
+            return new GSSNode(slot, i);
+        }
+
+        @Override
+        public void created(GSSNode node) {
+            this.node = node;
+            createdCount++;
+        }
+
+        @Override
+        public void found(GSSNode node) {
+            assertSame(this.node == null ? node : this.node, node);
+            foundCount++;
+        }
+    }
+
+}
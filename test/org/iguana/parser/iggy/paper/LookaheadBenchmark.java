@@ -0,0 +1,45 @@
+package org.iguana.parser.iggy.paper;
+
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Start;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.iguana.parser.ParseSuccess;
+import org.iguana.util.Configuration;
+
+import java.io.File;
+
+/**
+ * Parses the paper inputs with 1, 2 and 3 characters of lookahead and prints the statistics,
+ * so that the number of descriptors and GSS nodes of the lookahead counts can be compared.
+ */
+public class LookaheadBenchmark {
+
+    public static void main(String[] args) {
+        Tests tests = new Tests();
+        tests.init();
+        run("XML", Tests.transform(tests.xmlGrammar()), Nonterminal.withName("Start"));
+        run("OCaml", Tests.transform(tests.ocamlGrammar()), Nonterminal.withName("start"));
+        run("Haskell", Tests.transform(tests.haskellGrammar()), Nonterminal.withName("Start"));
+    }
+
+    private static void run(String language, Grammar grammar, Nonterminal startSymbol) {
+        Start start = grammar.getStartSymbol(startSymbol);
+        Input input = Input.fromFile(new File("test/org/iguana/parser/iggy/paper/inputs/" + language + ".txt"));
+
+        for (int k = 1; k <= 3; k++) {
+            GrammarGraph graph = GrammarGraph.from(grammar, input, Configuration.builder().setLookaheadCount(k).build());
+            ParseResult result = Iguana.parse(input, graph, start);
+            if (result.isParseError()) {
+                System.out.println(language + ", lookahead " + k + ": " + result.asParseError());
+                continue;
+            }
+            ParseSuccess success = result.asParseSuccess();
+            System.out.println(language + ", lookahead " + k + ": " + success.getStatistics());
+        }
+    }
+
+}
@@ -194,7 +194,7 @@ public class Tests {
         return Grammar.builder().addRules(rules).setLayout(layout).build();
     }
 
-    private static Grammar transform(Grammar grammar) {
+    static Grammar transform(Grammar grammar) {
         grammar = new InlineRegex().transform(grammar);
 
         DesugarAlignAndOffside alignAndOffside = new DesugarAlignAndOffside();
@@ -0,0 +1,65 @@
+package org.iguana.util;
+
+import org.iguana.util.Configuration.EnvironmentImpl;
+import org.iguana.util.Configuration.LookupImpl;
+import org.iguana.util.Configuration.SchedulingPolicy;
+import org.iguana.util.Configuration.TerminalCacheImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationTest {
+
+    @Test
+    public void testCopyBuilder() {
+        Configuration config = Configuration.builder()
+                                            .setGSSLookupImpl(LookupImpl.PAGED)
+                                            .setLookaheadCount(2)
+                                            .setEnvironmentImpl(EnvironmentImpl.HASH_MAP)
+                                            .setSchedulingPolicy(SchedulingPolicy.INPUT_POSITION)
+                                            .setCompileExpressions(false)
+                                            .setTerminalCacheImpl(TerminalCacheImpl.PAGED)
+                                            .build();
+
+        Configuration copy = config.copyBuilder().setRecognizer(true).build();
+        assertTrue(copy.isRecognizer());
+        assertFalse(config.isRecognizer());
+        assertEquals(LookupImpl.PAGED, copy.getGSSLookupImpl());
+        assertEquals(2, copy.getLookAheadCount());
+        assertEquals(EnvironmentImpl.HASH_MAP, copy.getEnvImpl());
+        assertEquals(SchedulingPolicy.INPUT_POSITION, copy.getSchedulingPolicy());
+        assertFalse(copy.isCompileExpressions());
+        assertEquals(TerminalCacheImpl.PAGED, copy.getTerminalCacheImpl());
+
+        assertEquals(config.toString(), config.copyBuilder().build().toString());
+    }
+
+    @Test
+    public void testWindowedRecognizer() {
+        Configuration config = windowed().setRecognizer(true).build();
+        assertTrue(config.isWindowed());
+        assertTrue(config.isRecognizer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowedRequiresInputPosition() {
+        windowed().setRecognizer(true).setSchedulingPolicy(SchedulingPolicy.LIFO).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowedRequiresRecognizer() {
+        windowed().build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowedRequiresOneThread() {
+        windowed().setRecognizer(true).setThreadCount(2).build();
+    }
+
+    private static Configuration.Builder windowed() {
+        return Configuration.builder().setSchedulingPolicy(SchedulingPolicy.INPUT_POSITION).setWindowed(true);
+    }
+
+}
@@ -0,0 +1,168 @@
+package org.iguana.util;
+
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.parser.ParseResult;
+import org.iguana.parser.RecognitionSuccess;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The parses are replaced by functions of the input, so that the tests control how long
+ * each parse takes and on which worker it runs.
+ */
+public class IguanaRunnerTest {
+
+    private static final Nonterminal S = Nonterminal.withName("S");
+
+    /**
+     * S ::= epsilon, only used to build the grammar graph
+     */
+    private static final Grammar grammar = Grammar.builder().addRule(Rule.withHead(S).build()).build();
+
+    @Test
+    public void testResultsInInputOrder() {
+        List<String> strings = strings(40);
+        Set<Thread> workers = ConcurrentHashMap.newKeySet();
+
+        IguanaRunner runner = runner(IguanaRunner.builder(grammar, S).addStrings(strings).setThreadCount(4), input -> {
+            workers.add(Thread.currentThread());
+            // The later inputs are parsed faster
+            sleep(50 - input.length());
+            return success(input);
+        });
+
+        List<RunResult> results = runner.run();
+        assertTrue(workers.size() > 1);
+        assertEquals(strings.size(), results.size());
+        for (int i = 0; i < strings.size(); i++)
+            assertEquals(Input.fromString(strings.get(i)).length(), results.get(i).asSuccess().inputSize);
+    }
+
+    /**
+     * Each worker parses the first input it picks warmupCount times before it is run.
+     */
+    @Test
+    public void testWarmupOncePerWorker() {
+        Map<Thread, List<Integer>> parses = new ConcurrentHashMap<>();
+
+        IguanaRunner runner = runner(IguanaRunner.builder(grammar, S).addStrings(strings(20)).setThreadCount(4).setWarmupCount(3), input -> {
+            parses.computeIfAbsent(Thread.currentThread(), t -> new ArrayList<>()).add(input.length());
+            sleep(2);
+            return success(input);
+        });
+
+        assertEquals(20, runner.run().size());
+        assertTrue(parses.size() <= 4);
+
+        Set<Integer> parsed = new HashSet<>();
+        int count = 0;
+        for (List<Integer> lengths : parses.values()) {
+            assertEquals(Collections.nCopies(4, lengths.get(0)), lengths.subList(0, 4));
+            for (int length : lengths.subList(3, lengths.size()))
+                assertTrue(parsed.add(length));
+            count += lengths.size();
+        }
+        assertEquals(20, parsed.size());
+        assertEquals(20 + 3 * parses.size(), count);
+    }
+
+    /**
+     * The first input is parsed until it is interrupted, as Iguana.parse does. The worker
+     * then parses the next input without an interrupt pending.
+     */
+    @Test
+    public void testTimeout() {
+        int slow = Input.fromString("aa").length();
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        IguanaRunner runner = runner(IguanaRunner.builder(grammar, S).addStrings(Arrays.asList("aa", "a")).setTimeout(1), input -> {
+            if (input.length() == slow) {
+                parseUntilInterrupted(10);
+            } else {
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+            return success(input);
+        });
+
+        List<RunResult> results = runner.run();
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isFailure());
+        assertEquals("Time out", results.get(0).toString());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(interrupted.get());
+    }
+
+    /**
+     * An alarm that fires after the parse has returned, but before it is disarmed, does not
+     * interrupt the next parse of the worker.
+     */
+    @Test
+    public void testDisarmedAlarm() {
+        IguanaRunner.Alarm alarm = new IguanaRunner.Alarm(Thread.currentThread());
+        alarm.fire();
+        assertTrue(Thread.currentThread().isInterrupted());
+        alarm.disarm();
+        assertFalse(Thread.currentThread().isInterrupted());
+
+        alarm.fire();
+        assertFalse(Thread.interrupted());
+    }
+
+    private static IguanaRunner runner(IguanaRunner.Builder builder, Function<Input, ParseResult> parser) {
+        return new IguanaRunner(builder) {
+            @Override
+            ParseResult parse(GrammarGraph grammarGraph, Input input, Nonterminal start) {
+                return parser.apply(input);
+            }
+        };
+    }
+
+    private static ParseResult success(Input input) {
+        return new RecognitionSuccess(ParseStatistics.builder().build(), input);
+    }
+
+    private static List<String> strings(int count) {
+        List<String> strings = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++)
+            strings.add(sb.append('a').toString());
+        return strings;
+    }
+
+    private static void parseUntilInterrupted(int seconds) {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < end) {
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException("Parsing was interrupted");
+        }
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
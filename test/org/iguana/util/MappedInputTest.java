@@ -0,0 +1,138 @@
+package org.iguana.util;
+
+import iguana.regex.Character;
+import iguana.utils.input.Input;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.parser.Iguana;
+import org.iguana.parser.ParseResult;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedInputTest {
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Input input = MappedInput.fromFile(file(new byte[0]));
+        assertTrue(input instanceof MappedInput);
+        assertEquals(EndOfFile.LENGTH, input.length());
+        assertEquals(EndOfFile.CHAR, input.charAt(0));
+        assertTrue(input.isEndOfFile(0));
+        assertTrue(input.isStartOfLine(0));
+        assertTrue(input.isEndOfLine(0));
+        assertEquals(1, input.getLineNumber(0));
+        assertEquals(1, input.getColumnNumber(0));
+        assertEquals("", input.subString(0, 0));
+    }
+
+    @Test
+    public void testEndOfFile() throws IOException {
+        Input input = MappedInput.fromFile(file("ab"));
+        assertEquals(2 + EndOfFile.LENGTH, input.length());
+        assertEquals('b', input.charAt(1));
+        assertFalse(input.isEndOfFile(1));
+        assertEquals(EndOfFile.CHAR, input.charAt(2));
+        assertTrue(input.isEndOfFile(2));
+        assertTrue(input.isEndOfLine(2));
+        assertEquals(1, input.getLineNumber(2));
+        assertEquals(3, input.getColumnNumber(2));
+
+        // The end of the substring is clamped to the end of the file
+        assertEquals("ab", input.subString(0, input.length()));
+        assertEquals("b", input.subString(1, 2));
+    }
+
+    @Test
+    public void testLineBreaks() throws IOException {
+        // Lines: "a", "b", "", "c", and the empty line after the last '\r'
+        Input input = MappedInput.fromFile(file("a\nb\r\n\rc\r"));
+
+        int[] lines   = { 1, 1, 2, 2, 2, 3, 4, 4, 5 };
+        int[] columns = { 1, 2, 1, 2, 3, 1, 1, 2, 1 };
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals("line at " + i, lines[i], input.getLineNumber(i));
+            assertEquals("column at " + i, columns[i], input.getColumnNumber(i));
+        }
+
+        assertTrue(input.isStartOfLine(0));
+        assertTrue(input.isStartOfLine(2));
+        assertFalse(input.isStartOfLine(4));  // between '\r' and '\n'
+        assertTrue(input.isStartOfLine(5));
+        assertTrue(input.isStartOfLine(6));
+        assertTrue(input.isStartOfLine(8));
+
+        assertTrue(input.isEndOfLine(1));
+        assertTrue(input.isEndOfLine(3));
+        assertTrue(input.isEndOfLine(4));
+        assertFalse(input.isEndOfLine(6));
+        assertTrue(input.isEndOfLine(8));
+    }
+
+    @Test
+    public void testLatin1() throws IOException {
+        byte[] bytes = { 'a', (byte) 0xE9, (byte) 0xFF };
+        Input input = MappedInput.fromFile(file(bytes), StandardCharsets.ISO_8859_1);
+        assertTrue(input instanceof MappedInput);
+        assertEquals(0xE9, input.charAt(1));
+        assertEquals(0xFF, input.charAt(2));
+        assertEquals("a\u00E9\u00FF", input.subString(0, 3));
+    }
+
+    @Test
+    public void testNonAsciiUTF8IsNotMapped() throws IOException {
+        File file = file("a\u00E9".getBytes(StandardCharsets.UTF_8));
+        assertFalse(MappedInput.fromFile(file) instanceof MappedInput);
+        assertFalse(MappedInput.fromFile(file, StandardCharsets.US_ASCII) instanceof MappedInput);
+        assertTrue(MappedInput.fromFile(file, StandardCharsets.ISO_8859_1) instanceof MappedInput);
+    }
+
+    /**
+     * A ::= 'a' A | 'c'
+     */
+    @Test
+    public void testParse() throws IOException {
+        Nonterminal A = Nonterminal.withName("A");
+        Grammar grammar = Grammar.builder().addRule(Rule.withHead(A).addSymbols(Terminal.from(Character.from('a')), A).build())
+                                           .addRule(Rule.withHead(A).addSymbol(Terminal.from(Character.from('c'))).build())
+                                           .build();
+        Input input = MappedInput.fromFile(file("aaaac"));
+        ParseResult result = Iguana.parse(input, GrammarGraph.from(grammar, input), A);
+        ParseResult expected = Iguana.parse(Input.fromString("aaaac"), grammar, A);
+        assertTrue(result.isParseSuccess());
+        assertEquals(expected.asParseSuccess().getStatistics(), result.asParseSuccess().getStatistics());
+        assertEquals(5, result.asParseSuccess().getSPPFNode().getRightExtent());
+
+        input = MappedInput.fromFile(file("aaaa\nc"));
+        result = Iguana.parse(input, GrammarGraph.from(grammar, input), A);
+        expected = Iguana.parse(Input.fromString("aaaa\nc"), grammar, A);
+        assertTrue(result.isParseError());
+        int errorIndex = result.asParseError().inputIndex();
+        assertEquals(expected.asParseError().inputIndex(), errorIndex);
+        assertEquals(4, errorIndex);
+        assertEquals(1, input.getLineNumber(errorIndex));
+        assertEquals(5, input.getColumnNumber(errorIndex));
+    }
+
+    private static File file(String s) throws IOException {
+        return file(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static File file(byte[] bytes) throws IOException {
+        File file = File.createTempFile("MappedInputTest", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+}
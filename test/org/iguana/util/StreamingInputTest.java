@@ -0,0 +1,205 @@
+package org.iguana.util;
+
+import iguana.utils.input.Input;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingInputTest {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final URI uri = URI.create("test");
+
+    @Test
+    public void testChunkBoundary() {
+        String s = repeat('a', CHUNK_SIZE - 1) + "bcd" + repeat('e', CHUNK_SIZE);
+        Input input = new StreamingInput(new StringReader(s), uri);
+        assertEquals('b', input.charAt(CHUNK_SIZE - 1));
+        assertEquals('c', input.charAt(CHUNK_SIZE));
+        assertEquals('d', input.charAt(CHUNK_SIZE + 1));
+        assertEquals("abcde", input.subString(CHUNK_SIZE - 2, CHUNK_SIZE + 3));
+        assertEquals('e', input.charAt(2 * CHUNK_SIZE + 1));
+        assertEquals(EndOfFile.CHAR, input.charAt(2 * CHUNK_SIZE + 2));
+        assertEquals(s.length() + EndOfFile.LENGTH, input.length());
+    }
+
+    @Test
+    public void testReadsOnDemand() {
+        CountingReader reader = new CountingReader(new StringReader(repeat('a', 3 * CHUNK_SIZE)), CHUNK_SIZE);
+        Input input = new StreamingInput(reader, uri);
+        assertEquals('a', input.charAt(0));
+        assertEquals(CHUNK_SIZE, reader.count);
+        assertEquals('a', input.charAt(CHUNK_SIZE - 1));
+        assertEquals(CHUNK_SIZE, reader.count);
+        assertFalse(input.isEndOfFile(CHUNK_SIZE));
+        assertEquals(2 * CHUNK_SIZE, reader.count);
+
+        assertEquals(3 * CHUNK_SIZE + EndOfFile.LENGTH, input.length());
+        assertEquals(3 * CHUNK_SIZE, reader.count);
+        assertTrue(reader.closed);
+    }
+
+    /**
+     * The high surrogate is the last char of the first chunk, and the low surrogate is the
+     * first char of the second one.
+     */
+    @Test
+    public void testSurrogatePairAcrossChunks() {
+        int codePoint = 0x1F600;
+        String s = repeat('a', CHUNK_SIZE - 1) + new String(Character.toChars(codePoint)) + "b";
+        Input input = new StreamingInput(new StringReader(s), uri);
+        assertEquals('a', input.charAt(CHUNK_SIZE - 2));
+        assertEquals(codePoint, input.charAt(CHUNK_SIZE - 1));
+        assertEquals('b', input.charAt(CHUNK_SIZE));
+        assertEquals(CHUNK_SIZE + 1 + EndOfFile.LENGTH, input.length());
+        assertEquals(new String(Character.toChars(codePoint)) + "b", input.subString(CHUNK_SIZE - 1, CHUNK_SIZE + 1));
+        assertEquals(CHUNK_SIZE + 1, input.getColumnNumber(CHUNK_SIZE));
+    }
+
+    @Test
+    public void testLoneSurrogateAtEnd() {
+        String s = "a" + Character.highSurrogate(0x1F600);
+        Input input = new StreamingInput(new StringReader(s), uri);
+        assertEquals(Character.highSurrogate(0x1F600), input.charAt(1));
+        assertEquals(2 + EndOfFile.LENGTH, input.length());
+    }
+
+    /**
+     * '\r' is the last char of the first chunk, and '\n' is the first char of the second one.
+     */
+    @Test
+    public void testCRLFAcrossChunks() {
+        String s = repeat('a', CHUNK_SIZE - 1) + "\r\nb";
+        Input input = new StreamingInput(new StringReader(s), uri);
+        assertEquals(1, input.getLineNumber(CHUNK_SIZE - 1));
+        assertEquals(1, input.getLineNumber(CHUNK_SIZE));
+        assertEquals(CHUNK_SIZE + 1, input.getColumnNumber(CHUNK_SIZE));
+        assertEquals(2, input.getLineNumber(CHUNK_SIZE + 1));
+        assertEquals(1, input.getColumnNumber(CHUNK_SIZE + 1));
+        assertFalse(input.isStartOfLine(CHUNK_SIZE));
+        assertTrue(input.isStartOfLine(CHUNK_SIZE + 1));
+    }
+
+    /**
+     * A '\r' at the end of the first chunk is a line break if the next chunk does not start with '\n'.
+     */
+    @Test
+    public void testCRAtEndOfChunk() {
+        String s = repeat('a', CHUNK_SIZE - 1) + "\rb\r";
+        Input input = new StreamingInput(new StringReader(s), uri);
+        assertEquals(2, input.getLineNumber(CHUNK_SIZE));
+        assertEquals(1, input.getColumnNumber(CHUNK_SIZE));
+        assertTrue(input.isStartOfLine(CHUNK_SIZE));
+
+        // The line after the last '\r' is empty
+        assertEquals(3, input.getLineNumber(CHUNK_SIZE + 2));
+        assertEquals(1, input.getColumnNumber(CHUNK_SIZE + 2));
+    }
+
+    @Test
+    public void testEmpty() {
+        Input input = new StreamingInput(new StringReader(""), uri);
+        assertTrue(input.isEndOfFile(0));
+        assertEquals(EndOfFile.CHAR, input.charAt(0));
+        assertEquals(1, input.getLineNumber(0));
+        assertEquals(1, input.getColumnNumber(0));
+        assertEquals(EndOfFile.LENGTH, input.length());
+    }
+
+    /**
+     * Compares the characters and the line and column numbers with the ones computed from the
+     * string, for readers that return a few chars at a time, so that the chunks end everywhere.
+     */
+    @Test
+    public void testSameAsString() {
+        Random random = new Random(1);
+        String[] pieces = { "a", "b", "\n", "\r", "\r\n", new String(Character.toChars(0x1F600)) };
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 3 * CHUNK_SIZE)
+            sb.append(pieces[random.nextInt(pieces.length)]);
+        String s = sb.toString();
+        int[] codePoints = s.codePoints().toArray();
+        List<int[]> positions = lineAndColumns(codePoints);
+
+        for (int maxRead : new int[] { 1, 3, 1000, CHUNK_SIZE }) {
+            Input input = new StreamingInput(new CountingReader(new StringReader(s), maxRead), uri);
+            for (int i = 0; i <= codePoints.length; i++) {
+                assertEquals(i < codePoints.length ? codePoints[i] : EndOfFile.CHAR, input.charAt(i));
+                assertEquals("line at " + i, positions.get(i)[0], input.getLineNumber(i));
+                assertEquals("column at " + i, positions.get(i)[1], input.getColumnNumber(i));
+            }
+            assertEquals(codePoints.length + EndOfFile.LENGTH, input.length());
+        }
+    }
+
+    /**
+     * The line and column of each index, up to and including the end of file.
+     */
+    private static List<int[]> lineAndColumns(int[] codePoints) {
+        List<int[]> positions = new ArrayList<>();
+        int line = 1, column = 1;
+        for (int i = 0; i <= codePoints.length; i++) {
+            positions.add(new int[] { line, column });
+            if (i == codePoints.length) break;
+            int c = codePoints[i];
+            if (c == '\n' || (c == '\r' && (i + 1 == codePoints.length || codePoints[i + 1] != '\n'))) {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return positions;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++)
+            sb.append(c);
+        return sb.toString();
+    }
+
+    /**
+     * Returns at most maxRead chars per read, and counts the chars read.
+     */
+    private static class CountingReader extends Reader {
+
+        private final Reader reader;
+
+        private final int maxRead;
+
+        int count;
+
+        boolean closed;
+
+        CountingReader(Reader reader, int maxRead) {
+            this.reader = reader;
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = reader.read(buffer, offset, Math.min(length, maxRead));
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            reader.close();
+        }
+    }
+
+}